@@ -22,6 +22,8 @@ import io.swagger.v3.oas.annotations.tags.Tag;
     ),
     tags = {
         @Tag(name = "submission", description = "Sending and retrieving submission"),
+        @Tag(name = "recheck", description = "Re-checking all submissions of an assignment"),
+        @Tag(name = "notification", description = "Receiving change events from the student management system"),
     }
 )
 @SecurityScheme(
@@ -6,6 +6,8 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.web.SecurityFilterChain;
 
+import net.ssehub.teaching.exercise_submission.service.auth.CachingJwtDecoder;
+
 /**
  * Configuration for spring security.
  * 
@@ -14,11 +16,12 @@ import org.springframework.security.web.SecurityFilterChain;
 @Configuration
 @EnableWebSecurity
 public class HttpSecurityConfig {
-
+    
     /**
      * Configures the filter-chain for spring security.
      * 
      * @param http The {@link HttpSecurity} provided by spring security.
+     * @param jwtDecoder The decoder for the JWTs that authenticate requests.
      * 
      * @return The filter-chain created via the http parameter.
      * 
@@ -26,14 +29,14 @@ public class HttpSecurityConfig {
      */
     @Bean
     // checkstyle: stop exception type check
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, CachingJwtDecoder jwtDecoder) throws Exception {
     // checkstyle: resume exception type check
         http
             .authorizeHttpRequests(authz -> authz
                 .requestMatchers("/actuator", "/actuator/**").permitAll()
                 .requestMatchers("/v3/api-docs", "/v3/api-docs/**", "/swagger-ui.html", "/swagger-ui/**").permitAll()
                 .requestMatchers("/**").authenticated())
-            .oauth2ResourceServer(oauth2 -> oauth2.jwt());
+            .oauth2ResourceServer(oauth2 -> oauth2.jwt().decoder(jwtDecoder));
         
         return http.build();
     }
@@ -0,0 +1,58 @@
+package net.ssehub.teaching.exercise_submission.service;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import net.ssehub.teaching.exercise_submission.service.routes.RateLimitInterceptor;
+import net.ssehub.teaching.exercise_submission.service.routes.UploadAdmissionInterceptor;
+import net.ssehub.teaching.exercise_submission.service.routes.UploadSizeLimitFilter;
+
+/**
+ * Configuration for spring web MVC.
+ * 
+ * @author Adam
+ */
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+    
+    private RateLimitInterceptor rateLimitInterceptor;
+    
+    private UploadAdmissionInterceptor uploadAdmissionInterceptor;
+    
+    /**
+     * Creates this configuration.
+     * 
+     * @param rateLimitInterceptor The interceptor that rate-limits submissions.
+     * @param uploadAdmissionInterceptor The interceptor that limits the memory of uploads.
+     */
+    public WebMvcConfig(RateLimitInterceptor rateLimitInterceptor,
+            UploadAdmissionInterceptor uploadAdmissionInterceptor) {
+        this.rateLimitInterceptor = rateLimitInterceptor;
+        this.uploadAdmissionInterceptor = uploadAdmissionInterceptor;
+    }
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // rate limit first, so that rejected requests do not wait for the memory budget
+        registry.addInterceptor(rateLimitInterceptor).addPathPatterns("/submission/**");
+        registry.addInterceptor(uploadAdmissionInterceptor).addPathPatterns("/submission/**");
+    }
+    
+    /**
+     * Registers the {@link UploadSizeLimitFilter} for the same routes as the {@link UploadAdmissionInterceptor}.
+     * 
+     * @param filter The filter.
+     * 
+     * @return The registration of the filter.
+     */
+    @Bean
+    public FilterRegistrationBean<UploadSizeLimitFilter> uploadSizeLimitRegistration(UploadSizeLimitFilter filter) {
+        FilterRegistrationBean<UploadSizeLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/submission/*");
+        return registration;
+    }
+    
+}
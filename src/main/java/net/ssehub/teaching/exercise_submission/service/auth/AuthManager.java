@@ -1,19 +1,34 @@
 package net.ssehub.teaching.exercise_submission.service.auth;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.stereotype.Component;
 
+import net.ssehub.teaching.exercise_submission.service.auth.AuthorizationIndex.Permissions;
+import net.ssehub.teaching.exercise_submission.service.dto.AccessibleAssignmentDto;
 import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Assignment;
 import net.ssehub.teaching.exercise_submission.service.stu_mgmt.AssignmentState;
-import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Group;
-import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Participant;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Course;
 import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Role;
 import net.ssehub.teaching.exercise_submission.service.stu_mgmt.StuMgmtView;
 import net.ssehub.teaching.exercise_submission.service.submission.SubmissionTarget;
 
 /**
  * Checks if a given user is authorized to do certain operations.
+ * <p>
+ * The rules are evaluated once per version of a course into an {@link AuthorizationIndex}, so that checking a request
+ * is a lookup. The index is built when the {@link StuMgmtView} notifies about a loaded or changed course; requests
+ * only build it if the view returns a course that was not indexed yet. Along with the indices, the courses of each
+ * user are tracked, so that listing the accessible assignments of a user only looks at the courses of the user.
  * 
  * @author Adam
  */
@@ -24,13 +39,23 @@ public class AuthManager {
     
     private StuMgmtView stuMgmtView;
     
+    private Map<String, AuthorizationIndex> indices;
+    
+    private Map<String, Set<String>> coursesByUser;
+    
     /**
-     * Creates an {@link AuthManager}.
+     * Creates an {@link AuthManager}, registers it as a listener of the given view, and indexes the courses that the
+     * view already cached.
      * 
      * @param stuMgmtView The view on the student management system to get permissions from.
      */
     public AuthManager(StuMgmtView stuMgmtView) {
         this.stuMgmtView = stuMgmtView;
+        this.indices = new ConcurrentHashMap<>();
+        this.coursesByUser = new ConcurrentHashMap<>();
+        
+        stuMgmtView.addListener(this::index);
+        stuMgmtView.getCachedCourses().forEach(this::index);
     }
     
     /**
@@ -65,59 +90,94 @@ public class AuthManager {
     }
     
     /**
-     * Checks if the given participant is allowed to access (submit or replay) the given target group in the given
-     * assignment. This depends on the collaboration type and the participants role.
+     * Returns the {@link AuthorizationIndex} of the current version of the given course. The index is rebuilt when
+     * the {@link StuMgmtView} returns a different {@link Course} instance, i.e. when the course changed.
      * 
-     * @param participant The participant that tries to access the target group.
-     * @param assignment The assignment that the participant tries to access.
-     * @param targetGroupName The name of the group that the participant is trying to access.
+     * @param courseId The ID of the course.
      * 
-     * @return Whether this access is allowed.
+     * @return The index; <code>null</code> if the course does not exist.
      */
-    static boolean participantCanAccessGroup(Participant participant, Assignment assignment, String targetGroupName) {
-        boolean allowed;
-        boolean isTutor = participant.role() == Role.LECTURER || participant.role() == Role.TUTOR;
+    private AuthorizationIndex getIndex(String courseId) {
+        Course course = stuMgmtView.getCourse(courseId).orElse(null);
         
-        if (isTutor) {
-            allowed = true;
+        AuthorizationIndex index = null;
+        if (course == null) {
+            indices.computeIfPresent(courseId, (id, existing) -> {
+                updateCoursesByUser(id, existing, null);
+                return null;
+            });
         } else {
-            
-            switch (assignment.collaboration()) {
-            case SINGLE:
-                allowed = targetGroupName.equals(participant.name());
-                break;
-                
-            case GROUP: {
-                Group group = assignment.groupsByNames().get(targetGroupName);
-                if (group != null) {
-                    allowed = group.participantsByName().containsKey(participant.name());
-                } else {
-                    allowed = false;
-                }
-                break;
+            index = indices.get(courseId);
+            if (index == null || index.getCourse() != course) {
+                index = index(course);
             }
-            
-            case GROUP_OR_SINGLE: {
-                Group group = assignment.groupsByNames().get(targetGroupName);
-                if (targetGroupName.equals(participant.name())) {
-                    allowed = true;
-                } else if (group != null) {
-                    allowed = group.participantsByName().containsKey(participant.name());
-                } else {
-                    allowed = false;
-                }
-                break;
+        }
+        return index;
+    }
+    
+    /**
+     * Builds the {@link AuthorizationIndex} of the given course, unless it is already indexed, and updates the courses
+     * of the participants.
+     * 
+     * @param course The course.
+     * 
+     * @return The index of the course.
+     */
+    private AuthorizationIndex index(Course course) {
+        return indices.compute(course.id(), (id, existing) -> {
+            AuthorizationIndex result = existing;
+            if (existing == null || existing.getCourse() != course) {
+                result = new AuthorizationIndex(course);
+                updateCoursesByUser(id, existing, result);
             }
-            
-            default:
-                allowed = false; // be safe here
-                break;
+            return result;
+        });
+    }
+    
+    /**
+     * Updates the courses of the users that joined or left a course. Called while the index of the course is
+     * replaced, so that updates of the same course do not interleave.
+     * 
+     * @param courseId The ID of the course.
+     * @param previous The previous index of the course; may be <code>null</code>.
+     * @param current The new index of the course; <code>null</code> if the course was removed.
+     */
+    private void updateCoursesByUser(String courseId, AuthorizationIndex previous, AuthorizationIndex current) {
+        Set<String> before = previous != null ? previous.getUsernames() : Set.of();
+        Set<String> after = current != null ? current.getUsernames() : Set.of();
+        
+        for (String username : after) {
+            if (!before.contains(username)) {
+                coursesByUser.computeIfAbsent(username, name -> ConcurrentHashMap.newKeySet()).add(courseId);
+            }
+        }
+        for (String username : before) {
+            if (!after.contains(username)) {
+                coursesByUser.computeIfPresent(username, (name, courses) -> {
+                    courses.remove(courseId);
+                    return courses.isEmpty() ? null : courses;
+                });
             }
         }
-        
-        return allowed;
     }
-
+    
+    /**
+     * Looks up the permissions of a user for a target.
+     * 
+     * @param index The index of the course of the target; may be <code>null</code> if the course does not exist.
+     * @param target The target that the user wants to access.
+     * @param username The name of the user.
+     * 
+     * @return The permissions; <code>null</code> if the user may not access the group of the target at all.
+     */
+    private static Permissions getPermissions(AuthorizationIndex index, SubmissionTarget target, String username) {
+        Permissions permissions = index != null ? index.getPermissions(username, target.assignmentName()) : null;
+        if (permissions != null && !permissions.canAccess(target.groupName())) {
+            permissions = null;
+        }
+        return permissions;
+    }
+    
     /**
      * Checks if the given user is allowed to submit a new version.
      * 
@@ -127,37 +187,14 @@ public class AuthManager {
      * @return Whether the user is allowed to do this operation.
      */
     public boolean isSubmissionAllowed(SubmissionTarget target, String username) {
-        return stuMgmtView.getCourse(target.course()).map(course -> {
-            Participant participant = course.participantsByName().get(username);
-            Assignment assignment = course.assignmentsByName().get(target.assignmentName());
-            
-            boolean allowed;
-            if (participant == null) {
-                LOGGER.info("Participant " + username + " does not exist in course");
-                allowed = false;
-            } else  if (assignment == null) {
-                LOGGER.info("Assignment " + target.assignmentName() + " does not exist");
-                allowed = false;
-                
-            } else if (!participantCanAccessGroup(participant, assignment, target.groupName())) {
-                LOGGER.info("Participant " + username + " is not allowed to access group " + target.groupName());
-                allowed = false;
-                
-            } else if (!roleCanSubmitToAssignmentState(assignment.state(), participant.role())) {
-                LOGGER.info("Assignment state " + assignment.state() + " does not allow submission by role "
-                        + participant.role());
-                allowed = false;
-                
-            } else {
-                allowed = true;
-            }
-            
-            return allowed;
-            
-        }).orElseGet(() -> {
-            LOGGER.info("Course " + target.course() + " does not exist");
-            return false;
-        });
+        AuthorizationIndex index = getIndex(target.course());
+        Permissions permissions = getPermissions(index, target, username);
+        boolean allowed = permissions != null && permissions.submit();
+        if (!allowed) {
+            LOGGER.info("Submission of " + username + " to " + target + " denied: "
+                    + getDenialReason(index, target, username, "submission"));
+        }
+        return allowed;
     }
     
     /**
@@ -169,37 +206,128 @@ public class AuthManager {
      * @return Whether the user is allowed to do this operation.
      */
     public boolean isReplayAllowed(SubmissionTarget target, String username) {
-        return stuMgmtView.getCourse(target.course()).map(course -> {
-            Participant participant = course.participantsByName().get(username);
-            Assignment assignment = course.assignmentsByName().get(target.assignmentName());
+        AuthorizationIndex index = getIndex(target.course());
+        Permissions permissions = getPermissions(index, target, username);
+        boolean allowed = permissions != null && permissions.replay();
+        if (!allowed) {
+            LOGGER.info("Replay of " + target + " by " + username + " denied: "
+                    + getDenialReason(index, target, username, "replay"));
+        }
+        return allowed;
+    }
+    
+    /**
+     * Describes why an operation on a target was denied. Only called for denied operations, so this may do more
+     * lookups than the decision itself.
+     * 
+     * @param index The index of the course of the target; may be <code>null</code> if the course does not exist.
+     * @param target The target that the user wanted to access.
+     * @param username The name of the user.
+     * @param operation The name of the denied operation, e.g. <code>submission</code>.
+     * 
+     * @return The reason, for logging.
+     */
+    private static String getDenialReason(AuthorizationIndex index, SubmissionTarget target, String username,
+            String operation) {
+        
+        String reason;
+        if (index == null) {
+            reason = "Course " + target.course() + " does not exist";
             
-            boolean allowed;
-            if (participant == null) {
-                LOGGER.info("Participant " + username + " does not exist in course");
-                allowed = false;
-            } else  if (assignment == null) {
-                LOGGER.info("Assignment " + target.assignmentName() + " does not exist");
-                allowed = false;
-                
-            } else if (!participantCanAccessGroup(participant, assignment, target.groupName())) {
-                LOGGER.info("Participant " + username + " is not allowed to access group " + target.groupName());
-                allowed = false;
-                
-            } else if (!roleCanReplayAssignmentState(assignment.state(), participant.role())) {
-                LOGGER.info("Assignment state " + assignment.state() + " does not allow replay by role "
-                        + participant.role());
-                allowed = false;
-                
-            } else {
-                allowed = true;
-            }
+        } else if (index.getRole(username) == null) {
+            reason = "Participant " + username + " does not exist in course";
             
-            return allowed;
+        } else if (index.getPermissions(username, target.assignmentName()) == null) {
+            reason = "Assignment " + target.assignmentName() + " does not exist";
             
-        }).orElseGet(() -> {
-            LOGGER.info("Course " + target.course() + " does not exist");
-            return false;
-        });
+        } else if (getPermissions(index, target, username) == null) {
+            reason = "Participant " + username + " is not allowed to access group " + target.groupName();
+            
+        } else {
+            reason = "Assignment state "
+                    + index.getCourse().assignmentsByName().get(target.assignmentName()).state()
+                    + " does not allow " + operation + " by role " + index.getRole(username);
+        }
+        return reason;
+    }
+    
+    /**
+     * Retrieves the role of the given user in the given course.
+     * 
+     * @param courseId The ID of the course.
+     * @param username The name of the user.
+     * 
+     * @return The role of the user; empty if the course does not exist or the user is not a participant of it.
+     */
+    public Optional<Role> getRole(String courseId, String username) {
+        AuthorizationIndex index = getIndex(courseId);
+        return Optional.ofNullable(index != null ? index.getRole(username) : null);
+    }
+    
+    /**
+     * Retrieves the role of the given user in the given course, only from the courses that are already indexed. Unlike
+     * {@link #getRole(String, String)}, this never loads the course from the {@link StuMgmtView}, so it is cheap
+     * enough to be called before a request is authorized. The index may be slightly outdated.
+     * 
+     * @param courseId The ID of the course.
+     * @param username The name of the user.
+     * 
+     * @return The role of the user; empty if the course is not indexed or the user is not a participant of it.
+     */
+    public Optional<Role> getCachedRole(String courseId, String username) {
+        AuthorizationIndex index = indices.get(courseId);
+        return Optional.ofNullable(index != null ? index.getRole(username) : null);
+    }
+    
+    /**
+     * Lists all assignments that the given user can submit to or replay, with the groups that the user can access.
+     * 
+     * @param username The name of the user.
+     * @param courseIds The courses to look in. If empty, the indexed courses that the user participates in are
+     *      used. Callers should limit the number of given courses, as each unknown course is loaded from the
+     *      {@link StuMgmtView}.
+     * 
+     * @return The accessible assignments, sorted by course and assignment name.
+     */
+    public List<AccessibleAssignmentDto> getAccessibleAssignments(String username, Collection<String> courseIds) {
+        Collection<String> courses = courseIds.isEmpty()
+                ? List.copyOf(coursesByUser.getOrDefault(username, Set.of())) : courseIds;
+        
+        List<AccessibleAssignmentDto> result = new ArrayList<>();
+        for (String courseId : courses) {
+            AuthorizationIndex index = getIndex(courseId);
+            if (index != null) {
+                index.getPermissions(username).forEach((assignmentName, permissions) -> {
+                    Assignment assignment = index.getCourse().assignmentsByName().get(assignmentName);
+                    List<String> groups = (permissions.anyGroup()
+                            ? assignment.groupsByNames().keySet() : permissions.groups())
+                            .stream().sorted().toList();
+                    
+                    boolean accessible = permissions.submit() || permissions.replay();
+                    if (accessible && (permissions.anyGroup() || !groups.isEmpty())) {
+                        result.add(new AccessibleAssignmentDto(courseId, assignmentName, assignment.state(), groups,
+                                permissions.anyGroup(), permissions.submit(), permissions.replay()));
+                    }
+                });
+            }
+        }
+        
+        result.sort(Comparator.comparing(AccessibleAssignmentDto::course)
+                .thenComparing(AccessibleAssignmentDto::assignment));
+        return result;
+    }
+    
+    /**
+     * Checks if the given user is allowed to administrate the given course, e.g. to re-check all submissions of an
+     * assignment. Only lecturers are allowed to do this.
+     * 
+     * @param courseId The ID of the course.
+     * @param username The name of the user.
+     * 
+     * @return Whether the user is allowed to administrate the course.
+     */
+    public boolean isAdministrationAllowed(String courseId, String username) {
+        return getRole(courseId, username).filter(role -> role == Role.LECTURER).isPresent();
     }
     
 }
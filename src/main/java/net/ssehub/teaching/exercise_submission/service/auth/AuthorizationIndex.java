@@ -0,0 +1,192 @@
+package net.ssehub.teaching.exercise_submission.service.auth;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Assignment;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Collaboration;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Course;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Participant;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Role;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.StuMgmtView;
+
+/**
+ * An immutable index of the permissions of all participants of a {@link Course}. Built once for each version of a
+ * course (see {@link AuthManager}), so that authorization decisions are map lookups instead of evaluating the group
+ * and role rules for every request. The index is usually built when the {@link StuMgmtView} loads or changes the
+ * course, i.e. not on a request thread.
+ * 
+ * @author Adam
+ */
+class AuthorizationIndex {
+    
+    /**
+     * The permissions of a participant in an assignment.
+     * 
+     * @param submit Whether the participant may submit to the accessible groups.
+     * @param replay Whether the participant may replay the accessible groups.
+     * @param anyGroup Whether the participant may access all groups (tutors and lecturers).
+     * @param groups The names of the groups that the participant may access, if not <code>anyGroup</code>.
+     */
+    record Permissions(boolean submit, boolean replay, boolean anyGroup, Set<String> groups) {
+        
+        /**
+         * Returns whether the given group is accessible.
+         * 
+         * @param groupName The name of the group.
+         * 
+         * @return Whether the participant may access the group.
+         */
+        boolean canAccess(String groupName) {
+            return anyGroup || groups.contains(groupName);
+        }
+        
+    }
+    
+    private Course course;
+    
+    private Map<String, Role> roles;
+    
+    private Map<String, Map<String, Permissions>> permissions;
+    
+    /**
+     * Builds the index for the given course. The group memberships of each assignment are inverted once (see
+     * {@link #groupsByMember(Assignment)}), so that building takes time linear in the number of participants,
+     * assignments, and memberships.
+     * 
+     * @param course The course.
+     */
+    AuthorizationIndex(Course course) {
+        this.course = course;
+        
+        Map<String, Role> roles = new HashMap<>();
+        Map<String, Map<String, Permissions>> permissions = new HashMap<>();
+        for (Participant participant : course.participantsByName().values()) {
+            roles.put(participant.name(), participant.role());
+            permissions.put(participant.name(), new HashMap<>());
+        }
+        
+        for (Assignment assignment : course.assignmentsByName().values()) {
+            Map<String, Set<String>> groupsByMember = groupsByMember(assignment);
+            for (Participant participant : course.participantsByName().values()) {
+                permissions.get(participant.name()).put(assignment.name(), computePermissions(participant, assignment,
+                        groupsByMember.getOrDefault(participant.name(), Set.of())));
+            }
+        }
+        
+        this.roles = Map.copyOf(roles);
+        permissions.replaceAll((username, byAssignment) -> Map.copyOf(byAssignment));
+        this.permissions = Map.copyOf(permissions);
+    }
+    
+    /**
+     * Collects the groups of each member of an assignment. Only the groups of assignments with group collaboration
+     * grant access (see {@link #computePermissions(Participant, Assignment, Set)}).
+     * 
+     * @param assignment The assignment.
+     * 
+     * @return The names of the groups of each member, by participant name.
+     */
+    private static Map<String, Set<String>> groupsByMember(Assignment assignment) {
+        Map<String, Set<String>> result = new HashMap<>();
+        if (assignment.collaboration() == Collaboration.GROUP
+                || assignment.collaboration() == Collaboration.GROUP_OR_SINGLE) {
+            
+            assignment.groupsByNames().forEach((groupName, group) -> {
+                for (String member : group.participantsByName().keySet()) {
+                    result.computeIfAbsent(member, name -> new HashSet<>()).add(groupName);
+                }
+            });
+        }
+        return result;
+    }
+    
+    /**
+     * Evaluates the role rules of {@link AuthManager} and the group rules for a participant and an assignment. This
+     * is the only place where the group rules are implemented.
+     * 
+     * @param participant The participant.
+     * @param assignment The assignment.
+     * @param memberGroups The groups of the assignment that the participant is a member of.
+     * 
+     * @return The permissions of the participant in the assignment.
+     */
+    private static Permissions computePermissions(Participant participant, Assignment assignment,
+            Set<String> memberGroups) {
+        
+        boolean submit = AuthManager.roleCanSubmitToAssignmentState(assignment.state(), participant.role());
+        boolean replay = AuthManager.roleCanReplayAssignmentState(assignment.state(), participant.role());
+        
+        // tutors may access every group name, students their own name in single assignments and the groups they are
+        // a member of in group assignments
+        boolean anyGroup = participant.role() == Role.LECTURER || participant.role() == Role.TUTOR;
+        
+        Set<String> groups = Set.of();
+        if (!anyGroup) {
+            groups = new HashSet<>(memberGroups);
+            if (assignment.collaboration() == Collaboration.SINGLE
+                    || assignment.collaboration() == Collaboration.GROUP_OR_SINGLE) {
+                groups.add(participant.name());
+            }
+        }
+        
+        return new Permissions(submit, replay, anyGroup, Set.copyOf(groups));
+    }
+    
+    /**
+     * Returns the course that this index was built for.
+     * 
+     * @return The course.
+     */
+    Course getCourse() {
+        return course;
+    }
+    
+    /**
+     * Returns the names of all participants of the course.
+     * 
+     * @return The usernames.
+     */
+    Set<String> getUsernames() {
+        return roles.keySet();
+    }
+    
+    /**
+     * Returns the role of a user in the course.
+     * 
+     * @param username The name of the user.
+     * 
+     * @return The role; <code>null</code> if the user is not a participant of the course.
+     */
+    Role getRole(String username) {
+        return roles.get(username);
+    }
+    
+    /**
+     * Returns the permissions of a user in an assignment.
+     * 
+     * @param username The name of the user.
+     * @param assignmentName The name of the assignment.
+     * 
+     * @return The permissions; <code>null</code> if the user is not a participant of the course or the assignment
+     *      does not exist.
+     */
+    Permissions getPermissions(String username, String assignmentName) {
+        Map<String, Permissions> byAssignment = permissions.get(username);
+        return byAssignment != null ? byAssignment.get(assignmentName) : null;
+    }
+    
+    /**
+     * Returns the permissions of a user in all assignments of the course.
+     * 
+     * @param username The name of the user.
+     * 
+     * @return The permissions by assignment name; empty if the user is not a participant of the course.
+     */
+    Map<String, Permissions> getPermissions(String username) {
+        return permissions.getOrDefault(username, Map.of());
+    }
+    
+}
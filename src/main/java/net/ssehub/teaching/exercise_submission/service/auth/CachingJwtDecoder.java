@@ -0,0 +1,146 @@
+package net.ssehub.teaching.exercise_submission.service.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.stereotype.Component;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+
+import net.ssehub.teaching.exercise_submission.service.util.HashUtils;
+
+/**
+ * Decodes and verifies the JWTs that authenticate requests. Replaces the decoder that spring security would create
+ * for the issuer:
+ * <ul>
+ * <li>Signatures are verified with the locally cached key set of the {@link JwkSetCache}, so that neither start-up nor
+ * requests wait for the issuer.</li>
+ * <li>Successfully verified tokens are remembered by their SHA-256 hash until they expire. Clients send the same
+ * token with every request, so most requests skip parsing and signature verification entirely.</li>
+ * </ul>
+ * 
+ * @author Adam
+ */
+@Component
+public class CachingJwtDecoder implements JwtDecoder {
+    
+    private static final Set<JWSAlgorithm> ALGORITHMS = Set.of(
+            JWSAlgorithm.RS256, JWSAlgorithm.RS384, JWSAlgorithm.RS512,
+            JWSAlgorithm.PS256, JWSAlgorithm.PS384, JWSAlgorithm.PS512,
+            JWSAlgorithm.ES256, JWSAlgorithm.ES384, JWSAlgorithm.ES512);
+    
+    private JwtDecoder delegate;
+    
+    private int maxCachedTokens;
+    
+    private Map<String, Jwt> verifiedTokens;
+    
+    /**
+     * Creates a new {@link CachingJwtDecoder} that verifies tokens with the given key set.
+     * 
+     * @param keys The key set to verify signatures with.
+     * @param issuerUri The URI of the issuer; tokens must have this issuer.
+     * @param maxCachedTokens The maximum number of verified tokens to remember.
+     */
+    @Autowired
+    public CachingJwtDecoder(
+            JwkSetCache keys,
+            @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String issuerUri,
+            @Value("${auth.token-cache.max-size:10000}") int maxCachedTokens) {
+        
+        this(createNimbusDecoder(keys, issuerUri), maxCachedTokens);
+    }
+    
+    /**
+     * Creates a new {@link CachingJwtDecoder} that verifies tokens with the given decoder.
+     * 
+     * @param delegate The decoder that verifies tokens that are not cached.
+     * @param maxCachedTokens The maximum number of verified tokens to remember.
+     */
+    CachingJwtDecoder(JwtDecoder delegate, int maxCachedTokens) {
+        this.delegate = delegate;
+        this.maxCachedTokens = maxCachedTokens;
+        this.verifiedTokens = new ConcurrentHashMap<>();
+    }
+    
+    /**
+     * Creates the decoder that verifies tokens with the given key set and the default validators of spring security.
+     * 
+     * @param keys The key set.
+     * @param issuerUri The expected issuer of tokens.
+     * 
+     * @return The decoder.
+     */
+    private static JwtDecoder createNimbusDecoder(JwkSetCache keys, String issuerUri) {
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(ALGORITHMS, keys));
+        // claims are validated by the spring security validators below, like in the default decoder
+        processor.setJWTClaimsSetVerifier((claims, context) -> { });
+        
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(processor);
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuerUri));
+        return decoder;
+    }
+    
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String hash = HashUtils.sha256(token.getBytes(StandardCharsets.UTF_8));
+        Instant now = Instant.now();
+        
+        Jwt result = verifiedTokens.get(hash);
+        if (result == null || !isValidAt(result, now)) {
+            if (result != null) {
+                verifiedTokens.remove(hash, result);
+            }
+            
+            result = delegate.decode(token);
+            if (isValidAt(result, now)) {
+                remember(hash, result, now);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Checks whether a verified token has not expired yet. Tokens without expiry are never remembered.
+     * 
+     * @param jwt The token.
+     * @param now The current time.
+     * 
+     * @return Whether the token is still valid.
+     */
+    private static boolean isValidAt(Jwt jwt, Instant now) {
+        return jwt.getExpiresAt() != null && now.isBefore(jwt.getExpiresAt());
+    }
+    
+    /**
+     * Remembers a verified token. Expired tokens are removed once the maximum number is reached; if all remembered
+     * tokens are still valid, the new token is not remembered.
+     * 
+     * @param hash The hash of the encoded token.
+     * @param jwt The verified token.
+     * @param now The current time.
+     */
+    private void remember(String hash, Jwt jwt, Instant now) {
+        if (verifiedTokens.size() >= maxCachedTokens) {
+            verifiedTokens.values().removeIf(cached -> !isValidAt(cached, now));
+        }
+        if (verifiedTokens.size() < maxCachedTokens) {
+            verifiedTokens.put(hash, jwt);
+        }
+    }
+    
+}
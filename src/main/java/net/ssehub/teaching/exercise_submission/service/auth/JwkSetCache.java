@@ -0,0 +1,275 @@
+package net.ssehub.teaching.exercise_submission.service.auth;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * A local copy of the JSON web key set of the OpenID Connect issuer, used to verify the signatures of JWTs.
+ * <p>
+ * The key set is refreshed in the background periodically, so that verifying a token never waits for the issuer.
+ * Only if a token is signed with an unknown key (i.e. the issuer rotated its keys), a refresh is started immediately
+ * in the background; this happens at most once in a short interval, so that tokens with bogus key IDs cannot flood the
+ * issuer. The request that saw the unknown key waits only briefly for the refresh and is rejected if the issuer is
+ * slower, so that a slow issuer does not block request threads. The key set is also stored in a file and read from
+ * it on start-up, so that tokens can be verified right away, even if the issuer is not reachable.
+ * 
+ * @author Adam
+ */
+@Component
+public class JwkSetCache implements JWKSource<SecurityContext> {
+    
+    private static final Log LOGGER = LogFactory.getLog(JwkSetCache.class);
+    
+    private static final long MIN_UNKNOWN_KEY_REFRESH_NANOS = Duration.ofSeconds(30).toNanos();
+    
+    private String issuerUri;
+    
+    private Path cacheFile;
+    
+    private Duration refreshInterval;
+    
+    private Duration timeout;
+    
+    private Duration unknownKeyWait;
+    
+    private HttpClient httpClient;
+    
+    private ObjectMapper objectMapper;
+    
+    private volatile JWKSet keys;
+    
+    private URI jwksUri;
+    
+    private AtomicLong lastUnknownKeyRefresh;
+    
+    private volatile Future<?> unknownKeyRefresh;
+    
+    private ScheduledExecutorService refreshExecutor;
+    
+    /**
+     * Creates a new {@link JwkSetCache}.
+     * 
+     * @param issuerUri The URI of the OpenID Connect issuer. The location of the key set is read from its
+     *      <code>/.well-known/openid-configuration</code>.
+     * @param cacheFile The file to store the key set in. <code>null</code> to not store the key set.
+     * @param refreshInterval The interval in which the key set is refreshed in the background.
+     * @param timeout The timeout for connecting and for each request to the issuer.
+     * @param unknownKeyWait How long a request with a token signed by an unknown key waits for the refresh of the
+     *      key set.
+     */
+    public JwkSetCache(
+            @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String issuerUri,
+            @Value("${auth.jwks.cache-location:${state.location}/jwks.json}") Path cacheFile,
+            @Value("${auth.jwks.refresh-interval:15m}") Duration refreshInterval,
+            @Value("${auth.jwks.timeout:5s}") Duration timeout,
+            @Value("${auth.jwks.unknown-key-wait:500ms}") Duration unknownKeyWait) {
+        
+        this.issuerUri = issuerUri.endsWith("/") ? issuerUri.substring(0, issuerUri.length() - 1) : issuerUri;
+        this.cacheFile = cacheFile;
+        this.refreshInterval = refreshInterval;
+        this.timeout = timeout;
+        this.unknownKeyWait = unknownKeyWait;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .build();
+        this.objectMapper = new ObjectMapper();
+        this.keys = new JWKSet();
+        this.lastUnknownKeyRefresh = new AtomicLong(System.nanoTime() - MIN_UNKNOWN_KEY_REFRESH_NANOS);
+        this.unknownKeyRefresh = CompletableFuture.completedFuture(null);
+        this.refreshExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwks-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Reads the stored key set, if it exists, and starts refreshing the key set in the background.
+     */
+    @PostConstruct
+    public void start() {
+        if (cacheFile != null && Files.isRegularFile(cacheFile)) {
+            try {
+                keys = JWKSet.parse(Files.readString(cacheFile, StandardCharsets.UTF_8));
+                LOGGER.info("Read " + keys.getKeys().size() + " keys from " + cacheFile);
+                
+            } catch (IOException | ParseException e) {
+                LOGGER.warn("Could not read stored key set " + cacheFile, e);
+            }
+        }
+        
+        refreshExecutor.scheduleWithFixedDelay(this::refresh, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Stops the background refreshes.
+     */
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+    
+    @Override
+    public List<JWK> get(JWKSelector selector, SecurityContext context) {
+        List<JWK> result = selector.select(keys);
+        if (result.isEmpty() && refreshForUnknownKey()) {
+            result = selector.select(keys);
+        }
+        return result;
+    }
+    
+    /**
+     * Starts a background refresh of the key set because a token is signed with an unknown key, unless this was
+     * already done very recently, and waits briefly for the latest such refresh.
+     * 
+     * @return Whether the latest refresh finished in time, i.e. whether the key set should be searched again.
+     */
+    private boolean refreshForUnknownKey() {
+        long last = lastUnknownKeyRefresh.get();
+        long now = System.nanoTime();
+        if (now - last >= MIN_UNKNOWN_KEY_REFRESH_NANOS && lastUnknownKeyRefresh.compareAndSet(last, now)) {
+            LOGGER.info("Token signed with unknown key, refreshing key set");
+            try {
+                unknownKeyRefresh = refreshExecutor.submit(this::refresh);
+            } catch (RejectedExecutionException e) {
+                LOGGER.debug("Not refreshing key set, shutting down", e);
+            }
+        }
+        
+        boolean refreshed;
+        try {
+            unknownKeyRefresh.get(unknownKeyWait.toMillis(), TimeUnit.MILLISECONDS);
+            refreshed = true;
+            
+        } catch (TimeoutException e) {
+            LOGGER.info("Key set not refreshed within " + unknownKeyWait.toMillis() + " ms, rejecting token");
+            refreshed = false;
+            
+        } catch (ExecutionException e) {
+            refreshed = false;
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            refreshed = false;
+        }
+        return refreshed;
+    }
+    
+    /**
+     * Loads the key set from the issuer and stores it. If loading fails, the previous key set is kept.
+     */
+    public synchronized void refresh() {
+        try {
+            if (jwksUri == null) {
+                Map<String, Object> configuration = objectMapper.readValue(
+                        get(URI.create(issuerUri + "/.well-known/openid-configuration")),
+                        new TypeReference<Map<String, Object>>() { });
+                Object location = configuration.get("jwks_uri");
+                if (location == null) {
+                    throw new IOException("Issuer configuration contains no jwks_uri");
+                }
+                jwksUri = URI.create(location.toString());
+            }
+            
+            keys = JWKSet.parse(get(jwksUri));
+            store();
+            
+        } catch (IOException | ParseException | IllegalArgumentException e) {
+            LOGGER.warn("Could not refresh key set from " + issuerUri + ", keeping " + keys.getKeys().size()
+                    + " known keys", e);
+        }
+    }
+    
+    /**
+     * Sends a GET request to the issuer.
+     * 
+     * @param uri The URI to request.
+     * 
+     * @return The response body.
+     * 
+     * @throws IOException If the request fails or the response status is not 200.
+     */
+    private String get(URI uri) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for issuer", e);
+        }
+        
+        if (response.statusCode() != 200) {
+            throw new IOException("Issuer responded with status " + response.statusCode() + " for " + uri);
+        }
+        return response.body();
+    }
+    
+    /**
+     * Stores the public keys of the current key set in the cache file. The file is first written to a temporary file
+     * and then moved, so that a crash never leaves a partially written key set.
+     * 
+     * @throws IOException If writing the file fails.
+     */
+    private void store() throws IOException {
+        if (cacheFile != null) {
+            Path directory = cacheFile.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temporaryFile = Files.createTempFile(directory, ".jwks", ".tmp");
+            Files.writeString(temporaryFile, keys.toString(true), StandardCharsets.UTF_8);
+            Files.move(temporaryFile, cacheFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+    
+    /**
+     * Returns the current key set.
+     * 
+     * @return The key set.
+     */
+    JWKSet getKeys() {
+        return keys;
+    }
+    
+}
@@ -0,0 +1,241 @@
+package net.ssehub.teaching.exercise_submission.service.auth;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Role;
+
+/**
+ * Limits how often submissions can be sent, per user and per course. Each user and each course has a token bucket:
+ * it holds up to <i>limit</i> tokens, one token is refilled every <i>period / limit</i>, and each submission takes a
+ * token. The limit of a user depends on the {@link Role} in the course that the submission is sent to.
+ * <p>
+ * The buckets are implemented with the generic cell rate algorithm: the state of a bucket is a single timestamp that
+ * is updated with compare-and-set, so that checking a limit takes no locks. Once per period, buckets that have been
+ * refilled completely are removed, as a new bucket is equivalent to them; so only users and courses that submitted
+ * within the last period are kept in memory.
+ * <p>
+ * The role of a user is only looked up in the already indexed courses (see {@link AuthManager#getCachedRole(String,
+ * String)}), so that checking a limit never waits for the student management system. Users in courses that are not
+ * indexed yet get the limit of {@link Role#STUDENT}.
+ * 
+ * @author Adam
+ */
+@Component
+public class RateLimiter {
+    
+    /**
+     * A lock-free token bucket.
+     */
+    private static class Bucket {
+        
+        private long interval;
+        
+        private long burst;
+        
+        private AtomicLong theoreticalArrival;
+        
+        /**
+         * Creates a full bucket.
+         * 
+         * @param limit The maximum number of tokens.
+         * @param period The time in which <code>limit</code> tokens are refilled.
+         */
+        Bucket(int limit, Duration period) {
+            this.interval = period.toNanos() / limit;
+            this.burst = interval * limit;
+            this.theoreticalArrival = new AtomicLong(System.nanoTime() - burst);
+        }
+        
+        /**
+         * Tries to take a token from this bucket.
+         * 
+         * @param now The current {@link System#nanoTime()}.
+         * 
+         * @return 0 if a token was taken; otherwise, the nanoseconds until a token is available.
+         */
+        long tryTake(long now) {
+            long waitNanos = -1;
+            while (waitNanos < 0) {
+                long current = theoreticalArrival.get();
+                long next = Math.max(current, now) + interval;
+                long allowedAt = next - burst;
+                
+                if (allowedAt - now > 0) {
+                    waitNanos = allowedAt - now;
+                } else if (theoreticalArrival.compareAndSet(current, next)) {
+                    waitNanos = 0;
+                }
+            }
+            return waitNanos;
+        }
+        
+        /**
+         * Checks whether this bucket has been refilled completely, i.e. no token was taken within the last period.
+         * 
+         * @param now The current {@link System#nanoTime()}.
+         * 
+         * @return Whether this bucket is full.
+         */
+        boolean isFull(long now) {
+            return theoreticalArrival.get() - now <= 0;
+        }
+        
+    }
+    
+    private Map<Role, Integer> userLimits;
+    
+    private int courseLimit;
+    
+    private Duration period;
+    
+    private AuthManager authManager;
+    
+    private Map<String, Bucket> userBuckets;
+    
+    private Map<String, Bucket> courseBuckets;
+    
+    private Counter rejected;
+    
+    private AtomicLong lastEviction;
+    
+    /**
+     * Creates a new {@link RateLimiter}.
+     * 
+     * @param userLimits The number of submissions per period of a user, by role, as a comma-separated list of
+     *      <code>ROLE=limit</code> entries. Roles that are not listed, and users that are not in the course, have the
+     *      limit of {@link Role#STUDENT}. A limit of 0 disables the limit.
+     * @param courseLimit The number of submissions per period to a course. 0 disables the limit.
+     * @param period The period of the limits.
+     * @param authManager Used to look up the cached roles of users.
+     * @param meterRegistry The registry to export metrics to.
+     * 
+     * @throws IllegalArgumentException If the user limits are malformed.
+     */
+    public RateLimiter(
+            @Value("${rate-limit.per-user:STUDENT=10,TUTOR=60,LECTURER=60}") String userLimits,
+            @Value("${rate-limit.per-course:600}") int courseLimit,
+            @Value("${rate-limit.period:1m}") Duration period,
+            AuthManager authManager,
+            MeterRegistry meterRegistry) throws IllegalArgumentException {
+        
+        this.userLimits = parseUserLimits(userLimits);
+        this.courseLimit = courseLimit;
+        this.period = period;
+        this.authManager = authManager;
+        this.userBuckets = new ConcurrentHashMap<>();
+        this.courseBuckets = new ConcurrentHashMap<>();
+        this.rejected = meterRegistry.counter("submission.rate_limited");
+        this.lastEviction = new AtomicLong(System.nanoTime());
+    }
+    
+    /**
+     * Parses the user limit configuration.
+     * 
+     * @param userLimits A comma-separated list of <code>ROLE=limit</code> entries.
+     * 
+     * @return The limits by role.
+     * 
+     * @throws IllegalArgumentException If the limits are malformed.
+     */
+    private static Map<Role, Integer> parseUserLimits(String userLimits) throws IllegalArgumentException {
+        Map<Role, Integer> result = new EnumMap<>(Role.class);
+        for (String entry : userLimits.split(",")) {
+            if (!entry.isBlank()) {
+                String[] parts = entry.split("=");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Invalid user rate limit: " + entry);
+                }
+                int limit = Integer.parseInt(parts[1].trim());
+                if (limit < 0) {
+                    throw new IllegalArgumentException("User rate limit must not be negative: " + entry);
+                }
+                result.put(Role.valueOf(parts[0].trim()), limit);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Takes a token for a submission of the given user to the given course. The user limit is checked first; a
+     * submission that is rejected by the course limit still counts for the user. The course limit only applies to
+     * participants of the course; other users are rejected by the authorization anyway.
+     * 
+     * @param username The name of the submitting user.
+     * @param courseId The ID of the course that the submission is sent to.
+     * 
+     * @return 0 if the submission is allowed; otherwise, the nanoseconds until it would be allowed.
+     */
+    public long tryAcquire(String username, String courseId) {
+        long now = System.nanoTime();
+        evictFullBuckets(now);
+        
+        Optional<Role> participantRole = authManager.getCachedRole(courseId, username);
+        Role role = participantRole.orElse(Role.STUDENT);
+        int userLimit = userLimits.getOrDefault(role, userLimits.getOrDefault(Role.STUDENT, 0));
+        
+        long waitNanos = 0;
+        if (userLimit > 0) {
+            // the limit depends on the role, so users with different roles in different courses get separate buckets
+            waitNanos = getBucket(userBuckets, role + "/" + username, userLimit).tryTake(now);
+        }
+        // only existing courses get a bucket, so that requests to made-up courses do not create buckets
+        if (waitNanos == 0 && courseLimit > 0 && participantRole.isPresent()) {
+            waitNanos = getBucket(courseBuckets, courseId, courseLimit).tryTake(now);
+        }
+        
+        if (waitNanos > 0) {
+            rejected.increment();
+        }
+        return waitNanos;
+    }
+    
+    /**
+     * Removes all full buckets, at most once per period. Only one thread sweeps; the others continue right away.
+     * 
+     * @param now The current {@link System#nanoTime()}.
+     */
+    private void evictFullBuckets(long now) {
+        long last = lastEviction.get();
+        if (now - last >= period.toNanos() && lastEviction.compareAndSet(last, now)) {
+            userBuckets.values().removeIf(bucket -> bucket.isFull(now));
+            courseBuckets.values().removeIf(bucket -> bucket.isFull(now));
+        }
+    }
+    
+    /**
+     * Returns the number of buckets that are currently kept in memory.
+     * 
+     * @return The number of user and course buckets.
+     */
+    int getBucketCount() {
+        return userBuckets.size() + courseBuckets.size();
+    }
+    
+    /**
+     * Gets or creates a bucket.
+     * 
+     * @param buckets The buckets to look in.
+     * @param key The key of the bucket.
+     * @param limit The limit for a new bucket.
+     * 
+     * @return The bucket.
+     */
+    private Bucket getBucket(Map<String, Bucket> buckets, String key, int limit) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new Bucket(limit, period));
+        }
+        return bucket;
+    }
+    
+}
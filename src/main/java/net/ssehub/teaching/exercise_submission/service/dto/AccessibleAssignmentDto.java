@@ -0,0 +1,59 @@
+package net.ssehub.teaching.exercise_submission.service.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.RequiredMode;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.AssignmentState;
+
+/**
+ * An assignment that a user can access, with the groups that the user can access in it.
+ * 
+ * @author Adam
+ */
+@Schema(description = "An assignment that the user can submit to or replay, with the accessible groups")
+public record AccessibleAssignmentDto(
+    @Schema(
+        description = "ID of the course that contains the assignment",
+        requiredMode = RequiredMode.REQUIRED,
+        example = "java-sose23")
+    String course,
+    
+    @Schema(
+        description = "Name of the assignment",
+        requiredMode = RequiredMode.REQUIRED,
+        example = "Homework02")
+    String assignment,
+    
+    @Schema(
+        description = "The state of the assignment",
+        requiredMode = RequiredMode.REQUIRED,
+        example = "IN_PROGRESS")
+    AssignmentState state,
+    
+    @Schema(
+        description = "Names of the groups (or usernames for single assignments) that the user can access. For tutors"
+                + " and lecturers, these are all existing groups",
+        requiredMode = RequiredMode.REQUIRED,
+        example = "[\"JP024\"]")
+    List<String> groups,
+    
+    @Schema(
+        description = "Whether the user can access any group, including the ones not listed (tutors and lecturers)",
+        requiredMode = RequiredMode.REQUIRED,
+        example = "false")
+    boolean allGroups,
+    
+    @Schema(
+        description = "Whether the user can submit to the groups",
+        requiredMode = RequiredMode.REQUIRED,
+        example = "true")
+    boolean submissionAllowed,
+    
+    @Schema(
+        description = "Whether the user can replay the versions of the groups",
+        requiredMode = RequiredMode.REQUIRED,
+        example = "true")
+    boolean replayAllowed) {
+    
+}
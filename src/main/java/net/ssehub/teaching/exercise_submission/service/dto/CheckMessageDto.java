@@ -74,6 +74,25 @@ public record CheckMessageDto(
         this(checkName, type, message, null, null, null);
     }
     
+    /**
+     * Converts this DTO back to a {@link ResultMessage}.
+     * 
+     * @return The {@link ResultMessage} with the same content.
+     */
+    public ResultMessage toResultMessage() {
+        ResultMessage result = new ResultMessage(checkName, type, message);
+        if (file != null) {
+            result.setFile(Path.of(file));
+        }
+        if (line != null) {
+            result.setLine(line);
+        }
+        if (column != null) {
+            result.setColumn(column);
+        }
+        return result;
+    }
+    
     /**
      * Converts a path to a string, replacing any \ with /. Helper method for {@link #CheckMessageDto(ResultMessage)}.
      * 
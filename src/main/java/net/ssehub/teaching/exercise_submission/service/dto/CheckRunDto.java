@@ -0,0 +1,51 @@
+package net.ssehub.teaching.exercise_submission.service.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.RequiredMode;
+import net.ssehub.teaching.exercise_submission.service.submission.RecordedCheckResult;
+
+/**
+ * The stored result of one run of the checks on a version.
+ * 
+ * @author Adam
+ */
+@Schema(description = "The result of a run of automatic checks on a version")
+public record CheckRunDto(
+    @Schema(
+        description = "Whether all rejecting checks passed",
+        requiredMode = RequiredMode.REQUIRED,
+        example = "true")
+    boolean passed,
+    
+    @Schema(
+        description = "The messages created by the checks",
+        requiredMode = RequiredMode.REQUIRED)
+    List<CheckMessageDto> messages,
+    
+    @Schema(
+        description = "The timestamp when the checks started, as seconds since unix epoch",
+        requiredMode = RequiredMode.REQUIRED,
+        example = "1635177322")
+    long timestamp,
+    
+    @Schema(
+        description = "How long the checks took, in milliseconds",
+        requiredMode = RequiredMode.REQUIRED,
+        example = "1520")
+    long durationMillis) {
+    
+    /**
+     * Creates this instance by copying from the given {@link RecordedCheckResult}.
+     * 
+     * @param result The result to copy from.
+     */
+    public CheckRunDto(RecordedCheckResult result) {
+        this(result.result().passed(),
+                result.result().messages().stream().map(CheckMessageDto::new).toList(),
+                result.checkedAt().getEpochSecond(),
+                result.duration().toMillis());
+    }
+    
+}
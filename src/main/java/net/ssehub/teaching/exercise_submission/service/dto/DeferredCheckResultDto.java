@@ -0,0 +1,33 @@
+package net.ssehub.teaching.exercise_submission.service.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.RequiredMode;
+
+/**
+ * The result of the deferred checks of a version.
+ * 
+ * @author Adam
+ */
+@Schema(description = "The result of the automatic checks that run in the background after a version was stored")
+public record DeferredCheckResultDto(
+    @Schema(
+        description = "Whether the deferred checks are still running, finished, or there are none for this version",
+        requiredMode = RequiredMode.REQUIRED,
+        example = "FINISHED")
+    State state,
+    
+    @Schema(
+        description = "The result of the deferred checks; only set if the checks are finished",
+        requiredMode = RequiredMode.NOT_REQUIRED)
+    CheckRunDto result) {
+    
+    /**
+     * The state of the deferred checks of a version.
+     */
+    public enum State {
+        NONE,
+        PENDING,
+        FINISHED;
+    }
+    
+}
@@ -0,0 +1,47 @@
+package net.ssehub.teaching.exercise_submission.service.dto;
+
+import java.util.Map;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.RequiredMode;
+
+/**
+ * A change event sent by the student management system.
+ * 
+ * @author Adam
+ */
+@Schema(description = "A change event of the student management system")
+public record NotificationDto(
+    @Schema(
+        description = "The type of the event, e.g. ASSIGNMENT_STATE_CHANGED, USER_JOINED_GROUP, USER_LEFT_GROUP or"
+                + " COURSE_JOINED. Unknown events cause the course to be reloaded",
+        requiredMode = RequiredMode.REQUIRED,
+        example = "ASSIGNMENT_STATE_CHANGED")
+    String event,
+    
+    @Schema(
+        description = "ID of the affected course",
+        requiredMode = RequiredMode.REQUIRED,
+        example = "java-sose23")
+    String courseId,
+    
+    @Schema(
+        description = "ID of the affected entity (the assignment or group), if any",
+        requiredMode = RequiredMode.NOT_REQUIRED,
+        example = "b2f6c008-b9f7-477f-9e8b-ff34ce339077")
+    String entityId,
+    
+    @Schema(
+        description = "ID of the affected user, if any",
+        requiredMode = RequiredMode.NOT_REQUIRED,
+        example = "a019ea22-5194-4b83-8d31-0de0dc4c2d7a")
+    String userId,
+    
+    @Schema(
+        description = "Additional data of the event: state for ASSIGNMENT_STATE_CHANGED; username and role for"
+                + " COURSE_JOINED",
+        requiredMode = RequiredMode.NOT_REQUIRED,
+        example = "{\"state\": \"IN_REVIEW\"}")
+    Map<String, String> payload) {
+    
+}
@@ -0,0 +1,69 @@
+package net.ssehub.teaching.exercise_submission.service.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.RequiredMode;
+
+/**
+ * The progress of a job that re-checks the latest versions of all groups of an assignment.
+ * 
+ * @author Adam
+ */
+@Schema(description = "The progress of re-checking the latest version of every group of an assignment")
+public record RecheckJobDto(
+    @Schema(
+        description = "ID of the course that contains the assignment",
+        requiredMode = RequiredMode.REQUIRED,
+        example = "java-sose23")
+    String course,
+    
+    @Schema(
+        description = "Name of the assignment that is re-checked",
+        requiredMode = RequiredMode.REQUIRED,
+        example = "Homework02")
+    String assignment,
+    
+    @Schema(
+        description = "Whether the job is still running or finished",
+        requiredMode = RequiredMode.REQUIRED,
+        example = "RUNNING")
+    State state,
+    
+    @Schema(
+        description = "The number of groups of the assignment",
+        requiredMode = RequiredMode.REQUIRED,
+        example = "120")
+    int groups,
+    
+    @Schema(
+        description = "The number of groups that were re-checked successfully (including groups without a version)",
+        requiredMode = RequiredMode.REQUIRED,
+        example = "42")
+    int completed,
+    
+    @Schema(
+        description = "The number of groups that could not be re-checked",
+        requiredMode = RequiredMode.REQUIRED,
+        example = "0")
+    int failed,
+    
+    @Schema(
+        description = "The timestamp when the job was started, as seconds since unix epoch",
+        requiredMode = RequiredMode.REQUIRED,
+        example = "1635177322")
+    long startedAt,
+    
+    @Schema(
+        description = "The number of groups processed per minute since the job was (re-)started by this server",
+        requiredMode = RequiredMode.REQUIRED,
+        example = "12.5")
+    double groupsPerMinute) {
+    
+    /**
+     * The state of a re-check job.
+     */
+    public enum State {
+        RUNNING,
+        FINISHED;
+    }
+
+}
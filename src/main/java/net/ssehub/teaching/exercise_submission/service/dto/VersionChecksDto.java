@@ -0,0 +1,24 @@
+package net.ssehub.teaching.exercise_submission.service.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.media.Schema.RequiredMode;
+
+/**
+ * All stored check results of a version.
+ * 
+ * @author Adam
+ */
+@Schema(description = "The results of the automatic checks of a version")
+public record VersionChecksDto(
+    @Schema(
+        description = "The result of the checks that ran when the version was submitted; not set for versions that"
+                + " were stored before results were recorded",
+        requiredMode = RequiredMode.NOT_REQUIRED)
+    CheckRunDto inline,
+    
+    @Schema(
+        description = "The result of the checks that run in the background after the version was stored",
+        requiredMode = RequiredMode.REQUIRED)
+    DeferredCheckResultDto deferred) {
+
+}
@@ -1,5 +1,8 @@
 package net.ssehub.teaching.exercise_submission.service.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.media.Schema.RequiredMode;
 
@@ -20,6 +23,22 @@ public record VersionDto(
         description = "The timestamp when the version was created, as seconds since unix epoch",
         requiredMode = RequiredMode.REQUIRED,
         example = "1635177322")
-    long timestamp) {
+    long timestamp,
+    
+    @Schema(
+        description = "The results of the automatic checks of this version; only set if requested",
+        requiredMode = RequiredMode.NOT_REQUIRED)
+    @JsonInclude(Include.NON_NULL)
+    VersionChecksDto checks) {
+    
+    /**
+     * Creates a version without check results.
+     * 
+     * @param author The username of the author that created the submission.
+     * @param timestamp The timestamp when the version was created, as seconds since unix epoch.
+     */
+    public VersionDto(String author, long timestamp) {
+        this(author, timestamp, null);
+    }
 
 }
@@ -0,0 +1,99 @@
+package net.ssehub.teaching.exercise_submission.service.routes;
+
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import net.ssehub.teaching.exercise_submission.service.auth.AuthManager;
+import net.ssehub.teaching.exercise_submission.service.dto.AccessibleAssignmentDto;
+
+/**
+ * The controller for the /access route. Lists what the authenticated user can access, so that clients do not need to
+ * probe every assignment and group.
+ * 
+ * @author Adam
+ */
+@RestController
+@Tag(name = "submission")
+@SecurityRequirement(name = "oidc")
+public class AccessController {
+    
+    private static final Log LOGGER = LogFactory.getLog(AccessController.class);
+    
+    private AuthManager authManager;
+    
+    private int maxCourses;
+    
+    /**
+     * Creates this controller.
+     * 
+     * @param authManager The {@link AuthManager} to compute the accessible assignments.
+     * @param maxCourses The maximum number of courses that can be requested at once. Each unknown course is loaded
+     *      from the student management system, so this must be limited.
+     */
+    public AccessController(AuthManager authManager, @Value("${access.max-courses:20}") int maxCourses) {
+        this.authManager = authManager;
+        this.maxCourses = maxCourses;
+    }
+    
+    /**
+     * Route for listing the assignments and groups that the authenticated user can access.
+     * 
+     * @param courses The courses to look in. If <code>null</code> or empty, the known courses of the user are used.
+     * @param auth The authentication.
+     * 
+     * @return The accessible assignments; bad request if too many courses are given.
+     */
+    @Operation(
+        description = "Lists all assignments that the authenticated user can submit to or replay, with the groups that"
+                + " the user can access in them",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Accessible assignments are returned"),
+            @ApiResponse(
+                responseCode = "400",
+                description = "Too many courses are given",
+                content = {@Content}),
+            @ApiResponse(
+                responseCode = "500",
+                description = "An unexpected internal server error occurred",
+                content = {@Content})
+        }
+    )
+    @GetMapping("/access")
+    public ResponseEntity<List<AccessibleAssignmentDto>> getAccessibleAssignments(
+            @RequestParam(name = "course", required = false)
+            @Parameter(description = "IDs of the courses to look in (at most 20 by default); if not given, all"
+                    + " known courses of the user are used",
+                example = "java-sose23")
+            List<String> courses,
+            
+            Authentication auth) {
+        
+        List<String> requested = courses != null ? courses.stream().distinct().toList() : List.of();
+        
+        ResponseEntity<List<AccessibleAssignmentDto>> result;
+        if (requested.size() > maxCourses) {
+            LOGGER.info(auth.getName() + " requested access to " + requested.size() + " courses, at most "
+                    + maxCourses + " are allowed");
+            result = new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } else {
+            result = ResponseEntity.ok(authManager.getAccessibleAssignments(auth.getName(), requested));
+        }
+        return result;
+    }
+    
+}
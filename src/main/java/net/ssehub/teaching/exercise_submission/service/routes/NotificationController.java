@@ -0,0 +1,164 @@
+package net.ssehub.teaching.exercise_submission.service.routes;
+
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import net.ssehub.teaching.exercise_submission.service.dto.NotificationDto;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.AssignmentState;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Participant;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Role;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.StuMgmtView;
+
+/**
+ * The controller for the /notify route. The student management system sends change events to this route, so that the
+ * {@link StuMgmtView} is updated immediately instead of after its cache expired.
+ * 
+ * @author Adam
+ */
+@RestController
+@Tag(name = "notification")
+@SecurityRequirement(name = "oidc")
+public class NotificationController {
+    
+    private static final Log LOGGER = LogFactory.getLog(NotificationController.class);
+    
+    private StuMgmtView stuMgmtView;
+    
+    private String notificationUser;
+    
+    /**
+     * Creates this controller.
+     * 
+     * @param stuMgmtView The view to update.
+     * @param notificationUser The name of the user that the student management system authenticates as. If empty,
+     *      no notifications are accepted.
+     */
+    public NotificationController(StuMgmtView stuMgmtView,
+            @Value("${stu-mgmt.notification-user:}") String notificationUser) {
+        this.stuMgmtView = stuMgmtView;
+        this.notificationUser = notificationUser;
+    }
+    
+    /**
+     * Route for receiving a change event from the student management system.
+     * 
+     * @param notification The change event.
+     * @param auth The authentication.
+     * 
+     * @return An empty response.
+     * 
+     * @throws UnauthorizedException If the user is not the student management system.
+     */
+    @Operation(
+        description = "Notifies about a change in the student management system. Cached data of the affected course is"
+                + " updated accordingly, or reloaded if the change cannot be applied directly",
+        responses = {
+            @ApiResponse(responseCode = "204", description = "Change applied"),
+            @ApiResponse(
+                responseCode = "400",
+                description = "No course given",
+                content = {@Content}),
+            @ApiResponse(
+                responseCode = "403",
+                description = "User is not the student management system",
+                content = {@Content}),
+            @ApiResponse(
+                responseCode = "500",
+                description = "An unexpected internal server error occurred",
+                content = {@Content})
+        }
+    )
+    @PostMapping("/notify")
+    public ResponseEntity<Void> notify(
+            @RequestBody
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "The change event")
+            NotificationDto notification,
+            
+            Authentication auth)
+            
+            throws UnauthorizedException {
+        
+        if (notificationUser.isEmpty() || !notificationUser.equals(auth.getName())) {
+            LOGGER.info("User " + auth.getName() + " is not allowed to send notifications");
+            throw new UnauthorizedException();
+        }
+        
+        ResponseEntity<Void> result;
+        if (notification.courseId() == null) {
+            result = new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } else {
+            apply(notification);
+            result = new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        return result;
+    }
+    
+    /**
+     * Applies a change event to the {@link StuMgmtView}. Events that are unknown or lack data invalidate the course.
+     * 
+     * @param notification The change event.
+     */
+    private void apply(NotificationDto notification) {
+        String courseId = notification.courseId();
+        Map<String, String> payload = notification.payload() != null ? notification.payload() : Map.of();
+        
+        try {
+            switch (notification.event() != null ? notification.event() : "") {
+            case "ASSIGNMENT_STATE_CHANGED":
+                stuMgmtView.assignmentStateChanged(courseId, require(notification.entityId()),
+                        AssignmentState.valueOf(require(payload.get("state"))));
+                break;
+            
+            case "USER_JOINED_GROUP":
+            case "USER_LEFT_GROUP":
+                stuMgmtView.groupMembershipChanged(courseId, require(notification.entityId()),
+                        require(notification.userId()), notification.event().equals("USER_JOINED_GROUP"));
+                break;
+            
+            case "COURSE_JOINED":
+                stuMgmtView.participantAdded(courseId, new Participant(require(notification.userId()),
+                        require(payload.get("username")), Role.valueOf(require(payload.get("role")))));
+                break;
+            
+            default:
+                stuMgmtView.invalidate(courseId);
+                break;
+            }
+            
+        } catch (IllegalArgumentException e) {
+            LOGGER.info("Incomplete notification " + notification + ": " + e.getMessage());
+            stuMgmtView.invalidate(courseId);
+        }
+    }
+    
+    /**
+     * Ensures that a value of a notification is present.
+     * 
+     * @param value The value.
+     * 
+     * @return The value.
+     * 
+     * @throws IllegalArgumentException If the value is <code>null</code>.
+     */
+    private static String require(String value) throws IllegalArgumentException {
+        if (value == null) {
+            throw new IllegalArgumentException("missing value");
+        }
+        return value;
+    }
+    
+}
@@ -0,0 +1,68 @@
+package net.ssehub.teaching.exercise_submission.service.routes;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.ssehub.teaching.exercise_submission.service.auth.RateLimiter;
+
+/**
+ * Applies the {@link RateLimiter} to the POST routes of the {@link SubmissionController}. Runs before the request
+ * body is decoded, so that rejected submissions cost neither decoding nor checks. Rejected requests get status 429
+ * with a <code>Retry-After</code> header.
+ * 
+ * @author Adam
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+    
+    private static final Log LOGGER = LogFactory.getLog(RateLimitInterceptor.class);
+    
+    private RateLimiter rateLimiter;
+    
+    /**
+     * Creates this interceptor.
+     * 
+     * @param rateLimiter The rate limiter to apply.
+     */
+    public RateLimitInterceptor(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        @SuppressWarnings("unchecked")
+        Map<String, String> pathVariables = (Map<String, String>) request.getAttribute(
+                HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        
+        boolean allowed = true;
+        if ("POST".equals(request.getMethod()) && auth != null && pathVariables != null
+                && pathVariables.containsKey("course")) {
+            
+            long waitNanos = rateLimiter.tryAcquire(auth.getName(), pathVariables.get("course"));
+            if (waitNanos > 0) {
+                long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+                LOGGER.info("Rate limit exceeded by " + auth.getName() + " for " + request.getRequestURI()
+                        + ", retry after " + retryAfter + " seconds");
+                
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+                allowed = false;
+            }
+        }
+        return allowed;
+    }
+    
+}
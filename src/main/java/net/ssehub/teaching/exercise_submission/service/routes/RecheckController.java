@@ -0,0 +1,175 @@
+package net.ssehub.teaching.exercise_submission.service.routes;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import net.ssehub.teaching.exercise_submission.service.auth.AuthManager;
+import net.ssehub.teaching.exercise_submission.service.dto.RecheckJobDto;
+import net.ssehub.teaching.exercise_submission.service.storage.NoSuchTargetException;
+import net.ssehub.teaching.exercise_submission.service.storage.StorageException;
+import net.ssehub.teaching.exercise_submission.service.submission.RecheckJobManager;
+
+/**
+ * The controller for the /recheck route. Used by lecturers to re-check the latest versions of all groups of an
+ * assignment and to follow the progress of this.
+ * 
+ * @author Adam
+ */
+@RestController
+@RequestMapping(
+    path = "/recheck",
+    produces = MediaType.APPLICATION_JSON_VALUE)
+@Tag(name = "recheck")
+@SecurityRequirement(name = "oidc")
+public class RecheckController {
+    
+    private static final Log LOGGER = LogFactory.getLog(RecheckController.class);
+    
+    private RecheckJobManager jobManager;
+    
+    private AuthManager authManager;
+    
+    /**
+     * Creates this controller.
+     * 
+     * @param jobManager The manager that runs the re-check jobs.
+     * @param authManager Checks that users a authorized to do the given operations.
+     */
+    public RecheckController(RecheckJobManager jobManager, AuthManager authManager) {
+        this.jobManager = jobManager;
+        this.authManager = authManager;
+    }
+    
+    /**
+     * Route for starting to re-check an assignment.
+     * 
+     * @param course The course that contains the assignment.
+     * @param assignment The assignment to re-check.
+     * @param auth The authentication.
+     * 
+     * @return The progress of the job.
+     * 
+     * @throws NoSuchTargetException If the given assignment does not exist.
+     * @throws StorageException If a storage exception occurs.
+     * @throws UnauthorizedException If the user is not allowed to administrate the course.
+     */
+    @Operation(
+        description = "Starts re-checking the latest version of every group of the given assignment in the background."
+                + " The results are stored as the results of the background checks of these versions. If a re-check of"
+                + " the assignment is already running, it is not started again",
+        responses = {
+            @ApiResponse(responseCode = "202", description = "Job started (or already running); progress is returned"),
+            @ApiResponse(
+                responseCode = "403",
+                description = "User is not a lecturer of the course",
+                content = {@Content}),
+            @ApiResponse(
+                responseCode = "404",
+                description = "Assignment does not exist",
+                content = {@Content}),
+            @ApiResponse(
+                responseCode = "500",
+                description = "An unexpected internal server error occurred",
+                content = {@Content})
+        }
+    )
+    @PostMapping("/{course}/{assignment}")
+    public ResponseEntity<RecheckJobDto> startRecheck(
+            @PathVariable
+            @Parameter(
+                description = "ID of the course that contains the assignment",
+                example = "java-sose23")
+            String course,
+            
+            @PathVariable
+            @Parameter(
+                description = "Name of the assignment to re-check",
+                example = "Homework02")
+            String assignment,
+            
+            Authentication auth)
+            
+            throws NoSuchTargetException, StorageException, UnauthorizedException {
+        
+        String username = auth.getName();
+        LOGGER.info("Re-check of " + assignment + " in " + course + " requested by " + username);
+        
+        if (!authManager.isAdministrationAllowed(course, username)) {
+            throw new UnauthorizedException();
+        }
+        
+        return new ResponseEntity<>(jobManager.start(course, assignment), HttpStatus.ACCEPTED);
+    }
+    
+    /**
+     * Route for retrieving the progress of re-checking an assignment.
+     * 
+     * @param course The course that contains the assignment.
+     * @param assignment The assignment that is re-checked.
+     * @param auth The authentication.
+     * 
+     * @return The progress of the job.
+     * 
+     * @throws UnauthorizedException If the user is not allowed to administrate the course.
+     */
+    @Operation(
+        description = "Retrieves the progress and throughput of the latest re-check of the given assignment",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Progress is returned"),
+            @ApiResponse(
+                responseCode = "403",
+                description = "User is not a lecturer of the course",
+                content = {@Content}),
+            @ApiResponse(
+                responseCode = "404",
+                description = "No re-check of the assignment was started",
+                content = {@Content}),
+            @ApiResponse(
+                responseCode = "500",
+                description = "An unexpected internal server error occurred",
+                content = {@Content})
+        }
+    )
+    @GetMapping("/{course}/{assignment}")
+    public ResponseEntity<RecheckJobDto> getRecheckProgress(
+            @PathVariable
+            @Parameter(
+                description = "ID of the course that contains the assignment",
+                example = "java-sose23")
+            String course,
+            
+            @PathVariable
+            @Parameter(
+                description = "Name of the assignment that is re-checked",
+                example = "Homework02")
+            String assignment,
+            
+            Authentication auth)
+            
+            throws UnauthorizedException {
+        
+        if (!authManager.isAdministrationAllowed(course, auth.getName())) {
+            throw new UnauthorizedException();
+        }
+        
+        return jobManager.getJob(course, assignment)
+                .map(ResponseEntity::ok)
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+    
+}
@@ -0,0 +1,81 @@
+package net.ssehub.teaching.exercise_submission.service.routes;
+
+import java.time.Duration;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckQueueFullException;
+
+/**
+ * Maps exceptions of the routes to responses, where a {@link org.springframework.web.bind.annotation.ResponseStatus}
+ * on the exception is not enough.
+ * 
+ * @author Adam
+ */
+@RestControllerAdvice
+public class ResponseExceptionHandler {
+    
+    private static final Log LOGGER = LogFactory.getLog(ResponseExceptionHandler.class);
+    
+    private Duration queueFullRetryAfter;
+    
+    /**
+     * Creates this handler.
+     * 
+     * @param queueFullRetryAfter How long clients are asked to wait if the check queue is full.
+     */
+    public ResponseExceptionHandler(
+            @Value("${checks.scheduler.retry-after:5s}") Duration queueFullRetryAfter) {
+        this.queueFullRetryAfter = queueFullRetryAfter;
+    }
+    
+    /**
+     * Answers submissions that do not fit into the check queue with 503 and a <code>Retry-After</code> header, like
+     * the {@link UploadAdmissionInterceptor} and the {@link RateLimitInterceptor} do.
+     * 
+     * @param exception The exception of the check scheduler.
+     * 
+     * @return The response.
+     */
+    @ExceptionHandler(CheckQueueFullException.class)
+    public ResponseEntity<Void> handleQueueFull(CheckQueueFullException exception) {
+        LOGGER.info("Rejecting submission: " + exception.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, queueFullRetryAfter.toSeconds())))
+                .build();
+    }
+    
+    /**
+     * Answers unreadable request bodies with 413 if the body exceeded the size limit of the
+     * {@link UploadSizeLimitFilter}, and with 400 otherwise.
+     * 
+     * @param exception The exception of the message converter.
+     * 
+     * @return The response.
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<Void> handleUnreadableBody(HttpMessageNotReadableException exception) {
+        Throwable cause = exception.getCause();
+        while (cause != null && !(cause instanceof UploadTooLargeException)) {
+            cause = cause.getCause();
+        }
+        
+        ResponseEntity<Void> result;
+        if (cause != null) {
+            LOGGER.info("Rejecting upload: " + cause.getMessage());
+            result = new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+        } else {
+            result = new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return result;
+    }
+    
+}
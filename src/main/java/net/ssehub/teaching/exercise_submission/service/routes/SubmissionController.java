@@ -1,6 +1,7 @@
 package net.ssehub.teaching.exercise_submission.service.routes;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.LinkedList;
 import java.util.List;
@@ -16,6 +17,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -29,6 +31,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import net.ssehub.teaching.exercise_submission.service.auth.AuthManager;
 import net.ssehub.teaching.exercise_submission.service.dto.FileDto;
 import net.ssehub.teaching.exercise_submission.service.dto.SubmissionResultDto;
+import net.ssehub.teaching.exercise_submission.service.dto.VersionChecksDto;
 import net.ssehub.teaching.exercise_submission.service.dto.VersionDto;
 import net.ssehub.teaching.exercise_submission.service.storage.ISubmissionStorage;
 import net.ssehub.teaching.exercise_submission.service.storage.NoSuchTargetException;
@@ -38,6 +41,7 @@ import net.ssehub.teaching.exercise_submission.service.submission.SubmissionBuil
 import net.ssehub.teaching.exercise_submission.service.submission.SubmissionManager;
 import net.ssehub.teaching.exercise_submission.service.submission.SubmissionTarget;
 import net.ssehub.teaching.exercise_submission.service.submission.Version;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckQueueFullException;
 
 /**
  * The controller for the /submission route. Used to post new submissions and get version history and retrieve previous
@@ -74,7 +78,7 @@ public class SubmissionController {
         this.storage = storage;
         this.authManager = authManager;
     }
-
+    
     /**
      * Route for adding a new submission.
      * 
@@ -89,6 +93,7 @@ public class SubmissionController {
      * @throws NoSuchTargetException If the given target does not exist.
      * @throws StorageException If a storage exception occurs.
      * @throws UnauthorizedException If the user is not allowed to submit a new version to this target.
+     * @throws CheckQueueFullException If too many submissions are waiting to be checked.
      */
     @Operation(
         description = "Adds a new submission for the given assignment and group",
@@ -125,9 +130,23 @@ public class SubmissionController {
                 responseCode = "404",
                 description = "Assignment or group does not exist",
                 content = {@Content}),
+            @ApiResponse(
+                responseCode = "413",
+                description = "Submission is too large",
+                content = {@Content}),
+            @ApiResponse(
+                responseCode = "429",
+                description = "Too many submissions by this user or to this course; the Retry-After header tells when"
+                        + " to try again",
+                content = {@Content}),
             @ApiResponse(
                 responseCode = "500",
                 description = "An unexpected internal server error occurred",
+                content = {@Content}),
+            @ApiResponse(
+                responseCode = "503",
+                description = "Too many submissions are waiting to be checked or being uploaded; the Retry-After"
+                        + " header tells when to try again",
                 content = {@Content})
         }
     )
@@ -157,7 +176,7 @@ public class SubmissionController {
             
             Authentication auth)
             
-            throws NoSuchTargetException, StorageException, UnauthorizedException {
+            throws NoSuchTargetException, StorageException, UnauthorizedException, CheckQueueFullException {
         
         String username = auth.getName();
         SubmissionTarget target = new SubmissionTarget(course, assignment, group);
@@ -170,13 +189,9 @@ public class SubmissionController {
         
         
         ResponseEntity<SubmissionResultDto> result;
-        try {
-            SubmissionBuilder submissionBuilder = new SubmissionBuilder(username);
-            for (FileDto file : files) {
-                submissionBuilder.addFile(Path.of(file.path()), Base64.getDecoder().decode(file.content()));
-            }
-            
-            SubmissionResultDto resultDto = manager.submit(target, submissionBuilder.build());
+        Submission submission = toSubmissionOrNull(username, files);
+        if (submission != null) {
+            SubmissionResultDto resultDto = manager.submit(target, submission);
             HttpStatus status;
             if (resultDto.accepted()) {
                 status = HttpStatus.CREATED;
@@ -186,20 +201,163 @@ public class SubmissionController {
             
             result = new ResponseEntity<>(resultDto, status);
             
-        } catch (IllegalArgumentException e) {
-            LOGGER.info("Found relative file path in submission", e);
+        } else {
             result = new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
         
         return result;
     }
     
+    /**
+     * Route for checking a submission without storing it.
+     * 
+     * @param course The course to check the submission for.
+     * @param assignment The assignment to check the submission for.
+     * @param group The group to check the submission for.
+     * @param files The files of the submission.
+     * @param auth The authentication.
+     * 
+     * @return The result that the submission would get.
+     * 
+     * @throws StorageException If a storage exception occurs.
+     * @throws UnauthorizedException If the user is not allowed to submit a new version to this target.
+     * @throws CheckQueueFullException If too many submissions are waiting to be checked.
+     */
+    @Operation(
+        description = "Runs the checks of the given assignment on the submission without storing it as a new version."
+                + " Results of configured checks are cached, so submitting the same files afterwards is fast",
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Checks were run; accepted tells whether a submission would be accepted",
+                content = {
+                    @Content(
+                        schema = @Schema(implementation = SubmissionResultDto.class),
+                        examples = {
+                            @ExampleObject(value = "{\"accepted\": true, \"messages\": []}")
+                        })
+                }),
+            @ApiResponse(
+                responseCode = "400",
+                description = "Input data malformed or invalid",
+                content = {@Content}),
+            @ApiResponse(
+                responseCode = "403",
+                description = "User is not authorized to add a new submission",
+                content = {@Content}),
+            @ApiResponse(
+                responseCode = "413",
+                description = "Submission is too large",
+                content = {@Content}),
+            @ApiResponse(
+                responseCode = "429",
+                description = "Too many submissions by this user or to this course; the Retry-After header tells when"
+                        + " to try again",
+                content = {@Content}),
+            @ApiResponse(
+                responseCode = "500",
+                description = "An unexpected internal server error occurred",
+                content = {@Content}),
+            @ApiResponse(
+                responseCode = "503",
+                description = "Too many submissions are waiting to be checked or being uploaded; the Retry-After"
+                        + " header tells when to try again",
+                content = {@Content})
+        }
+    )
+    @PostMapping("/{course}/{assignment}/{group}/check")
+    public ResponseEntity<SubmissionResultDto> check(
+            @PathVariable
+            @Parameter(
+                description = "ID of the course that contains the assignment",
+                example = "java-sose23")
+            String course,
+            
+            @PathVariable
+            @Parameter(
+                description = "Name of the assignment to check the submission for",
+                example = "Homework02")
+            String assignment,
+            
+            @PathVariable
+            @Parameter(
+                description = "Name of the group (or username for single assignments) to check the submission for",
+                example = "JP024")
+            String group,
+            
+            @RequestBody
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "The files of the submission")
+            List<FileDto> files,
+            
+            Authentication auth)
+            
+            throws StorageException, UnauthorizedException, CheckQueueFullException {
+        
+        String username = auth.getName();
+        SubmissionTarget target = new SubmissionTarget(course, assignment, group);
+        
+        LOGGER.info("Dry-run submission by " + username + " to " + target);
+        
+        if (!authManager.isSubmissionAllowed(target, username)) {
+            throw new UnauthorizedException();
+        }
+        
+        ResponseEntity<SubmissionResultDto> result;
+        Submission submission = toSubmissionOrNull(username, files);
+        if (submission != null) {
+            result = ResponseEntity.ok(manager.check(target, submission));
+        } else {
+            result = new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Creates a {@link Submission} from the files sent by a client.
+     * 
+     * @param username The author of the submission.
+     * @param files The files of the submission, with Base64 encoded content.
+     * 
+     * @return The submission.
+     * 
+     * @throws IllegalArgumentException If a file path is absolute or the content is not valid Base64.
+     */
+    private static Submission toSubmission(String username, List<FileDto> files) throws IllegalArgumentException {
+        SubmissionBuilder submissionBuilder = new SubmissionBuilder(username);
+        for (FileDto file : files) {
+            submissionBuilder.addFile(Path.of(file.path()), Base64.getDecoder().decode(file.content()));
+        }
+        return submissionBuilder.build();
+    }
+    
+    /**
+     * Creates a {@link Submission} from the files sent by a client, or logs why they are invalid. Only the conversion
+     * is covered, so that exceptions from running the checks are not reported as a bad request.
+     * 
+     * @param username The author of the submission.
+     * @param files The files of the submission, with Base64 encoded content.
+     * 
+     * @return The submission; <code>null</code> if a file path is absolute or the content is not valid Base64.
+     */
+    private static Submission toSubmissionOrNull(String username, List<FileDto> files) {
+        Submission submission;
+        try {
+            submission = toSubmission(username, files);
+        } catch (IllegalArgumentException e) {
+            LOGGER.info("Found relative file path in submission", e);
+            submission = null;
+        }
+        return submission;
+    }
+    
     /**
      * Route for retrieving the list of submitted versions.
      * 
      * @param course The course where the submission is located.
      * @param assignment The assignment where the submission is located.
      * @param group The group where the submission is located.
+     * @param includeChecks Whether to include the stored check results of each version.
      * @param auth The authentication.
      * 
      * @return The list of versions for that submission.
@@ -249,6 +407,10 @@ public class SubmissionController {
                 example = "JP024")
             String group,
             
+            @RequestParam(name = "checks", defaultValue = "false")
+            @Parameter(description = "Whether to include the stored results of the automatic checks of each version")
+            boolean includeChecks,
+            
             Authentication auth)
             
             throws NoSuchTargetException, StorageException, UnauthorizedException {
@@ -262,13 +424,19 @@ public class SubmissionController {
             throw new UnauthorizedException();
         }
         
-        List<Version> version = storage.getVersions(target);
+        List<Version> versions = storage.getVersions(target);
         
-        LOGGER.info("Returning list of " + version.size() + " versions");
+        LOGGER.info("Returning list of " + versions.size() + " versions");
         
-        return version.stream()
-                .map(v -> new VersionDto(v.author(), v.creationTime().getEpochSecond()))
-                .toList();
+        List<VersionDto> result = new ArrayList<>(versions.size());
+        for (Version version : versions) {
+            VersionChecksDto checks = null;
+            if (includeChecks) {
+                checks = manager.getCheckResults(target, version);
+            }
+            result.add(new VersionDto(version.author(), version.creationTime().getEpochSecond(), checks));
+        }
+        return result;
     }
     
     /**
@@ -331,45 +499,137 @@ public class SubmissionController {
             long timestamp,
             
             Authentication auth)
-    
+            
             throws NoSuchTargetException, StorageException, UnauthorizedException {
         
         String username = auth.getName();
         SubmissionTarget target = new SubmissionTarget(course, assignment, group);
-
+        
         LOGGER.info("Replaying version " + timestamp + " of " + target + " for user " + username);
         
         if (!authManager.isReplayAllowed(target, username)) {
             throw new UnauthorizedException();
         }
         
-        List<Version> versions = storage.getVersions(target);
+        Submission submission = storage.getSubmission(target, findVersion(target, timestamp));
+        
+        List<FileDto> files = new LinkedList<>();
+        for (Path filepath : submission.getFilepaths()) {
+            files.add(new FileDto(
+                    filepath.toString().replace('\\', '/'),
+                    submission.getFileContent(filepath)));
+        }
+        
+        LOGGER.info("Returning previous submission content with " + files.size() + " files");
+        
+        return files;
+    }
+    
+    /**
+     * Route for retrieving the stored results of the checks of a given version.
+     * 
+     * @param course The course where the submission is located.
+     * @param assignment The assignment where the submission is located.
+     * @param group The group where the submission is located.
+     * @param timestamp The timestamp identifying the version.
+     * @param auth The authentication.
+     * 
+     * @return The results of the inline and deferred checks.
+     * 
+     * @throws NoSuchTargetException If the given target or version does not exist.
+     * @throws StorageException If a storage exception occurs.
+     * @throws UnauthorizedException If the user is not allowed to replay this target.
+     */
+    @Operation(
+        description = "Retrieves the results of the checks of the specified version of the given assignment and group,"
+                + " both of the checks that ran on submission and of those that run in the background afterwards",
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Results (or pending state of the background checks) are returned"),
+            @ApiResponse(
+                responseCode = "403",
+                description = "User is not authorized to retrieve a submission",
+                content = {@Content}),
+            @ApiResponse(
+                responseCode = "404",
+                description = "Assignment or group does not exist, or the specified version does not exist",
+                content = {@Content}),
+            @ApiResponse(
+                responseCode = "500",
+                description = "An unexpected internal server error occurred",
+                content = {@Content})
+        }
+    )
+    @GetMapping("/{course}/{assignment}/{group}/{timestamp}/checks")
+    public VersionChecksDto getCheckResults(
+            @PathVariable
+            @Parameter(
+                description = "ID of the course that contains the assignment",
+                example = "java-sose23")
+            String course,
+            
+            @PathVariable
+            @Parameter(
+                description = "Name of the assignment to retrieve from",
+                example = "Homework02")
+            String assignment,
+            
+            @PathVariable
+            @Parameter(
+                description = "Name of the group (or username for single assignments) to retrieve from",
+                example = "JP024")
+            String group,
+            
+            @PathVariable
+            @Parameter(
+                description = "Identifies the version as a unix timestamp (seconds since epoch)",
+                example = "1635177322")
+            long timestamp,
+            
+            Authentication auth)
+            
+            throws NoSuchTargetException, StorageException, UnauthorizedException {
+        
+        String username = auth.getName();
+        SubmissionTarget target = new SubmissionTarget(course, assignment, group);
+        
+        LOGGER.info("Retrieving check results of version " + timestamp + " of " + target + " for user " + username);
+        
+        if (!authManager.isReplayAllowed(target, username)) {
+            throw new UnauthorizedException();
+        }
+        
+        return manager.getCheckResults(target, findVersion(target, timestamp));
+    }
+    
+    /**
+     * Finds the version with the given timestamp.
+     * 
+     * @param target The target that contains the version.
+     * @param timestamp The timestamp of the version.
+     * 
+     * @return The version.
+     * 
+     * @throws NoSuchTargetException If the target or version does not exist.
+     * @throws StorageException If a storage exception occurs.
+     */
+    private Version findVersion(SubmissionTarget target, long timestamp)
+            throws NoSuchTargetException, StorageException {
+        
         Version match = null;
-        for (Version version : versions) {
+        for (Version version : storage.getVersions(target)) {
             if (version.creationTime().getEpochSecond() == timestamp) {
                 match = version;
                 break;
             }
         }
         
-        if (match != null) {
-            Submission submission = storage.getSubmission(target, match);
-            
-            List<FileDto> files = new LinkedList<>();
-            for (Path filepath : submission.getFilepaths()) {
-                files.add(new FileDto(
-                        filepath.toString().replace('\\', '/'),
-                        submission.getFileContent(filepath)));
-            }
-            
-            LOGGER.info("Returning previous submission content with " + files.size() + " files");
-            
-            return files;
-            
-        } else {
+        if (match == null) {
             LOGGER.info("No version " + timestamp + " found for " + target);
             throw new NoSuchTargetException(target, timestamp);
         }
+        return match;
     }
     
 }
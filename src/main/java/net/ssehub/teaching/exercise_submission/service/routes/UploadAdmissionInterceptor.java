@@ -0,0 +1,112 @@
+package net.ssehub.teaching.exercise_submission.service.routes;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.ssehub.teaching.exercise_submission.service.submission.MemoryBudget;
+
+/**
+ * Admits uploads to the POST routes of the {@link SubmissionController} only if their memory can be reserved from the
+ * {@link MemoryBudget}. The reservation is based on the <code>Content-Length</code> and made before the body is read;
+ * it is released when the request is completed. Requests without a <code>Content-Length</code> (i.e. with a chunked
+ * body) reserve the memory of a configured maximum body size instead; the {@link UploadSizeLimitFilter} rejects them
+ * with 413 if their body turns out to be larger. Requests are rejected with
+ * <ul>
+ * <li>413 if they are larger than the whole budget,</li>
+ * <li>503 with a <code>Retry-After</code> header if the budget stays exhausted.</li>
+ * </ul>
+ * 
+ * @author Adam
+ */
+@Component
+public class UploadAdmissionInterceptor implements HandlerInterceptor {
+    
+    private static final Log LOGGER = LogFactory.getLog(UploadAdmissionInterceptor.class);
+    
+    private static final String RESERVATION_ATTRIBUTE = UploadAdmissionInterceptor.class.getName() + ".reservation";
+    
+    private MemoryBudget memoryBudget;
+    
+    private long chunkedSize;
+    
+    /**
+     * Creates this interceptor.
+     * 
+     * @param memoryBudget The budget to reserve memory from.
+     * @param chunkedSize The maximum body size of requests without a <code>Content-Length</code>.
+     */
+    public UploadAdmissionInterceptor(MemoryBudget memoryBudget,
+            @Value("${upload.chunked-size:10MB}") DataSize chunkedSize) {
+        this.memoryBudget = memoryBudget;
+        this.chunkedSize = chunkedSize.toBytes();
+    }
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        boolean admitted = true;
+        if ("POST".equals(request.getMethod())) {
+            long contentLength = request.getContentLengthLong();
+            if (contentLength < 0) {
+                contentLength = chunkedSize;
+            }
+            long reservation = memoryBudget.getReservation(contentLength);
+            
+            if (!memoryBudget.fits(reservation)) {
+                LOGGER.info("Rejecting upload of " + contentLength + " bytes to " + request.getRequestURI()
+                        + ", larger than the memory budget");
+                response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+                admitted = false;
+                
+            } else if (reserve(reservation)) {
+                request.setAttribute(RESERVATION_ATTRIBUTE, reservation);
+                
+            } else {
+                LOGGER.info("Rejecting upload of " + contentLength + " bytes to " + request.getRequestURI()
+                        + ", memory budget exhausted");
+                long retryAfter = Math.max(1, memoryBudget.getMaxWait().toSeconds());
+                response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+                admitted = false;
+            }
+        }
+        return admitted;
+    }
+    
+    /**
+     * Reserves memory from the budget.
+     * 
+     * @param reservation The number of bytes to reserve.
+     * 
+     * @return Whether the memory was reserved.
+     */
+    private boolean reserve(long reservation) {
+        boolean reserved;
+        try {
+            reserved = memoryBudget.tryReserve(reservation);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reserved = false;
+        }
+        return reserved;
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        
+        Object reservation = request.getAttribute(RESERVATION_ATTRIBUTE);
+        if (reservation != null) {
+            request.removeAttribute(RESERVATION_ATTRIBUTE);
+            memoryBudget.release((Long) reservation);
+        }
+    }
+    
+}
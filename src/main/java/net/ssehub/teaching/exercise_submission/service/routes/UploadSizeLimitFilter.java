@@ -0,0 +1,157 @@
+package net.ssehub.teaching.exercise_submission.service.routes;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Limits the size of POST request bodies that have no <code>Content-Length</code> (i.e. are chunked) to the size
+ * that the {@link UploadAdmissionInterceptor} reserves for them. Reading beyond the limit fails with an
+ * {@link UploadTooLargeException}, which is answered with 413. Bodies with a <code>Content-Length</code> are already
+ * limited by it, as the container does not read beyond it.
+ * 
+ * @author Adam
+ */
+@Component
+public class UploadSizeLimitFilter extends OncePerRequestFilter {
+    
+    /**
+     * A request whose body fails once more than the limit is read.
+     */
+    private static class LimitedRequest extends HttpServletRequestWrapper {
+        
+        private long limit;
+        
+        private ServletInputStream limitedStream;
+        
+        /**
+         * Creates a wrapper.
+         * 
+         * @param request The request to wrap.
+         * @param limit The maximum number of bytes of the body.
+         */
+        LimitedRequest(HttpServletRequest request, long limit) {
+            super(request);
+            this.limit = limit;
+        }
+        
+        @Override
+        public synchronized ServletInputStream getInputStream() throws IOException {
+            if (limitedStream == null) {
+                limitedStream = new LimitedInputStream(super.getInputStream(), limit);
+            }
+            return limitedStream;
+        }
+        
+    }
+    
+    /**
+     * An input stream that fails once more than a limit is read.
+     */
+    private static class LimitedInputStream extends ServletInputStream {
+        
+        private ServletInputStream in;
+        
+        private long remaining;
+        
+        private long limit;
+        
+        /**
+         * Creates a limited stream.
+         * 
+         * @param in The stream to read from.
+         * @param limit The maximum number of bytes to read.
+         */
+        LimitedInputStream(ServletInputStream in, long limit) {
+            this.in = in;
+            this.remaining = limit;
+            this.limit = limit;
+        }
+        
+        /**
+         * Counts read bytes.
+         * 
+         * @param read The number of bytes that were read; -1 at the end of the stream.
+         * 
+         * @throws UploadTooLargeException If the limit is exceeded.
+         */
+        private void count(int read) throws UploadTooLargeException {
+            if (read > 0) {
+                remaining -= read;
+                if (remaining < 0) {
+                    throw new UploadTooLargeException(limit);
+                }
+            }
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int result = in.read();
+            count(result != -1 ? 1 : -1);
+            return result;
+        }
+        
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int result = in.read(buffer, offset, length);
+            count(result);
+            return result;
+        }
+        
+        @Override
+        public boolean isFinished() {
+            return in.isFinished();
+        }
+        
+        @Override
+        public boolean isReady() {
+            return in.isReady();
+        }
+        
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            in.setReadListener(readListener);
+        }
+        
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+        
+    }
+    
+    private long chunkedSize;
+    
+    /**
+     * Creates this filter.
+     * 
+     * @param chunkedSize The maximum body size of requests without a <code>Content-Length</code>. Should be the same
+     *      as for the {@link UploadAdmissionInterceptor}.
+     */
+    public UploadSizeLimitFilter(@Value("${upload.chunked-size:10MB}") DataSize chunkedSize) {
+        this.chunkedSize = chunkedSize.toBytes();
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        
+        HttpServletRequest filtered = request;
+        if ("POST".equals(request.getMethod()) && request.getContentLengthLong() < 0) {
+            filtered = new LimitedRequest(request, chunkedSize);
+        }
+        filterChain.doFilter(filtered, response);
+    }
+    
+}
@@ -0,0 +1,25 @@
+package net.ssehub.teaching.exercise_submission.service.routes;
+
+import java.io.IOException;
+
+/**
+ * Indicates that more of a request body was read than was reserved for it (see {@link UploadSizeLimitFilter}).
+ * Thrown while the body is read, so it usually arrives wrapped by the message converter; see
+ * {@link ResponseExceptionHandler}.
+ * 
+ * @author Adam
+ */
+public class UploadTooLargeException extends IOException {
+    
+    private static final long serialVersionUID = -3620114856452271042L;
+    
+    /**
+     * Creates this exception.
+     * 
+     * @param limit The number of bytes that the body may have.
+     */
+    public UploadTooLargeException(long limit) {
+        super("Request body is larger than " + limit + " bytes");
+    }
+    
+}
@@ -0,0 +1,192 @@
+package net.ssehub.teaching.exercise_submission.service.storage;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Assignment;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Course;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.ICourseListener;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Participant;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Role;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.StuMgmtView;
+import net.ssehub.teaching.exercise_submission.service.submission.SubmissionTarget;
+
+/**
+ * Creates the assignments and groups of the courses in the {@link ISubmissionStorage}, so that submissions can be
+ * stored. Driven by the changes of the {@link StuMgmtView}: whenever a course is loaded or changed, the groups of all
+ * its assignments are provisioned in a background thread.
+ * <p>
+ * The groups that were already provisioned are remembered, so that a reload of an unchanged course causes no storage
+ * operations, and a change only provisions the new groups.
+ * <p>
+ * As the background provisioning may not have reached a group when the first submission to it arrives (e.g. right
+ * after a course was loaded), single targets can also be provisioned on demand via
+ * {@link #provision(SubmissionTarget)}.
+ * 
+ * @author Adam
+ */
+@Component
+public class GroupProvisioner implements ICourseListener {
+    
+    private static final Log LOGGER = LogFactory.getLog(GroupProvisioner.class);
+    
+    private StuMgmtView stuMgmtView;
+    
+    private ISubmissionStorage storage;
+    
+    private ExecutorService executor;
+    
+    private Map<String, Map<String, Set<String>>> provisioned;
+    
+    /**
+     * Creates a new {@link GroupProvisioner} and registers it as a listener of the given view.
+     * 
+     * @param stuMgmtView The view whose courses are provisioned.
+     * @param storage The storage to create the assignments and groups in.
+     */
+    public GroupProvisioner(StuMgmtView stuMgmtView, ISubmissionStorage storage) {
+        this.stuMgmtView = stuMgmtView;
+        this.storage = storage;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "group-provisioning");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // only accessed by the single provisioning thread
+        this.provisioned = new HashMap<>();
+        
+        stuMgmtView.addListener(this);
+    }
+    
+    @Override
+    public void courseChanged(Course course) {
+        executor.execute(() -> provision(course));
+    }
+    
+    /**
+     * Provisions the groups of all assignments of the given course that were not provisioned yet.
+     * 
+     * @param course The course.
+     */
+    void provision(Course course) {
+        Map<String, Set<String>> before = provisioned.getOrDefault(course.id(), Map.of());
+        Map<String, Set<String>> after = new HashMap<>();
+        
+        for (Assignment assignment : course.assignmentsByName().values()) {
+            Set<String> previousGroups = before.getOrDefault(assignment.name(), Set.of());
+            Set<String> groups = getGroupNames(course, assignment);
+            
+            String[] newGroups = groups.stream()
+                    .filter(group -> !previousGroups.contains(group))
+                    .toArray(String[]::new);
+            
+            if (newGroups.length > 0 || !before.containsKey(assignment.name())) {
+                try {
+                    storage.createOrUpdateAssignment(course.id(), assignment.name(), newGroups);
+                    after.put(assignment.name(), groups);
+                    
+                } catch (StorageException e) {
+                    LOGGER.warn("Could not provision " + newGroups.length + " groups of " + course.id() + "/"
+                            + assignment.name(), e);
+                    if (before.containsKey(assignment.name())) {
+                        after.put(assignment.name(), previousGroups);
+                    }
+                }
+            } else {
+                after.put(assignment.name(), previousGroups);
+            }
+        }
+        
+        provisioned.put(course.id(), after);
+    }
+    
+    /**
+     * Provisions the group of a single target on the calling thread, if the group belongs to the assignment. Groups
+     * that already exist are not touched, so this is cheap if the background provisioning was faster.
+     * 
+     * @param target The target whose assignment and group should exist.
+     * 
+     * @return Whether the group belongs to the assignment and was provisioned.
+     * 
+     * @throws StorageException If creating the group fails.
+     */
+    public boolean provision(SubmissionTarget target) throws StorageException {
+        Course course = stuMgmtView.getCourse(target.course()).orElse(null);
+        Assignment assignment = course != null ? course.assignmentsByName().get(target.assignmentName()) : null;
+        
+        boolean known = assignment != null && getGroupNames(course, assignment).contains(target.groupName());
+        if (known) {
+            LOGGER.info("Provisioning " + target + " on demand");
+            storage.createOrUpdateAssignment(target.course(), target.assignmentName(), target.groupName());
+        }
+        return known;
+    }
+    
+    /**
+     * Determines the groups of an assignment: the groups for group work, and the usernames of the students for
+     * single work.
+     * 
+     * @param course The course of the assignment.
+     * @param assignment The assignment.
+     * 
+     * @return The names of the groups.
+     */
+    static Set<String> getGroupNames(Course course, Assignment assignment) {
+        Set<String> result = new HashSet<>();
+        
+        // unknown collaboration types are read as null
+        if (assignment.collaboration() != null) {
+            switch (assignment.collaboration()) {
+            case SINGLE:
+                addStudents(course, result);
+                break;
+            
+            case GROUP:
+                result.addAll(assignment.groupsByNames().keySet());
+                break;
+            
+            case GROUP_OR_SINGLE:
+                result.addAll(assignment.groupsByNames().keySet());
+                addStudents(course, result);
+                break;
+            
+            default:
+                break;
+            }
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Adds the usernames of all students of the course to the given set.
+     * 
+     * @param course The course.
+     * @param groups The set to add the usernames to.
+     */
+    private static void addStudents(Course course, Set<String> groups) {
+        for (Participant participant : course.participantsByName().values()) {
+            if (participant.role() == Role.STUDENT) {
+                groups.add(participant.name());
+            }
+        }
+    }
+    
+    /**
+     * Stops provisioning.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+}
@@ -1,7 +1,9 @@
 package net.ssehub.teaching.exercise_submission.service.storage;
 
 import java.util.List;
+import java.util.Optional;
 
+import net.ssehub.teaching.exercise_submission.service.submission.RecordedCheckResult;
 import net.ssehub.teaching.exercise_submission.service.submission.Submission;
 import net.ssehub.teaching.exercise_submission.service.submission.SubmissionTarget;
 import net.ssehub.teaching.exercise_submission.service.submission.Version;
@@ -29,16 +31,32 @@ public interface ISubmissionStorage {
     public void createOrUpdateAssignment(String course, String assignmentName, String... newGroupNames)
             throws StorageException;
     
+    /**
+     * Returns the names of all groups of the given assignment.
+     * 
+     * @param course The course identifier of the assignment.
+     * @param assignmentName The name of the assignment in the given course.
+     * 
+     * @return The names of the groups, sorted alphabetically.
+     * 
+     * @throws NoSuchTargetException If the given assignment does not exist.
+     * @throws StorageException If an exception occurred in the storage backend.
+     */
+    public List<String> getGroupNames(String course, String assignmentName)
+            throws NoSuchTargetException, StorageException;
+    
     /**
      * Adds a new submission for a given group and assignment.
      * 
      * @param target The assignment and group to add the submission for.
      * @param submission The submission to add.
      * 
+     * @return The newly created version.
+     * 
      * @throws NoSuchTargetException If the given target does not exist.
      * @throws StorageException If an exception occurred in the storage backend.
      */
-    public void submitNewVersion(SubmissionTarget target, Submission submission)
+    public Version submitNewVersion(SubmissionTarget target, Submission submission)
             throws NoSuchTargetException, StorageException;
 
     /**
@@ -69,4 +87,60 @@ public interface ISubmissionStorage {
      */
     public Submission getSubmission(SubmissionTarget target, Version version)
             throws NoSuchTargetException, StorageException;
+    
+    /**
+     * Stores the result of the inline checks, i.e. the checks that decided whether the version was accepted. Replaces a
+     * previously stored result.
+     * 
+     * @param target The assignment and group of the version.
+     * @param version The version that was checked.
+     * @param result The result of the inline checks.
+     * 
+     * @throws NoSuchTargetException If the given target or version does not exist.
+     * @throws StorageException If an exception occurred in the storage backend.
+     */
+    public void storeCheckResult(SubmissionTarget target, Version version, RecordedCheckResult result)
+            throws NoSuchTargetException, StorageException;
+    
+    /**
+     * Retrieves the result of the inline checks of a version.
+     * 
+     * @param target The assignment and group of the version.
+     * @param version The version to get the result for.
+     * 
+     * @return The result of the inline checks; empty if none was stored.
+     * 
+     * @throws NoSuchTargetException If the given target or version does not exist.
+     * @throws StorageException If an exception occurred in the storage backend.
+     */
+    public Optional<RecordedCheckResult> getCheckResult(SubmissionTarget target, Version version)
+            throws NoSuchTargetException, StorageException;
+    
+    /**
+     * Stores the result of the deferred checks of a version. Replaces a previously stored result.
+     * 
+     * @param target The assignment and group of the version.
+     * @param version The version that was checked.
+     * @param result The result of the deferred checks.
+     * 
+     * @throws NoSuchTargetException If the given target or version does not exist.
+     * @throws StorageException If an exception occurred in the storage backend.
+     */
+    public void storeDeferredCheckResult(SubmissionTarget target, Version version, RecordedCheckResult result)
+            throws NoSuchTargetException, StorageException;
+    
+    /**
+     * Retrieves the result of the deferred checks of a version.
+     * 
+     * @param target The assignment and group of the version.
+     * @param version The version to get the result for.
+     * 
+     * @return The result of the deferred checks; empty if none was stored (yet).
+     * 
+     * @throws NoSuchTargetException If the given target or version does not exist.
+     * @throws StorageException If an exception occurred in the storage backend.
+     */
+    public Optional<RecordedCheckResult> getDeferredCheckResult(SubmissionTarget target, Version version)
+            throws NoSuchTargetException, StorageException;
+    
 }
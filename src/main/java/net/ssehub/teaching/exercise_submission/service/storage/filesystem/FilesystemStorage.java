@@ -4,33 +4,69 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import net.ssehub.teaching.exercise_submission.service.dto.CheckMessageDto;
 import net.ssehub.teaching.exercise_submission.service.storage.ISubmissionStorage;
 import net.ssehub.teaching.exercise_submission.service.storage.NoSuchTargetException;
 import net.ssehub.teaching.exercise_submission.service.storage.StorageException;
+import net.ssehub.teaching.exercise_submission.service.submission.RecordedCheckResult;
 import net.ssehub.teaching.exercise_submission.service.submission.Submission;
 import net.ssehub.teaching.exercise_submission.service.submission.SubmissionBuilder;
 import net.ssehub.teaching.exercise_submission.service.submission.SubmissionTarget;
 import net.ssehub.teaching.exercise_submission.service.submission.Version;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckResult;
 
 /**
  * An implementation that stores the submissions on the regular filesystem. For each new submitted version, a
- * sub-folder named after the unix-timestamp and the author name is created.
+ * sub-folder named after the unix-timestamp and the author name is created. The results of the inline and deferred
+ * checks of a version are stored as compact JSON files next to the version folder (<code>.checks.json</code> and
+ * <code>.deferred.json</code>); empty message fields are omitted.
+ * <p>
+ * The group directories of each assignment are listed once and cached, so that provisioning many groups (see
+ * {@link #createOrUpdateAssignment(String, String, String...)}) only creates the missing directories, in parallel,
+ * instead of checking every group directory one by one.
  *  
  * @author Adam
  */
 @Component
 public class FilesystemStorage implements ISubmissionStorage {
     
+    private static final String CHECK_RESULT_SUFFIX = ".checks.json";
+    
+    private static final String DEFERRED_RESULT_SUFFIX = ".deferred.json";
+    
+    /**
+     * The stored form of a {@link RecordedCheckResult}. Times are stored as milliseconds.
+     */
+    private record StoredCheckResult(boolean passed, List<CheckMessageDto> messages, long checkedAt,
+            long durationMillis) {
+    }
+    
     private Path baseDirectory;
     
+    private ObjectMapper objectMapper;
+    
+    private Map<Path, Set<String>> existingGroups;
+    
     /**
      * Creates a new {@link FilesystemStorage} with the given base directory. The directory must exist. If it is not
      * empty, the content must conform to the layout of this filesystem storage.
@@ -45,6 +81,8 @@ public class FilesystemStorage implements ISubmissionStorage {
         }
         
         this.baseDirectory = baseDirectory;
+        this.objectMapper = new ObjectMapper().setSerializationInclusion(Include.NON_NULL);
+        this.existingGroups = new ConcurrentHashMap<>();
     }
     
     /**
@@ -81,32 +119,88 @@ public class FilesystemStorage implements ISubmissionStorage {
     public void createOrUpdateAssignment(String course, String assignmentName, String... newGroupNames)
             throws StorageException {
         
+        Path assignmentPath = getAssignmentPath(course, assignmentName);
         try {
-            Path assignmentPath = getAssignmentPath(course, assignmentName);
-            if (!Files.isDirectory(assignmentPath)) {
-                Files.createDirectories(assignmentPath);
-            }
+            Set<String> existing = getExistingGroups(assignmentPath);
             
-            for (String groupName : newGroupNames) {
-                Path groupDir = assignmentPath.resolve(groupName);
-                if (!Files.isDirectory(groupDir)) {
-                    Files.createDirectory(groupDir);
+            List<String> missing = Arrays.stream(newGroupNames)
+                    .filter(groupName -> !existing.contains(groupName))
+                    .distinct()
+                    .toList();
+            
+            missing.parallelStream().forEach(groupName -> {
+                try {
+                    Files.createDirectories(assignmentPath.resolve(groupName));
+                    existing.add(groupName);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
                 }
+            });
+            
+        } catch (UncheckedIOException e) {
+            throw new StorageException(e.getCause());
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+    }
+    
+    /**
+     * Returns the names of the existing groups of an assignment. The directory of the assignment is listed (and
+     * created, if necessary) only once; afterwards, the cached listing is used. Groups are never deleted by this
+     * storage, so the listing only grows.
+     * 
+     * @param assignmentPath The path to the assignment directory.
+     * 
+     * @return The modifiable, thread-safe set of names of existing groups.
+     * 
+     * @throws IOException If creating or listing the assignment directory fails.
+     */
+    private Set<String> getExistingGroups(Path assignmentPath) throws IOException {
+        Set<String> result = existingGroups.get(assignmentPath);
+        if (result == null) {
+            Files.createDirectories(assignmentPath);
+            
+            Set<String> listing = ConcurrentHashMap.newKeySet();
+            try (Stream<Path> entries = Files.list(assignmentPath)) {
+                entries.forEach(entry -> listing.add(entry.getFileName().toString()));
             }
             
+            result = existingGroups.putIfAbsent(assignmentPath, listing);
+            if (result == null) {
+                result = listing;
+            }
+        }
+        return result;
+    }
+    
+    @Override
+    public List<String> getGroupNames(String course, String assignmentName)
+            throws NoSuchTargetException, StorageException {
+        
+        Path assignmentPath = getAssignmentPath(course, assignmentName);
+        if (!Files.isDirectory(assignmentPath)) {
+            throw new NoSuchTargetException(course, assignmentName);
+        }
+        
+        try (Stream<Path> entries = Files.list(assignmentPath)) {
+            return entries
+                    .filter(Files::isDirectory)
+                    .map(p -> p.getFileName().toString())
+                    .sorted()
+                    .toList();
+            
         } catch (IOException e) {
             throw new StorageException(e);
         }
     }
     
-
     @Override
-    public void submitNewVersion(SubmissionTarget target, Submission submission)
+    public Version submitNewVersion(SubmissionTarget target, Submission submission)
             throws NoSuchTargetException, StorageException {
         
         Path groupDir = getExistingGroupPath(target);
         
-        Version newVersion = new Version(submission.getAuthor(), Instant.now());
+        Version newVersion = new Version(submission.getAuthor(), Instant.now().truncatedTo(ChronoUnit.SECONDS));
         long newTimestamp = newVersion.creationTime().getEpochSecond();
         
         try {
@@ -117,7 +211,7 @@ public class FilesystemStorage implements ISubmissionStorage {
             if (versionAlreadyExists) {
                 throw new StorageException("Version already exists");
             }
-        
+            
             Path versionDir = groupDir.resolve(versionToFilename(newVersion));
             Files.createDirectory(versionDir);
             submission.writeToDirectory(versionDir);
@@ -126,6 +220,7 @@ public class FilesystemStorage implements ISubmissionStorage {
             throw new StorageException(e);
         }
         
+        return newVersion;
     }
     
     @Override
@@ -134,6 +229,7 @@ public class FilesystemStorage implements ISubmissionStorage {
         
         try {
             return Files.list(groupDir)
+                    .filter(Files::isDirectory)
                     .map(p -> p.getFileName().toString())
                     .map(FilesystemStorage::filenameToVersion)
                     .sorted(Comparator.comparing(Version::creationTime).reversed())
@@ -187,12 +283,7 @@ public class FilesystemStorage implements ISubmissionStorage {
     public Submission getSubmission(SubmissionTarget target, Version version)
             throws NoSuchTargetException, StorageException {
         
-        Path groupDir = getExistingGroupPath(target);
-        
-        Path versionDir = groupDir.resolve(versionToFilename(version));
-        if (!Files.isDirectory(versionDir)) {
-            throw new NoSuchTargetException(target, version.creationTime().getEpochSecond());
-        }
+        Path versionDir = getExistingVersionPath(target, version);
         
         SubmissionBuilder builder = new SubmissionBuilder(version.author());
         
@@ -215,5 +306,111 @@ public class FilesystemStorage implements ISubmissionStorage {
             throw new StorageException(e);
         }
     }
-
+    
+    /**
+     * Creates the path to the directory of an existing version.
+     * 
+     * @param target The target that specifies course, assignment, and group.
+     * @param version The version.
+     * 
+     * @return The path to the version directory.
+     * 
+     * @throws NoSuchTargetException If the target or version directory does not exist.
+     */
+    private Path getExistingVersionPath(SubmissionTarget target, Version version) throws NoSuchTargetException {
+        Path versionDir = getExistingGroupPath(target).resolve(versionToFilename(version));
+        if (!Files.isDirectory(versionDir)) {
+            throw new NoSuchTargetException(target, version.creationTime().getEpochSecond());
+        }
+        return versionDir;
+    }
+    
+    @Override
+    public void storeCheckResult(SubmissionTarget target, Version version, RecordedCheckResult result)
+            throws NoSuchTargetException, StorageException {
+        
+        writeCheckResult(getExistingVersionPath(target, version), CHECK_RESULT_SUFFIX, result);
+    }
+    
+    @Override
+    public Optional<RecordedCheckResult> getCheckResult(SubmissionTarget target, Version version)
+            throws NoSuchTargetException, StorageException {
+        
+        return readCheckResult(getExistingVersionPath(target, version), CHECK_RESULT_SUFFIX);
+    }
+    
+    @Override
+    public void storeDeferredCheckResult(SubmissionTarget target, Version version, RecordedCheckResult result)
+            throws NoSuchTargetException, StorageException {
+        
+        writeCheckResult(getExistingVersionPath(target, version), DEFERRED_RESULT_SUFFIX, result);
+    }
+    
+    @Override
+    public Optional<RecordedCheckResult> getDeferredCheckResult(SubmissionTarget target, Version version)
+            throws NoSuchTargetException, StorageException {
+        
+        return readCheckResult(getExistingVersionPath(target, version), DEFERRED_RESULT_SUFFIX);
+    }
+    
+    /**
+     * Writes a check result to a file next to the given version directory. The file is first written to a temporary
+     * file and then moved, so that readers never see a partially written result.
+     * 
+     * @param versionDir The directory of the version.
+     * @param suffix The suffix that is appended to the name of the version directory to get the result filename.
+     * @param result The result to write.
+     * 
+     * @throws StorageException If writing the file fails.
+     */
+    private void writeCheckResult(Path versionDir, String suffix, RecordedCheckResult result)
+            throws StorageException {
+        
+        Path resultFile = versionDir.resolveSibling(versionDir.getFileName() + suffix);
+        
+        StoredCheckResult stored = new StoredCheckResult(result.result().passed(),
+                result.result().messages().stream()
+                        .map(CheckMessageDto::new)
+                        .toList(),
+                result.checkedAt().toEpochMilli(),
+                result.duration().toMillis());
+        
+        try {
+            Path temporaryFile = Files.createTempFile(versionDir.getParent(), ".result", ".tmp");
+            objectMapper.writeValue(temporaryFile.toFile(), stored);
+            Files.move(temporaryFile, resultFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+    }
+    
+    /**
+     * Reads a check result from the file next to the given version directory.
+     * 
+     * @param versionDir The directory of the version.
+     * @param suffix The suffix that is appended to the name of the version directory to get the result filename.
+     * 
+     * @return The stored result; empty if no result file exists.
+     * 
+     * @throws StorageException If reading the file fails.
+     */
+    private Optional<RecordedCheckResult> readCheckResult(Path versionDir, String suffix) throws StorageException {
+        Path resultFile = versionDir.resolveSibling(versionDir.getFileName() + suffix);
+        
+        Optional<RecordedCheckResult> result = Optional.empty();
+        if (Files.isRegularFile(resultFile)) {
+            try {
+                StoredCheckResult stored = objectMapper.readValue(resultFile.toFile(), StoredCheckResult.class);
+                CheckResult checkResult = new CheckResult(stored.passed(), stored.messages().stream()
+                        .map(CheckMessageDto::toResultMessage)
+                        .toList());
+                result = Optional.of(new RecordedCheckResult(checkResult, Instant.ofEpochMilli(stored.checkedAt()),
+                        Duration.ofMillis(stored.durationMillis())));
+            } catch (IOException e) {
+                throw new StorageException(e);
+            }
+        }
+        return result;
+    }
+    
 }
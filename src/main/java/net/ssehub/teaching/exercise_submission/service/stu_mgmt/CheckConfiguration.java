@@ -1,5 +1,7 @@
 package net.ssehub.teaching.exercise_submission.service.stu_mgmt;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 import net.ssehub.teaching.exercise_submission.service.submission.checks.Check;
@@ -11,4 +13,53 @@ import net.ssehub.teaching.exercise_submission.service.submission.checks.Check;
  */
 public record CheckConfiguration(String checkName, boolean rejecting, Map<String, String> properties) {
 
+    /**
+     * The property that lists the names of the checks that this check depends on, separated by commas.
+     */
+    public static final String DEPENDS_ON_PROPERTY = "dependsOn";
+    
+    /**
+     * The property that specifies when this check is run: {@value #TIER_INLINE} (default) or {@value #TIER_DEFERRED}.
+     */
+    public static final String TIER_PROPERTY = "tier";
+    
+    /**
+     * Value of the {@value #TIER_PROPERTY} property for checks that run before a submission is accepted.
+     */
+    public static final String TIER_INLINE = "inline";
+    
+    /**
+     * Value of the {@value #TIER_PROPERTY} property for checks that run in the background after a submission was
+     * stored.
+     */
+    public static final String TIER_DEFERRED = "deferred";
+    
+    /**
+     * Returns the names of the checks that this check depends on. This check is only run if all of these checks
+     * passed. Specified as a comma-separated list in the {@value #DEPENDS_ON_PROPERTY} property.
+     * 
+     * @return The names of the checks that this check depends on; may be empty.
+     */
+    public List<String> dependencies() {
+        List<String> result = List.of();
+        String value = properties != null ? properties.get(DEPENDS_ON_PROPERTY) : null;
+        if (value != null) {
+            result = Arrays.stream(value.split(","))
+                    .map(String::trim)
+                    .filter(name -> !name.isEmpty())
+                    .toList();
+        }
+        return result;
+    }
+    
+    /**
+     * Returns whether this check is deferred, i.e. runs in the background after the submission was stored instead of
+     * deciding whether the submission is accepted. Specified by the {@value #TIER_PROPERTY} property.
+     * 
+     * @return Whether this check is deferred.
+     */
+    public boolean isDeferred() {
+        return properties != null && TIER_DEFERRED.equals(properties.get(TIER_PROPERTY));
+    }
+    
 }
@@ -0,0 +1,168 @@
+package net.ssehub.teaching.exercise_submission.service.stu_mgmt;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Protects the service from a slow or unavailable student management system. Combines a bulkhead and a circuit
+ * breaker:
+ * <ul>
+ * <li>At most a fixed number of requests are sent concurrently. Further requests fail immediately instead of
+ * blocking more threads on the student management system.</li>
+ * <li>After a number of consecutive failures, the circuit opens and all requests fail immediately for a while. Then a
+ * single trial request is let through; if it succeeds, the circuit closes again, otherwise it stays open for another
+ * period.</li>
+ * </ul>
+ * Requests that fail immediately throw an {@link IOException}, just like a failed request, so that callers fall back
+ * to their last known data (see {@link StuMgmtView}).
+ * 
+ * @author Adam
+ */
+@Component
+public class CircuitBreaker {
+    
+    private static final Log LOGGER = LogFactory.getLog(CircuitBreaker.class);
+    
+    /**
+     * A request that is guarded by the {@link CircuitBreaker}.
+     *
+     * @param <T> The type of the result.
+     */
+    @FunctionalInterface
+    public interface IRequest<T> {
+        
+        /**
+         * Executes the request.
+         * 
+         * @return The result of the request.
+         * 
+         * @throws IOException If the request fails.
+         */
+        public T execute() throws IOException;
+        
+    }
+    
+    private int failureThreshold;
+    
+    private long openNanos;
+    
+    private Semaphore bulkhead;
+    
+    private int consecutiveFailures;
+    
+    private boolean open;
+    
+    private long openUntil;
+    
+    private boolean trialRunning;
+    
+    /**
+     * Creates a new {@link CircuitBreaker}.
+     * 
+     * @param failureThreshold The number of consecutive failures after which the circuit opens.
+     * @param openDuration How long the circuit stays open before a trial request is let through.
+     * @param maxConcurrentRequests The maximum number of requests that are executed concurrently.
+     */
+    public CircuitBreaker(
+            @Value("${stu-mgmt.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${stu-mgmt.circuit-breaker.open-duration:30s}") Duration openDuration,
+            @Value("${stu-mgmt.max-concurrent-requests:8}") int maxConcurrentRequests) {
+        
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.bulkhead = new Semaphore(maxConcurrentRequests);
+    }
+    
+    /**
+     * Executes the given request, unless the circuit is open or too many requests are running.
+     * 
+     * @param <T> The type of the result.
+     * @param request The request to execute.
+     * 
+     * @return The result of the request.
+     * 
+     * @throws IOException If the request fails, or is rejected because the circuit is open or too many requests are
+     *      running.
+     */
+    public <T> T execute(IRequest<T> request) throws IOException {
+        boolean trial = acquire();
+        
+        boolean success = false;
+        try {
+            T result = request.execute();
+            success = true;
+            return result;
+        } finally {
+            release(success, trial);
+        }
+    }
+    
+    /**
+     * Returns whether the circuit is currently open, i.e. requests are rejected.
+     * 
+     * @return Whether the circuit is open.
+     */
+    public synchronized boolean isOpen() {
+        return open;
+    }
+    
+    /**
+     * Acquires a permit to execute a request.
+     * 
+     * @return Whether the request is the trial request of an open circuit.
+     * 
+     * @throws IOException If the circuit is open or too many requests are running.
+     */
+    private synchronized boolean acquire() throws IOException {
+        boolean trial = false;
+        if (open) {
+            if (trialRunning || System.nanoTime() - openUntil < 0) {
+                throw new IOException("Student management system unavailable (circuit open)");
+            }
+            trial = true;
+        }
+        
+        if (!bulkhead.tryAcquire()) {
+            throw new IOException("Too many concurrent requests to the student management system");
+        }
+        trialRunning |= trial;
+        return trial;
+    }
+    
+    /**
+     * Releases the permit of a finished request and updates the state of the circuit.
+     * 
+     * @param success Whether the request succeeded.
+     * @param trial Whether the request was the trial request of an open circuit.
+     */
+    private synchronized void release(boolean success, boolean trial) {
+        bulkhead.release();
+        
+        if (success) {
+            if (open) {
+                LOGGER.info("Student management system available again, closing circuit");
+            }
+            consecutiveFailures = 0;
+            open = false;
+            
+        } else {
+            consecutiveFailures++;
+            if (trial || !open && consecutiveFailures >= failureThreshold) {
+                LOGGER.warn("Student management system failed " + consecutiveFailures
+                        + " times in a row, opening circuit for " + Duration.ofNanos(openNanos));
+                open = true;
+                openUntil = System.nanoTime() + openNanos;
+            }
+        }
+        if (trial) {
+            trialRunning = false;
+        }
+    }
+    
+}
@@ -0,0 +1,400 @@
+package net.ssehub.teaching.exercise_submission.service.stu_mgmt;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes the snapshot of cached {@link Course}s in a compact binary format (see {@link StuMgmtView}).
+ * Strings are written as length-prefixed UTF-8, enums by name, and group members that are also participants of the
+ * course only by their name. The format starts with a magic number and a version; snapshots of other versions are
+ * rejected, so that they are ignored instead of being misread after an update.
+ * 
+ * @author Adam
+ */
+class CourseSnapshot {
+    
+    private static final int MAGIC = 0x53544d53;
+    
+    private static final int VERSION = 1;
+    
+    private static final int NULL = -1;
+    
+    /**
+     * Don't allow any instances.
+     */
+    private CourseSnapshot() {}
+    
+    /**
+     * Writes the given courses.
+     * 
+     * @param courses The courses to write.
+     * @param out The stream to write to. Not closed by this method.
+     * 
+     * @throws IOException If writing fails.
+     */
+    static void write(Collection<Course> courses, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(courses.size());
+        for (Course course : courses) {
+            writeCourse(course, data);
+        }
+        data.flush();
+    }
+    
+    /**
+     * Reads courses that were written by {@link #write(Collection, OutputStream)}.
+     * 
+     * @param in The stream to read from. Not closed by this method.
+     * 
+     * @return The read courses.
+     * 
+     * @throws IOException If reading fails or the stream does not contain a snapshot of this version.
+     */
+    static List<Course> read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a course snapshot");
+        }
+        int version = data.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported course snapshot version " + version);
+        }
+        
+        int count = data.readInt();
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            courses.add(readCourse(data));
+        }
+        return courses;
+    }
+    
+    /**
+     * Writes a single course.
+     * 
+     * @param course The course.
+     * @param out The stream to write to.
+     * 
+     * @throws IOException If writing fails.
+     */
+    private static void writeCourse(Course course, DataOutputStream out) throws IOException {
+        writeString(course.id(), out);
+        writeSize(course.participantsByName(), out);
+        if (course.participantsByName() != null) {
+            for (Participant participant : course.participantsByName().values()) {
+                writeParticipant(participant, out);
+            }
+        }
+        writeSize(course.assignmentsByName(), out);
+        if (course.assignmentsByName() != null) {
+            for (Assignment assignment : course.assignmentsByName().values()) {
+                writeAssignment(assignment, course.participantsByName(), out);
+            }
+        }
+    }
+    
+    /**
+     * Reads a single course.
+     * 
+     * @param in The stream to read from.
+     * 
+     * @return The course.
+     * 
+     * @throws IOException If reading fails.
+     */
+    private static Course readCourse(DataInputStream in) throws IOException {
+        String id = readString(in);
+        Map<String, Participant> participants = null;
+        int participantCount = in.readInt();
+        if (participantCount != NULL) {
+            participants = new HashMap<>();
+            for (int i = 0; i < participantCount; i++) {
+                Participant participant = readParticipant(in);
+                participants.put(participant.name(), participant);
+            }
+        }
+        Map<String, Assignment> assignments = null;
+        int assignmentCount = in.readInt();
+        if (assignmentCount != NULL) {
+            assignments = new HashMap<>();
+            for (int i = 0; i < assignmentCount; i++) {
+                Assignment assignment = readAssignment(participants, in);
+                assignments.put(assignment.name(), assignment);
+            }
+        }
+        return new Course(id, participants, assignments);
+    }
+    
+    /**
+     * Writes a single assignment.
+     * 
+     * @param assignment The assignment.
+     * @param participants The participants of the course, to refer to group members by name.
+     * @param out The stream to write to.
+     * 
+     * @throws IOException If writing fails.
+     */
+    private static void writeAssignment(Assignment assignment, Map<String, Participant> participants,
+            DataOutputStream out) throws IOException {
+        
+        writeString(assignment.mgmtId(), out);
+        writeString(assignment.name(), out);
+        writeString(assignment.state() != null ? assignment.state().name() : null, out);
+        writeString(assignment.collaboration() != null ? assignment.collaboration().name() : null, out);
+        
+        writeSize(assignment.groupsByNames(), out);
+        if (assignment.groupsByNames() != null) {
+            for (Group group : assignment.groupsByNames().values()) {
+                writeGroup(group, participants, out);
+            }
+        }
+        
+        List<CheckConfiguration> configurations = assignment.checkConfigurations();
+        out.writeInt(configurations != null ? configurations.size() : NULL);
+        if (configurations != null) {
+            for (CheckConfiguration configuration : configurations) {
+                writeString(configuration.checkName(), out);
+                out.writeBoolean(configuration.rejecting());
+                writeSize(configuration.properties(), out);
+                if (configuration.properties() != null) {
+                    for (Map.Entry<String, String> property : configuration.properties().entrySet()) {
+                        writeString(property.getKey(), out);
+                        writeString(property.getValue(), out);
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Reads a single assignment.
+     * 
+     * @param participants The participants of the course, to resolve group members that are referred to by name.
+     * @param in The stream to read from.
+     * 
+     * @return The assignment.
+     * 
+     * @throws IOException If reading fails.
+     */
+    private static Assignment readAssignment(Map<String, Participant> participants, DataInputStream in)
+            throws IOException {
+        
+        String mgmtId = readString(in);
+        String name = readString(in);
+        AssignmentState state = readEnum(AssignmentState.class, in);
+        Collaboration collaboration = readEnum(Collaboration.class, in);
+        
+        Map<String, Group> groups = null;
+        int groupCount = in.readInt();
+        if (groupCount != NULL) {
+            groups = new HashMap<>();
+            for (int i = 0; i < groupCount; i++) {
+                Group group = readGroup(participants, in);
+                groups.put(group.name(), group);
+            }
+        }
+        
+        List<CheckConfiguration> configurations = null;
+        int configurationCount = in.readInt();
+        if (configurationCount != NULL) {
+            configurations = new ArrayList<>();
+            for (int i = 0; i < configurationCount; i++) {
+                String checkName = readString(in);
+                boolean rejecting = in.readBoolean();
+                Map<String, String> properties = null;
+                int propertyCount = in.readInt();
+                if (propertyCount != NULL) {
+                    properties = new HashMap<>();
+                    for (int j = 0; j < propertyCount; j++) {
+                        properties.put(readString(in), readString(in));
+                    }
+                }
+                configurations.add(new CheckConfiguration(checkName, rejecting, properties));
+            }
+        }
+        
+        return new Assignment(mgmtId, name, state, collaboration, groups, configurations);
+    }
+    
+    /**
+     * Writes a single group. Members that are equal to the participant of the course with the same name are only
+     * written by name.
+     * 
+     * @param group The group.
+     * @param participants The participants of the course.
+     * @param out The stream to write to.
+     * 
+     * @throws IOException If writing fails.
+     */
+    private static void writeGroup(Group group, Map<String, Participant> participants, DataOutputStream out)
+            throws IOException {
+        
+        writeString(group.mgmtId(), out);
+        writeString(group.name(), out);
+        writeSize(group.participantsByName(), out);
+        if (group.participantsByName() != null) {
+            for (Participant member : group.participantsByName().values()) {
+                boolean reference = participants != null && member.equals(participants.get(member.name()));
+                out.writeBoolean(reference);
+                if (reference) {
+                    writeString(member.name(), out);
+                } else {
+                    writeParticipant(member, out);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Reads a single group.
+     * 
+     * @param participants The participants of the course, to resolve members that are referred to by name.
+     * @param in The stream to read from.
+     * 
+     * @return The group.
+     * 
+     * @throws IOException If reading fails or a member refers to an unknown participant.
+     */
+    private static Group readGroup(Map<String, Participant> participants, DataInputStream in) throws IOException {
+        String mgmtId = readString(in);
+        String name = readString(in);
+        Map<String, Participant> members = null;
+        int memberCount = in.readInt();
+        if (memberCount != NULL) {
+            members = new HashMap<>();
+            for (int i = 0; i < memberCount; i++) {
+                Participant member;
+                if (in.readBoolean()) {
+                    String memberName = readString(in);
+                    member = participants != null ? participants.get(memberName) : null;
+                    if (member == null) {
+                        throw new IOException("Unknown group member " + memberName);
+                    }
+                } else {
+                    member = readParticipant(in);
+                }
+                members.put(member.name(), member);
+            }
+        }
+        return new Group(mgmtId, name, members);
+    }
+    
+    /**
+     * Writes a single participant.
+     * 
+     * @param participant The participant.
+     * @param out The stream to write to.
+     * 
+     * @throws IOException If writing fails.
+     */
+    private static void writeParticipant(Participant participant, DataOutputStream out) throws IOException {
+        writeString(participant.mgmtId(), out);
+        writeString(participant.name(), out);
+        writeString(participant.role() != null ? participant.role().name() : null, out);
+    }
+    
+    /**
+     * Reads a single participant.
+     * 
+     * @param in The stream to read from.
+     * 
+     * @return The participant.
+     * 
+     * @throws IOException If reading fails.
+     */
+    private static Participant readParticipant(DataInputStream in) throws IOException {
+        return new Participant(readString(in), readString(in), readEnum(Role.class, in));
+    }
+    
+    /**
+     * Writes the size of a map, or {@value #NULL} if it is <code>null</code>.
+     * 
+     * @param map The map.
+     * @param out The stream to write to.
+     * 
+     * @throws IOException If writing fails.
+     */
+    private static void writeSize(Map<?, ?> map, DataOutputStream out) throws IOException {
+        out.writeInt(map != null ? map.size() : NULL);
+    }
+    
+    /**
+     * Writes a string as length-prefixed UTF-8. Unlike {@link DataOutputStream#writeUTF(String)}, this has no length
+     * limit.
+     * 
+     * @param string The string; may be <code>null</code>.
+     * @param out The stream to write to.
+     * 
+     * @throws IOException If writing fails.
+     */
+    private static void writeString(String string, DataOutputStream out) throws IOException {
+        if (string == null) {
+            out.writeInt(NULL);
+        } else {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+    
+    /**
+     * Reads a string written by {@link #writeString(String, DataOutputStream)}.
+     * 
+     * @param in The stream to read from.
+     * 
+     * @return The string; may be <code>null</code>.
+     * 
+     * @throws IOException If reading fails.
+     */
+    private static String readString(DataInputStream in) throws IOException {
+        String result = null;
+        int length = in.readInt();
+        if (length != NULL) {
+            if (length < 0) {
+                throw new IOException("Invalid string length " + length);
+            }
+            byte[] bytes = in.readNBytes(length);
+            if (bytes.length < length) {
+                throw new EOFException();
+            }
+            result = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return result;
+    }
+    
+    /**
+     * Reads an enum constant that was written by its name.
+     * 
+     * @param <E> The enum type.
+     * @param type The enum class.
+     * @param in The stream to read from.
+     * 
+     * @return The constant; may be <code>null</code>.
+     * 
+     * @throws IOException If reading fails or the name is not a constant of the enum.
+     */
+    private static <E extends Enum<E>> E readEnum(Class<E> type, DataInputStream in) throws IOException {
+        E result = null;
+        String name = readString(in);
+        if (name != null) {
+            try {
+                result = Enum.valueOf(type, name);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Unknown " + type.getSimpleName() + " " + name, e);
+            }
+        }
+        return result;
+    }
+    
+}
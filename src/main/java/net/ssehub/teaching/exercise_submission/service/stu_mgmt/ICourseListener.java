@@ -0,0 +1,19 @@
+package net.ssehub.teaching.exercise_submission.service.stu_mgmt;
+
+/**
+ * Gets notified by the {@link StuMgmtView} when a course was loaded or changed.
+ * 
+ * @author Adam
+ */
+@FunctionalInterface
+public interface ICourseListener {
+    
+    /**
+     * Called after a course was (re-)loaded from the student management system or changed by a notification. Called
+     * in the thread that updated the course, so implementations should return quickly.
+     * 
+     * @param course The new state of the course.
+     */
+    public void courseChanged(Course course);
+    
+}
@@ -0,0 +1,308 @@
+package net.ssehub.teaching.exercise_submission.service.stu_mgmt;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Loads {@link Course}s from the REST API of the student management system. The following routes are used:
+ * <ul>
+ * <li><code>GET /courses/{courseId}</code>: existence of the course (404 if it does not exist)</li>
+ * <li><code>GET /courses/{courseId}/users</code>: participants with <code>userId</code>, <code>username</code>
+ * and <code>role</code></li>
+ * <li><code>GET /courses/{courseId}/assignments</code>: assignments with <code>id</code>, <code>name</code>,
+ * <code>state</code>, <code>collaboration</code>, and <code>configs</code></li>
+ * <li><code>GET /courses/{courseId}/assignments/{assignmentId}/registrations</code>: groups with <code>id</code>,
+ * <code>name</code> and <code>members</code>; only requested for assignments that are not
+ * {@link Collaboration#SINGLE}</li>
+ * </ul>
+ * Each tool config of an assignment becomes a {@link CheckConfiguration}: <code>tool</code> is the check name and
+ * <code>config</code> is a JSON object with the properties of the check. Its <code>rejecting</code> property (default
+ * <code>true</code>) is not passed on as a property.
+ * <p>
+ * All requests for a course go through a {@link CircuitBreaker}, so that a slow or unavailable student management
+ * system does not block request threads.
+ * <p>
+ * If no URL is configured, no course exists.
+ * 
+ * @author Adam
+ */
+@Component
+public class StuMgmtClient {
+    
+    private static final Log LOGGER = LogFactory.getLog(StuMgmtClient.class);
+    
+    private static final String REJECTING_PROPERTY = "rejecting";
+    
+    /**
+     * A participant as returned by the API.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record ParticipantJson(String userId, String username, Role role) {
+    }
+    
+    /**
+     * A tool configuration of an assignment as returned by the API.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record ToolConfigJson(String tool, String config) {
+    }
+    
+    /**
+     * An assignment as returned by the API.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record AssignmentJson(String id, String name, AssignmentState state, Collaboration collaboration,
+            List<ToolConfigJson> configs) {
+    }
+    
+    /**
+     * A group as returned by the API.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record GroupJson(String id, String name, List<ParticipantJson> members) {
+    }
+    
+    private String baseUrl;
+    
+    private String token;
+    
+    private Duration timeout;
+    
+    private HttpClient httpClient;
+    
+    private ObjectMapper objectMapper;
+    
+    private CircuitBreaker circuitBreaker;
+    
+    /**
+     * Creates a new {@link StuMgmtClient}.
+     * 
+     * @param baseUrl The base URL of the REST API of the student management system. Empty if no student management
+     *      system is used.
+     * @param token The bearer token to authenticate with. Empty to send no authentication.
+     * @param timeout The timeout for connecting and for each request.
+     * @param circuitBreaker The circuit breaker to guard the requests with.
+     */
+    public StuMgmtClient(
+            @Value("${stu-mgmt.url:}") String baseUrl,
+            @Value("${stu-mgmt.token:}") String token,
+            @Value("${stu-mgmt.timeout:5s}") Duration timeout,
+            CircuitBreaker circuitBreaker) {
+        
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.token = token;
+        this.timeout = timeout;
+        this.circuitBreaker = circuitBreaker;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .build();
+        this.objectMapper = new ObjectMapper()
+                .configure(DeserializationFeature.READ_UNKNOWN_ENUM_VALUES_AS_NULL, true);
+        
+        if (this.baseUrl.isEmpty()) {
+            LOGGER.warn("No URL for the student management system configured; no courses are available");
+        }
+    }
+    
+    /**
+     * Loads a course with all its participants, assignments, and groups.
+     * 
+     * @param courseId The ID of the course.
+     * 
+     * @return The course; empty if the course does not exist.
+     * 
+     * @throws IOException If the student management system cannot be reached or returns an invalid response, or
+     *      the {@link CircuitBreaker} rejected the request.
+     */
+    public Optional<Course> loadCourse(String courseId) throws IOException {
+        Optional<Course> result = Optional.empty();
+        if (!baseUrl.isEmpty()) {
+            result = circuitBreaker.execute(() -> requestCourse(courseId));
+        }
+        return result;
+    }
+    
+    /**
+     * Requests a course with all its participants, assignments, and groups.
+     * 
+     * @param courseId The ID of the course.
+     * 
+     * @return The course; empty if the course does not exist.
+     * 
+     * @throws IOException If the student management system cannot be reached or returns an invalid response.
+     */
+    private Optional<Course> requestCourse(String courseId) throws IOException {
+        String coursePath = "/courses/" + encode(courseId);
+        Optional<Course> result = Optional.empty();
+        if (get(coursePath, new TypeReference<Object>() { }).isPresent()) {
+            Map<String, Participant> participants = new HashMap<>();
+            for (ParticipantJson participant : getExisting(coursePath + "/users",
+                    new TypeReference<List<ParticipantJson>>() { })) {
+                participants.put(participant.username(), toParticipant(participant));
+            }
+            
+            Map<String, Assignment> assignments = new HashMap<>();
+            for (AssignmentJson assignment : getExisting(coursePath + "/assignments",
+                    new TypeReference<List<AssignmentJson>>() { })) {
+                
+                Map<String, Group> groups = new HashMap<>();
+                if (assignment.collaboration() != Collaboration.SINGLE) {
+                    for (GroupJson group : getExisting(coursePath + "/assignments/" + encode(assignment.id())
+                            + "/registrations", new TypeReference<List<GroupJson>>() { })) {
+                        groups.put(group.name(), toGroup(group));
+                    }
+                }
+                
+                assignments.put(assignment.name(), new Assignment(assignment.id(), assignment.name(),
+                        assignment.state(), assignment.collaboration(), groups, toCheckConfigurations(assignment)));
+            }
+            
+            result = Optional.of(new Course(courseId, participants, assignments));
+        }
+        return result;
+    }
+    
+    /**
+     * Converts a participant of the API to a {@link Participant}.
+     * 
+     * @param participant The participant returned by the API.
+     * 
+     * @return The {@link Participant}.
+     */
+    private static Participant toParticipant(ParticipantJson participant) {
+        return new Participant(participant.userId(), participant.username(), participant.role());
+    }
+    
+    /**
+     * Converts a group of the API to a {@link Group}.
+     * 
+     * @param group The group returned by the API.
+     * 
+     * @return The {@link Group}.
+     */
+    private static Group toGroup(GroupJson group) {
+        Map<String, Participant> members = new HashMap<>();
+        if (group.members() != null) {
+            for (ParticipantJson member : group.members()) {
+                members.put(member.username(), toParticipant(member));
+            }
+        }
+        return new Group(group.id(), group.name(), members);
+    }
+    
+    /**
+     * Converts the tool configs of an assignment to {@link CheckConfiguration}s.
+     * 
+     * @param assignment The assignment returned by the API.
+     * 
+     * @return The check configurations.
+     * 
+     * @throws IOException If a config is not a valid JSON object.
+     */
+    private List<CheckConfiguration> toCheckConfigurations(AssignmentJson assignment) throws IOException {
+        List<CheckConfiguration> result = new ArrayList<>();
+        if (assignment.configs() != null) {
+            for (ToolConfigJson config : assignment.configs()) {
+                Map<String, Object> values = config.config() != null
+                        ? objectMapper.readValue(config.config(), new TypeReference<Map<String, Object>>() { })
+                        : Map.of();
+                
+                Map<String, String> properties = new HashMap<>();
+                values.forEach((key, value) -> properties.put(key, String.valueOf(value)));
+                String rejecting = properties.remove(REJECTING_PROPERTY);
+                
+                result.add(new CheckConfiguration(config.tool(), rejecting == null || Boolean.parseBoolean(rejecting),
+                        properties));
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Sends a GET request for a resource that must exist.
+     * 
+     * @param <T> The type of the response body.
+     * @param path The path relative to the base URL.
+     * @param type The type of the response body.
+     * 
+     * @return The parsed response body.
+     * 
+     * @throws IOException If the request fails, the resource does not exist, or the response is invalid.
+     */
+    private <T> T getExisting(String path, TypeReference<T> type) throws IOException {
+        return get(path, type).orElseThrow(() -> new IOException("Resource " + path + " not found"));
+    }
+    
+    /**
+     * Sends a GET request to the student management system.
+     * 
+     * @param <T> The type of the response body.
+     * @param path The path relative to the base URL.
+     * @param type The type of the response body.
+     * 
+     * @return The parsed response body; empty if the response is 404.
+     * 
+     * @throws IOException If the request fails, the response has an unexpected status, or the body is invalid.
+     */
+    private <T> Optional<T> get(String path, TypeReference<T> type) throws IOException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(timeout)
+                .header("Accept", "application/json")
+                .GET();
+        if (!token.isEmpty()) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for student management system", e);
+        }
+        
+        Optional<T> result;
+        if (response.statusCode() == 404) {
+            result = Optional.empty();
+        } else if (response.statusCode() / 100 == 2) {
+            result = Optional.of(objectMapper.readValue(response.body(), type));
+        } else {
+            throw new IOException("Student management system responded with status " + response.statusCode()
+                    + " to " + path);
+        }
+        return result;
+    }
+    
+    /**
+     * Encodes a single path segment.
+     * 
+     * @param segment The path segment.
+     * 
+     * @return The encoded segment.
+     */
+    private static String encode(String segment) {
+        return URLEncoder.encode(segment, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+    
+}
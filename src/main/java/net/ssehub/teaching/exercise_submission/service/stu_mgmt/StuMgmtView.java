@@ -1,17 +1,184 @@
 package net.ssehub.teaching.exercise_submission.service.stu_mgmt;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
 /**
  * A local view of the courses, users, groups, and assignment in the student management system.
- *  
+ * <p>
+ * Courses are loaded with the {@link StuMgmtClient} and kept in memory, so that a lookup (e.g. for every authorization
+ * check) is a map access. An entry is fresh for its time-to-live minus the refresh-ahead time; after that, it is still
+ * returned, but reloaded in the background. Once the time-to-live expired, the course is reloaded before it is
+ * returned. If reloading fails (e.g. the student management system is down), the last known state of the course is
+ * returned instead. Concurrent loads of the same course are coalesced into a single request.
+ * <p>
+ * Courses that do not exist are remembered for a short negative time-to-live, so that repeated requests for unknown
+ * courses (e.g. typos) do not reach the student management system each time. Requests to the student management
+ * system are guarded by a {@link CircuitBreaker} (see {@link StuMgmtClient}); while it rejects requests, the last
+ * known state of cached courses is returned.
+ * <p>
+ * {@link ICourseListener}s are notified whenever a loaded course is cached or a cached course is changed.
+ * <p>
+ * Additionally, the student management system notifies about changes (see the <code>/notify</code> route). Cached
+ * courses are updated in place for these changes, so that e.g. the end of an assignment is effective immediately,
+ * regardless of the time-to-live. A load that was started before a change is not cached when it finishes, as it may
+ * not contain the change; the cached course with the change applied is kept and returned instead.
+ * <p>
+ * The cached courses are periodically written to a gzip-compressed binary snapshot file (see {@link CourseSnapshot}),
+ * and are read from it on start-up. Courses from the snapshot are served immediately, but are reloaded in the
+ * background on their first access, so that a restart does not cause every first request of a course to wait for the
+ * student management system.
+ * 
  * @author Adam
  */
 @Component
 public class StuMgmtView {
-
+    
+    private static final Log LOGGER = LogFactory.getLog(StuMgmtView.class);
+    
+    private static final int MAX_MISSING = 10000;
+    
+    /**
+     * A cached course and the time it was loaded.
+     */
+    private record Entry(Course course, long loadedAt) {
+    }
+    
+    private StuMgmtClient client;
+    
+    private long refreshAfterNanos;
+    
+    private long ttlNanos;
+    
+    private long negativeTtlNanos;
+    
+    private Map<String, Entry> courses;
+    
+    private Map<String, Long> missing;
+    
+    private Map<String, CompletableFuture<Optional<Course>>> loading;
+    
+    private Map<String, Long> modifications;
+    
+    private ExecutorService refreshExecutor;
+    
+    private Path snapshotFile;
+    
+    private Duration snapshotInterval;
+    
+    private AtomicBoolean modifiedSinceSnapshot;
+    
+    private ScheduledExecutorService snapshotExecutor;
+    
+    private List<ICourseListener> listeners;
+    
+    // checkstyle: stop parameter number check
+    
+    /**
+     * Creates a new {@link StuMgmtView}.
+     * 
+     * @param client The client to load courses with.
+     * @param ttl The time after which a cached course is reloaded before it is returned.
+     * @param refreshAhead How long before the end of the time-to-live a cached course is reloaded in the background.
+     * @param negativeTtl How long a course that does not exist is remembered as missing.
+     * @param snapshotFile The file to store the snapshot of cached courses in. <code>null</code> to disable
+     *      snapshots.
+     * @param snapshotInterval The interval in which the snapshot is written, if courses changed.
+     */
+    public StuMgmtView(
+            StuMgmtClient client,
+            @Value("${stu-mgmt.cache.ttl:5m}") Duration ttl,
+            @Value("${stu-mgmt.cache.refresh-ahead:1m}") Duration refreshAhead,
+            @Value("${stu-mgmt.cache.negative-ttl:30s}") Duration negativeTtl,
+            @Value("${stu-mgmt.cache.snapshot-location:${state.location}/stu-mgmt-courses.bin.gz}")
+            Path snapshotFile,
+            @Value("${stu-mgmt.cache.snapshot-interval:1m}") Duration snapshotInterval) {
+        
+        this.client = client;
+        this.ttlNanos = ttl.toNanos();
+        this.refreshAfterNanos = Math.max(0, ttl.minus(refreshAhead).toNanos());
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.courses = new ConcurrentHashMap<>();
+        this.missing = new ConcurrentHashMap<>();
+        this.loading = new ConcurrentHashMap<>();
+        this.modifications = new ConcurrentHashMap<>();
+        this.refreshExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "stu-mgmt-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        this.snapshotFile = snapshotFile;
+        this.snapshotInterval = snapshotInterval;
+        this.modifiedSinceSnapshot = new AtomicBoolean();
+        this.snapshotExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stu-mgmt-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+    
+    // checkstyle: resume parameter number check
+    
+    /**
+     * Adds a listener that is notified when a course is loaded or changed.
+     * 
+     * @param listener The listener to add.
+     */
+    public void addListener(ICourseListener listener) {
+        listeners.add(listener);
+    }
+    
+    /**
+     * Notifies all listeners about a loaded or changed course. Exceptions of listeners are logged and ignored.
+     * 
+     * @param course The course.
+     */
+    private void notifyListeners(Course course) {
+        for (ICourseListener listener : listeners) {
+            try {
+                listener.courseChanged(course);
+            
+            // checkstyle: stop exception type check
+            } catch (RuntimeException e) {
+                LOGGER.warn("Listener failed for course " + course.id(), e);
+            }
+            // checkstyle: resume exception type check
+        }
+    }
+    
     /**
      * Retrieves the {@link Course} specified by the given course ID.
      * 
@@ -20,7 +187,345 @@ public class StuMgmtView {
      * @return The specified {@link Course}; empty if course does not exist.
      */
     public Optional<Course> getCourse(String courseId) {
-        return Optional.empty();
+        Entry entry = courses.get(courseId);
+        
+        Optional<Course> result;
+        if (entry == null) {
+            Long missingSince = missing.get(courseId);
+            if (missingSince != null && System.nanoTime() - missingSince < negativeTtlNanos) {
+                result = Optional.empty();
+            } else {
+                result = await(courseId, load(courseId, false), null);
+            }
+            
+        } else {
+            long age = System.nanoTime() - entry.loadedAt();
+            if (age < refreshAfterNanos) {
+                result = Optional.of(entry.course());
+                
+            } else if (age < ttlNanos) {
+                load(courseId, true);
+                result = Optional.of(entry.course());
+                
+            } else {
+                result = await(courseId, load(courseId, false), entry);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Returns the currently cached courses, without reloading them.
+     * 
+     * @return The cached courses.
+     */
+    public List<Course> getCachedCourses() {
+        return courses.values().stream().map(Entry::course).toList();
+    }
+    
+    /**
+     * Starts loading the given course, unless it is already being loaded.
+     * 
+     * @param courseId The ID of the course.
+     * @param background Whether to load in a background thread. Otherwise, the calling thread loads the course if no
+     *      load is running yet.
+     * 
+     * @return The future result of the (new or already running) load.
+     */
+    private CompletableFuture<Optional<Course>> load(String courseId, boolean background) {
+        CompletableFuture<Optional<Course>> created = new CompletableFuture<>();
+        CompletableFuture<Optional<Course>> result = loading.putIfAbsent(courseId, created);
+        if (result == null) {
+            result = created;
+            if (background) {
+                refreshExecutor.execute(() -> fetch(courseId, created));
+            } else {
+                fetch(courseId, created);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Loads the given course with the {@link StuMgmtClient} and updates the cache.
+     * 
+     * @param courseId The ID of the course.
+     * @param future The future to complete with the result.
+     */
+    private void fetch(String courseId, CompletableFuture<Optional<Course>> future) {
+        try {
+            Long modificationsBefore = modifications.get(courseId);
+            Optional<Course> course = client.loadCourse(courseId);
+            AtomicBoolean stored = new AtomicBoolean();
+            Entry cached = courses.compute(courseId, (id, previous) -> {
+                Entry entry = previous;
+                if (Objects.equals(modificationsBefore, modifications.get(id))) {
+                    entry = null;
+                    if (course.isPresent()) {
+                        entry = new Entry(course.get(), System.nanoTime());
+                        missing.remove(id);
+                        stored.set(true);
+                    } else {
+                        rememberMissing(id);
+                    }
+                    modifiedSinceSnapshot.set(true);
+                }
+                return entry;
+            });
+            // if a change raced the load, the cached course (with the change applied) is more recent
+            future.complete(cached != null ? Optional.of(cached.course()) : course);
+            
+            if (stored.get()) {
+                notifyListeners(cached.course());
+            }
+        
+        // checkstyle: stop exception type check
+        } catch (IOException | RuntimeException e) {
+            // also complete on unexpected exceptions, otherwise coalesced callers would wait forever
+            future.completeExceptionally(e);
+        // checkstyle: resume exception type check
+            
+        } finally {
+            loading.remove(courseId, future);
+        }
+    }
+    
+    /**
+     * Remembers that a course does not exist. Expired entries are removed once there are many of them, so that
+     * requests for random course IDs do not fill the memory.
+     * 
+     * @param courseId The ID of the course.
+     */
+    private void rememberMissing(String courseId) {
+        long now = System.nanoTime();
+        if (missing.size() >= MAX_MISSING) {
+            missing.values().removeIf(missingSince -> now - missingSince >= negativeTtlNanos);
+        }
+        if (missing.size() < MAX_MISSING) {
+            missing.put(courseId, now);
+        }
+    }
+    
+    /**
+     * Waits for a load of a course to finish.
+     * 
+     * @param courseId The ID of the course.
+     * @param future The running load.
+     * @param stale The previously cached entry to fall back to if loading fails; may be <code>null</code>.
+     * 
+     * @return The loaded course, or the stale one if loading failed.
+     */
+    private Optional<Course> await(String courseId, CompletableFuture<Optional<Course>> future, Entry stale) {
+        Optional<Course> result;
+        try {
+            result = future.get();
+            
+        } catch (ExecutionException e) {
+            LOGGER.warn("Could not load course " + courseId + " from student management system"
+                    + (stale != null ? ", using cached state" : ""), e.getCause());
+            result = Optional.ofNullable(stale).map(Entry::course);
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result = Optional.ofNullable(stale).map(Entry::course);
+        }
+        return result;
+    }
+    
+    /**
+     * Updates the state of an assignment in the cached course.
+     * 
+     * @param courseId The ID of the course.
+     * @param assignmentId The {@link Assignment#mgmtId() ID} of the assignment.
+     * @param state The new state of the assignment.
+     */
+    public void assignmentStateChanged(String courseId, String assignmentId, AssignmentState state) {
+        LOGGER.info("Assignment " + assignmentId + " in " + courseId + " changed to state " + state);
+        modify(courseId, course -> {
+            Map<String, Assignment> assignments = new HashMap<>(course.assignmentsByName());
+            Course result = null;
+            for (Assignment a : course.assignmentsByName().values()) {
+                if (a.mgmtId().equals(assignmentId)) {
+                    assignments.put(a.name(), new Assignment(a.mgmtId(), a.name(), state, a.collaboration(),
+                            a.groupsByNames(), a.checkConfigurations()));
+                    result = new Course(course.id(), course.participantsByName(), assignments);
+                }
+            }
+            return result;
+        });
+    }
+    
+    /**
+     * Adds or removes a participant to or from a group in the cached course. The group is updated in all
+     * assignments that it belongs to.
+     * 
+     * @param courseId The ID of the course.
+     * @param groupId The {@link Group#mgmtId() ID} of the group.
+     * @param userId The {@link Participant#mgmtId() ID} of the participant.
+     * @param joined Whether the participant joined (<code>true</code>) or left (<code>false</code>) the group.
+     */
+    public void groupMembershipChanged(String courseId, String groupId, String userId, boolean joined) {
+        LOGGER.info("Participant " + userId + (joined ? " joined" : " left") + " group " + groupId + " in "
+                + courseId);
+        modify(courseId, course -> {
+            Optional<Participant> participant = course.participantsByName().values().stream()
+                    .filter(p -> p.mgmtId().equals(userId))
+                    .findFirst();
+            
+            Course result = null;
+            if (participant.isPresent()) {
+                Map<String, Assignment> assignments = new HashMap<>();
+                for (Assignment a : course.assignmentsByName().values()) {
+                    Map<String, Group> groups = new HashMap<>(a.groupsByNames());
+                    groups.replaceAll((name, group) -> group.mgmtId().equals(groupId)
+                            ? withMember(group, participant.get(), joined) : group);
+                    assignments.put(a.name(), new Assignment(a.mgmtId(), a.name(), a.state(), a.collaboration(),
+                            groups, a.checkConfigurations()));
+                }
+                result = new Course(course.id(), course.participantsByName(), assignments);
+            }
+            return result;
+        });
+    }
+    
+    /**
+     * Adds a participant to the cached course (or updates its role).
+     * 
+     * @param courseId The ID of the course.
+     * @param participant The participant that joined the course.
+     */
+    public void participantAdded(String courseId, Participant participant) {
+        LOGGER.info("Participant " + participant.name() + " joined " + courseId + " as " + participant.role());
+        modify(courseId, course -> {
+            Map<String, Participant> participants = new HashMap<>(course.participantsByName());
+            participants.put(participant.name(), participant);
+            return new Course(course.id(), participants, course.assignmentsByName());
+        });
+    }
+    
+    /**
+     * Removes the given course from the cache, so that it is loaded again on the next access. Used for changes that
+     * cannot be applied in place.
+     * 
+     * @param courseId The ID of the course.
+     */
+    public void invalidate(String courseId) {
+        LOGGER.info("Invalidating cached course " + courseId);
+        modify(courseId, course -> null);
+    }
+    
+    /**
+     * Applies a modification to a cached course. Also marks the course as modified, so that loads that are currently
+     * running are not cached.
+     * 
+     * @param courseId The ID of the course.
+     * @param modification Creates the modified course from the cached one; returns <code>null</code> if the
+     *      modification cannot be applied, in which case the course is removed from the cache.
+     */
+    private void modify(String courseId, UnaryOperator<Course> modification) {
+        Entry updated = courses.compute(courseId, (id, entry) -> {
+            modifications.merge(id, 1L, Long::sum);
+            // a change event means that the course exists (again)
+            missing.remove(id);
+            modifiedSinceSnapshot.set(true);
+            
+            Entry result = null;
+            if (entry != null) {
+                Course modified = modification.apply(entry.course());
+                if (modified != null) {
+                    result = new Entry(modified, entry.loadedAt());
+                } else {
+                    LOGGER.info("Could not apply change to cached course " + id + ", removing it from cache");
+                }
+            }
+            return result;
+        });
+        
+        if (updated != null) {
+            notifyListeners(updated.course());
+        }
+    }
+    
+    /**
+     * Creates a copy of the given group with a participant added or removed.
+     * 
+     * @param group The group.
+     * @param participant The participant.
+     * @param member Whether the participant should be a member of the group.
+     * 
+     * @return The modified group.
+     */
+    private static Group withMember(Group group, Participant participant, boolean member) {
+        Map<String, Participant> participants = new HashMap<>(group.participantsByName());
+        if (member) {
+            participants.put(participant.name(), participant);
+        } else {
+            participants.remove(participant.name());
+        }
+        return new Group(group.mgmtId(), group.name(), participants);
+    }
+    
+    /**
+     * Reads the snapshot of cached courses, if it exists, and starts writing it periodically. Courses from the
+     * snapshot are due for a background refresh, i.e. they are served immediately, but reloaded on first access.
+     */
+    @PostConstruct
+    public void loadSnapshot() {
+        if (snapshotFile != null) {
+            if (Files.isRegularFile(snapshotFile)) {
+                try (InputStream in = new GZIPInputStream(Files.newInputStream(snapshotFile))) {
+                    List<Course> snapshot = CourseSnapshot.read(in);
+                    
+                    long loadedAt = System.nanoTime() - refreshAfterNanos;
+                    for (Course course : snapshot) {
+                        courses.putIfAbsent(course.id(), new Entry(course, loadedAt));
+                    }
+                    LOGGER.info("Read " + snapshot.size() + " courses from snapshot " + snapshotFile);
+                    
+                } catch (IOException e) {
+                    LOGGER.warn("Could not read course snapshot " + snapshotFile, e);
+                }
+            }
+            
+            snapshotExecutor.scheduleWithFixedDelay(this::writeSnapshot, snapshotInterval.toMillis(),
+                    snapshotInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    /**
+     * Writes all cached courses to the snapshot file, if they changed since the last snapshot. The file is first
+     * written to a temporary file and then moved, so that a crash never leaves a partially written snapshot.
+     */
+    public void writeSnapshot() {
+        if (snapshotFile != null && modifiedSinceSnapshot.getAndSet(false)) {
+            List<Course> snapshot = new ArrayList<>();
+            courses.values().forEach(entry -> snapshot.add(entry.course()));
+            
+            try {
+                Path directory = snapshotFile.toAbsolutePath().getParent();
+                Files.createDirectories(directory);
+                Path temporaryFile = Files.createTempFile(directory, ".stu-mgmt-courses", ".tmp");
+                try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temporaryFile))) {
+                    CourseSnapshot.write(snapshot, out);
+                }
+                Files.move(temporaryFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                
+            } catch (IOException e) {
+                LOGGER.warn("Could not write course snapshot " + snapshotFile, e);
+                modifiedSinceSnapshot.set(true);
+            }
+        }
+    }
+    
+    /**
+     * Stops the background refreshes and writes a final snapshot.
+     */
+    @PreDestroy
+    public void shutdown() {
+        snapshotExecutor.shutdownNow();
+        refreshExecutor.shutdownNow();
+        writeSnapshot();
     }
     
 }
@@ -0,0 +1,294 @@
+package net.ssehub.teaching.exercise_submission.service.submission;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+import net.ssehub.teaching.exercise_submission.service.storage.ISubmissionStorage;
+import net.ssehub.teaching.exercise_submission.service.storage.NoSuchTargetException;
+import net.ssehub.teaching.exercise_submission.service.storage.StorageException;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckEngine;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckNode;
+
+/**
+ * Runs the deferred checks of stored versions in the background and stores their results in the
+ * {@link ISubmissionStorage}.
+ * <p>
+ * Each scheduled run is marked by a small JSON file in the pending directory, which is removed once the result is
+ * stored. The queue of the thread pool is bounded and only holds the target and version; the content is read from
+ * the storage when the run starts. Runs that do not fit into the queue stay marked and are queued again when a run
+ * finishes, and marked runs that were not finished when the server stopped are resumed on start-up (see
+ * {@link #resume(Function)}).
+ * 
+ * @author Adam
+ */
+@Component
+public class DeferredCheckRunner {
+    
+    private static final Log LOGGER = LogFactory.getLog(DeferredCheckRunner.class);
+    
+    /**
+     * Identifies a version of a target.
+     */
+    private record VersionKey(SubmissionTarget target, Version version) {
+    }
+    
+    /**
+     * The persisted marker of a pending run. The creation time of the version is stored as seconds since epoch.
+     */
+    private record PendingRun(String course, String assignment, String group, String author, long createdAt) {
+    }
+    
+    private ThreadPoolExecutor executor;
+    
+    private Path pendingDirectory;
+    
+    private CheckEngine checkEngine;
+    
+    private ISubmissionStorage storage;
+    
+    private ObjectMapper objectMapper;
+    
+    private Set<VersionKey> pending;
+    
+    private AtomicBoolean overflowed;
+    
+    private volatile Function<SubmissionTarget, List<CheckNode>> graphs;
+    
+    // checkstyle: stop parameter number check
+    
+    /**
+     * Creates a new {@link DeferredCheckRunner}.
+     * 
+     * @param parallelism The maximum number of versions that are checked in parallel.
+     * @param queueSize The maximum number of versions that wait in memory to be checked.
+     * @param pendingDirectory The directory to mark pending runs in. Created if it does not exist.
+     * @param checkEngine The engine to run the checks with.
+     * @param storage The storage to read versions from and store the results in.
+     * 
+     * @throws IOException If creating the pending directory fails.
+     */
+    public DeferredCheckRunner(
+            @Value("${checks.deferred.parallelism:2}") int parallelism,
+            @Value("${checks.deferred.queue-size:1000}") int queueSize,
+            @Value("${checks.deferred.pending-location:${state.location}/deferred}") Path pendingDirectory,
+            CheckEngine checkEngine,
+            ISubmissionStorage storage) throws IOException {
+        
+        this.pendingDirectory = pendingDirectory;
+        this.checkEngine = checkEngine;
+        this.storage = storage;
+        this.objectMapper = new ObjectMapper();
+        this.pending = ConcurrentHashMap.newKeySet();
+        this.overflowed = new AtomicBoolean();
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "deferred-checks");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                });
+        
+        Files.createDirectories(pendingDirectory);
+    }
+    
+    // checkstyle: resume parameter number check
+    
+    /**
+     * Queues all runs that are marked as pending, e.g. because the server stopped before they finished. Called once
+     * on start-up by the {@link SubmissionManager}.
+     * 
+     * @param graphs Creates the graph of deferred checks for a target. Also used for runs that are queued again
+     *      after the queue was full.
+     */
+    public void resume(Function<SubmissionTarget, List<CheckNode>> graphs) {
+        this.graphs = graphs;
+        requeueMarked();
+    }
+    
+    /**
+     * Schedules the given checks to run on a stored version. If the queue is full, the run stays marked as pending
+     * and is queued once there is room again (or after a restart).
+     * 
+     * @param target The target that the version belongs to.
+     * @param version The stored version.
+     * @param nodes The deferred checks to run.
+     */
+    public void schedule(SubmissionTarget target, Version version, List<CheckNode> nodes) {
+        mark(target, version);
+        enqueue(new VersionKey(target, version), nodes);
+    }
+    
+    /**
+     * Submits a run to the thread pool, unless it is already queued or running.
+     * 
+     * @param key The version to check.
+     * @param nodes The deferred checks to run.
+     */
+    private void enqueue(VersionKey key, List<CheckNode> nodes) {
+        if (pending.add(key)) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        run(key.target(), key.version(), nodes);
+                    } finally {
+                        pending.remove(key);
+                    }
+                    if (overflowed.getAndSet(false)) {
+                        requeueMarked();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                pending.remove(key);
+                if (!executor.isShutdown()) {
+                    LOGGER.warn("Queue of deferred checks is full, version " + key.version() + " of " + key.target()
+                            + " stays pending");
+                    overflowed.set(true);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Runs the checks on the stored content of a version, stores the result, and removes the pending marker. If the
+     * run fails or is interrupted, the marker is kept so that the run is retried after a restart.
+     * 
+     * @param target The target that the version belongs to.
+     * @param version The stored version.
+     * @param nodes The deferred checks to run.
+     */
+    private void run(SubmissionTarget target, Version version, List<CheckNode> nodes) {
+        try {
+            Submission submission = storage.getSubmission(target, version);
+            try (TemporaryDirectory directory = new TemporaryDirectory(submission)) {
+                RecordedCheckResult result = RecordedCheckResult.measure(
+                    () -> checkEngine.runGraph(nodes, submission, directory.getPath()));
+                if (!Thread.currentThread().isInterrupted()) {
+                    storage.storeDeferredCheckResult(target, version, result);
+                    unmark(target, version);
+                }
+            }
+            
+        } catch (NoSuchTargetException e) {
+            LOGGER.warn("Version " + version + " of " + target + " was removed, dropping its deferred checks");
+            unmark(target, version);
+            
+        } catch (IOException | StorageException e) {
+            LOGGER.error("Could not run deferred checks of version " + version + " of " + target, e);
+        }
+    }
+    
+    /**
+     * Queues all marked runs that are not queued or running yet. Stops when the queue is full again.
+     */
+    private void requeueMarked() {
+        Function<SubmissionTarget, List<CheckNode>> graphs = this.graphs;
+        if (graphs != null) {
+            try (Stream<Path> files = Files.walk(pendingDirectory)) {
+                for (Path file : files.filter(f -> f.getFileName().toString().endsWith(".json")).toList()) {
+                    try {
+                        PendingRun run = objectMapper.readValue(file.toFile(), PendingRun.class);
+                        SubmissionTarget target = new SubmissionTarget(run.course(), run.assignment(), run.group());
+                        Version version = new Version(run.author(), Instant.ofEpochSecond(run.createdAt()));
+                        enqueue(new VersionKey(target, version), graphs.apply(target));
+                    } catch (IOException e) {
+                        LOGGER.warn("Could not read pending deferred run " + file, e);
+                    }
+                    if (overflowed.get()) {
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Could not list pending deferred runs in " + pendingDirectory, e);
+            }
+        }
+    }
+    
+    /**
+     * Writes the pending marker of a run. The file is first written to a temporary file and then moved, so that a
+     * crash never leaves a partially written file.
+     * 
+     * @param target The target that the version belongs to.
+     * @param version The stored version.
+     */
+    private void mark(SubmissionTarget target, Version version) {
+        Path file = markerFile(target, version);
+        try {
+            Files.createDirectories(file.getParent());
+            Path temporaryFile = Files.createTempFile(file.getParent(), ".pending", ".tmp");
+            objectMapper.writeValue(temporaryFile.toFile(), new PendingRun(target.course(), target.assignmentName(),
+                    target.groupName(), version.author(), version.creationTime().getEpochSecond()));
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Could not mark deferred checks of version " + version + " of " + target + " as pending", e);
+        }
+    }
+    
+    /**
+     * Removes the pending marker of a run.
+     * 
+     * @param target The target that the version belongs to.
+     * @param version The version.
+     */
+    private void unmark(SubmissionTarget target, Version version) {
+        try {
+            Files.deleteIfExists(markerFile(target, version));
+        } catch (IOException e) {
+            LOGGER.warn("Could not remove pending marker of version " + version + " of " + target, e);
+        }
+    }
+    
+    /**
+     * Returns the path of the pending marker of a run.
+     * 
+     * @param target The target that the version belongs to.
+     * @param version The version.
+     * 
+     * @return The path of the marker file.
+     */
+    private Path markerFile(SubmissionTarget target, Version version) {
+        return pendingDirectory.resolve(Path.of(target.course(), target.assignmentName(), target.groupName()))
+                .resolve(version.creationTime().getEpochSecond() + "_" + version.author() + ".json");
+    }
+    
+    /**
+     * Returns whether deferred checks of the given version are waiting or running.
+     * 
+     * @param target The target that the version belongs to.
+     * @param version The version.
+     * 
+     * @return Whether deferred checks are pending.
+     */
+    public boolean isPending(SubmissionTarget target, Version version) {
+        return pending.contains(new VersionKey(target, version)) || Files.isRegularFile(markerFile(target, version));
+    }
+    
+    /**
+     * Stops the thread pool. Runs that did not finish stay marked and are resumed after a restart.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+}
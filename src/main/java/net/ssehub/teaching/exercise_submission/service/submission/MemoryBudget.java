@@ -0,0 +1,145 @@
+package net.ssehub.teaching.exercise_submission.service.submission;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * A global budget for the heap memory that uploaded submissions occupy while they are processed. While a submission
+ * is handled, its JSON body, the Base64 strings, and the decoded file contents are all on the heap, so a request
+ * reserves a multiple of its body size before the body is read. If the budget is exhausted, the request waits
+ * briefly for other requests to release their reservations, and is rejected if that does not happen in time.
+ * <p>
+ * The budget is accounted in KiB and waiting requests are served in order of arrival, so that large requests are not
+ * starved by a stream of small ones. The reserved memory is exported as the <code>upload.memory.reserved</code>
+ * gauge.
+ * 
+ * @author Adam
+ */
+@Component
+public class MemoryBudget {
+    
+    private static final long UNIT = 1024;
+    
+    private long budgetBytes;
+    
+    private int factor;
+    
+    private Duration maxWait;
+    
+    private Semaphore permits;
+    
+    private Counter rejected;
+    
+    /**
+     * Creates a new {@link MemoryBudget}.
+     * 
+     * @param budget The total heap memory that uploads may occupy.
+     * @param factor How many bytes of heap memory a request is assumed to occupy per byte of its body.
+     * @param maxWait How long a request waits for the budget before it is rejected.
+     * @param meterRegistry The registry to export metrics to.
+     */
+    public MemoryBudget(
+            @Value("${upload.memory-budget:512MB}") DataSize budget,
+            @Value("${upload.memory-factor:4}") int factor,
+            @Value("${upload.max-wait:2s}") Duration maxWait,
+            MeterRegistry meterRegistry) {
+        
+        this.budgetBytes = budget.toBytes();
+        this.factor = factor;
+        this.maxWait = maxWait;
+        this.permits = new Semaphore(toPermits(budgetBytes), true);
+        this.rejected = meterRegistry.counter("upload.memory.rejected");
+        
+        Gauge.builder("upload.memory.reserved", this, MemoryBudget::getReservedBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Converts bytes to permits of the semaphore, rounding up.
+     * 
+     * @param bytes The number of bytes.
+     * 
+     * @return The number of permits.
+     */
+    private static int toPermits(long bytes) {
+        return (int) Math.min(Integer.MAX_VALUE, (bytes + UNIT - 1) / UNIT);
+    }
+    
+    /**
+     * Calculates the heap memory that a request with the given body size needs.
+     * 
+     * @param contentLength The size of the request body in bytes.
+     * 
+     * @return The number of bytes to reserve.
+     */
+    public long getReservation(long contentLength) {
+        return contentLength * factor;
+    }
+    
+    /**
+     * Returns whether a reservation can ever be granted, i.e. is not larger than the whole budget.
+     * 
+     * @param bytes The number of bytes to reserve.
+     * 
+     * @return Whether the reservation fits into the budget.
+     */
+    public boolean fits(long bytes) {
+        return bytes <= budgetBytes;
+    }
+    
+    /**
+     * Reserves memory from the budget. Waits up to the configured maximum time if the budget is exhausted.
+     * 
+     * @param bytes The number of bytes to reserve.
+     * 
+     * @return Whether the memory was reserved. If so, it must be released with {@link #release(long)}.
+     * 
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public boolean tryReserve(long bytes) throws InterruptedException {
+        boolean reserved = fits(bytes)
+                && permits.tryAcquire(toPermits(bytes), maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        if (!reserved) {
+            rejected.increment();
+        }
+        return reserved;
+    }
+    
+    /**
+     * Releases a reservation.
+     * 
+     * @param bytes The number of reserved bytes, as passed to {@link #tryReserve(long)}.
+     */
+    public void release(long bytes) {
+        permits.release(toPermits(bytes));
+    }
+    
+    /**
+     * Returns the currently reserved memory.
+     * 
+     * @return The reserved memory in bytes.
+     */
+    public long getReservedBytes() {
+        return (toPermits(budgetBytes) - (long) permits.availablePermits()) * UNIT;
+    }
+    
+    /**
+     * Returns how long requests wait for the budget.
+     * 
+     * @return The maximum waiting time.
+     */
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+    
+}
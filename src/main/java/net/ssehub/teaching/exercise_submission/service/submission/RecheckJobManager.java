@@ -0,0 +1,381 @@
+package net.ssehub.teaching.exercise_submission.service.submission;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import net.ssehub.teaching.exercise_submission.service.dto.RecheckJobDto;
+import net.ssehub.teaching.exercise_submission.service.dto.RecheckJobDto.State;
+import net.ssehub.teaching.exercise_submission.service.storage.ISubmissionStorage;
+import net.ssehub.teaching.exercise_submission.service.storage.NoSuchTargetException;
+import net.ssehub.teaching.exercise_submission.service.storage.StorageException;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckScheduler;
+
+/**
+ * Re-checks the latest version of every group of an assignment, e.g. after the check configuration of the assignment
+ * was changed. All checks (inline and deferred) are run, and the result is stored as the deferred check result of the
+ * version.
+ * <p>
+ * Jobs share a small pool of low-priority threads. Before each group, a job pauses for a configured delay and then
+ * waits until no submission is waiting in the {@link CheckScheduler}, so that re-checks do not starve interactive
+ * submissions. The progress of each job is written to a JSON file after every group; jobs that were not finished when
+ * the server stopped are resumed on start-up.
+ * 
+ * @author Adam
+ */
+@Component
+public class RecheckJobManager {
+    
+    private static final Log LOGGER = LogFactory.getLog(RecheckJobManager.class);
+    
+    /**
+     * The persisted progress of a job. Times are stored as milliseconds since epoch.
+     */
+    private record Progress(String course, String assignment, List<String> groups, List<String> completed,
+            List<String> failed, long startedAt) {
+    }
+    
+    /**
+     * Identifies the job of an assignment.
+     */
+    private record JobKey(String course, String assignment) {
+    }
+    
+    /**
+     * A running or finished job.
+     */
+    private static class Job {
+        
+        private String course;
+        
+        private String assignment;
+        
+        private List<String> groups;
+        
+        private List<String> completed;
+        
+        private List<String> failed;
+        
+        private long startedAt;
+        
+        private long resumedAt;
+        
+        private int processedSinceResume;
+        
+        /**
+         * Creates a job from its (persisted) progress.
+         * 
+         * @param progress The progress of the job.
+         */
+        Job(Progress progress) {
+            this.course = progress.course();
+            this.assignment = progress.assignment();
+            this.groups = List.copyOf(progress.groups());
+            this.completed = new ArrayList<>(progress.completed());
+            this.failed = new ArrayList<>(progress.failed());
+            this.startedAt = progress.startedAt();
+            this.resumedAt = System.nanoTime();
+        }
+        
+        /**
+         * Returns the groups that were not processed yet.
+         * 
+         * @return The remaining groups.
+         */
+        synchronized List<String> getRemaining() {
+            return groups.stream()
+                    .filter(group -> !completed.contains(group) && !failed.contains(group))
+                    .toList();
+        }
+        
+        /**
+         * Records that a group was processed.
+         * 
+         * @param group The name of the group.
+         * @param success Whether the group was re-checked successfully.
+         * 
+         * @return The progress after this group.
+         */
+        synchronized Progress processed(String group, boolean success) {
+            if (success) {
+                completed.add(group);
+            } else {
+                failed.add(group);
+            }
+            processedSinceResume++;
+            return toProgress();
+        }
+        
+        /**
+         * Returns whether all groups were processed.
+         * 
+         * @return Whether this job is finished.
+         */
+        synchronized boolean isFinished() {
+            return completed.size() + failed.size() >= groups.size();
+        }
+        
+        /**
+         * Creates a snapshot of the progress of this job.
+         * 
+         * @return The progress.
+         */
+        synchronized Progress toProgress() {
+            return new Progress(course, assignment, groups, List.copyOf(completed), List.copyOf(failed), startedAt);
+        }
+        
+        /**
+         * Creates a DTO describing this job.
+         * 
+         * @return The DTO.
+         */
+        synchronized RecheckJobDto toDto() {
+            double minutes = (System.nanoTime() - resumedAt) / 60_000_000_000.0;
+            double throughput = minutes > 0 ? processedSinceResume / minutes : 0;
+            return new RecheckJobDto(course, assignment, isFinished() ? State.FINISHED : State.RUNNING,
+                    groups.size(), completed.size(), failed.size(), startedAt / 1000, throughput);
+        }
+        
+    }
+    
+    private ExecutorService executor;
+    
+    private Duration delay;
+    
+    private Path progressDirectory;
+    
+    private ISubmissionStorage storage;
+    
+    private SubmissionManager submissionManager;
+    
+    private CheckScheduler checkScheduler;
+    
+    private ObjectMapper objectMapper;
+    
+    private Map<JobKey, Job> jobs;
+    
+    // checkstyle: stop parameter number check
+    
+    /**
+     * Creates a new {@link RecheckJobManager}.
+     * 
+     * @param parallelism The maximum number of groups that are re-checked in parallel (over all jobs).
+     * @param delay The pause before each group is re-checked.
+     * @param progressDirectory The directory to store the progress of jobs in. Created if it does not exist.
+     * @param storage The storage to read versions from and store results in.
+     * @param submissionManager The manager that runs the checks.
+     * @param checkScheduler The scheduler of interactive submissions, used to yield to them.
+     * 
+     * @throws IOException If creating the progress directory fails.
+     */
+    public RecheckJobManager(
+            @Value("${checks.recheck.parallelism:1}") int parallelism,
+            @Value("${checks.recheck.delay:100ms}") Duration delay,
+            @Value("${checks.recheck.progress-location:${state.location}/recheck}") Path progressDirectory,
+            ISubmissionStorage storage,
+            SubmissionManager submissionManager,
+            CheckScheduler checkScheduler) throws IOException {
+        
+        this.delay = delay;
+        this.progressDirectory = progressDirectory;
+        this.storage = storage;
+        this.submissionManager = submissionManager;
+        this.checkScheduler = checkScheduler;
+        this.objectMapper = new ObjectMapper();
+        this.jobs = new HashMap<>();
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "recheck");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        
+        Files.createDirectories(progressDirectory);
+    }
+    
+    // checkstyle: resume parameter number check
+    
+    /**
+     * Resumes all jobs whose persisted progress shows that they were not finished. Called once on start-up.
+     */
+    @PostConstruct
+    public void resume() {
+        try (Stream<Path> files = Files.walk(progressDirectory)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(".json")).toList()) {
+                try {
+                    Job job = new Job(objectMapper.readValue(file.toFile(), Progress.class));
+                    if (!job.isFinished()) {
+                        LOGGER.info("Resuming re-check of " + job.assignment + " in " + job.course + " with "
+                                + job.getRemaining().size() + " remaining groups");
+                        synchronized (this) {
+                            jobs.put(new JobKey(job.course, job.assignment), job);
+                        }
+                        schedule(job);
+                    }
+                } catch (IOException e) {
+                    LOGGER.warn("Could not read re-check progress " + file, e);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not list re-check progress in " + progressDirectory, e);
+        }
+    }
+    
+    /**
+     * Starts re-checking the latest version of every group of the given assignment. If a job for this assignment is
+     * already running, it is not started again.
+     * 
+     * @param course The course that contains the assignment.
+     * @param assignment The name of the assignment.
+     * 
+     * @return The progress of the (new or already running) job.
+     * 
+     * @throws NoSuchTargetException If the assignment does not exist.
+     * @throws StorageException If listing the groups fails.
+     */
+    public synchronized RecheckJobDto start(String course, String assignment)
+            throws NoSuchTargetException, StorageException {
+        
+        JobKey key = new JobKey(course, assignment);
+        Job job = jobs.get(key);
+        if (job == null || job.isFinished()) {
+            List<String> groups = storage.getGroupNames(course, assignment);
+            LOGGER.info("Starting re-check of " + assignment + " in " + course + " with " + groups.size() + " groups");
+            
+            job = new Job(new Progress(course, assignment, groups, List.of(), List.of(), System.currentTimeMillis()));
+            jobs.put(key, job);
+            persist(job.toProgress());
+            schedule(job);
+        }
+        return job.toDto();
+    }
+    
+    /**
+     * Returns the progress of the latest job of the given assignment.
+     * 
+     * @param course The course that contains the assignment.
+     * @param assignment The name of the assignment.
+     * 
+     * @return The progress of the job; empty if no job was started for the assignment since this server started.
+     */
+    public synchronized Optional<RecheckJobDto> getJob(String course, String assignment) {
+        return Optional.ofNullable(jobs.get(new JobKey(course, assignment))).map(Job::toDto);
+    }
+    
+    /**
+     * Submits a task for each remaining group of the given job to the thread pool.
+     * 
+     * @param job The job to schedule.
+     */
+    private void schedule(Job job) {
+        for (String group : job.getRemaining()) {
+            executor.execute(() -> process(job, group));
+        }
+    }
+    
+    /**
+     * Re-checks the latest version of a single group and records the progress.
+     * 
+     * @param job The job that the group belongs to.
+     * @param group The name of the group.
+     */
+    private void process(Job job, String group) {
+        SubmissionTarget target = new SubmissionTarget(job.course, job.assignment, group);
+        try {
+            yieldToSubmissions();
+            
+            List<Version> versions = storage.getVersions(target);
+            if (!versions.isEmpty()) {
+                Version latest = versions.get(0);
+                Submission submission = storage.getSubmission(target, latest);
+                storage.storeDeferredCheckResult(target, latest, submissionManager.runAllChecks(target, submission));
+            }
+            recordProcessed(job, group, true);
+            
+        // checkstyle: stop exception type check
+        } catch (StorageException | RuntimeException e) {
+            // also runtime failures (e.g. of a check), so that the group is recorded and the job can finish
+            LOGGER.warn("Could not re-check " + target, e);
+            recordProcessed(job, group, false);
+        // checkstyle: resume exception type check
+            
+        } catch (InterruptedException e) {
+            // shutting down; the group stays in the persisted progress and is re-checked after a restart
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Records that a group was processed and persists the progress. Holds the lock of the job while writing, so that
+     * an older snapshot never overwrites a newer one.
+     * 
+     * @param job The job that the group belongs to.
+     * @param group The name of the group.
+     * @param success Whether the group was re-checked successfully.
+     */
+    private void recordProcessed(Job job, String group, boolean success) {
+        synchronized (job) {
+            persist(job.processed(group, success));
+        }
+    }
+    
+    /**
+     * Pauses for the configured delay, and then waits until no interactive submission is waiting to be checked.
+     * 
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    private void yieldToSubmissions() throws InterruptedException {
+        long pollMillis = Math.max(delay.toMillis(), 10);
+        Thread.sleep(delay.toMillis());
+        while (checkScheduler.getWaiting() > 0) {
+            Thread.sleep(pollMillis);
+        }
+    }
+    
+    /**
+     * Writes the progress of a job to its file. The file is first written to a temporary file and then moved, so that
+     * a crash never leaves a partially written file.
+     * 
+     * @param progress The progress to write.
+     */
+    private void persist(Progress progress) {
+        Path file = progressDirectory.resolve(progress.course()).resolve(progress.assignment() + ".json");
+        try {
+            Files.createDirectories(file.getParent());
+            Path temporaryFile = Files.createTempFile(file.getParent(), ".progress", ".tmp");
+            objectMapper.writeValue(temporaryFile.toFile(), progress);
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Could not store re-check progress of " + progress.assignment() + " in "
+                    + progress.course(), e);
+        }
+    }
+    
+    /**
+     * Stops the thread pool. Groups that were not re-checked yet are resumed after a restart.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+}
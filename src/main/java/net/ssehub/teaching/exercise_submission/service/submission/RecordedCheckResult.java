@@ -0,0 +1,34 @@
+package net.ssehub.teaching.exercise_submission.service.submission;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Supplier;
+
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckResult;
+
+/**
+ * The {@link CheckResult} of a version, together with when and for how long the checks ran.
+ * 
+ * @param result The result of the checks.
+ * @param checkedAt The point in time when the checks started.
+ * @param duration How long the checks took, excluding the time spent waiting for a free slot.
+ * 
+ * @author Adam
+ */
+public record RecordedCheckResult(CheckResult result, Instant checkedAt, Duration duration) {
+
+    /**
+     * Runs the given checks and records when they started and how long they took.
+     * 
+     * @param checks The checks to run.
+     * 
+     * @return The result of the checks with timing data.
+     */
+    public static RecordedCheckResult measure(Supplier<CheckResult> checks) {
+        Instant start = Instant.now();
+        long startNanos = System.nanoTime();
+        CheckResult result = checks.get();
+        return new RecordedCheckResult(result, start, Duration.ofNanos(System.nanoTime() - startNanos));
+    }
+    
+}
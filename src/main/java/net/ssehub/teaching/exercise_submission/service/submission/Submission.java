@@ -1,8 +1,10 @@
 package net.ssehub.teaching.exercise_submission.service.submission;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
@@ -10,6 +12,8 @@ import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
 
+import net.ssehub.teaching.exercise_submission.service.util.HashUtils;
+
 /**
  * Represents a submission, i.e. a collection of files with relative path and content. Use {@link SubmissionBuilder}
  * to create instances.
@@ -56,6 +60,8 @@ public class Submission {
     
     private Map<Path, FileContent> files;
     
+    private volatile String contentHash;
+    
     /**
      * Creates a submission. Called by {@link SubmissionBuilder}.
      * 
@@ -126,6 +132,44 @@ public class Submission {
         return files.get(filepath).bytes;
     }
     
+    /**
+     * Returns a hash of the content of this submission, i.e. of all filepaths and file contents. The author is not
+     * part of the hash, so two submissions with the same files have the same hash. The hash is only calculated once.
+     * 
+     * @return The SHA-256 hash of the content as a hex string.
+     */
+    public String getContentHash() {
+        String hash = this.contentHash;
+        if (hash == null) {
+            MessageDigest digest = HashUtils.newSha256();
+            files.keySet().stream()
+                .sorted()
+                .forEach(filepath -> {
+                    byte[] path = filepath.toString().replace('\\', '/').getBytes(StandardCharsets.UTF_8);
+                    byte[] content = files.get(filepath).bytes;
+                    digest.update(intToBytes(path.length));
+                    digest.update(path);
+                    digest.update(intToBytes(content.length));
+                    digest.update(content);
+                });
+            
+            hash = HashUtils.toHex(digest.digest());
+            this.contentHash = hash;
+        }
+        return hash;
+    }
+    
+    /**
+     * Converts an int to 4 bytes (big endian). Used to separate the entries in the content hash.
+     * 
+     * @param value The value to convert.
+     * 
+     * @return The bytes of the value.
+     */
+    private static byte[] intToBytes(int value) {
+        return new byte[] {(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value};
+    }
+    
     /**
      * Writes all files of this submission to a given directory. Existing files in the given directory are overridden if
      * a file with the same name exist in this submission. Files are written in UTF-8 encoding. Sub-directories are
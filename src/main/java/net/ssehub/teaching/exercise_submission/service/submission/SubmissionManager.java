@@ -1,86 +1,443 @@
 package net.ssehub.teaching.exercise_submission.service.submission;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.springframework.stereotype.Component;
 
+import jakarta.annotation.PostConstruct;
 import net.ssehub.teaching.exercise_submission.service.dto.CheckMessageDto;
+import net.ssehub.teaching.exercise_submission.service.dto.CheckRunDto;
+import net.ssehub.teaching.exercise_submission.service.dto.DeferredCheckResultDto;
+import net.ssehub.teaching.exercise_submission.service.dto.DeferredCheckResultDto.State;
 import net.ssehub.teaching.exercise_submission.service.dto.SubmissionResultDto;
+import net.ssehub.teaching.exercise_submission.service.dto.VersionChecksDto;
+import net.ssehub.teaching.exercise_submission.service.storage.GroupProvisioner;
 import net.ssehub.teaching.exercise_submission.service.storage.ISubmissionStorage;
 import net.ssehub.teaching.exercise_submission.service.storage.NoSuchTargetException;
 import net.ssehub.teaching.exercise_submission.service.storage.StorageException;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.CheckConfiguration;
 import net.ssehub.teaching.exercise_submission.service.submission.checks.Check;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckAdapter;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckEngine;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckNode;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckPipeline;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckQueueFullException;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckRegistry;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckResult;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckScheduler;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ICheck;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage.MessageType;
 
 /**
  * This class orchestrates a complete submission process. This should be the entry point for starting a submission.
+ * <p>
+ * Checks are split into two tiers: inline checks run before the submission is stored and decide whether it is
+ * accepted; deferred checks run in the background after the version was stored (see {@link DeferredCheckRunner}).
+ * The results of both tiers are stored with the version and can be retrieved later via
+ * {@link #getCheckResults(SubmissionTarget, Version)}, so that old feedback does not require re-running the checks.
  * 
  * @author Adam
  */
 @Component
 public class SubmissionManager {
 
+    private static final Log LOGGER = LogFactory.getLog(SubmissionManager.class);
+    
+    /**
+     * An inline check that runs again in the deferred graph, because deferred checks depend on it. Only its outcome
+     * matters; its messages are not reported again, as they are already part of the inline result.
+     * 
+     * @param check The inline check.
+     */
+    private record PrerequisiteCheck(ICheck check) implements ICheck {
+        
+        @Override
+        public CheckResult run(Submission submission, Path submissionDirectory) {
+            return new CheckResult(check.run(submission, submissionDirectory).passed(), List.of());
+        }
+        
+        @Override
+        public String getName() {
+            return check.getName();
+        }
+        
+    }
+    
     private ISubmissionStorage storage;
     
-    private List<Check> checks;
+    private CheckEngine checkEngine;
+    
+    private CheckScheduler checkScheduler;
+    
+    private DeferredCheckRunner deferredCheckRunner;
+    
+    private CheckRegistry checkRegistry;
+    
+    private GroupProvisioner groupProvisioner;
+    
+    private List<CheckNode> inlineNodes;
+    
+    private List<CheckNode> deferredNodes;
+    
+    // checkstyle: stop parameter number check
     
     /**
      * Creates a new {@link SubmissionManager}.
      * 
      * @param storage The storage component to use.
+     * @param checkEngine The engine that runs the {@link ICheck}s.
+     * @param checkScheduler The scheduler that decides when a submission is checked.
+     * @param deferredCheckRunner The runner for deferred checks.
+     * @param checkRegistry The registry that provides the configured checks of assignments.
+     * @param groupProvisioner The provisioner that creates groups that do not exist yet in the storage.
      */
-    public SubmissionManager(ISubmissionStorage storage) {
+    public SubmissionManager(ISubmissionStorage storage, CheckEngine checkEngine, CheckScheduler checkScheduler,
+            DeferredCheckRunner deferredCheckRunner, CheckRegistry checkRegistry, GroupProvisioner groupProvisioner) {
         this.storage = storage;
-        this.checks = new LinkedList<>();
+        this.checkEngine = checkEngine;
+        this.checkScheduler = checkScheduler;
+        this.deferredCheckRunner = deferredCheckRunner;
+        this.checkRegistry = checkRegistry;
+        this.groupProvisioner = groupProvisioner;
+        this.inlineNodes = new LinkedList<>();
+        this.deferredNodes = new LinkedList<>();
+    }
+    
+    // checkstyle: resume parameter number check
+    
+    /**
+     * Resumes the deferred checks that were pending when the server stopped. Called once on start-up.
+     */
+    @PostConstruct
+    public void resumeDeferredChecks() {
+        deferredCheckRunner.resume(target -> deferredGraph(getPipeline(target)));
     }
     
     /**
-     * Adds a check that is run for each submission. TODO: this should be gotten from the assignment configuration in
-     * the student management system.
+     * Adds a check that is run for each submission of every assignment, before the checks configured for the
+     * assignment (see {@link CheckRegistry}).
      * 
      * @param check The check to run.
      */
     public void addCheck(Check check) {
-        this.checks.add(check);
+        addCheck(new CheckAdapter(check));
+    }
+    
+    /**
+     * Adds a stateless inline check that is run for each submission. Unless the check is
+     * {@link ICheck#isIndependent() independent}, it only runs if all previously added inline checks passed.
+     * 
+     * @param check The check to run.
+     * 
+     * @see #addCheck(Check)
+     */
+    public void addCheck(ICheck check) {
+        String name = inlineNodes.size() + "-" + check.getName();
+        Set<String> dependencies = new LinkedHashSet<>();
+        if (!check.isIndependent()) {
+            inlineNodes.forEach(node -> dependencies.add(node.name()));
+        }
+        this.inlineNodes.add(new CheckNode(name, check, true, dependencies));
+    }
+    
+    /**
+     * Adds a configured check that is run for each submission. Depending on
+     * {@link CheckConfiguration#isDeferred()}, the check is run inline or deferred. Deferred checks may depend on
+     * other deferred checks and on inline checks.
+     * 
+     * @param configuration The configuration of the check.
+     * @param check The configured check.
+     */
+    public void addCheck(CheckConfiguration configuration, ICheck check) {
+        CheckNode node = CheckNode.fromConfiguration(configuration, check);
+        if (configuration.isDeferred()) {
+            this.deferredNodes.add(node);
+        } else {
+            this.inlineNodes.add(node);
+        }
     }
     
     /**
      * Executes a full submission.
      * <p>
-     * This class runs the necessary {@link Check}s.
+     * This class runs the inline {@link ICheck}s via the {@link CheckEngine}, once the {@link CheckScheduler} grants a
+     * slot for the submission. If the submission is accepted and stored, the deferred checks are scheduled.
      * 
      * @param target The assignment and group to submit to.
      * @param submission The submission to add.
      * 
-     * @return The result of the submission, including the messages created by the {@link Check}s.
+     * @return The result of the submission, including the messages created by the inline {@link ICheck}s.
      * 
      * @throws NoSuchTargetException If the given target does not exist.
      * @throws StorageException If an exception occurred in the storage backend.
+     * @throws CheckQueueFullException If too many submissions are waiting to be checked.
      */
     public SubmissionResultDto submit(SubmissionTarget target, Submission submission)
+            throws NoSuchTargetException, StorageException, CheckQueueFullException {
+        
+        CheckPipeline pipeline = getPipeline(target);
+        RecordedCheckResult recorded = runChecks(target, submission, pipeline.inlineNodes());
+        CheckResult checkResult = recorded.result();
+        
+        if (checkResult.passed()) {
+            Version version = storeVersion(target, submission);
+            try {
+                storage.storeCheckResult(target, version, recorded);
+            } catch (StorageException e) {
+                LOGGER.warn("Could not store check result of version " + version + " of " + target, e);
+            }
+            if (!pipeline.deferredNodes().isEmpty()) {
+                deferredCheckRunner.schedule(target, version, deferredGraph(pipeline));
+            }
+        }
+        
+        return toResultDto(checkResult);
+    }
+    
+    /**
+     * Stores a new version. If the group does not exist in the storage yet, because the {@link GroupProvisioner} did
+     * not reach it, the group is provisioned on demand.
+     * 
+     * @param target The assignment and group to submit to.
+     * @param submission The submission to store.
+     * 
+     * @return The stored version.
+     * 
+     * @throws NoSuchTargetException If the given target does not exist in the course either.
+     * @throws StorageException If an exception occurred in the storage backend.
+     */
+    private Version storeVersion(SubmissionTarget target, Submission submission)
             throws NoSuchTargetException, StorageException {
         
-        List<CheckMessageDto> messages = new LinkedList<>();
+        Version version;
+        try {
+            version = storage.submitNewVersion(target, submission);
+        } catch (NoSuchTargetException e) {
+            if (!groupProvisioner.provision(target)) {
+                throw e;
+            }
+            version = storage.submitNewVersion(target, submission);
+        }
+        return version;
+    }
+    
+    /**
+     * Runs the inline {@link ICheck}s of a submission without storing it (a dry run). The same checks are run and the
+     * same {@link CheckScheduler} slots are used as in {@link #submit(SubmissionTarget, Submission)}, but neither the
+     * storage nor the deferred checks are touched. Results of configured checks are cached by the
+     * {@link CheckEngine}, so a real submission of the same content afterwards does not need to run them again.
+     * 
+     * @param target The assignment and group that the submission would be submitted to.
+     * @param submission The submission to check.
+     * 
+     * @return The result that the submission would get, including the messages created by the inline
+     *      {@link ICheck}s.
+     * 
+     * @throws StorageException If writing the submission to the temporary directory fails.
+     * @throws CheckQueueFullException If too many submissions are waiting to be checked.
+     */
+    public SubmissionResultDto check(SubmissionTarget target, Submission submission)
+            throws StorageException, CheckQueueFullException {
         
-        boolean allPassed = true;
-        for (Check check : this.checks) {
-            
-            boolean passed = check.run(null);
-            check.getResultMessages().stream()
+        CheckPipeline pipeline = getPipeline(target);
+        return toResultDto(runChecks(target, submission, pipeline.inlineNodes()).result());
+    }
+    
+    /**
+     * Converts the result of the inline checks to the DTO that is returned to clients.
+     * 
+     * @param checkResult The result of the inline checks.
+     * 
+     * @return The DTO.
+     */
+    private static SubmissionResultDto toResultDto(CheckResult checkResult) {
+        List<CheckMessageDto> messages = checkResult.messages().stream()
                 .map(m -> new CheckMessageDto(m))
-                .forEach(messages::add);
+                .toList();
+        
+        return new SubmissionResultDto(checkResult.passed(), messages);
+    }
+    
+    /**
+     * Returns the checks to run for the given target: the checks added to this manager, followed by the checks
+     * configured for the assignment.
+     * 
+     * @param target The target that a submission is for.
+     * 
+     * @return The pipeline of all checks for the target.
+     */
+    private CheckPipeline getPipeline(SubmissionTarget target) {
+        CheckPipeline configured = checkRegistry.getPipeline(target.course(), target.assignmentName());
+        
+        List<CheckNode> inline = new ArrayList<>(inlineNodes);
+        inline.addAll(configured.inlineNodes());
+        List<CheckNode> deferred = new ArrayList<>(deferredNodes);
+        deferred.addAll(configured.deferredNodes());
+        
+        return new CheckPipeline(inline, deferred);
+    }
+    
+    /**
+     * Runs the given inline {@link ICheck}s on the given submission. The submission is written to a temporary directory
+     * that the checks run on.
+     * 
+     * @param target The target that the submission is for.
+     * @param submission The submission to check.
+     * @param nodes The inline checks to run.
+     * 
+     * @return The merged result of all checks, with timing data.
+     * 
+     * @throws StorageException If writing the submission to the temporary directory fails.
+     * @throws CheckQueueFullException If too many submissions are waiting to be checked.
+     */
+    private RecordedCheckResult runChecks(SubmissionTarget target, Submission submission, List<CheckNode> nodes)
+            throws StorageException, CheckQueueFullException {
+        
+        RecordedCheckResult result;
+        if (nodes.isEmpty()) {
+            result = new RecordedCheckResult(new CheckResult(true, List.of()), Instant.now(), Duration.ZERO);
             
-            if (!passed) {
-                allPassed = false;
-                break;
+        } else {
+            try (TemporaryDirectory directory = new TemporaryDirectory(submission)) {
+                result = checkScheduler.run(target.course(), submission.getAuthor(),
+                        () -> RecordedCheckResult.measure(
+                                () -> checkEngine.runGraph(nodes, submission, directory.getPath())));
+                
+            } catch (IOException e) {
+                throw new StorageException(e);
+                
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result = new RecordedCheckResult(new CheckResult(false, List.of(
+                        new ResultMessage("engine", MessageType.ERROR, "Checks were interrupted"))),
+                        Instant.now(), Duration.ZERO);
             }
         }
+        return result;
+    }
+    
+    /**
+     * Runs all checks, inline and deferred, on the given submission. Used to re-evaluate stored versions, e.g. after
+     * the check configuration of an assignment changed. Does not go through the {@link CheckScheduler}; callers are
+     * responsible for throttling.
+     * 
+     * @param target The target that the submission belongs to.
+     * @param submission The submission to check.
+     * 
+     * @return The merged result of all checks, with timing data.
+     * 
+     * @throws StorageException If writing the submission to the temporary directory fails.
+     */
+    public RecordedCheckResult runAllChecks(SubmissionTarget target, Submission submission) throws StorageException {
+        CheckPipeline pipeline = getPipeline(target);
+        List<CheckNode> nodes = new ArrayList<>(pipeline.inlineNodes());
+        nodes.addAll(pipeline.deferredNodes());
+        
+        try (TemporaryDirectory directory = new TemporaryDirectory(submission)) {
+            return RecordedCheckResult.measure(() -> checkEngine.runGraph(nodes, submission, directory.getPath()));
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+    }
+    
+    /**
+     * Creates the graph of deferred checks. Dependencies on rejecting inline checks are removed, as they always
+     * passed if a version is stored. Non-rejecting inline checks may have failed without rejecting the submission, so
+     * the inline checks that deferred checks depend on through them are run again as {@link PrerequisiteCheck}s.
+     * 
+     * @param pipeline The pipeline of all checks.
+     * 
+     * @return The deferred nodes, preceded by the inline nodes that they need.
+     */
+    private static List<CheckNode> deferredGraph(CheckPipeline pipeline) {
+        Map<String, CheckNode> inlineByName = new HashMap<>();
+        pipeline.inlineNodes().forEach(node -> inlineByName.put(node.name(), node));
+        
+        Map<String, CheckNode> prerequisites = new LinkedHashMap<>();
+        List<CheckNode> deferred = new ArrayList<>();
+        for (CheckNode node : pipeline.deferredNodes()) {
+            deferred.add(new CheckNode(node.name(), node.check(), node.rejecting(),
+                    prerequisiteDependencies(node, inlineByName, prerequisites), node.configuration()));
+        }
+        
+        List<CheckNode> result = new ArrayList<>(prerequisites.values());
+        result.addAll(deferred);
+        return result;
+    }
+    
+    /**
+     * Determines the dependencies of a node in the deferred graph and adds the non-rejecting inline nodes that it
+     * (transitively) depends on as prerequisites.
+     * 
+     * @param node The node to determine the dependencies of.
+     * @param inlineByName The inline nodes of the pipeline by name.
+     * @param prerequisites The prerequisite nodes that were added so far, by name; modified by this method.
+     * 
+     * @return The dependencies of the node without the rejecting inline nodes.
+     */
+    private static Set<String> prerequisiteDependencies(CheckNode node, Map<String, CheckNode> inlineByName,
+            Map<String, CheckNode> prerequisites) {
+        
+        Set<String> dependencies = new HashSet<>();
+        for (String dependency : node.dependencies()) {
+            CheckNode inline = inlineByName.get(dependency);
+            if (inline == null) {
+                dependencies.add(dependency);
+                
+            } else if (!inline.rejecting()) {
+                dependencies.add(dependency);
+                if (!prerequisites.containsKey(dependency)) {
+                    prerequisites.put(dependency, new CheckNode(dependency, new PrerequisiteCheck(inline.check()),
+                            false, prerequisiteDependencies(inline, inlineByName, prerequisites)));
+                }
+            }
+        }
+        return dependencies;
+    }
+    
+    /**
+     * Retrieves the stored results of the inline and deferred checks of the given version.
+     * 
+     * @param target The target that the version belongs to.
+     * @param version The version.
+     * 
+     * @return The results of the checks; the deferred checks may still be pending.
+     * 
+     * @throws NoSuchTargetException If the given target or version does not exist.
+     * @throws StorageException If an exception occurred in the storage backend.
+     */
+    public VersionChecksDto getCheckResults(SubmissionTarget target, Version version)
+            throws NoSuchTargetException, StorageException {
+        
+        CheckRunDto inline = storage.getCheckResult(target, version)
+                .map(CheckRunDto::new)
+                .orElse(null);
         
-        if (allPassed) {
-            storage.submitNewVersion(target, submission);
+        DeferredCheckResultDto deferred;
+        if (deferredCheckRunner.isPending(target, version)) {
+            deferred = new DeferredCheckResultDto(State.PENDING, null);
+        } else {
+            deferred = storage.getDeferredCheckResult(target, version)
+                    .map(result -> new DeferredCheckResultDto(State.FINISHED, new CheckRunDto(result)))
+                    .orElse(new DeferredCheckResultDto(State.NONE, null));
         }
         
-        return new SubmissionResultDto(allPassed, messages);
+        return new VersionChecksDto(inline, deferred);
     }
     
 }
@@ -0,0 +1,62 @@
+package net.ssehub.teaching.exercise_submission.service.submission;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.ssehub.teaching.exercise_submission.service.util.FileUtils;
+
+/**
+ * A temporary directory containing the files of a {@link Submission}, for checks to run on. The directory is deleted
+ * when this is closed.
+ * 
+ * @author Adam
+ */
+class TemporaryDirectory implements AutoCloseable {
+
+    private static final Log LOGGER = LogFactory.getLog(TemporaryDirectory.class);
+    
+    private Path path;
+    
+    /**
+     * Creates a temporary directory and writes the given submission to it.
+     * 
+     * @param submission The submission to write.
+     * 
+     * @throws IOException If creating the directory or writing the files fails.
+     */
+    TemporaryDirectory(Submission submission) throws IOException {
+        this.path = Files.createTempDirectory("exercise_submission");
+        try {
+            submission.writeToDirectory(path);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Returns the path of this directory.
+     * 
+     * @return The path.
+     */
+    Path getPath() {
+        return path;
+    }
+    
+    /**
+     * Deletes this directory. Failures are only logged, as they do not affect the submission.
+     */
+    @Override
+    public void close() {
+        try {
+            FileUtils.deleteDirectory(path);
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete temporary directory " + path, e);
+        }
+    }
+    
+}
@@ -23,6 +23,10 @@ import java.util.List;
  * A check that runs on a submission directory. Checks whether a certain requirement is fulfilled by the submission.
  * Can either fail or succeed (return value of {@link #run(Path)}) and creates {@link ResultMessage}s with further
  * information (see {@link #getResultMessages()}).
+ * <p>
+ * As the {@link ResultMessage}s are stored in the instance, a {@link Check} cannot be run concurrently. New checks
+ * should implement the stateless {@link ICheck} interface instead; existing checks can be wrapped in a
+ * {@link CheckAdapter}.
  * 
  * @author Adam
  */
@@ -45,7 +49,19 @@ public abstract class Check {
      * @return Whether this check was successful.
      */
     public abstract boolean run(Path submissionDirectory);
-    
+
+    /**
+     * Returns whether this check is independent of the checks that run before it. Independent checks do not require
+     * that previous checks succeeded, and thus may run in parallel to other checks.
+     * <p>
+     * By default, checks are not independent. Sub-classes should override this if appropriate.
+     *
+     * @return Whether this check is independent.
+     */
+    public boolean isIndependent() {
+        return false;
+    }
+
     /**
      * Adds a {@link ResultMessage} created during a {@link #run(Path)} execution.
      * 
@@ -0,0 +1,53 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks;
+
+import java.nio.file.Path;
+
+import net.ssehub.teaching.exercise_submission.service.submission.Submission;
+
+/**
+ * Adapts a {@link Check} to the stateless {@link ICheck} interface. As {@link Check}s store their
+ * {@link ResultMessage}s, invocations on the same wrapped instance are serialized.
+ * 
+ * @author Adam
+ */
+public class CheckAdapter implements ICheck {
+
+    private Check check;
+    
+    /**
+     * Creates an adapter for the given {@link Check}.
+     * 
+     * @param check The check to wrap.
+     */
+    public CheckAdapter(Check check) {
+        this.check = check;
+    }
+    
+    @Override
+    public CheckResult run(Submission submission, Path submissionDirectory) {
+        synchronized (check) {
+            boolean passed = check.run(submissionDirectory);
+            return new CheckResult(passed, check.getResultMessages());
+        }
+    }
+    
+    @Override
+    public String getName() {
+        return check.getClass().getSimpleName();
+    }
+    
+    @Override
+    public boolean isIndependent() {
+        return check.isIndependent();
+    }
+    
+    /**
+     * Returns the wrapped {@link Check}.
+     * 
+     * @return The wrapped check.
+     */
+    public Check getCheck() {
+        return check;
+    }
+    
+}
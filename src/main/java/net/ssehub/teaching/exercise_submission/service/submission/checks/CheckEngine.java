@@ -0,0 +1,499 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.CheckConfiguration;
+import net.ssehub.teaching.exercise_submission.service.submission.Submission;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage.MessageType;
+
+/**
+ * Runs a graph of {@link CheckNode}s on a submission. Each node is started on a bounded thread pool as soon as all
+ * nodes that it depends on have passed, so independent branches of the graph run in parallel. If a node fails, all
+ * nodes that (transitively) depend on it are skipped without being run.
+ * <p>
+ * The messages of the nodes are merged in the order that the nodes are given in, independent of the order in which
+ * they finish. A submission passes if no rejecting node failed.
+ * <p>
+ * Results of nodes that have a {@link CheckConfiguration} are stored in a {@link CheckResultCache}, so they are
+ * re-used if the same content is checked again. Results of checks that were abandoned or interrupted are not cached.
+ * <p>
+ * Each check has a time budget, and all checks of a submission together have another. A check that exceeds its
+ * budget (or is still running when the budget of the submission is used up) is interrupted and abandoned: it fails
+ * with an error message, and its dependents are skipped. Checks that have not started when the budget of the
+ * submission is used up are skipped. As an abandoned check may ignore the interruption, the thread pool is enlarged
+ * by one thread until the abandoned check actually returns, so that other submissions are not slowed down.
+ *
+ * @author Adam
+ */
+@Component
+public class CheckEngine {
+
+    private static final Log LOGGER = LogFactory.getLog(CheckEngine.class);
+
+    /**
+     * The result of a single node. <code>result</code> is <code>null</code> if the node was skipped.
+     */
+    private record NodeResult(CheckNode node, CheckResult result) {
+
+        /**
+         * Returns whether this node was run and passed.
+         *
+         * @return Whether this node passed.
+         */
+        boolean passed() {
+            return result != null && result.passed();
+        }
+
+    }
+
+    /**
+     * The result of running the check of a node.
+     *
+     * @param result The result of the check.
+     * @param inputFingerprint The {@link ICheck#getInputFingerprint() input fingerprint} of the check;
+     *      <code>null</code> if the result is not cacheable.
+     * @param cacheable Whether the result should be stored in the {@link CheckResultCache}, i.e. the node has a
+     *      configuration, the check actually ran, and it did not throw an exception.
+     */
+    private record NodeOutcome(CheckResult result, String inputFingerprint, boolean cacheable) {
+    }
+    
+    /**
+     * The execution of a single node in a single {@link #runGraph(List, Submission, Path)} call.
+     */
+    private final class NodeRun {
+        
+        private CheckNode node;
+        
+        private CompletableFuture<NodeResult> future;
+        
+        private Thread thread;
+        
+        private boolean abandoned;
+        
+        /**
+         * Creates the execution of a node.
+         *
+         * @param node The node to execute.
+         */
+        NodeRun(CheckNode node) {
+            this.node = node;
+            this.future = new CompletableFuture<>();
+        }
+        
+        /**
+         * Runs the check of the node on the calling thread, unless the node is already done (i.e. skipped). Enforces
+         * the time budget of the check.
+         *
+         * @param submission The submission to check.
+         * @param submissionDirectory The directory containing the files of the submission.
+         */
+        void execute(Submission submission, Path submissionDirectory) {
+            boolean run;
+            synchronized (this) {
+                run = !future.isDone();
+                if (run) {
+                    thread = Thread.currentThread();
+                }
+            }
+            
+            if (run) {
+                ScheduledFuture<?> watchdog = watchdogs.schedule(() -> abandon(timeoutResult(node,
+                        "Check timed out after " + describe(checkTimeout))), checkTimeout.toMillis(),
+                        TimeUnit.MILLISECONDS);
+                
+                NodeOutcome outcome = null;
+                try {
+                    outcome = runNode(node, submission, submissionDirectory);
+                } finally {
+                    watchdog.cancel(false);
+                    finish(submission, outcome);
+                }
+            }
+        }
+        
+        /**
+         * Completes this node after its check returned. The result is only stored in the {@link CheckResultCache} if
+         * the check was neither abandoned nor interrupted, as the result of an interrupted check (e.g. a timeout
+         * message) says nothing about the submission.
+         *
+         * @param submission The submission that was checked.
+         * @param outcome The outcome of the check; <code>null</code> if the check threw an error.
+         */
+        private void finish(Submission submission, NodeOutcome outcome) {
+            boolean wasAbandoned;
+            synchronized (this) {
+                thread = null;
+                wasAbandoned = abandoned;
+            }
+            
+            if (wasAbandoned) {
+                LOGGER.info("Abandoned check " + node.name() + " returned");
+                Thread.interrupted();
+                shrinkPool();
+            } else if (outcome != null) {
+                if (outcome.cacheable() && !Thread.currentThread().isInterrupted()) {
+                    cache.put(submission, node.configuration(), outcome.inputFingerprint(), outcome.result());
+                }
+                future.complete(new NodeResult(node, outcome.result()));
+            } else {
+                future.completeExceptionally(new IllegalStateException("Check " + node.name() + " failed"));
+            }
+        }
+        
+        /**
+         * Completes this node with the given result, if its check is currently running. The thread of the check is
+         * interrupted and abandoned.
+         *
+         * @param result The result to complete with.
+         */
+        synchronized void abandon(CheckResult result) {
+            if (thread != null && !abandoned && future.complete(new NodeResult(node, result))) {
+                LOGGER.warn("Abandoning check " + node.name() + " that exceeded its time budget");
+                abandoned = true;
+                growPool();
+                thread.interrupt();
+            }
+        }
+        
+        /**
+         * Completes this node as skipped, if its check has not started yet.
+         */
+        synchronized void skip() {
+            if (thread == null) {
+                future.complete(new NodeResult(node, null));
+            }
+        }
+        
+    }
+    
+    private ThreadPoolExecutor executor;
+    
+    private ScheduledExecutorService watchdogs;
+    
+    private Duration checkTimeout;
+    
+    private Duration submissionTimeout;
+    
+    private CheckResultCache cache;
+    
+    /**
+     * Creates a new {@link CheckEngine}.
+     *
+     * @param parallelism The maximum number of checks that are run in parallel.
+     * @param checkTimeout The time budget of a single check.
+     * @param submissionTimeout The time budget of all checks of a submission.
+     * @param cache The cache for results of configured checks.
+     */
+    public CheckEngine(
+            @Value("${checks.parallelism:4}") int parallelism,
+            @Value("${checks.timeout.per-check:60s}") Duration checkTimeout,
+            @Value("${checks.timeout.per-submission:180s}") Duration submissionTimeout,
+            CheckResultCache cache) {
+        
+        this.checkTimeout = checkTimeout;
+        this.submissionTimeout = submissionTimeout;
+        this.cache = cache;
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "check-worker");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.watchdogs = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "check-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs the given sequence of checks on the given submission. See {@link CheckNode#sequence(List)} for how the
+     * dependencies between the checks are created.
+     *
+     * @param checks The checks to run, in the order that their results should be reported.
+     * @param submission The submission to check.
+     * @param submissionDirectory The directory containing the files of the submission.
+     *
+     * @return The merged result of all checks.
+     */
+    public CheckResult run(List<ICheck> checks, Submission submission, Path submissionDirectory) {
+        return runGraph(CheckNode.sequence(checks), submission, submissionDirectory);
+    }
+
+    /**
+     * Runs the given graph of checks on the given submission.
+     *
+     * @param nodes The nodes of the graph, in the order that their results should be reported.
+     * @param submission The submission to check.
+     * @param submissionDirectory The directory containing the files of the submission.
+     *
+     * @return The merged result of all checks.
+     *
+     * @throws IllegalArgumentException If the node names are not unique, a dependency does not exist, or the
+     *      dependencies contain a cycle.
+     */
+    public CheckResult runGraph(List<CheckNode> nodes, Submission submission, Path submissionDirectory)
+            throws IllegalArgumentException {
+
+        Map<String, NodeRun> runs = new HashMap<>();
+        for (CheckNode node : topologicalOrder(nodes)) {
+            NodeRun run = new NodeRun(node);
+            List<CompletableFuture<NodeResult>> prerequisites = node.dependencies().stream()
+                    .map(dependency -> runs.get(dependency).future)
+                    .toList();
+            
+            CompletableFuture
+                    .allOf(prerequisites.toArray(new CompletableFuture<?>[prerequisites.size()]))
+                    .whenComplete((ignored, exception) -> {
+                        if (exception == null && prerequisites.stream().allMatch(p -> p.join().passed())) {
+                            start(run, submission, submissionDirectory);
+                        } else {
+                            run.skip();
+                        }
+                    });
+            
+            runs.put(node.name(), run);
+        }
+        
+        return merge(nodes, runs);
+    }
+    
+    /**
+     * Starts the given node on the thread pool.
+     * 
+     * @param run The node to start.
+     * @param submission The submission to check.
+     * @param submissionDirectory The directory containing the files of the submission.
+     */
+    private void start(NodeRun run, Submission submission, Path submissionDirectory) {
+        try {
+            executor.execute(() -> run.execute(submission, submissionDirectory));
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("Could not start check " + run.node.name(), e);
+            run.future.completeExceptionally(e);
+        }
+    }
+    
+    /**
+     * Sorts the given nodes so that each node comes after all of its dependencies. Nodes without dependencies keep
+     * their relative order.
+     *
+     * @param nodes The nodes to sort.
+     *
+     * @return The sorted nodes.
+     *
+     * @throws IllegalArgumentException If the node names are not unique, a dependency does not exist, or the
+     *      dependencies contain a cycle.
+     */
+    static List<CheckNode> topologicalOrder(List<CheckNode> nodes) throws IllegalArgumentException {
+        Map<String, CheckNode> byName = new HashMap<>();
+        for (CheckNode node : nodes) {
+            if (byName.put(node.name(), node) != null) {
+                throw new IllegalArgumentException("Duplicate check name " + node.name());
+            }
+        }
+        for (CheckNode node : nodes) {
+            for (String dependency : node.dependencies()) {
+                if (!byName.containsKey(dependency)) {
+                    throw new IllegalArgumentException("Check " + node.name() + " depends on unknown check "
+                            + dependency);
+                }
+            }
+        }
+
+        List<CheckNode> sorted = new ArrayList<>(nodes.size());
+        List<CheckNode> remaining = new LinkedList<>(nodes);
+        Set<String> done = new HashSet<>();
+
+        boolean progress = true;
+        while (!remaining.isEmpty() && progress) {
+            progress = false;
+            for (CheckNode node : new ArrayList<>(remaining)) {
+                if (done.containsAll(node.dependencies())) {
+                    sorted.add(node);
+                    done.add(node.name());
+                    remaining.remove(node);
+                    progress = true;
+                }
+            }
+        }
+
+        if (!remaining.isEmpty()) {
+            throw new IllegalArgumentException("Check dependencies contain a cycle");
+        }
+
+        return sorted;
+    }
+
+    /**
+     * Runs the check of a single node, or retrieves its result from the {@link CheckResultCache}. If the check throws
+     * an exception, a failed result is returned (which is not cacheable).
+     *
+     * @param node The node to run.
+     * @param submission The submission to check.
+     * @param submissionDirectory The directory containing the files of the submission.
+     *
+     * @return The result of the check, and whether it may be cached.
+     */
+    private NodeOutcome runNode(CheckNode node, Submission submission, Path submissionDirectory) {
+        NodeOutcome outcome;
+        // checkstyle: stop exception type check
+        try {
+            if (node.configuration() != null) {
+                String fingerprint = node.check().getInputFingerprint();
+                CheckResult cached = cache.get(submission, node.configuration(), fingerprint).orElse(null);
+                if (cached != null) {
+                    outcome = new NodeOutcome(cached, fingerprint, false);
+                } else {
+                    outcome = new NodeOutcome(node.check().run(submission, submissionDirectory), fingerprint, true);
+                }
+            } else {
+                outcome = new NodeOutcome(node.check().run(submission, submissionDirectory), null, false);
+            }
+
+        } catch (RuntimeException e) {
+            LOGGER.warn("Check " + node.name() + " threw an exception", e);
+            outcome = new NodeOutcome(new CheckResult(false, List.of(new ResultMessage(
+                    node.check().getName(), MessageType.ERROR, "An internal error occurred while checking"))),
+                    null, false);
+        }
+        // checkstyle: resume exception type check
+        return outcome;
+    }
+
+    /**
+     * Waits for all nodes and merges their results in the given order. Nodes that did not finish within the time
+     * budget of the submission are abandoned or skipped.
+     *
+     * @param nodes The nodes in the order that their results should be reported.
+     * @param runs The executions of the nodes, by node name.
+     *
+     * @return The merged result.
+     */
+    private CheckResult merge(List<CheckNode> nodes, Map<String, NodeRun> runs) {
+        List<ResultMessage> messages = new LinkedList<>();
+        boolean passed = true;
+        
+        try {
+            try {
+                CompletableFuture.allOf(runs.values().stream()
+                        .map(run -> run.future)
+                        .toArray(CompletableFuture<?>[]::new))
+                        .get(submissionTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                
+            } catch (TimeoutException e) {
+                LOGGER.warn("Checks of submission exceeded time budget of " + describe(submissionTimeout));
+                // skip pending checks first, so that they don't start on the threads added for abandoned checks
+                runs.values().forEach(NodeRun::skip);
+                for (NodeRun run : runs.values()) {
+                    run.abandon(timeoutResult(run.node, "Check did not finish within the time budget of "
+                            + describe(submissionTimeout) + " for the submission"));
+                }
+            }
+            
+            for (CheckNode node : nodes) {
+                NodeResult result = runs.get(node.name()).future.get();
+                if (result.result() != null) {
+                    messages.addAll(result.result().messages());
+                    if (node.rejecting() && !result.passed()) {
+                        passed = false;
+                    }
+                }
+            }
+            
+        } catch (ExecutionException e) {
+            LOGGER.error("Unexpected exception while running checks", e.getCause());
+            passed = false;
+            messages.add(new ResultMessage("engine", MessageType.ERROR, "An internal error occurred while checking"));
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            runs.values().forEach(NodeRun::skip);
+            runs.values().forEach(run -> run.abandon(timeoutResult(run.node, "Check was interrupted")));
+            passed = false;
+            messages.add(new ResultMessage("engine", MessageType.ERROR, "Checks were interrupted"));
+        }
+        
+        return new CheckResult(passed, messages);
+    }
+    
+    /**
+     * Creates the failed result of a check that exceeded a time budget.
+     * 
+     * @param node The node of the check.
+     * @param message The error message.
+     * 
+     * @return The failed result.
+     */
+    private static CheckResult timeoutResult(CheckNode node, String message) {
+        return new CheckResult(false, List.of(new ResultMessage(node.check().getName(), MessageType.ERROR, message)));
+    }
+    
+    /**
+     * Formats a time budget for messages.
+     * 
+     * @param duration The time budget.
+     * 
+     * @return A human-readable representation, e.g. <code>60 seconds</code> or <code>500 ms</code>.
+     */
+    private static String describe(Duration duration) {
+        String result;
+        if (duration.toMillis() % 1000 == 0) {
+            result = duration.toSeconds() + " seconds";
+        } else {
+            result = duration.toMillis() + " ms";
+        }
+        return result;
+    }
+    
+    /**
+     * Adds a thread to the pool to replace a thread that is occupied by an abandoned check.
+     */
+    private synchronized void growPool() {
+        executor.setMaximumPoolSize(executor.getMaximumPoolSize() + 1);
+        executor.setCorePoolSize(executor.getCorePoolSize() + 1);
+    }
+    
+    /**
+     * Removes the thread that was added in {@link #growPool()} after the abandoned check returned.
+     */
+    private synchronized void shrinkPool() {
+        executor.setCorePoolSize(executor.getCorePoolSize() - 1);
+        executor.setMaximumPoolSize(executor.getMaximumPoolSize() - 1);
+    }
+    
+    /**
+     * Stops the thread pool used for running checks.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        watchdogs.shutdownNow();
+    }
+
+}
@@ -0,0 +1,88 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.CheckConfiguration;
+
+/**
+ * A node in the dependency graph of checks that the {@link CheckEngine} runs. A node is only run if all of the nodes
+ * that it depends on passed; otherwise it is skipped. Nodes created from a {@link CheckConfiguration} keep it, so that
+ * their results can be cached in the {@link CheckResultCache}.
+ * 
+ * @author Adam
+ */
+public record CheckNode(
+        String name,
+        ICheck check,
+        boolean rejecting,
+        Set<String> dependencies,
+        CheckConfiguration configuration) {
+
+    /**
+     * Creates a {@link CheckNode}. The given dependencies are copied.
+     * 
+     * @param name The unique name of this node.
+     * @param check The check to run.
+     * @param rejecting Whether the submission is rejected if this check fails.
+     * @param dependencies The names of the nodes that need to pass before this node is run.
+     * @param configuration The configuration that this node was created from; <code>null</code> if it was not created
+     *      from a configuration. Results are only cached if this is not <code>null</code>.
+     */
+    public CheckNode {
+        dependencies = Set.copyOf(dependencies);
+    }
+    
+    /**
+     * Creates a {@link CheckNode} that is not created from a {@link CheckConfiguration}.
+     * 
+     * @param name The unique name of this node.
+     * @param check The check to run.
+     * @param rejecting Whether the submission is rejected if this check fails.
+     * @param dependencies The names of the nodes that need to pass before this node is run.
+     */
+    public CheckNode(String name, ICheck check, boolean rejecting, Set<String> dependencies) {
+        this(name, check, rejecting, dependencies, null);
+    }
+    
+    /**
+     * Creates a {@link CheckNode} for the given {@link CheckConfiguration}.
+     * 
+     * @param configuration The configuration that specifies name, rejecting and dependencies.
+     * @param check The check that is configured by the configuration.
+     * 
+     * @return The node for the configured check.
+     */
+    public static CheckNode fromConfiguration(CheckConfiguration configuration, ICheck check) {
+        return new CheckNode(configuration.checkName(), check, configuration.rejecting(),
+                new LinkedHashSet<>(configuration.dependencies()), configuration);
+    }
+    
+    /**
+     * Creates nodes for a sequence of rejecting checks. Checks that are {@link ICheck#isIndependent() independent}
+     * have no dependencies, all other checks depend on all checks before them.
+     * 
+     * @param checks The checks in the order that they should run in.
+     * 
+     * @return The nodes for the given checks, in the same order.
+     */
+    public static List<CheckNode> sequence(List<ICheck> checks) {
+        List<CheckNode> result = new ArrayList<>(checks.size());
+        Set<String> previous = new LinkedHashSet<>();
+        
+        for (ICheck check : checks) {
+            String name = result.size() + "-" + check.getName();
+            if (check.isIndependent()) {
+                result.add(new CheckNode(name, check, true, Set.of()));
+            } else {
+                result.add(new CheckNode(name, check, true, previous));
+            }
+            previous.add(name);
+        }
+        
+        return result;
+    }
+    
+}
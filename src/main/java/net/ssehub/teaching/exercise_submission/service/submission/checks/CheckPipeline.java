@@ -0,0 +1,59 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.CheckConfiguration;
+
+/**
+ * The configured checks of an assignment, as nodes for the {@link CheckEngine}. Inline checks decide whether a
+ * submission is accepted, deferred checks run after it was stored (see {@link CheckConfiguration#isDeferred()}).
+ * 
+ * @param inlineNodes The nodes of the inline checks.
+ * @param deferredNodes The nodes of the deferred checks.
+ * 
+ * @author Adam
+ */
+public record CheckPipeline(List<CheckNode> inlineNodes, List<CheckNode> deferredNodes) {
+    
+    /**
+     * A pipeline without any checks.
+     */
+    public static final CheckPipeline EMPTY = new CheckPipeline(List.of(), List.of());
+    
+    private static final Log LOGGER = LogFactory.getLog(CheckPipeline.class);
+    
+    /**
+     * Creates a {@link CheckPipeline}. The given lists are copied.
+     * 
+     * @param inlineNodes The nodes of the inline checks.
+     * @param deferredNodes The nodes of the deferred checks.
+     */
+    public CheckPipeline {
+        inlineNodes = List.copyOf(inlineNodes);
+        deferredNodes = List.copyOf(deferredNodes);
+    }
+    
+    /**
+     * Closes all checks of this pipeline that implement {@link AutoCloseable}, to release the resources that they hold
+     * when the service shuts down. Failures are logged.
+     */
+    public void close() {
+        Stream.concat(inlineNodes.stream(), deferredNodes.stream())
+                .map(CheckNode::check)
+                .filter(AutoCloseable.class::isInstance)
+                .forEach(check -> {
+                    // checkstyle: stop exception type check
+                    try {
+                        ((AutoCloseable) check).close();
+                    } catch (Exception e) {
+                        LOGGER.warn("Could not close check " + check.getName(), e);
+                    }
+                    // checkstyle: resume exception type check
+                });
+    }
+    
+}
@@ -0,0 +1,23 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks;
+
+/**
+ * Indicates that a submission was rejected because too many submissions are already waiting to be checked. Answered
+ * with 503 and a <code>Retry-After</code> header by the
+ * {@link net.ssehub.teaching.exercise_submission.service.routes.ResponseExceptionHandler}.
+ * 
+ * @author Adam
+ */
+public class CheckQueueFullException extends Exception {
+
+    private static final long serialVersionUID = 2748190375925107331L;
+
+    /**
+     * Creates this exception.
+     * 
+     * @param message The detail message.
+     */
+    public CheckQueueFullException(String message) {
+        super(message);
+    }
+    
+}
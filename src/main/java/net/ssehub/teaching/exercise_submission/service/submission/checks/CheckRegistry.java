@@ -0,0 +1,318 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Assignment;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.CheckConfiguration;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.StuMgmtView;
+import net.ssehub.teaching.exercise_submission.service.submission.Submission;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage.MessageType;
+
+/**
+ * Resolves the {@link Assignment#checkConfigurations() configured checks} of assignments to {@link CheckPipeline}s,
+ * using the {@link ICheckFactory}s that are registered for the check names.
+ * <p>
+ * Creating checks may be expensive, so the pipeline of each assignment is cached together with the configurations
+ * that it was built from. If the configurations of the assignment in the {@link StuMgmtView} differ from these, the
+ * pipeline is rebuilt; otherwise, a lookup is a single map access and a comparison of the (small) configuration list.
+ * Concurrent lookups of the same assignment wait for a single build. Pipelines that are replaced or removed are not
+ * closed, as submissions that are still being checked (or whose deferred checks run later) may still use their
+ * checks; the checks release their resources when they are garbage collected. Only on shutdown are the cached
+ * pipelines {@link CheckPipeline#close() closed}.
+ * <p>
+ * Configurations with an unknown check name or invalid properties are not silently dropped: they result in a check
+ * that always fails with an error message, so that (if the configuration is rejecting) submissions are not accepted
+ * without the check the lecturer asked for. The same applies to checks whose dependencies are invalid: a dependency
+ * on an unknown check, an inline check depending on a deferred one, or a cycle. Nodes are named after their check;
+ * if a check is configured more than once, the nodes are numbered (e.g. <code>junit#1</code>, <code>junit#2</code>)
+ * and a dependency on the check name refers to all of them. So the engine always gets a valid graph.
+ * 
+ * @author Adam
+ */
+@Component
+public class CheckRegistry {
+    
+    private static final Log LOGGER = LogFactory.getLog(CheckRegistry.class);
+    
+    /**
+     * Identifies an assignment.
+     */
+    private record Key(String course, String assignment) {
+    }
+    
+    /**
+     * A cached pipeline and the configurations that it was built from.
+     */
+    private record Entry(List<CheckConfiguration> configurations, CheckPipeline pipeline) {
+    }
+    
+    /**
+     * A check that could not be created. Always fails with an error message.
+     */
+    private record UnavailableCheck(String name, String reason) implements ICheck {
+        
+        @Override
+        public CheckResult run(Submission submission, Path submissionDirectory) {
+            return new CheckResult(false, List.of(new ResultMessage(name, MessageType.ERROR,
+                    "Check is not available: " + reason)));
+        }
+        
+        @Override
+        public String getName() {
+            return name;
+        }
+        
+    }
+    
+    private Map<String, ICheckFactory> factories;
+    
+    private StuMgmtView stuMgmtView;
+    
+    private Map<Key, Entry> pipelines;
+    
+    /**
+     * Creates a new {@link CheckRegistry}.
+     * 
+     * @param factories The factories for all available checks.
+     * @param stuMgmtView The view on the student management system to get the check configurations from.
+     * 
+     * @throws IllegalArgumentException If two factories have the same check name.
+     */
+    public CheckRegistry(List<ICheckFactory> factories, StuMgmtView stuMgmtView) throws IllegalArgumentException {
+        this.factories = new HashMap<>();
+        for (ICheckFactory factory : factories) {
+            if (this.factories.put(factory.getCheckName(), factory) != null) {
+                throw new IllegalArgumentException("Duplicate check factory for " + factory.getCheckName());
+            }
+        }
+        this.stuMgmtView = stuMgmtView;
+        this.pipelines = new ConcurrentHashMap<>();
+    }
+    
+    /**
+     * Returns the pipeline of configured checks of the given assignment.
+     * 
+     * @param course The course that contains the assignment.
+     * @param assignmentName The name of the assignment.
+     * 
+     * @return The pipeline; {@link CheckPipeline#EMPTY} if the assignment does not exist or has no checks configured.
+     */
+    public CheckPipeline getPipeline(String course, String assignmentName) {
+        List<CheckConfiguration> configurations = stuMgmtView.getCourse(course)
+                .map(c -> c.assignmentsByName().get(assignmentName))
+                .map(Assignment::checkConfigurations)
+                .orElse(List.of());
+        
+        Key key = new Key(course, assignmentName);
+        CheckPipeline result;
+        if (configurations.isEmpty()) {
+            pipelines.remove(key);
+            result = CheckPipeline.EMPTY;
+            
+        } else {
+            result = pipelines.compute(key, (k, cached) -> {
+                Entry entry = cached;
+                if (entry == null || !entry.configurations().equals(configurations)) {
+                    LOGGER.info("Building check pipeline for " + assignmentName + " in " + course);
+                    entry = new Entry(List.copyOf(configurations), build(configurations));
+                }
+                return entry;
+            }).pipeline();
+        }
+        return result;
+    }
+    
+    /**
+     * Removes the cached pipeline of the given assignment, so that it is rebuilt on the next lookup.
+     * 
+     * @param course The course that contains the assignment.
+     * @param assignmentName The name of the assignment.
+     */
+    public void invalidate(String course, String assignmentName) {
+        pipelines.remove(new Key(course, assignmentName));
+    }
+    
+    /**
+     * Removes the cached pipelines of all assignments of the given course.
+     * 
+     * @param course The course.
+     */
+    public void invalidateCourse(String course) {
+        pipelines.keySet().removeIf(key -> key.course().equals(course));
+    }
+    
+    /**
+     * Removes and closes all cached pipelines.
+     */
+    @PreDestroy
+    public void shutdown() {
+        pipelines.keySet().stream().toList().forEach(key -> {
+            Entry removed = pipelines.remove(key);
+            if (removed != null) {
+                removed.pipeline().close();
+            }
+        });
+    }
+    
+    /**
+     * Creates the checks for the given configurations. The dependency graph is validated first; configurations with
+     * invalid dependencies get an {@link UnavailableCheck} without dependencies, and their check is not created.
+     * 
+     * @param configurations The configurations of the checks.
+     * 
+     * @return The pipeline of the configured checks.
+     */
+    private CheckPipeline build(List<CheckConfiguration> configurations) {
+        List<String> names = nodeNames(configurations);
+        
+        Map<String, Set<String>> nodesByReference = new HashMap<>();
+        Set<String> deferredNames = new HashSet<>();
+        for (int i = 0; i < configurations.size(); i++) {
+            String checkName = configurations.get(i).checkName();
+            nodesByReference.computeIfAbsent(checkName, k -> new LinkedHashSet<>()).add(names.get(i));
+            nodesByReference.computeIfAbsent(names.get(i), k -> new LinkedHashSet<>()).add(names.get(i));
+            if (configurations.get(i).isDeferred()) {
+                deferredNames.add(names.get(i));
+            }
+        }
+        
+        Map<String, Set<String>> dependencies = new HashMap<>();
+        Map<String, String> problems = new HashMap<>();
+        for (int i = 0; i < configurations.size(); i++) {
+            CheckConfiguration configuration = configurations.get(i);
+            Set<String> resolved = new LinkedHashSet<>();
+            for (String dependency : configuration.dependencies()) {
+                Set<String> targets = nodesByReference.get(dependency);
+                if (targets == null) {
+                    problems.put(names.get(i), "depends on unknown check " + dependency);
+                } else if (!configuration.isDeferred() && targets.stream().anyMatch(deferredNames::contains)) {
+                    problems.put(names.get(i), "inline check depends on deferred check " + dependency);
+                } else {
+                    resolved.addAll(targets);
+                }
+            }
+            dependencies.put(names.get(i), problems.containsKey(names.get(i)) ? Set.of() : resolved);
+        }
+        for (String name : findCycles(names, dependencies)) {
+            problems.put(name, "dependencies contain a cycle");
+        }
+        
+        List<CheckNode> inline = new ArrayList<>();
+        List<CheckNode> deferred = new ArrayList<>();
+        for (int i = 0; i < configurations.size(); i++) {
+            CheckConfiguration configuration = configurations.get(i);
+            String problem = problems.get(names.get(i));
+            CheckNode node;
+            if (problem != null) {
+                LOGGER.warn("Invalid dependencies of check " + names.get(i) + ": " + problem);
+                // not created from the configuration, so that the failure is not cached for it
+                node = new CheckNode(names.get(i), new UnavailableCheck(configuration.checkName(), problem),
+                        configuration.rejecting(), Set.of());
+            } else {
+                node = new CheckNode(names.get(i), createCheck(configuration), configuration.rejecting(),
+                        dependencies.get(names.get(i)), configuration);
+            }
+            if (configuration.isDeferred()) {
+                deferred.add(node);
+            } else {
+                inline.add(node);
+            }
+        }
+        
+        return new CheckPipeline(inline, deferred);
+    }
+    
+    /**
+     * Determines unique node names for the given configurations. A check that is configured once is named after
+     * the check; otherwise, its occurrences are numbered, starting at 1.
+     * 
+     * @param configurations The configurations of the checks.
+     * 
+     * @return The node names, in the same order as the configurations.
+     */
+    private static List<String> nodeNames(List<CheckConfiguration> configurations) {
+        Map<String, Integer> counts = new HashMap<>();
+        configurations.forEach(c -> counts.merge(c.checkName(), 1, Integer::sum));
+        
+        Set<String> taken = new HashSet<>(counts.keySet());
+        Map<String, Integer> occurrences = new HashMap<>();
+        List<String> names = new ArrayList<>(configurations.size());
+        for (CheckConfiguration configuration : configurations) {
+            String name = configuration.checkName();
+            if (counts.get(name) > 1) {
+                String numbered;
+                do {
+                    numbered = name + "#" + occurrences.merge(name, 1, Integer::sum);
+                } while (!taken.add(numbered));
+                name = numbered;
+            }
+            names.add(name);
+        }
+        return names;
+    }
+    
+    /**
+     * Finds the nodes that are part of a dependency cycle or depend on one.
+     * 
+     * @param names The names of all nodes.
+     * @param dependencies The dependencies of each node; all of them are in <code>names</code>.
+     * 
+     * @return The names of the nodes that can never be run.
+     */
+    private static Set<String> findCycles(List<String> names, Map<String, Set<String>> dependencies) {
+        Set<String> remaining = new LinkedHashSet<>(names);
+        Set<String> done = new HashSet<>();
+        
+        boolean progress = true;
+        while (!remaining.isEmpty() && progress) {
+            progress = false;
+            for (String name : List.copyOf(remaining)) {
+                if (done.containsAll(dependencies.get(name))) {
+                    done.add(name);
+                    remaining.remove(name);
+                    progress = true;
+                }
+            }
+        }
+        return remaining;
+    }
+    
+    /**
+     * Creates a single check with the factory registered for its name.
+     * 
+     * @param configuration The configuration of the check.
+     * 
+     * @return The check; an {@link UnavailableCheck} if no factory exists or the configuration is invalid.
+     */
+    private ICheck createCheck(CheckConfiguration configuration) {
+        ICheckFactory factory = factories.get(configuration.checkName());
+        ICheck check;
+        if (factory == null) {
+            LOGGER.warn("No check available with name " + configuration.checkName());
+            check = new UnavailableCheck(configuration.checkName(), "unknown check");
+            
+        } else {
+            try {
+                check = factory.create(configuration);
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                LOGGER.warn("Invalid configuration for check " + configuration.checkName(), e);
+                check = new UnavailableCheck(configuration.checkName(), e.getMessage());
+            }
+        }
+        return check;
+    }
+    
+}
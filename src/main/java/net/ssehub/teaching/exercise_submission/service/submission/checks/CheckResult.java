@@ -0,0 +1,23 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks;
+
+import java.util.List;
+
+/**
+ * The immutable result of running one or more {@link Check}s on a submission. Contains whether the check(s) were
+ * successful and the {@link ResultMessage}s that were created.
+ *
+ * @author Adam
+ */
+public record CheckResult(boolean passed, List<ResultMessage> messages) {
+
+    /**
+     * Creates a {@link CheckResult}. The given message list is copied.
+     *
+     * @param passed Whether the check(s) were successful.
+     * @param messages The {@link ResultMessage}s created by the check(s).
+     */
+    public CheckResult {
+        messages = List.copyOf(messages);
+    }
+
+}
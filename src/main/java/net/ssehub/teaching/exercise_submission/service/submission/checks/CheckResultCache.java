@@ -0,0 +1,127 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks;
+
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.CheckConfiguration;
+import net.ssehub.teaching.exercise_submission.service.submission.Submission;
+import net.ssehub.teaching.exercise_submission.service.util.LruCache;
+
+/**
+ * A bounded cache for {@link CheckResult}s. Results are keyed by the {@link Submission#getContentHash() content hash}
+ * of the submission, the {@link CheckConfiguration} of the check, and the {@link ICheck#getInputFingerprint() input
+ * fingerprint} of the check, so re-submitting the same content does not run the same configured check again. If
+ * the cache is full, the least recently used entry is evicted.
+ *
+ * @author Adam
+ */
+@Component
+public class CheckResultCache {
+
+    /**
+     * The key of a cache entry.
+     */
+    private record Key(String contentHash, CheckConfiguration configuration, String inputFingerprint) {
+    }
+
+    private LruCache<Key, CheckResult> entries;
+
+    private long hits;
+
+    private long misses;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maxEntries The maximum number of results to store.
+     */
+    public CheckResultCache(@Value("${checks.cache.size:1000}") int maxEntries) {
+        this.entries = new LruCache<>(maxEntries);
+    }
+
+    /**
+     * Retrieves a cached result.
+     *
+     * @param submission The submission that was checked.
+     * @param configuration The configuration of the check.
+     * @param inputFingerprint The {@link ICheck#getInputFingerprint() input fingerprint} of the check.
+     *
+     * @return The cached result; empty if none is cached.
+     */
+    public synchronized Optional<CheckResult> get(Submission submission, CheckConfiguration configuration,
+            String inputFingerprint) {
+        CheckResult result = entries.get(new Key(submission.getContentHash(), configuration, inputFingerprint));
+        if (result != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return Optional.ofNullable(result);
+    }
+
+    /**
+     * Stores a result in this cache.
+     *
+     * @param submission The submission that was checked.
+     * @param configuration The configuration of the check.
+     * @param inputFingerprint The {@link ICheck#getInputFingerprint() input fingerprint} of the check.
+     * @param result The result of the check.
+     */
+    public synchronized void put(Submission submission, CheckConfiguration configuration, String inputFingerprint,
+            CheckResult result) {
+        entries.put(new Key(submission.getContentHash(), configuration, inputFingerprint), result);
+    }
+    
+    /**
+     * Retrieves a cached result of a check without an input fingerprint.
+     *
+     * @param submission The submission that was checked.
+     * @param configuration The configuration of the check.
+     *
+     * @return The cached result; empty if none is cached.
+     */
+    public Optional<CheckResult> get(Submission submission, CheckConfiguration configuration) {
+        return get(submission, configuration, "");
+    }
+    
+    /**
+     * Stores a result of a check without an input fingerprint.
+     *
+     * @param submission The submission that was checked.
+     * @param configuration The configuration of the check.
+     * @param result The result of the check.
+     */
+    public void put(Submission submission, CheckConfiguration configuration, CheckResult result) {
+        put(submission, configuration, "", result);
+    }
+
+    /**
+     * Returns the number of results currently stored.
+     *
+     * @return The number of cached results.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of successful lookups.
+     *
+     * @return The number of cache hits.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of unsuccessful lookups.
+     *
+     * @return The number of cache misses.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+}
@@ -0,0 +1,406 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.ssehub.teaching.exercise_submission.service.auth.AuthManager;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Role;
+
+/**
+ * Limits the number of submissions that are checked concurrently and decides which waiting submission is checked next.
+ * <p>
+ * Each course has its own queue. Free slots are shared between the courses with waiting submissions in proportion to
+ * their configured weights (by default, all courses have the same weight), so that a large course at its deadline
+ * cannot starve smaller courses. Submissions by tutors and lecturers (see {@link AuthManager#getRole(String, String)})
+ * are always preferred over those of students.
+ * <p>
+ * If the queue of a course or the total number of waiting submissions reaches its limit, new submissions are rejected
+ * immediately with a {@link CheckQueueFullException}.
+ * <p>
+ * The queue depth, waiting time, and service time per course are exported as metrics (<code>checks.queue.depth</code>,
+ * <code>checks.queue.wait</code>, <code>checks.service</code>).
+ * 
+ * @author Adam
+ */
+@Component
+public class CheckScheduler {
+
+    private static final Log LOGGER = LogFactory.getLog(CheckScheduler.class);
+    
+    /**
+     * A submission waiting to be checked.
+     */
+    private static class Ticket {
+        
+        private CourseQueue queue;
+        
+        private boolean privileged;
+        
+        private boolean granted;
+        
+    }
+    
+    /**
+     * The queue and scheduling state of a single course.
+     */
+    private static class CourseQueue {
+        
+        private Deque<Ticket> privileged = new ArrayDeque<>();
+        
+        private Deque<Ticket> normal = new ArrayDeque<>();
+        
+        private double weight;
+        
+        private double virtualTime;
+        
+        private Timer waitTimer;
+        
+        private Timer serviceTimer;
+        
+        /**
+         * Returns the number of waiting tickets.
+         * 
+         * @return The number of tickets in this queue.
+         */
+        int size() {
+            return privileged.size() + normal.size();
+        }
+        
+    }
+    
+    private Object lock;
+    
+    private Map<String, CourseQueue> queues;
+    
+    private Map<String, Double> weights;
+    
+    private int concurrency;
+    
+    private int maxQueuePerCourse;
+    
+    private int maxQueue;
+    
+    private int running;
+    
+    private int waiting;
+    
+    private AuthManager authManager;
+    
+    private MeterRegistry meterRegistry;
+    
+    private Counter rejected;
+    
+    // checkstyle: stop parameter number check
+    
+    /**
+     * Creates a scheduler.
+     * 
+     * @param concurrency The maximum number of submissions that are checked concurrently.
+     * @param maxQueuePerCourse The maximum number of waiting submissions per course.
+     * @param maxQueue The maximum number of waiting submissions in total.
+     * @param weights The weights of courses, as a comma-separated list of <code>course=weight</code> entries. Courses
+     *      that are not listed have weight 1.
+     * @param authManager Used to look up the role of submitting users.
+     * @param meterRegistry The registry to export metrics to.
+     * 
+     * @throws IllegalArgumentException If the weights are malformed.
+     */
+    public CheckScheduler(
+            @Value("${checks.scheduler.concurrency:4}") int concurrency,
+            @Value("${checks.scheduler.max-queue-per-course:50}") int maxQueuePerCourse,
+            @Value("${checks.scheduler.max-queue:200}") int maxQueue,
+            @Value("${checks.scheduler.weights:}") String weights,
+            AuthManager authManager,
+            MeterRegistry meterRegistry) throws IllegalArgumentException {
+        
+        this.lock = new Object();
+        this.queues = new HashMap<>();
+        this.weights = parseWeights(weights);
+        this.concurrency = concurrency;
+        this.maxQueuePerCourse = maxQueuePerCourse;
+        this.maxQueue = maxQueue;
+        this.authManager = authManager;
+        this.meterRegistry = meterRegistry;
+        this.rejected = meterRegistry.counter("checks.queue.rejected");
+    }
+    
+    // checkstyle: resume parameter number check
+    
+    /**
+     * Parses the weight configuration.
+     * 
+     * @param weights A comma-separated list of <code>course=weight</code> entries.
+     * 
+     * @return The weights by course.
+     * 
+     * @throws IllegalArgumentException If the weights are malformed.
+     */
+    private static Map<String, Double> parseWeights(String weights) throws IllegalArgumentException {
+        Map<String, Double> result = new HashMap<>();
+        for (String entry : weights.split(",")) {
+            if (!entry.isBlank()) {
+                String[] parts = entry.split("=");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Invalid course weight: " + entry);
+                }
+                double weight = Double.parseDouble(parts[1].trim());
+                if (weight <= 0) {
+                    throw new IllegalArgumentException("Course weight must be positive: " + entry);
+                }
+                result.put(parts[0].trim(), weight);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Runs the given job once the scheduler grants it a slot. Blocks until the job is finished.
+     * 
+     * @param <T> The result type of the job.
+     * @param course The course that the submission belongs to.
+     * @param username The user that submitted.
+     * @param job The job to run on the calling thread.
+     * 
+     * @return The result of the job.
+     * 
+     * @throws CheckQueueFullException If too many submissions are already waiting.
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    public <T> T run(String course, String username, Supplier<T> job)
+            throws CheckQueueFullException, InterruptedException {
+        
+        Role role = authManager.getRole(course, username).orElse(Role.STUDENT);
+        boolean privileged = role == Role.LECTURER || role == Role.TUTOR;
+        
+        long enqueued = System.nanoTime();
+        Ticket ticket = enqueue(course, privileged);
+        try {
+            await(ticket);
+        } catch (InterruptedException e) {
+            cancel(ticket);
+            throw e;
+        }
+        
+        long started = System.nanoTime();
+        ticket.queue.waitTimer.record(started - enqueued, TimeUnit.NANOSECONDS);
+        try {
+            return job.get();
+        } finally {
+            ticket.queue.serviceTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            release();
+        }
+    }
+    
+    /**
+     * Adds a ticket to the queue of the given course and dispatches waiting tickets.
+     * 
+     * @param course The course.
+     * @param privileged Whether the submission is by a tutor or lecturer.
+     * 
+     * @return The new ticket.
+     * 
+     * @throws CheckQueueFullException If the queue of the course or the total number of waiting tickets is full.
+     */
+    private Ticket enqueue(String course, boolean privileged) throws CheckQueueFullException {
+        synchronized (lock) {
+            CourseQueue queue = queues.computeIfAbsent(course, this::createQueue);
+            
+            if (queue.size() >= maxQueuePerCourse || waiting >= maxQueue) {
+                rejected.increment();
+                LOGGER.warn("Rejecting submission to " + course + ": " + queue.size()
+                        + " submissions of the course and " + waiting + " in total are waiting");
+                throw new CheckQueueFullException("Too many submissions are waiting to be checked");
+            }
+            
+            if (queue.size() == 0) {
+                // a course that becomes active must not use up the share it did not use while it was idle
+                queue.virtualTime = Math.max(queue.virtualTime, minActiveVirtualTime());
+            }
+            
+            Ticket ticket = new Ticket();
+            ticket.queue = queue;
+            ticket.privileged = privileged;
+            if (privileged) {
+                queue.privileged.addLast(ticket);
+            } else {
+                queue.normal.addLast(ticket);
+            }
+            waiting++;
+            
+            dispatch();
+            return ticket;
+        }
+    }
+    
+    /**
+     * Creates the queue and metrics of a course.
+     * 
+     * @param course The course.
+     * 
+     * @return The new queue.
+     */
+    private CourseQueue createQueue(String course) {
+        CourseQueue queue = new CourseQueue();
+        queue.weight = weights.getOrDefault(course, 1.0);
+        queue.waitTimer = meterRegistry.timer("checks.queue.wait", "course", course);
+        queue.serviceTimer = meterRegistry.timer("checks.service", "course", course);
+        Gauge.builder("checks.queue.depth", queue, q -> {
+            synchronized (lock) {
+                return q.size();
+            }
+        }).tag("course", course).register(meterRegistry);
+        return queue;
+    }
+    
+    /**
+     * Returns the smallest virtual time of all courses with waiting tickets. Must hold the lock.
+     * 
+     * @return The smallest virtual time; 0 if no course has waiting tickets.
+     */
+    private double minActiveVirtualTime() {
+        return queues.values().stream()
+                .filter(q -> q.size() > 0)
+                .mapToDouble(q -> q.virtualTime)
+                .min()
+                .orElse(0);
+    }
+    
+    /**
+     * Grants free slots to waiting tickets. Privileged tickets are granted first; among the courses with waiting
+     * tickets of the same priority, the course with the smallest virtual time (slots used divided by weight) is
+     * chosen. Must hold the lock.
+     */
+    private void dispatch() {
+        boolean granted = false;
+        while (running < concurrency && waiting > 0) {
+            boolean privileged = true;
+            CourseQueue next = nextQueue(privileged);
+            if (next == null) {
+                privileged = false;
+                next = nextQueue(privileged);
+            }
+            
+            Ticket ticket = privileged ? next.privileged.pollFirst() : next.normal.pollFirst();
+            ticket.granted = true;
+            next.virtualTime += 1.0 / next.weight;
+            waiting--;
+            running++;
+            granted = true;
+        }
+        
+        if (granted) {
+            lock.notifyAll();
+        }
+    }
+    
+    /**
+     * Finds the course with the smallest virtual time among those with waiting tickets of the given priority. Must
+     * hold the lock.
+     * 
+     * @param privileged Whether to look for privileged or normal tickets.
+     * 
+     * @return The course queue; <code>null</code> if no course has waiting tickets of that priority.
+     */
+    private CourseQueue nextQueue(boolean privileged) {
+        CourseQueue next = null;
+        for (CourseQueue queue : queues.values()) {
+            Deque<Ticket> tickets = privileged ? queue.privileged : queue.normal;
+            if (!tickets.isEmpty() && (next == null || queue.virtualTime < next.virtualTime)) {
+                next = queue;
+            }
+        }
+        return next;
+    }
+    
+    /**
+     * Waits until the given ticket is granted.
+     * 
+     * @param ticket The ticket.
+     * 
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    private void await(Ticket ticket) throws InterruptedException {
+        synchronized (lock) {
+            while (!ticket.granted) {
+                lock.wait();
+            }
+        }
+    }
+    
+    /**
+     * Removes a ticket that is no longer waited for.
+     * 
+     * @param ticket The ticket.
+     */
+    private void cancel(Ticket ticket) {
+        synchronized (lock) {
+            if (ticket.granted) {
+                release();
+            } else {
+                Deque<Ticket> deque = ticket.privileged ? ticket.queue.privileged : ticket.queue.normal;
+                deque.remove(ticket);
+                waiting--;
+            }
+        }
+    }
+    
+    /**
+     * Frees a slot after a job is done and dispatches waiting tickets.
+     */
+    private void release() {
+        synchronized (lock) {
+            running--;
+            dispatch();
+        }
+    }
+    
+    /**
+     * Returns the number of submissions waiting for the given course.
+     * 
+     * @param course The course.
+     * 
+     * @return The queue depth of the course.
+     */
+    public int getQueueDepth(String course) {
+        synchronized (lock) {
+            CourseQueue queue = queues.get(course);
+            return queue != null ? queue.size() : 0;
+        }
+    }
+    
+    /**
+     * Returns the number of submissions waiting in all courses.
+     * 
+     * @return The total queue depth.
+     */
+    public int getWaiting() {
+        synchronized (lock) {
+            return waiting;
+        }
+    }
+    
+    /**
+     * Returns the number of submissions that are currently being checked.
+     * 
+     * @return The number of running jobs.
+     */
+    public int getRunning() {
+        synchronized (lock) {
+            return running;
+        }
+    }
+    
+}
@@ -0,0 +1,105 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage.MessageType;
+
+/**
+ * Checks that all source files of a submission are valid in a given encoding (UTF-8 by default).
+ * 
+ * @author Adam
+ */
+public class EncodingCheck extends PerFileCheck {
+
+    /**
+     * The name of this check, as used in {@link ResultMessage}s.
+     */
+    public static final String CHECK_NAME = "encoding";
+    
+    private Charset charset;
+    
+    private String fileSuffix;
+    
+    /**
+     * Creates this check.
+     * 
+     * @param charset The encoding that the files must be valid in.
+     * @param fileSuffix Only files with this suffix are checked, e.g. <code>.java</code>.
+     * @param maxCachedFiles The maximum number of file results to cache.
+     */
+    public EncodingCheck(Charset charset, String fileSuffix, int maxCachedFiles) {
+        super(maxCachedFiles);
+        this.charset = charset;
+        this.fileSuffix = fileSuffix;
+    }
+    
+    /**
+     * Creates this check for UTF-8 encoded <code>.java</code> files.
+     */
+    public EncodingCheck() {
+        this(StandardCharsets.UTF_8, ".java", 10000);
+    }
+    
+    @Override
+    public String getName() {
+        return CHECK_NAME;
+    }
+    
+    @Override
+    public boolean isIndependent() {
+        return true;
+    }
+    
+    @Override
+    protected boolean isRelevant(Path file) {
+        return file.getFileName().toString().endsWith(fileSuffix);
+    }
+    
+    @Override
+    protected CheckResult checkFile(Path file, byte[] content) {
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        CheckResult result;
+        try {
+            decoder.decode(buffer);
+            result = new CheckResult(true, List.of());
+            
+        } catch (CharacterCodingException e) {
+            ResultMessage message = new ResultMessage(CHECK_NAME, MessageType.ERROR,
+                    "invalid encoding, expected " + charset.name())
+                    .setFile(file)
+                    .setLine(lineOf(content, buffer.position()));
+            result = new CheckResult(false, List.of(message));
+        }
+        return result;
+    }
+    
+    /**
+     * Calculates the line number of the given byte position.
+     * 
+     * @param content The file content.
+     * @param position The position in the content.
+     * 
+     * @return The 1-based line number.
+     */
+    private static int lineOf(byte[] content, int position) {
+        int line = 1;
+        for (int i = 0; i < position && i < content.length; i++) {
+            if (content[i] == '\n') {
+                line++;
+            }
+        }
+        return line;
+    }
+    
+}
@@ -0,0 +1,43 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.stereotype.Component;
+
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.CheckConfiguration;
+
+/**
+ * Creates {@link EncodingCheck}s. Supported properties are {@value #ENCODING_PROPERTY} (default <code>UTF-8</code>) and
+ * {@value #FILE_SUFFIX_PROPERTY} (default <code>.java</code>).
+ * 
+ * @author Adam
+ */
+@Component
+public class EncodingCheckFactory implements ICheckFactory {
+    
+    /**
+     * The property that specifies the encoding that files must be valid in.
+     */
+    public static final String ENCODING_PROPERTY = "encoding";
+    
+    /**
+     * The property that specifies the suffix of the files to check.
+     */
+    public static final String FILE_SUFFIX_PROPERTY = "fileSuffix";
+    
+    private static final int MAX_CACHED_FILES = 10000;
+    
+    @Override
+    public String getCheckName() {
+        return EncodingCheck.CHECK_NAME;
+    }
+    
+    @Override
+    public ICheck create(CheckConfiguration configuration) throws IllegalArgumentException {
+        return new EncodingCheck(
+                ICheckFactory.getCharsetProperty(configuration, ENCODING_PROPERTY, StandardCharsets.UTF_8),
+                ICheckFactory.getProperty(configuration, FILE_SUFFIX_PROPERTY, ".java"),
+                MAX_CACHED_FILES);
+    }
+    
+}
@@ -0,0 +1,59 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks;
+
+import java.nio.file.Path;
+
+import net.ssehub.teaching.exercise_submission.service.submission.Submission;
+
+/**
+ * A stateless check on a submission. Checks whether a certain requirement is fulfilled by the submission. In contrast
+ * to {@link Check}, the result and the {@link ResultMessage}s are returned by {@link #run(Submission, Path)}, so a
+ * single instance can safely be used by multiple threads at the same time.
+ * <p>
+ * Existing {@link Check}s can be used via a {@link CheckAdapter}.
+ * 
+ * @author Adam
+ */
+public interface ICheck {
+
+    /**
+     * Runs this check on the given submission. Implementations must not modify any state shared between invocations
+     * (except for thread-safe caches), as this may be called concurrently.
+     * 
+     * @param submission The submission to check.
+     * @param submissionDirectory A directory that contains the files of the submission. Must not be modified.
+     * 
+     * @return The result of this check.
+     */
+    public CheckResult run(Submission submission, Path submissionDirectory);
+    
+    /**
+     * Returns the name of this check, used e.g. for {@link ResultMessage}s about internal failures of this check.
+     * 
+     * @return The name of this check. By default, this is the simple name of the implementing class.
+     */
+    public default String getName() {
+        return getClass().getSimpleName();
+    }
+    
+    /**
+     * Returns whether this check is independent of the checks that run before it. Independent checks do not require
+     * that previous checks succeeded, and thus may run in parallel to other checks.
+     * 
+     * @return Whether this check is independent. By default, checks are not independent.
+     */
+    public default boolean isIndependent() {
+        return false;
+    }
+    
+    /**
+     * Returns a fingerprint of the inputs of this check that are not part of its configuration, e.g. a hash of test
+     * files that are read from the server. Cached results of this check are only re-used while the fingerprint stays
+     * the same.
+     * 
+     * @return The fingerprint. By default, an empty string.
+     */
+    public default String getInputFingerprint() {
+        return "";
+    }
+    
+}
@@ -0,0 +1,102 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks;
+
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+import java.time.Duration;
+
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.CheckConfiguration;
+
+/**
+ * Creates {@link ICheck}s from {@link CheckConfiguration}s. Each factory is responsible for the checks with a single
+ * {@link CheckConfiguration#checkName() check name}. Factories are collected by the {@link CheckRegistry}.
+ * 
+ * @author Adam
+ */
+public interface ICheckFactory {
+    
+    /**
+     * Returns the name of the checks that this factory creates, as used in {@link CheckConfiguration#checkName()}.
+     * 
+     * @return The name of the check.
+     */
+    public String getCheckName();
+    
+    /**
+     * Creates a check configured by the properties of the given configuration. This is called on the thread of the
+     * first request that needs the check, so expensive preparation (e.g. warming up a compiler) should be started in
+     * the background. The {@link CheckRegistry} caches the created checks, and closes them when they are replaced if
+     * they implement {@link AutoCloseable}.
+     * 
+     * @param configuration The configuration of the check.
+     * 
+     * @return The configured check.
+     * 
+     * @throws IllegalArgumentException If the properties of the configuration are invalid.
+     */
+    public ICheck create(CheckConfiguration configuration) throws IllegalArgumentException;
+    
+    /**
+     * Reads a property of a configuration.
+     * 
+     * @param configuration The configuration.
+     * @param key The name of the property.
+     * @param defaultValue The value to use if the property is not set.
+     * 
+     * @return The value of the property, or the default value.
+     */
+    public static String getProperty(CheckConfiguration configuration, String key, String defaultValue) {
+        String value = configuration.properties() != null ? configuration.properties().get(key) : null;
+        return value != null ? value : defaultValue;
+    }
+    
+    /**
+     * Reads a property of a configuration that contains the name of a charset.
+     * 
+     * @param configuration The configuration.
+     * @param key The name of the property.
+     * @param defaultValue The charset to use if the property is not set.
+     * 
+     * @return The charset.
+     * 
+     * @throws IllegalArgumentException If the charset is not supported.
+     */
+    public static Charset getCharsetProperty(CheckConfiguration configuration, String key, Charset defaultValue)
+            throws IllegalArgumentException {
+        
+        String name = getProperty(configuration, key, defaultValue.name());
+        try {
+            return Charset.forName(name);
+        } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+            throw new IllegalArgumentException("Unsupported encoding: " + name, e);
+        }
+    }
+    
+    /**
+     * Reads a property of a configuration that contains a duration in milliseconds.
+     * 
+     * @param configuration The configuration.
+     * @param key The name of the property.
+     * @param defaultValue The duration to use if the property is not set.
+     * 
+     * @return The duration.
+     * 
+     * @throws IllegalArgumentException If the value is not a positive number.
+     */
+    public static Duration getMillisProperty(CheckConfiguration configuration, String key, Duration defaultValue)
+            throws IllegalArgumentException {
+        
+        String value = getProperty(configuration, key, Long.toString(defaultValue.toMillis()));
+        long millis;
+        try {
+            millis = Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number of milliseconds for " + key + ": " + value, e);
+        }
+        if (millis <= 0) {
+            throw new IllegalArgumentException("Property " + key + " must be positive");
+        }
+        return Duration.ofMillis(millis);
+    }
+    
+}
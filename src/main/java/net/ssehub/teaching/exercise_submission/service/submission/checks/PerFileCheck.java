@@ -0,0 +1,97 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks;
+
+import java.nio.file.Path;
+import java.util.LinkedList;
+import java.util.List;
+
+import net.ssehub.teaching.exercise_submission.service.submission.Submission;
+import net.ssehub.teaching.exercise_submission.service.util.HashUtils;
+import net.ssehub.teaching.exercise_submission.service.util.LruCache;
+
+/**
+ * A check that analyzes each file of a submission on its own, e.g. an encoding or style check. The results are cached
+ * per file, keyed by the path and the hash of the file content. When a submission is checked, only files that have
+ * not been seen with the same content before are analyzed; the cached messages are re-used for all other files.
+ * <p>
+ * The cache belongs to the instance, so an instance must always be configured the same way. Sub-classes must be
+ * stateless apart from this, as files are checked concurrently by different submissions.
+ * 
+ * @author Adam
+ */
+public abstract class PerFileCheck implements ICheck {
+
+    /**
+     * The key of a cached file result.
+     */
+    private record Key(Path file, String contentHash) {
+    }
+    
+    private LruCache<Key, CheckResult> fileResults;
+    
+    /**
+     * Creates this check.
+     * 
+     * @param maxCachedFiles The maximum number of file results to cache.
+     */
+    protected PerFileCheck(int maxCachedFiles) {
+        this.fileResults = new LruCache<>(maxCachedFiles);
+    }
+    
+    /**
+     * Checks whether the given file should be analyzed by this check. By default, all files are analyzed.
+     * 
+     * @param file The relative path of the file in the submission.
+     * 
+     * @return Whether to analyze the file.
+     */
+    protected boolean isRelevant(Path file) {
+        return true;
+    }
+    
+    /**
+     * Analyzes a single file. Messages should have their {@link ResultMessage#getFile() file} set to the given path.
+     * 
+     * @param file The relative path of the file in the submission.
+     * @param content The content of the file.
+     * 
+     * @return The result for this file.
+     */
+    protected abstract CheckResult checkFile(Path file, byte[] content);
+    
+    @Override
+    public CheckResult run(Submission submission, Path submissionDirectory) {
+        List<ResultMessage> messages = new LinkedList<>();
+        boolean passed = true;
+        
+        List<Path> files = submission.getFilepaths().stream()
+                .filter(this::isRelevant)
+                .sorted()
+                .toList();
+        
+        for (Path file : files) {
+            byte[] content = submission.getFileContent(file);
+            Key key = new Key(file, HashUtils.sha256(content));
+            
+            CheckResult result = fileResults.get(key);
+            if (result == null) {
+                result = checkFile(file, content);
+                fileResults.put(key, result);
+            }
+            
+            messages.addAll(result.messages());
+            passed &= result.passed();
+        }
+        
+        return new CheckResult(passed, messages);
+    }
+    
+    /**
+     * Returns the number of file results that are currently cached.
+     * 
+     * @return The number of cached file results.
+     */
+    public int getNumCachedFiles() {
+        return fileResults.size();
+    }
+    
+}
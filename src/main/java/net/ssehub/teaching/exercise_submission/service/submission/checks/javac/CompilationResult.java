@@ -0,0 +1,25 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks.javac;
+
+import java.util.Map;
+
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckResult;
+
+/**
+ * The result of compiling a submission with the {@link JavacCheck}. Contains the {@link CheckResult} with the
+ * diagnostics of the compiler and the compiled class files.
+ * 
+ * @author Adam
+ */
+public record CompilationResult(CheckResult checkResult, Map<String, byte[]> classFiles) {
+
+    /**
+     * Creates a {@link CompilationResult}. The given class files are copied.
+     * 
+     * @param checkResult The result of the compilation; passed if there were no compilation errors.
+     * @param classFiles The bytes of the compiled class files, by binary class name.
+     */
+    public CompilationResult {
+        classFiles = Map.copyOf(classFiles);
+    }
+    
+}
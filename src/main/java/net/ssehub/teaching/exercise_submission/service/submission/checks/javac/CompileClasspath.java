@@ -0,0 +1,126 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks.javac;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Determines the classpath entries (jars or directories) that classes of the service were loaded from, so that they
+ * can be passed to the compiler with <code>-classpath</code>. The compiler does not see the class loader of the
+ * service, and <code>java.class.path</code> only contains the executable jar if the service runs from a Spring Boot
+ * jar.
+ * <p>
+ * Libraries that are nested in a Spring Boot jar (<code>BOOT-INF/lib/</code>) cannot be read by the compiler
+ * directly; they are extracted to a temporary directory once.
+ * 
+ * @author Adam
+ */
+public class CompileClasspath {
+    
+    private static final String NESTED_SEPARATOR = "!/";
+    
+    private static Path extractDirectory;
+    
+    /**
+     * Don't allow any instances.
+     */
+    private CompileClasspath() {}
+    
+    /**
+     * Returns the classpath entries that contain the given classes.
+     * 
+     * @param classes The classes that the compiled code should be able to use.
+     * 
+     * @return The jars or class directories of the given classes, without duplicates.
+     * 
+     * @throws IllegalStateException If the location of a class is unknown or cannot be extracted.
+     */
+    public static List<Path> of(Class<?>... classes) throws IllegalStateException {
+        Set<Path> entries = new LinkedHashSet<>();
+        for (Class<?> clazz : classes) {
+            CodeSource codeSource = clazz.getProtectionDomain().getCodeSource();
+            if (codeSource == null || codeSource.getLocation() == null) {
+                throw new IllegalStateException("Unknown location of " + clazz.getName());
+            }
+            try {
+                entries.add(toPath(codeSource.getLocation().toString()));
+            } catch (IOException | IllegalArgumentException e) {
+                throw new IllegalStateException("Cannot determine classpath entry of " + clazz.getName(), e);
+            }
+        }
+        return new ArrayList<>(entries);
+    }
+    
+    /**
+     * Converts the location of a code source to a path that the compiler can read.
+     * 
+     * @param location The location, e.g. <code>file:/lib/api.jar</code> or
+     *      <code>jar:file:/service.jar!/BOOT-INF/lib/api.jar!/</code>.
+     * 
+     * @return The path of the jar or directory; a temporary copy for nested jars.
+     * 
+     * @throws IOException If extracting a nested jar fails.
+     * @throws IllegalArgumentException If the location has an unknown format.
+     */
+    static Path toPath(String location) throws IOException, IllegalArgumentException {
+        Path result;
+        if (location.startsWith("jar:")) {
+            String[] parts = location.substring("jar:".length()).split(NESTED_SEPARATOR);
+            Path outerJar = Path.of(URI.create(parts[0]));
+            if (parts.length < 2 || parts[1].isEmpty()) {
+                result = outerJar;
+            } else {
+                result = extract(outerJar, parts[1]);
+            }
+        } else {
+            result = Path.of(URI.create(location));
+        }
+        return result;
+    }
+    
+    /**
+     * Extracts a jar that is nested in another jar to the temporary directory, unless it was already extracted.
+     * 
+     * @param outerJar The jar that contains the nested jar.
+     * @param entryName The name of the nested jar in the outer jar.
+     * 
+     * @return The path of the extracted jar.
+     * 
+     * @throws IOException If reading the outer jar or writing the extracted jar fails.
+     */
+    private static synchronized Path extract(Path outerJar, String entryName) throws IOException {
+        if (extractDirectory == null) {
+            extractDirectory = Files.createTempDirectory("compile-classpath");
+            extractDirectory.toFile().deleteOnExit();
+        }
+        
+        String fileName = entryName.substring(entryName.lastIndexOf('/') + 1);
+        Path target = extractDirectory.resolve(fileName);
+        if (!Files.isRegularFile(target)) {
+            try (JarFile jar = new JarFile(outerJar.toFile())) {
+                JarEntry entry = jar.getJarEntry(entryName);
+                if (entry == null) {
+                    throw new IOException(entryName + " not found in " + outerJar);
+                }
+                Path temporary = Files.createTempFile(extractDirectory, fileName, ".tmp");
+                try (InputStream in = jar.getInputStream(entry)) {
+                    Files.copy(in, temporary, StandardCopyOption.REPLACE_EXISTING);
+                }
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+                target.toFile().deleteOnExit();
+            }
+        }
+        return target;
+    }
+    
+}
@@ -0,0 +1,131 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks.javac;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+
+/**
+ * A {@link javax.tools.JavaFileManager} that captures all class files written by the compiler in memory. Platform
+ * classes are still read through the wrapped {@link StandardJavaFileManager}.
+ * 
+ * @author Adam
+ */
+class InMemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+    /**
+     * A source file of a submission, read from memory.
+     */
+    static class SourceFile extends SimpleJavaFileObject {
+        
+        private Path relativePath;
+        
+        private String content;
+        
+        /**
+         * Creates a source file.
+         * 
+         * @param relativePath The relative path of the file in the submission.
+         * @param content The content of the file.
+         * @param charset The encoding of the content.
+         */
+        SourceFile(Path relativePath, byte[] content, Charset charset) {
+            super(URI.create("mem:///" + relativePath.toString().replace('\\', '/')), Kind.SOURCE);
+            this.relativePath = relativePath;
+            this.content = new String(content, charset);
+        }
+        
+        /**
+         * Returns the relative path of this file in the submission.
+         * 
+         * @return The relative path.
+         */
+        Path getRelativePath() {
+            return relativePath;
+        }
+        
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return content;
+        }
+        
+    }
+    
+    /**
+     * A class file created by the compiler, stored in memory.
+     */
+    private static class ClassFile extends SimpleJavaFileObject {
+        
+        private ByteArrayOutputStream content;
+        
+        /**
+         * Creates an empty class file.
+         * 
+         * @param className The binary name of the class.
+         */
+        ClassFile(String className) {
+            super(URI.create("mem:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+            this.content = new ByteArrayOutputStream();
+        }
+        
+        @Override
+        public OutputStream openOutputStream() {
+            return content;
+        }
+        
+    }
+    
+    private Map<String, ClassFile> classFiles;
+    
+    /**
+     * Creates a file manager.
+     * 
+     * @param fileManager The standard file manager to read platform classes from.
+     */
+    InMemoryFileManager(StandardJavaFileManager fileManager) {
+        super(fileManager);
+        this.classFiles = new HashMap<>();
+    }
+    
+    @Override
+    public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+            FileObject sibling) {
+        
+        ClassFile file = new ClassFile(className);
+        classFiles.put(className, file);
+        return file;
+    }
+    
+    @Override
+    public boolean isSameFile(FileObject first, FileObject second) {
+        return first.toUri().equals(second.toUri());
+    }
+    
+    /**
+     * Returns all class files written by the compiler.
+     * 
+     * @return The bytes of the class files, by binary class name.
+     */
+    Map<String, byte[]> getClassFiles() {
+        Map<String, byte[]> result = new HashMap<>(classFiles.size());
+        for (Map.Entry<String, ClassFile> entry : classFiles.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().content.toByteArray());
+        }
+        return result;
+    }
+    
+    @Override
+    public void close() {
+        // don't close the wrapped file manager, as it is re-used
+    }
+    
+}
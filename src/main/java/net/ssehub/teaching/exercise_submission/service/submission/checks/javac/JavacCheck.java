@@ -0,0 +1,288 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks.javac;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.ssehub.teaching.exercise_submission.service.submission.Submission;
+import net.ssehub.teaching.exercise_submission.service.submission.SubmissionBuilder;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckResult;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ICheck;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage.MessageType;
+
+/**
+ * Checks that a submission compiles. The compiler of the running JVM is used in-process: the sources are read from
+ * the {@link Submission} and the class files are kept in memory, so no process is started and no files are written.
+ * The diagnostics of the compiler are converted to {@link ResultMessage}s with file, line, and column.
+ * <p>
+ * {@link StandardJavaFileManager}s are pooled, so that the platform classes are only indexed once per concurrent
+ * compilation. The pooled file managers are released by {@link #close()}, or when this check is garbage collected
+ * without being closed; a compilation that is still running while this check is closed keeps its file manager until it
+ * finishes. {@link #warmUpInBackground()} compiles a small class
+ * on a background thread, so that the first submission does not pay for loading the compiler.
+ * 
+ * @author Adam
+ */
+public class JavacCheck implements ICheck, AutoCloseable {
+
+    /**
+     * The name of this check, as used in {@link ResultMessage}s and check configurations.
+     */
+    public static final String CHECK_NAME = "javac";
+    
+    private static final Log LOGGER = LogFactory.getLog(JavacCheck.class);
+    
+    private static final Cleaner CLEANER = Cleaner.create();
+    
+    private static final Executor WARM_UP_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "javac-warmup");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private JavaCompiler compiler;
+    
+    private Queue<StandardJavaFileManager> idleFileManagers;
+    
+    private volatile boolean closed;
+    
+    private Charset charset;
+    
+    private List<String> options;
+    
+    private List<Path> classpath;
+    
+    /**
+     * Creates this check.
+     * 
+     * @param javaVersion The Java version to compile for (passed as <code>--release</code>); <code>null</code> to use
+     *      the version of the running JVM.
+     * @param charset The encoding of the source files.
+     * @param classpath The jars and directories that the compiled code may use (see {@link CompileClasspath}). May be
+     *      empty; the classpath of the running JVM is never used, so that submissions cannot compile against the
+     *      classes of the service.
+     * 
+     * @throws IllegalStateException If the running JVM does not provide a Java compiler.
+     */
+    public JavacCheck(String javaVersion, Charset charset, List<Path> classpath) throws IllegalStateException {
+        this.compiler = ToolProvider.getSystemJavaCompiler();
+        if (this.compiler == null) {
+            throw new IllegalStateException("No Java compiler available in this JVM");
+        }
+        
+        Queue<StandardJavaFileManager> pool = new ConcurrentLinkedQueue<>();
+        this.idleFileManagers = pool;
+        CLEANER.register(this, () -> closeIdleFileManagers(pool));
+        this.charset = charset;
+        
+        this.options = new LinkedList<>();
+        this.options.add("-proc:none");
+        this.options.add("-Xlint:none");
+        if (javaVersion != null) {
+            this.options.add("--release");
+            this.options.add(javaVersion);
+        }
+        this.classpath = List.copyOf(classpath);
+    }
+    
+    /**
+     * Creates this check with an empty classpath, i.e. the compiled code may only use the platform classes.
+     * 
+     * @param javaVersion The Java version to compile for (passed as <code>--release</code>); <code>null</code> to use
+     *      the version of the running JVM.
+     * @param charset The encoding of the source files.
+     * 
+     * @throws IllegalStateException If the running JVM does not provide a Java compiler.
+     */
+    public JavacCheck(String javaVersion, Charset charset) throws IllegalStateException {
+        this(javaVersion, charset, List.of());
+    }
+    
+    /**
+     * Creates this check for UTF-8 source files and the Java version of the running JVM.
+     */
+    public JavacCheck() {
+        this(null, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Compiles a small class on a background thread, so that the compiler classes are loaded and JIT-compiled (and a
+     * pooled file manager is ready) before the first submission. Returns immediately.
+     */
+    public void warmUpInBackground() {
+        WARM_UP_EXECUTOR.execute(() -> {
+            SubmissionBuilder builder = new SubmissionBuilder("warmup");
+            builder.addUtf8File(Path.of("Warmup.java"),
+                    "public class Warmup { public static void main(String[] args) { System.out.println(args); } }");
+            compile(builder.build());
+        });
+    }
+    
+    @Override
+    public String getName() {
+        return CHECK_NAME;
+    }
+    
+    @Override
+    public boolean isIndependent() {
+        return true;
+    }
+    
+    @Override
+    public CheckResult run(Submission submission, Path submissionDirectory) {
+        return compile(submission).checkResult();
+    }
+    
+    /**
+     * Compiles all <code>.java</code> files of the given submission.
+     * 
+     * @param submission The submission to compile.
+     * 
+     * @return The compiler messages and the compiled class files. If the submission contains no Java files, the
+     *      result is passed and empty.
+     */
+    public CompilationResult compile(Submission submission) {
+        List<JavaFileObject> sources = new LinkedList<>();
+        for (Path file : submission.getFilepaths()) {
+            if (file.getFileName().toString().endsWith(".java")) {
+                sources.add(new InMemoryFileManager.SourceFile(file, submission.getFileContent(file), charset));
+            }
+        }
+        
+        CompilationResult result;
+        if (sources.isEmpty()) {
+            result = new CompilationResult(new CheckResult(true, List.of()), Map.of());
+            
+        } else {
+            DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+            StandardJavaFileManager standardFileManager = acquireFileManager();
+            InMemoryFileManager fileManager = new InMemoryFileManager(standardFileManager);
+            
+            boolean success;
+            try {
+                success = compiler.getTask(null, fileManager, diagnostics, options, null, sources).call();
+            } finally {
+                releaseFileManager(standardFileManager);
+            }
+            
+            List<ResultMessage> messages = diagnostics.getDiagnostics().stream()
+                    .filter(d -> d.getKind() != Diagnostic.Kind.NOTE)
+                    .map(JavacCheck::toResultMessage)
+                    .sorted()
+                    .toList();
+            
+            result = new CompilationResult(new CheckResult(success, messages), fileManager.getClassFiles());
+        }
+        return result;
+    }
+    
+    /**
+     * Takes an idle file manager from the pool, or creates a new one if none is idle. The classpath is set on the file
+     * manager instead of passing <code>-classpath</code>, as the compiler would read an empty option as the working
+     * directory and a missing option as the classpath of the running JVM.
+     * 
+     * @return A file manager that is exclusively used by the calling thread until it is released.
+     * 
+     * @throws UncheckedIOException If the classpath cannot be set.
+     */
+    private StandardJavaFileManager acquireFileManager() throws UncheckedIOException {
+        StandardJavaFileManager fileManager = idleFileManagers.poll();
+        if (fileManager == null) {
+            fileManager = compiler.getStandardFileManager(null, Locale.ENGLISH, StandardCharsets.UTF_8);
+            try {
+                fileManager.setLocationFromPaths(StandardLocation.CLASS_PATH, classpath);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return fileManager;
+    }
+    
+    /**
+     * Returns a file manager to the pool. If this check was closed in the meantime, the file manager is closed
+     * instead.
+     * 
+     * @param fileManager The file manager to return.
+     */
+    private void releaseFileManager(StandardJavaFileManager fileManager) {
+        idleFileManagers.offer(fileManager);
+        if (closed) {
+            closeIdleFileManagers(idleFileManagers);
+        }
+    }
+    
+    /**
+     * Closes all idle file managers in the given pool. Static, so that it can be registered with the {@link Cleaner}
+     * without keeping this check reachable.
+     * 
+     * @param idleFileManagers The pool of idle file managers.
+     */
+    private static void closeIdleFileManagers(Queue<StandardJavaFileManager> idleFileManagers) {
+        StandardJavaFileManager fileManager;
+        while ((fileManager = idleFileManagers.poll()) != null) {
+            try {
+                fileManager.close();
+            } catch (IOException e) {
+                LOGGER.warn("Could not close file manager", e);
+            }
+        }
+    }
+    
+    /**
+     * Releases the pooled file managers. This check can still be used afterwards, but does not pool file managers
+     * anymore.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        closeIdleFileManagers(idleFileManagers);
+    }
+    
+    /**
+     * Converts a compiler diagnostic to a {@link ResultMessage}.
+     * 
+     * @param diagnostic The diagnostic to convert.
+     * 
+     * @return The {@link ResultMessage} with the same message and location.
+     */
+    private static ResultMessage toResultMessage(Diagnostic<? extends JavaFileObject> diagnostic) {
+        MessageType type = diagnostic.getKind() == Diagnostic.Kind.ERROR ? MessageType.ERROR : MessageType.WARNING;
+        ResultMessage message = new ResultMessage(CHECK_NAME, type, diagnostic.getMessage(Locale.ENGLISH));
+        
+        if (diagnostic.getSource() instanceof InMemoryFileManager.SourceFile source) {
+            message.setFile(source.getRelativePath());
+            if (diagnostic.getLineNumber() != Diagnostic.NOPOS) {
+                message.setLine((int) diagnostic.getLineNumber());
+            }
+            if (diagnostic.getColumnNumber() != Diagnostic.NOPOS) {
+                message.setColumn((int) diagnostic.getColumnNumber());
+            }
+        }
+        
+        return message;
+    }
+    
+}
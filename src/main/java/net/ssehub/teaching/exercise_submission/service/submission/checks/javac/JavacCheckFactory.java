@@ -0,0 +1,78 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks.javac;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.CheckConfiguration;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ICheck;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ICheckFactory;
+
+/**
+ * Creates {@link JavacCheck}s. Supported properties are {@value #JAVA_VERSION_PROPERTY} (default: the version of the
+ * running JVM) and {@value #ENCODING_PROPERTY} (default <code>UTF-8</code>). Submissions are compiled against an
+ * empty classpath; checks that need libraries (e.g. the JUnit API) list them explicitly.
+ * 
+ * @author Adam
+ */
+@Component
+public class JavacCheckFactory implements ICheckFactory {
+    
+    /**
+     * The property that specifies the Java version to compile for, e.g. <code>11</code>.
+     */
+    public static final String JAVA_VERSION_PROPERTY = "javaVersion";
+    
+    /**
+     * The property that specifies the encoding of the source files.
+     */
+    public static final String ENCODING_PROPERTY = "encoding";
+    
+    @Override
+    public String getCheckName() {
+        return JavacCheck.CHECK_NAME;
+    }
+    
+    @Override
+    public ICheck create(CheckConfiguration configuration) throws IllegalArgumentException {
+        return createCompiler(configuration);
+    }
+    
+    /**
+     * Creates a {@link JavacCheck} with an empty classpath for the given configuration and starts warming it up in the
+     * background. Also used for checks that need to compile the submission themselves.
+     * 
+     * @param configuration The configuration that specifies Java version and encoding.
+     * 
+     * @return The compiler check.
+     * 
+     * @throws IllegalArgumentException If the properties are invalid.
+     */
+    public static JavacCheck createCompiler(CheckConfiguration configuration) throws IllegalArgumentException {
+        return createCompiler(configuration, List.of());
+    }
+    
+    /**
+     * Creates a {@link JavacCheck} with the given classpath for the given configuration and starts warming it up in
+     * the background.
+     * 
+     * @param configuration The configuration that specifies Java version and encoding.
+     * @param classpath The jars and directories that the compiled code may use.
+     * 
+     * @return The compiler check.
+     * 
+     * @throws IllegalArgumentException If the properties are invalid.
+     */
+    public static JavacCheck createCompiler(CheckConfiguration configuration, List<Path> classpath)
+            throws IllegalArgumentException {
+        
+        JavacCheck check = new JavacCheck(ICheckFactory.getProperty(configuration, JAVA_VERSION_PROPERTY, null),
+                ICheckFactory.getCharsetProperty(configuration, ENCODING_PROPERTY, StandardCharsets.UTF_8),
+                classpath);
+        check.warmUpInBackground();
+        return check;
+    }
+    
+}
@@ -0,0 +1,40 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks.junit;
+
+import java.util.Map;
+
+/**
+ * A throw-away class loader for the compiled classes of a single submission. Classes of the service (including the
+ * JUnit API) are loaded by the parent. Once the loader is not referenced anymore, the submission classes can be
+ * unloaded again.
+ *
+ * @author Adam
+ */
+class InMemoryClassLoader extends ClassLoader {
+
+    static {
+        registerAsParallelCapable();
+    }
+    
+    private Map<String, byte[]> classFiles;
+    
+    /**
+     * Creates a class loader for the given class files.
+     *
+     * @param classFiles The class files, by binary class name.
+     * @param parent The parent class loader.
+     */
+    InMemoryClassLoader(Map<String, byte[]> classFiles, ClassLoader parent) {
+        super("submission", parent);
+        this.classFiles = classFiles;
+    }
+    
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        byte[] bytes = classFiles.get(name);
+        if (bytes == null) {
+            throw new ClassNotFoundException(name);
+        }
+        return defineClass(name, bytes, 0, bytes.length);
+    }
+    
+}
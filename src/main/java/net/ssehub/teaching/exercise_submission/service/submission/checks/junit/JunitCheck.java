@@ -0,0 +1,355 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks.junit;
+
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apiguardian.api.API;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.engine.DiscoverySelector;
+import org.junit.platform.engine.discovery.DiscoverySelectors;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.opentest4j.AssertionFailedError;
+
+import net.ssehub.teaching.exercise_submission.service.submission.Submission;
+import net.ssehub.teaching.exercise_submission.service.submission.SubmissionBuilder;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckResult;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ICheck;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage.MessageType;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.javac.CompilationResult;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.javac.CompileClasspath;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.javac.JavacCheck;
+
+/**
+ * Runs a configured set of JUnit tests on a submission inside the current JVM. The submission is compiled together
+ * with the test sources by a {@link JavacCheck} and loaded into a throw-away class loader. Each failing test is
+ * reported as an error {@link ResultMessage}. The test sources are re-read when they change (see
+ * {@link TestSources}); their hash is part of the {@link #getInputFingerprint() fingerprint} of this check.
+ * <p>
+ * The tests run on a dedicated low-priority daemon thread, never on the calling thread. A wall-clock and a CPU time
+ * limit are enforced for each test (and each lifecycle method): if a limit is exceeded, the test thread is
+ * interrupted, and stopped if it does not react to the interruption. The test then fails with a timeout message and
+ * the run continues with the next test. A thread that cannot be stopped at all is abandoned, so the calling thread
+ * always returns within a bounded time.
+ * <p>
+ * This does not protect against student code that exhausts the heap, calls {@link System#exit(int)}, or accesses
+ * files and the network with the permissions of the JVM. Thus, the {@link JunitCheckFactory} runs this check in a
+ * worker JVM of the {@link net.ssehub.teaching.exercise_submission.service.submission.checks.worker.WorkerPool} by
+ * default; running it in the service JVM is only meant for trusted code.
+ *
+ * @author Adam
+ */
+public class JunitCheck implements ICheck, AutoCloseable {
+
+    /**
+     * The name of this check, used in {@link ResultMessage}s.
+     */
+    public static final String CHECK_NAME = "junit";
+    
+    private static final Log LOGGER = LogFactory.getLog(JunitCheck.class);
+    
+    private static final long POLL_INTERVAL_MS = 10;
+    
+    private static final Duration STOP_GRACE_PERIOD = Duration.ofMillis(500);
+    
+    private static final int MAX_STOP_ATTEMPTS = 3;
+    
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    
+    private static List<Path> apiClasspath;
+    
+    private JavacCheck compiler;
+    
+    private TestSources testSources;
+    
+    private List<String> testClasses;
+    
+    private Duration wallClockLimit;
+    
+    private Duration cpuLimit;
+    
+    /**
+     * Creates a JUnit check.
+     * 
+     * @param compiler The compiler used to compile the submission and the tests. Its classpath must contain the JUnit
+     *      API (see {@link #apiClasspath()}).
+     * @param testSources The test sources (UTF-8). Files in the submission with the same path are replaced.
+     * @param testClasses The fully qualified names of the test classes to run; if empty, all classes of the test
+     *      sources whose name ends with <code>Test</code>.
+     * @param wallClockLimit The maximum wall-clock time of a single test.
+     * @param cpuLimit The maximum CPU time of a single test.
+     */
+    public JunitCheck(JavacCheck compiler, TestSources testSources, List<String> testClasses,
+            Duration wallClockLimit, Duration cpuLimit) {
+        this.compiler = compiler;
+        this.testSources = testSources;
+        this.testClasses = List.copyOf(testClasses);
+        this.wallClockLimit = wallClockLimit;
+        this.cpuLimit = cpuLimit;
+    }
+    
+    /**
+     * Creates a JUnit check with fixed test sources.
+     * 
+     * @param compiler The compiler used to compile the submission and the tests.
+     * @param testSources Additional test source files (UTF-8), by relative path. Files in the submission with the
+     *      same path are replaced.
+     * @param testClasses The fully qualified names of the test classes to run.
+     * @param wallClockLimit The maximum wall-clock time of a single test.
+     * @param cpuLimit The maximum CPU time of a single test.
+     */
+    public JunitCheck(JavacCheck compiler, Map<Path, String> testSources, List<String> testClasses,
+            Duration wallClockLimit, Duration cpuLimit) {
+        this(compiler, new TestSources(testSources), testClasses, wallClockLimit, cpuLimit);
+    }
+    
+    @Override
+    public String getName() {
+        return CHECK_NAME;
+    }
+    
+    /**
+     * Closes the compiler of this check.
+     */
+    @Override
+    public void close() {
+        compiler.close();
+    }
+    
+    /**
+     * Returns the classpath entries of the JUnit API, which the test sources are compiled against. Determined once.
+     * 
+     * @return The jars (or directories) of the JUnit Jupiter API and its dependencies.
+     * 
+     * @throws IllegalStateException If the location of the JUnit API cannot be determined.
+     */
+    public static synchronized List<Path> apiClasspath() throws IllegalStateException {
+        if (apiClasspath == null) {
+            apiClasspath = CompileClasspath.of(Test.class, AssertionFailedError.class, API.class);
+        }
+        return apiClasspath;
+    }
+    
+    /**
+     * Returns the hash of the current test sources, so that cached results are not re-used after the tests changed.
+     * 
+     * @return The hash of the test sources.
+     */
+    @Override
+    public String getInputFingerprint() {
+        return testSources.current().hash();
+    }
+    
+    @Override
+    public CheckResult run(Submission submission, Path submissionDirectory) {
+        CheckResult result;
+        try {
+            TestSources.Snapshot tests = testSources.current();
+            CompilationResult compiled = compiler.compile(withTestSources(submission, tests.sources()));
+            
+            if (!compiled.checkResult().passed()) {
+                result = new CheckResult(false, List.of(new ResultMessage(CHECK_NAME, MessageType.ERROR,
+                        "Tests could not be compiled with the submission")));
+            } else {
+                result = runTests(compiled.classFiles(), testClasses.isEmpty() ? tests.testClasses() : testClasses);
+            }
+            
+        } catch (UncheckedIOException e) {
+            LOGGER.error("Cannot read test sources", e);
+            result = new CheckResult(false, List.of(new ResultMessage(CHECK_NAME, MessageType.ERROR,
+                    "Test sources could not be read")));
+        }
+        return result;
+    }
+    
+    /**
+     * Adds the test sources to the given submission.
+     * 
+     * @param submission The submission.
+     * @param testSources The test sources, by relative path.
+     * 
+     * @return A submission with the files of the given one and the test sources.
+     */
+    private static Submission withTestSources(Submission submission, Map<Path, String> testSources) {
+        SubmissionBuilder builder = new SubmissionBuilder(submission.getAuthor());
+        for (Path file : submission.getFilepaths()) {
+            if (!testSources.containsKey(file)) {
+                builder.addFile(file, submission.getFileContent(file));
+            }
+        }
+        for (Map.Entry<Path, String> testSource : testSources.entrySet()) {
+            builder.addFile(testSource.getKey(), testSource.getValue().getBytes(StandardCharsets.UTF_8));
+        }
+        return builder.build();
+    }
+    
+    /**
+     * Runs the tests on a new thread and supervises it.
+     * 
+     * @param classFiles The compiled classes of the submission and the tests.
+     * @param classes The fully qualified names of the test classes to run.
+     * 
+     * @return The result of the tests.
+     */
+    private CheckResult runTests(Map<String, byte[]> classFiles, List<String> classes) {
+        InMemoryClassLoader loader = new InMemoryClassLoader(classFiles, JunitCheck.class.getClassLoader());
+        TestRunListener listener = new TestRunListener();
+        
+        Thread testThread = new Thread(() -> execute(loader, classes, listener), "junit-test");
+        testThread.setDaemon(true);
+        testThread.setPriority(Thread.MIN_PRIORITY);
+        testThread.setContextClassLoader(loader);
+        testThread.setUncaughtExceptionHandler((thread, exception) -> LOGGER.debug("Test thread terminated",
+                exception));
+        testThread.start();
+        
+        try {
+            supervise(testThread, listener);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stop(testThread);
+            listener.addMessage(new ResultMessage(CHECK_NAME, MessageType.ERROR, "Tests were interrupted"));
+        }
+        
+        List<ResultMessage> messages = new LinkedList<>(listener.getMessages());
+        if (messages.isEmpty() && listener.getNumTests() == 0) {
+            messages.add(new ResultMessage(CHECK_NAME, MessageType.ERROR, "No tests were found"));
+        }
+        return new CheckResult(messages.isEmpty(), messages);
+    }
+    
+    /**
+     * Runs the test classes. Called on the test thread.
+     * 
+     * @param loader The class loader of the submission.
+     * @param classes The fully qualified names of the test classes to run.
+     * @param listener The listener that collects the results.
+     */
+    private static void execute(ClassLoader loader, List<String> classes, TestRunListener listener) {
+        // checkstyle: stop exception type check
+        try {
+            List<DiscoverySelector> selectors = new LinkedList<>();
+            for (String testClass : classes) {
+                selectors.add(DiscoverySelectors.selectClass(loader.loadClass(testClass)));
+            }
+            LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder.request()
+                    .selectors(selectors)
+                    .build();
+            
+            LauncherFactory.create().execute(request, listener);
+            
+        } catch (ClassNotFoundException e) {
+            listener.addMessage(new ResultMessage(CHECK_NAME, MessageType.ERROR,
+                    "Test class " + e.getMessage() + " not found"));
+            
+        } catch (RuntimeException | LinkageError e) {
+            LOGGER.debug("Running tests failed", e);
+            listener.addMessage(new ResultMessage(CHECK_NAME, MessageType.ERROR, "Running tests failed: " + e));
+        }
+        // checkstyle: resume exception type check
+    }
+    
+    /**
+     * Waits for the test thread to finish while enforcing the time limits on each of its activities.
+     * 
+     * @param testThread The thread running the tests.
+     * @param listener The listener of the test run.
+     * 
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    private void supervise(Thread testThread, TestRunListener listener) throws InterruptedException {
+        long activity = -1;
+        long cpuAtStart = 0;
+        long abortedAt = 0;
+        int stopAttempts = 0;
+        
+        while (testThread.isAlive() && stopAttempts <= MAX_STOP_ATTEMPTS) {
+            testThread.join(POLL_INTERVAL_MS);
+            long now = System.nanoTime();
+            
+            if (listener.getActivity() != activity) {
+                activity = listener.getActivity();
+                cpuAtStart = cpuTime(testThread);
+                abortedAt = 0;
+                
+            } else if (abortedAt == 0) {
+                String violation = checkLimits(now - listener.getActivityStartNanos(),
+                        cpuTime(testThread) - cpuAtStart);
+                if (violation != null) {
+                    listener.markTimedOut(activity, violation);
+                    testThread.interrupt();
+                    abortedAt = now;
+                }
+                
+            } else if (now - abortedAt > STOP_GRACE_PERIOD.toNanos()) {
+                stop(testThread);
+                stopAttempts++;
+                abortedAt = now;
+            }
+        }
+        
+        if (testThread.isAlive()) {
+            LOGGER.warn("Abandoning test thread that could not be stopped");
+            listener.addMessage(new ResultMessage(CHECK_NAME, MessageType.ERROR, "Tests could not be stopped"));
+        }
+    }
+    
+    /**
+     * Checks the time limits.
+     * 
+     * @param wallClockNanos The elapsed wall-clock time of the current activity.
+     * @param cpuNanos The CPU time used by the current activity.
+     * 
+     * @return A message describing the violated limit, or <code>null</code> if no limit is violated.
+     */
+    private String checkLimits(long wallClockNanos, long cpuNanos) {
+        String violation = null;
+        if (cpuNanos > cpuLimit.toNanos()) {
+            violation = "exceeded CPU time limit of " + cpuLimit.toMillis() + " ms";
+        } else if (wallClockNanos > wallClockLimit.toNanos()) {
+            violation = "timed out after " + wallClockLimit.toMillis() + " ms";
+        }
+        return violation;
+    }
+    
+    /**
+     * Returns the CPU time used by the given thread.
+     * 
+     * @param thread The thread.
+     * 
+     * @return The CPU time in nanoseconds; 0 if CPU time measurement is not supported.
+     */
+    private static long cpuTime(Thread thread) {
+        long time = 0;
+        if (THREADS.isThreadCpuTimeSupported()) {
+            time = Math.max(0, THREADS.getThreadCpuTime(thread.getId()));
+        }
+        return time;
+    }
+    
+    /**
+     * Forcibly stops the given thread. The currently running test then fails with a {@link ThreadDeath}.
+     * 
+     * @param thread The thread to stop.
+     */
+    @SuppressWarnings({"removal", "deprecation"})
+    private static void stop(Thread thread) {
+        try {
+            thread.stop();
+        } catch (UnsupportedOperationException e) {
+            LOGGER.debug("Thread.stop() not supported by this JVM", e);
+        }
+    }
+    
+}
@@ -0,0 +1,165 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks.junit;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.CheckConfiguration;
+import net.ssehub.teaching.exercise_submission.service.submission.Submission;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckResult;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ICheck;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ICheckFactory;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.javac.JavacCheckFactory;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.worker.IsolatedCheck;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.worker.WorkerPool;
+
+/**
+ * Creates {@link JunitCheck}s. Supported properties:
+ * <ul>
+ * <li>{@value #TEST_DIRECTORY_PROPERTY} (required): a directory on the server that contains the test sources. They
+ * are re-read when they change.</li>
+ * <li>{@value #TEST_CLASSES_PROPERTY}: comma-separated fully qualified names of the test classes. By default, all
+ * classes in the test directory whose name ends with <code>Test</code>.</li>
+ * <li>{@value #TIMEOUT_PROPERTY} and {@value #CPU_TIMEOUT_PROPERTY}: the wall-clock and CPU time limit per test, in
+ * milliseconds.</li>
+ * <li>{@value #ISOLATION_PROPERTY}: {@value #ISOLATION_WORKER} (default) runs the tests in a worker JVM of the
+ * {@link WorkerPool}, so that student code cannot terminate or read the service; {@value #ISOLATION_NONE} runs them
+ * in the service JVM and must only be used for trusted code.</li>
+ * <li>The properties of the {@link JavacCheckFactory} for compiling the submission and the tests.</li>
+ * </ul>
+ * 
+ * @author Adam
+ */
+@Component
+public class JunitCheckFactory implements ICheckFactory {
+    
+    /**
+     * The property that specifies the directory that contains the test sources.
+     */
+    public static final String TEST_DIRECTORY_PROPERTY = "testDirectory";
+    
+    /**
+     * The property that lists the test classes to run.
+     */
+    public static final String TEST_CLASSES_PROPERTY = "testClasses";
+    
+    /**
+     * The property that specifies the wall-clock time limit per test, in milliseconds.
+     */
+    public static final String TIMEOUT_PROPERTY = "timeout";
+    
+    /**
+     * The property that specifies the CPU time limit per test, in milliseconds.
+     */
+    public static final String CPU_TIMEOUT_PROPERTY = "cpuTimeout";
+    
+    /**
+     * The property that specifies where the tests run.
+     */
+    public static final String ISOLATION_PROPERTY = "isolation";
+    
+    /**
+     * Value of {@value #ISOLATION_PROPERTY} to run the tests in a worker JVM.
+     */
+    public static final String ISOLATION_WORKER = "worker";
+    
+    /**
+     * Value of {@value #ISOLATION_PROPERTY} to run the tests in the JVM that runs the check.
+     */
+    public static final String ISOLATION_NONE = "none";
+    
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+    
+    /**
+     * A {@link JunitCheck} that runs in a worker JVM. The test sources are also tracked in the service, so that cached
+     * results are invalidated when they change.
+     */
+    private record IsolatedJunitCheck(IsolatedCheck check, TestSources testSources) implements ICheck {
+        
+        @Override
+        public CheckResult run(Submission submission, Path submissionDirectory) {
+            return check.run(submission, submissionDirectory);
+        }
+        
+        @Override
+        public String getName() {
+            return JunitCheck.CHECK_NAME;
+        }
+        
+        @Override
+        public String getInputFingerprint() {
+            return testSources.current().hash();
+        }
+        
+    }
+    
+    private WorkerPool workerPool;
+    
+    /**
+     * Creates this factory.
+     * 
+     * @param workerPool The pool of worker JVMs that the tests run in.
+     */
+    @Autowired
+    public JunitCheckFactory(WorkerPool workerPool) {
+        this.workerPool = workerPool;
+    }
+    
+    /**
+     * Creates this factory without a worker pool. Used inside the worker JVMs; only checks with
+     * {@value #ISOLATION_PROPERTY} {@value #ISOLATION_NONE} can be created.
+     */
+    public JunitCheckFactory() {
+        this(null);
+    }
+    
+    @Override
+    public String getCheckName() {
+        return JunitCheck.CHECK_NAME;
+    }
+    
+    @Override
+    public ICheck create(CheckConfiguration configuration) throws IllegalArgumentException {
+        String testDirectory = ICheckFactory.getProperty(configuration, TEST_DIRECTORY_PROPERTY, null);
+        if (testDirectory == null) {
+            throw new IllegalArgumentException("Property " + TEST_DIRECTORY_PROPERTY + " is required");
+        }
+        TestSources testSources = new TestSources(Path.of(testDirectory));
+        
+        String testClassesValue = ICheckFactory.getProperty(configuration, TEST_CLASSES_PROPERTY, "");
+        List<String> testClasses = Arrays.stream(testClassesValue.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .toList();
+        
+        Duration timeout = ICheckFactory.getMillisProperty(configuration, TIMEOUT_PROPERTY, DEFAULT_TIMEOUT);
+        Duration cpuTimeout = ICheckFactory.getMillisProperty(configuration, CPU_TIMEOUT_PROPERTY, timeout);
+        
+        String isolation = ICheckFactory.getProperty(configuration, ISOLATION_PROPERTY, ISOLATION_WORKER);
+        ICheck check;
+        if (ISOLATION_NONE.equals(isolation)) {
+            check = new JunitCheck(JavacCheckFactory.createCompiler(configuration, JunitCheck.apiClasspath()),
+                    testSources, testClasses, timeout, cpuTimeout);
+            
+        } else if (ISOLATION_WORKER.equals(isolation)) {
+            if (workerPool == null) {
+                throw new IllegalArgumentException("No worker pool available");
+            }
+            Map<String, String> workerProperties = new HashMap<>(configuration.properties());
+            workerProperties.put(ISOLATION_PROPERTY, ISOLATION_NONE);
+            check = new IsolatedJunitCheck(new IsolatedCheck(workerPool, JunitCheck.CHECK_NAME,
+                    JunitCheckFactory.class.getName(), workerProperties), testSources);
+            
+        } else {
+            throw new IllegalArgumentException("Invalid value for " + ISOLATION_PROPERTY + ": " + isolation);
+        }
+        return check;
+    }
+    
+}
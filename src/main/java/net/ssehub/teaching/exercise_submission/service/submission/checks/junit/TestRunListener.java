@@ -0,0 +1,164 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks.junit;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage.MessageType;
+
+/**
+ * Collects the results of a test run and keeps track of the current activity of the test thread, so that the
+ * {@link JunitCheck} can enforce time limits. Each start or end of a test or container begins a new activity; the
+ * limits apply to each activity separately, so that hangs in lifecycle methods are detected, too.
+ *
+ * @author Adam
+ */
+class TestRunListener implements TestExecutionListener {
+
+    private List<ResultMessage> messages;
+    
+    private int numTests;
+    
+    private long activity;
+    
+    private long activityStartNanos;
+    
+    private TestIdentifier running;
+    
+    private TestIdentifier timedOut;
+    
+    private String timeoutMessage;
+    
+    /**
+     * Creates a listener for a new test run.
+     */
+    TestRunListener() {
+        this.messages = new LinkedList<>();
+        this.activityStartNanos = System.nanoTime();
+    }
+    
+    @Override
+    public synchronized void executionStarted(TestIdentifier testIdentifier) {
+        nextActivity(testIdentifier);
+        if (testIdentifier.isTest()) {
+            numTests++;
+        }
+    }
+    
+    @Override
+    public synchronized void executionFinished(TestIdentifier testIdentifier, TestExecutionResult testExecutionResult) {
+        nextActivity(null);
+        
+        if (testIdentifier.equals(timedOut)) {
+            messages.add(new ResultMessage(JunitCheck.CHECK_NAME, MessageType.ERROR,
+                    describe(testIdentifier) + ": " + timeoutMessage));
+            timedOut = null;
+            
+        } else if (testExecutionResult.getStatus() != TestExecutionResult.Status.SUCCESSFUL) {
+            String reason = testExecutionResult.getThrowable()
+                    .map(t -> t.getMessage() != null ? t.getMessage() : t.getClass().getSimpleName())
+                    .orElse(testExecutionResult.getStatus().toString());
+            messages.add(new ResultMessage(JunitCheck.CHECK_NAME, MessageType.ERROR,
+                    describe(testIdentifier) + ": " + reason));
+        }
+    }
+    
+    /**
+     * Begins a new activity.
+     * 
+     * @param started The test or container that was started; <code>null</code> if one finished.
+     */
+    private void nextActivity(TestIdentifier started) {
+        activity++;
+        activityStartNanos = System.nanoTime();
+        running = started;
+    }
+    
+    /**
+     * Returns a human-readable name of the given test or container.
+     * 
+     * @param testIdentifier The test or container.
+     * 
+     * @return A name like <code>ClassName.method</code>.
+     */
+    private static String describe(TestIdentifier testIdentifier) {
+        String description = testIdentifier.getDisplayName();
+        if (testIdentifier.getSource().orElse(null) instanceof MethodSource method) {
+            String className = method.getClassName();
+            description = className.substring(className.lastIndexOf('.') + 1) + "." + method.getMethodName();
+        } else if (testIdentifier.getSource().orElse(null) instanceof ClassSource clazz) {
+            description = clazz.getClassName();
+        }
+        return description;
+    }
+    
+    /**
+     * Returns an identifier of the current activity. Changes whenever a test or container starts or finishes.
+     * 
+     * @return The current activity.
+     */
+    synchronized long getActivity() {
+        return activity;
+    }
+    
+    /**
+     * Returns when the current activity started.
+     * 
+     * @return The start time of the current activity, in {@link System#nanoTime()}.
+     */
+    synchronized long getActivityStartNanos() {
+        return activityStartNanos;
+    }
+    
+    /**
+     * Marks the given activity as timed out. If a test or container is running, the timeout is reported as its result
+     * when it finishes; otherwise, the timeout is reported for the whole run immediately.
+     * 
+     * @param timedOutActivity The activity that timed out. Ignored if this is not the current activity anymore.
+     * @param message The message to report.
+     */
+    synchronized void markTimedOut(long timedOutActivity, String message) {
+        if (timedOutActivity == activity) {
+            if (running != null) {
+                timedOut = running;
+                timeoutMessage = message;
+            } else {
+                messages.add(new ResultMessage(JunitCheck.CHECK_NAME, MessageType.ERROR, "Test run: " + message));
+            }
+        }
+    }
+    
+    /**
+     * Adds a message that is not associated with a single test.
+     * 
+     * @param message The message to add.
+     */
+    synchronized void addMessage(ResultMessage message) {
+        messages.add(message);
+    }
+    
+    /**
+     * Returns the messages collected so far.
+     * 
+     * @return A copy of the messages.
+     */
+    synchronized List<ResultMessage> getMessages() {
+        return List.copyOf(messages);
+    }
+    
+    /**
+     * Returns the number of tests that were started.
+     * 
+     * @return The number of tests.
+     */
+    synchronized int getNumTests() {
+        return numTests;
+    }
+    
+}
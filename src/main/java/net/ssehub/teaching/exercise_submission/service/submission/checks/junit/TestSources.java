@@ -0,0 +1,183 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks.junit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import net.ssehub.teaching.exercise_submission.service.util.HashUtils;
+
+/**
+ * The test sources of a {@link JunitCheck}. Sources in a directory on the server are re-read when a file in the
+ * directory is added, removed, or modified (detected by size and modification time), so that lecturers can change the
+ * tests without changing the check configuration.
+ *
+ * @author Adam
+ */
+public class TestSources {
+
+    /**
+     * The test sources at one point in time.
+     *
+     * @param sources The content of the source files, by path relative to the test directory.
+     * @param hash A hash of all paths and contents.
+     */
+    public record Snapshot(Map<Path, String> sources, String hash) {
+
+        /**
+         * Creates a snapshot and computes its hash.
+         *
+         * @param sources The content of the source files, by relative path.
+         *
+         * @return The snapshot.
+         */
+        static Snapshot of(Map<Path, String> sources) {
+            MessageDigest digest = HashUtils.newSha256();
+            sources.keySet().stream()
+                    .sorted()
+                    .forEach(path -> {
+                        digest.update(path.toString().replace('\\', '/').getBytes(StandardCharsets.UTF_8));
+                        digest.update((byte) 0);
+                        digest.update(sources.get(path).getBytes(StandardCharsets.UTF_8));
+                        digest.update((byte) 0);
+                    });
+            return new Snapshot(Map.copyOf(sources), HashUtils.toHex(digest.digest()));
+        }
+
+        /**
+         * Returns the fully qualified names of all classes in the sources whose name ends with <code>Test</code>.
+         *
+         * @return The sorted class names.
+         */
+        public List<String> testClasses() {
+            return sources.keySet().stream()
+                    .map(TestSources::toClassName)
+                    .filter(name -> name.endsWith("Test"))
+                    .sorted()
+                    .toList();
+        }
+
+    }
+
+    /**
+     * A stamp of a single file, used to detect changes.
+     */
+    private record FileStamp(Path path, long size, long lastModified) {
+    }
+
+    private Path directory;
+
+    private List<FileStamp> stamps;
+
+    private Snapshot current;
+
+    /**
+     * Creates test sources that are read from the given directory.
+     *
+     * @param directory The directory that contains the <code>.java</code> test sources.
+     *
+     * @throws IllegalArgumentException If the directory cannot be read.
+     */
+    public TestSources(Path directory) throws IllegalArgumentException {
+        this.directory = directory;
+        try {
+            current();
+        } catch (UncheckedIOException e) {
+            throw new IllegalArgumentException("Cannot read test sources from " + directory, e);
+        }
+    }
+
+    /**
+     * Creates fixed test sources.
+     *
+     * @param sources The content of the source files, by relative path.
+     */
+    public TestSources(Map<Path, String> sources) {
+        this.current = Snapshot.of(sources);
+    }
+
+    /**
+     * Returns the current test sources. If they are read from a directory, the files are re-read if they changed
+     * since the last call.
+     *
+     * @return The current test sources.
+     *
+     * @throws UncheckedIOException If the directory cannot be read.
+     */
+    public synchronized Snapshot current() throws UncheckedIOException {
+        if (directory != null) {
+            try {
+                List<FileStamp> newStamps = stamp();
+                if (!newStamps.equals(stamps)) {
+                    current = read(newStamps);
+                    stamps = newStamps;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Lists the source files in the directory with their sizes and modification times.
+     *
+     * @return The stamps of all source files, sorted by path.
+     *
+     * @throws IOException If listing the directory fails.
+     */
+    private List<FileStamp> stamp() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(file -> file.getFileName().toString().endsWith(".java"))
+                    .sorted()
+                    .map(file -> {
+                        try {
+                            return new FileStamp(file, Files.size(file), Files.getLastModifiedTime(file).toMillis());
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .toList();
+
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Reads the given source files.
+     *
+     * @param files The files to read.
+     *
+     * @return The snapshot of the read files.
+     *
+     * @throws IOException If reading a file fails.
+     */
+    private Snapshot read(List<FileStamp> files) throws IOException {
+        Map<Path, String> sources = new HashMap<>();
+        for (FileStamp file : files) {
+            sources.put(directory.relativize(file.path()), Files.readString(file.path()));
+        }
+        return Snapshot.of(sources);
+    }
+
+    /**
+     * Converts the relative path of a source file to the fully qualified name of the class.
+     *
+     * @param sourceFile The relative path of the source file, e.g. <code>pkg/MainTest.java</code>.
+     *
+     * @return The class name, e.g. <code>pkg.MainTest</code>.
+     */
+    static String toClassName(Path sourceFile) {
+        String path = sourceFile.toString().replace('\\', '/');
+        return path.substring(0, path.length() - ".java".length()).replace('/', '.');
+    }
+
+}
@@ -0,0 +1,66 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks.worker;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import net.ssehub.teaching.exercise_submission.service.submission.Submission;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.Check;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckResult;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ICheck;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ICheckFactory;
+
+/**
+ * A check that is run in a separate worker JVM from the {@link WorkerPool}. Use this for checks that execute student
+ * code. The check class runs in the worker on the submission directory; see {@link WorkerMain} for the requirements
+ * on the class. Created from assignment configurations by the {@link IsolatedCheckFactory}.
+ * 
+ * @author Adam
+ */
+public class IsolatedCheck implements ICheck {
+
+    private WorkerPool pool;
+    
+    private String name;
+    
+    private String checkClass;
+    
+    private Map<String, String> properties;
+    
+    /**
+     * Creates an isolated check. The check class is registered to be pre-loaded by new workers.
+     * 
+     * @param pool The pool of workers to run on.
+     * @param name The name of this check.
+     * @param checkClass The fully qualified name of a {@link Check}, {@link ICheck} or {@link ICheckFactory} class.
+     * @param properties The configuration properties that a check factory in the worker creates the check from.
+     */
+    public IsolatedCheck(WorkerPool pool, String name, String checkClass, Map<String, String> properties) {
+        this.pool = pool;
+        this.name = name;
+        this.checkClass = checkClass;
+        this.properties = Map.copyOf(properties);
+        pool.addWarmUpClass(checkClass);
+    }
+    
+    /**
+     * Creates an isolated check for a check class that needs no properties.
+     * 
+     * @param pool The pool of workers to run on.
+     * @param name The name of this check.
+     * @param checkClass The fully qualified name of a {@link Check} or {@link ICheck} class.
+     */
+    public IsolatedCheck(WorkerPool pool, String name, String checkClass) {
+        this(pool, name, checkClass, Map.of());
+    }
+    
+    @Override
+    public CheckResult run(Submission submission, Path submissionDirectory) {
+        return pool.execute(name, checkClass, properties, submissionDirectory);
+    }
+    
+    @Override
+    public String getName() {
+        return name;
+    }
+    
+}
@@ -0,0 +1,69 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks.worker;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.CheckConfiguration;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ICheck;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ICheckFactory;
+
+/**
+ * Creates {@link IsolatedCheck}s that run on the {@link WorkerPool}. The property {@value #CHECK_CLASS_PROPERTY} is
+ * required and names the check (or check factory) class to run in the worker; all other properties are passed on to
+ * the worker.
+ * 
+ * @author Adam
+ */
+@Component
+public class IsolatedCheckFactory implements ICheckFactory {
+
+    /**
+     * The name of the checks created by this factory.
+     */
+    public static final String CHECK_NAME = "isolated";
+    
+    /**
+     * The property that specifies the fully qualified name of the class to run in the worker.
+     */
+    public static final String CHECK_CLASS_PROPERTY = "checkClass";
+    
+    private WorkerPool pool;
+    
+    /**
+     * Creates this factory.
+     * 
+     * @param pool The pool that the created checks run on.
+     */
+    public IsolatedCheckFactory(WorkerPool pool) {
+        this.pool = pool;
+    }
+    
+    @Override
+    public String getCheckName() {
+        return CHECK_NAME;
+    }
+    
+    @Override
+    public ICheck create(CheckConfiguration configuration) throws IllegalArgumentException {
+        String checkClass = ICheckFactory.getProperty(configuration, CHECK_CLASS_PROPERTY, null);
+        if (checkClass == null) {
+            throw new IllegalArgumentException("Property " + CHECK_CLASS_PROPERTY + " is required");
+        }
+        try {
+            Class.forName(checkClass, false, IsolatedCheckFactory.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Unknown check class " + checkClass, e);
+        }
+        
+        Map<String, String> properties = new HashMap<>();
+        if (configuration.properties() != null) {
+            properties.putAll(configuration.properties());
+        }
+        properties.remove(CHECK_CLASS_PROPERTY);
+        
+        return new IsolatedCheck(pool, CHECK_NAME, checkClass, properties);
+    }
+    
+}
@@ -0,0 +1,210 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks.worker;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.CheckConfiguration;
+import net.ssehub.teaching.exercise_submission.service.submission.Submission;
+import net.ssehub.teaching.exercise_submission.service.submission.SubmissionBuilder;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.Check;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckAdapter;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckResult;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ICheck;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ICheckFactory;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage.MessageType;
+
+/**
+ * The main class of a worker JVM started by the {@link WorkerPool}. Reads requests from standard input, runs the
+ * requested check and writes the result to standard output (see {@link WorkerProtocol}). Check classes must be
+ * a {@link Check}, an {@link ICheck}, or an {@link ICheckFactory} with a public no-argument constructor. Factories
+ * create the check from the properties of the request. Instances are re-used for all requests with the same class
+ * and properties.
+ * <p>
+ * The check classes given as command line arguments are instantiated before the worker signals that it is ready.
+ * {@link System#out} is redirected to {@link System#err}, so that output of checks (or student code) does not
+ * interfere with the protocol.
+ * 
+ * @author Adam
+ */
+public class WorkerMain {
+
+    /**
+     * Identifies a check instance.
+     */
+    private record CheckKey(String checkClass, Map<String, String> properties) {
+    }
+    
+    private Map<CheckKey, ICheck> checks;
+    
+    /**
+     * Creates the worker.
+     */
+    private WorkerMain() {
+        this.checks = new HashMap<>();
+    }
+    
+    /**
+     * Main method of the worker JVM.
+     * 
+     * @param args Fully qualified names of check classes to instantiate before accepting requests.
+     * 
+     * @throws IOException If communicating with the service fails.
+     */
+    public static void main(String[] args) throws IOException {
+        PrintStream protocolOut = System.out;
+        System.setOut(System.err);
+        
+        DataInputStream in = new DataInputStream(new BufferedInputStream(System.in));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(protocolOut));
+        
+        WorkerMain worker = new WorkerMain();
+        for (String checkClass : args) {
+            try {
+                worker.getCheck(checkClass, Map.of());
+            } catch (ReflectiveOperationException | ClassCastException | IllegalArgumentException e) {
+                System.err.println("Could not pre-load check " + checkClass + ": " + e);
+            }
+        }
+        
+        out.write(WorkerProtocol.READY);
+        out.flush();
+        
+        worker.serve(in, out);
+    }
+    
+    /**
+     * Answers requests until the input stream ends.
+     * 
+     * @param in The stream to read requests from.
+     * @param out The stream to write results to.
+     * 
+     * @throws IOException If communicating with the service fails.
+     */
+    private void serve(DataInputStream in, DataOutputStream out) throws IOException {
+        boolean running = true;
+        while (running) {
+            try {
+                WorkerProtocol.Request request = WorkerProtocol.readRequest(in);
+                WorkerProtocol.writeResult(out, runCheck(request));
+            } catch (EOFException e) {
+                running = false;
+            }
+        }
+    }
+    
+    /**
+     * Runs the check of the given request. Failures of the check are converted to an error result.
+     * 
+     * @param request The request to answer.
+     * 
+     * @return The result of the check.
+     */
+    private CheckResult runCheck(WorkerProtocol.Request request) {
+        CheckResult result;
+        // checkstyle: stop exception type check
+        try {
+            ICheck check = getCheck(request.checkClass(), request.properties());
+            result = check.run(readSubmission(request.submissionDirectory()), request.submissionDirectory());
+            
+        } catch (ReflectiveOperationException | ClassCastException | IllegalArgumentException | IOException e) {
+            result = error(request.checkClass(), "Could not run check: " + e);
+            
+        } catch (RuntimeException | StackOverflowError e) {
+            e.printStackTrace();
+            result = error(request.checkClass(), "Check failed with an exception: " + e);
+        }
+        // checkstyle: resume exception type check
+        return result;
+    }
+    
+    /**
+     * Gets or creates the check instance for the given class and properties.
+     * 
+     * @param checkClass The fully qualified name of the check or check factory class.
+     * @param properties The properties of the configuration passed to a check factory.
+     * 
+     * @return The check instance.
+     * 
+     * @throws ReflectiveOperationException If the class cannot be instantiated.
+     * @throws ClassCastException If the class is neither a {@link Check}, an {@link ICheck} nor an
+     *      {@link ICheckFactory}.
+     * @throws IllegalArgumentException If the factory rejects the properties.
+     */
+    private ICheck getCheck(String checkClass, Map<String, String> properties)
+            throws ReflectiveOperationException, ClassCastException, IllegalArgumentException {
+        
+        CheckKey key = new CheckKey(checkClass, properties);
+        ICheck check = checks.get(key);
+        if (check == null) {
+            Object instance;
+            try {
+                instance = Class.forName(checkClass).getConstructor().newInstance();
+            } catch (InvocationTargetException e) {
+                throw new ReflectiveOperationException(e.getCause());
+            }
+            
+            if (instance instanceof Check legacyCheck) {
+                check = new CheckAdapter(legacyCheck);
+            } else if (instance instanceof ICheckFactory factory) {
+                check = factory.create(new CheckConfiguration(factory.getCheckName(), true, properties));
+            } else {
+                check = (ICheck) instance;
+            }
+            checks.put(key, check);
+        }
+        return check;
+    }
+    
+    /**
+     * Reads the submission from the given directory.
+     * 
+     * @param directory The directory containing the submission.
+     * 
+     * @return The submission.
+     * 
+     * @throws IOException If reading the files fails.
+     */
+    private static Submission readSubmission(Path directory) throws IOException {
+        SubmissionBuilder builder = new SubmissionBuilder("worker");
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.filter(Files::isRegularFile).forEach(file -> {
+                try {
+                    builder.addFile(directory.relativize(file), Files.readAllBytes(file));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return builder.build();
+    }
+    
+    /**
+     * Creates a failed result with a single error message.
+     * 
+     * @param checkClass The name of the check class.
+     * @param message The error message.
+     * 
+     * @return The failed result.
+     */
+    private static CheckResult error(String checkClass, String message) {
+        String checkName = checkClass.substring(checkClass.lastIndexOf('.') + 1);
+        return new CheckResult(false, List.of(new ResultMessage(checkName, MessageType.ERROR, message)));
+    }
+    
+}
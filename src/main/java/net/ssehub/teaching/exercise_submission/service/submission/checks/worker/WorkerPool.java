@@ -0,0 +1,444 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks.worker;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.security.CodeSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckResult;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage.MessageType;
+
+/**
+ * A pool of pre-started worker JVMs that run checks isolated from the service JVM (see {@link WorkerMain}).
+ * <p>
+ * The pool keeps at least the minimum number of workers running, and starts more (up to the maximum) while requests
+ * are waiting for a worker. Workers that are idle while no requests are waiting are stopped again until only the
+ * minimum number is left. Idle workers are handed out most-recently-used first, so that the workers that stay
+ * running are the ones that are JIT-warmed. A worker is replaced after a maximum number of jobs, when a job times out,
+ * or when the worker terminates unexpectedly. A worker that does not become ready within the startup timeout is
+ * destroyed.
+ * <p>
+ * Workers use the classpath of the service. If the service runs from a Spring Boot executable jar, the classes of the
+ * service are nested in that jar, so workers are started from the jar through the Spring Boot
+ * <code>PropertiesLauncher</code> instead.
+ * 
+ * @author Adam
+ */
+@Component
+public class WorkerPool {
+
+    private static final Log LOGGER = LogFactory.getLog(WorkerPool.class);
+    
+    private static final long MAINTENANCE_INTERVAL_MS = 2000;
+    
+    private static final String BOOT_LAUNCHER = "org.springframework.boot.loader.PropertiesLauncher";
+    
+    private static final String BOOT_CLASSES = "!/BOOT-INF/";
+    
+    private List<String> baseCommand;
+    
+    private Set<String> warmUpClasses;
+    
+    private int minWorkers;
+    
+    private int maxWorkers;
+    
+    private int maxJobsPerWorker;
+    
+    private Duration timeout;
+    
+    private Duration startupTimeout;
+    
+    private BlockingDeque<WorkerProcess> idle;
+    
+    private AtomicInteger numWorkers;
+    
+    private AtomicInteger numWaiting;
+    
+    private ScheduledExecutorService scheduler;
+    
+    private volatile boolean shutdown;
+    
+    // checkstyle: stop parameter number check
+    /**
+     * Creates a worker pool and starts the minimum number of workers in the background.
+     * 
+     * @param minWorkers The minimum number of workers to keep running.
+     * @param maxWorkers The maximum number of workers.
+     * @param maxJobsPerWorker The number of jobs after which a worker is replaced.
+     * @param timeout The time after which a job is aborted and its worker is stopped.
+     * @param startupTimeout The time after which a worker that did not become ready is stopped.
+     * @param jvmOptions Additional options for the worker JVMs, separated by spaces. The classpath of the worker is the
+     *      same as that of the service; it can be overridden by <code>-cp</code> in these options.
+     */
+    public WorkerPool(
+            @Value("${checks.workers.min:0}") int minWorkers,
+            @Value("${checks.workers.max:4}") int maxWorkers,
+            @Value("${checks.workers.max-jobs:100}") int maxJobsPerWorker,
+            @Value("${checks.workers.timeout:60s}") Duration timeout,
+            @Value("${checks.workers.startup-timeout:30s}") Duration startupTimeout,
+            @Value("${checks.workers.jvm-options:-Xmx256m -XX:+UseSerialGC}") String jvmOptions) {
+        
+        this.minWorkers = minWorkers;
+        this.maxWorkers = maxWorkers;
+        this.maxJobsPerWorker = maxJobsPerWorker;
+        this.timeout = timeout;
+        this.startupTimeout = startupTimeout;
+        
+        List<String> options = new ArrayList<>();
+        for (String option : jvmOptions.split(" ")) {
+            if (!option.isBlank()) {
+                options.add(option);
+            }
+        }
+        CodeSource codeSource = WorkerMain.class.getProtectionDomain().getCodeSource();
+        
+        this.baseCommand = new ArrayList<>();
+        this.baseCommand.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        this.baseCommand.addAll(launchArguments(codeSource != null ? codeSource.getLocation().toString() : "",
+                System.getProperty("java.class.path"), options));
+        
+        this.warmUpClasses = ConcurrentHashMap.newKeySet();
+        this.idle = new LinkedBlockingDeque<>();
+        this.numWorkers = new AtomicInteger();
+        this.numWaiting = new AtomicInteger();
+        
+        this.scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "worker-pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::maintain,
+                MAINTENANCE_INTERVAL_MS, MAINTENANCE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        
+        replenish();
+    }
+    // checkstyle: resume parameter number check
+    
+    /**
+     * Creates the arguments for the worker JVM: classpath, JVM options, and main class.
+     * 
+     * @param codeSource The location that the classes of the service are loaded from.
+     * @param classPath The classpath of the service JVM.
+     * @param jvmOptions The additional options for the worker JVM.
+     * 
+     * @return The arguments for the <code>java</code> command.
+     */
+    static List<String> launchArguments(String codeSource, String classPath, List<String> jvmOptions) {
+        List<String> arguments = new ArrayList<>();
+        int nested = codeSource.indexOf(BOOT_CLASSES);
+        
+        if (codeSource.startsWith("jar:") && nested > 0) {
+            // e.g. jar:file:/app/service.jar!/BOOT-INF/classes!/
+            arguments.add("-cp");
+            arguments.add(Path.of(URI.create(codeSource.substring("jar:".length(), nested))).toString());
+            arguments.addAll(jvmOptions);
+            arguments.add("-Dloader.main=" + WorkerMain.class.getName());
+            arguments.add(BOOT_LAUNCHER);
+        } else {
+            arguments.add("-cp");
+            arguments.add(classPath);
+            arguments.addAll(jvmOptions);
+            arguments.add(WorkerMain.class.getName());
+        }
+        return arguments;
+    }
+    
+    /**
+     * Registers a check class that new workers instantiate before they accept jobs.
+     * 
+     * @param checkClass The fully qualified name of the check class.
+     */
+    public void addWarmUpClass(String checkClass) {
+        warmUpClasses.add(checkClass);
+    }
+    
+    /**
+     * Runs a check on an idle worker. Waits for a worker to become available if all are busy.
+     * 
+     * @param checkName The name of the check, used for error messages.
+     * @param checkClass The fully qualified name of the check (or check factory) class to run in the worker.
+     * @param properties The configuration properties for a check factory.
+     * @param submissionDirectory The directory containing the submission.
+     * 
+     * @return The result of the check. If the worker failed or timed out, this is a failed result with an error
+     *      message.
+     */
+    public CheckResult execute(String checkName, String checkClass, Map<String, String> properties,
+            Path submissionDirectory) {
+        CheckResult result;
+        WorkerProcess worker = null;
+        try {
+            worker = acquire();
+            result = runOnWorker(worker, checkName, checkClass, properties, submissionDirectory);
+            
+        } catch (IOException e) {
+            LOGGER.error("Could not start worker process", e);
+            result = error(checkName, "Could not start the check worker");
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result = error(checkName, "Check was interrupted");
+            
+        } finally {
+            if (worker != null) {
+                release(worker);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Runs a check on the given worker. Stops the worker if the timeout is exceeded.
+     * 
+     * @param worker The worker to run on.
+     * @param checkName The name of the check, used for error messages.
+     * @param checkClass The fully qualified name of the check (or check factory) class to run in the worker.
+     * @param properties The configuration properties for a check factory.
+     * @param submissionDirectory The directory containing the submission.
+     * 
+     * @return The result of the check.
+     */
+    private CheckResult runOnWorker(WorkerProcess worker, String checkName, String checkClass,
+            Map<String, String> properties, Path submissionDirectory) {
+        
+        AtomicBoolean timedOut = new AtomicBoolean();
+        ScheduledFuture<?> watchdog = scheduler.schedule(() -> {
+            timedOut.set(true);
+            worker.destroy();
+        }, timeout.toMillis(), TimeUnit.MILLISECONDS);
+        
+        CheckResult result;
+        try {
+            result = worker.execute(checkClass, properties, submissionDirectory);
+            
+        } catch (IOException e) {
+            if (timedOut.get()) {
+                result = error(checkName, "Check timed out after " + timeout.toSeconds() + " seconds");
+            } else {
+                LOGGER.warn("Worker process " + worker.getPid() + " terminated unexpectedly", e);
+                result = error(checkName, "Check worker terminated unexpectedly");
+            }
+            worker.destroy();
+            
+        } finally {
+            watchdog.cancel(false);
+        }
+        return result;
+    }
+    
+    /**
+     * Gets an idle worker, starts a new one, or waits for one to become idle.
+     * 
+     * @return A worker that is exclusively used by the calling thread until it is {@link #release(WorkerProcess)}d.
+     * 
+     * @throws IOException If starting a new worker fails.
+     * @throws InterruptedException If waiting for a worker is interrupted.
+     */
+    private WorkerProcess acquire() throws IOException, InterruptedException {
+        WorkerProcess worker = pollAliveIdle(0);
+        if (worker == null && tryReserveSlot()) {
+            worker = startWorker();
+        }
+        
+        if (worker == null) {
+            numWaiting.incrementAndGet();
+            try {
+                while (worker == null) {
+                    worker = pollAliveIdle(MAINTENANCE_INTERVAL_MS);
+                    if (worker == null && tryReserveSlot()) {
+                        worker = startWorker();
+                    }
+                }
+            } finally {
+                numWaiting.decrementAndGet();
+            }
+        }
+        
+        return worker;
+    }
+    
+    /**
+     * Takes the most recently used idle worker that is still alive. Dead workers are discarded.
+     * 
+     * @param waitMs How long to wait for an idle worker.
+     * 
+     * @return An idle worker; <code>null</code> if none became available in time.
+     * 
+     * @throws InterruptedException If waiting is interrupted.
+     */
+    private WorkerProcess pollAliveIdle(long waitMs) throws InterruptedException {
+        WorkerProcess worker = idle.pollFirst(waitMs, TimeUnit.MILLISECONDS);
+        while (worker != null && !worker.isAlive()) {
+            discard(worker);
+            worker = idle.pollFirst();
+        }
+        return worker;
+    }
+    
+    /**
+     * Reserves a slot for a new worker, if the maximum number of workers is not reached.
+     * 
+     * @return Whether a slot was reserved.
+     */
+    private boolean tryReserveSlot() {
+        boolean reserved = false;
+        int current = numWorkers.get();
+        while (!reserved && current < maxWorkers && !shutdown) {
+            reserved = numWorkers.compareAndSet(current, current + 1);
+            current = numWorkers.get();
+        }
+        return reserved;
+    }
+    
+    /**
+     * Starts a new worker in a previously reserved slot. Frees the slot if starting fails.
+     * 
+     * @return The new worker.
+     * 
+     * @throws IOException If starting the worker fails.
+     */
+    private WorkerProcess startWorker() throws IOException {
+        List<String> command = new ArrayList<>(baseCommand);
+        command.addAll(warmUpClasses);
+        
+        try {
+            return new WorkerProcess(command, startupTimeout);
+        } catch (IOException e) {
+            numWorkers.decrementAndGet();
+            throw e;
+        }
+    }
+    
+    /**
+     * Returns a worker to the pool after a job. Workers that died or reached the maximum number of jobs are replaced.
+     * 
+     * @param worker The worker to return.
+     */
+    private void release(WorkerProcess worker) {
+        if (shutdown || !worker.isAlive() || worker.getJobs() >= maxJobsPerWorker) {
+            discard(worker);
+            replenish();
+        } else {
+            idle.offerFirst(worker);
+        }
+    }
+    
+    /**
+     * Stops the given worker and frees its slot.
+     * 
+     * @param worker The worker to stop.
+     */
+    private void discard(WorkerProcess worker) {
+        worker.destroy();
+        numWorkers.decrementAndGet();
+    }
+    
+    /**
+     * Starts new workers in the background until the minimum is reached, or as long as requests are waiting.
+     */
+    private void replenish() {
+        if (!shutdown) {
+            scheduler.execute(() -> {
+                while ((numWorkers.get() < minWorkers || numWaiting.get() > idle.size()) && tryReserveSlot()) {
+                    try {
+                        idle.offerLast(startWorker());
+                    } catch (IOException e) {
+                        LOGGER.error("Could not start worker process", e);
+                        break;
+                    }
+                }
+            });
+        }
+    }
+    
+    /**
+     * Periodically scales the pool: starts workers while requests are waiting, and stops one idle worker per interval
+     * while more than the minimum are running and no requests are waiting.
+     */
+    private void maintain() {
+        if (numWaiting.get() > 0) {
+            replenish();
+            
+        } else if (numWorkers.get() > minWorkers) {
+            WorkerProcess worker = idle.pollLast();
+            if (worker != null) {
+                discard(worker);
+            }
+        }
+    }
+    
+    /**
+     * Returns the number of running (or starting) workers.
+     * 
+     * @return The number of workers.
+     */
+    public int getNumWorkers() {
+        return numWorkers.get();
+    }
+    
+    /**
+     * Returns the number of idle workers.
+     * 
+     * @return The number of idle workers.
+     */
+    public int getNumIdle() {
+        return idle.size();
+    }
+    
+    /**
+     * Returns the number of requests that are waiting for a worker.
+     * 
+     * @return The queue depth.
+     */
+    public int getQueueDepth() {
+        return numWaiting.get();
+    }
+    
+    /**
+     * Creates a failed result with a single error message.
+     * 
+     * @param checkName The name of the check.
+     * @param message The error message.
+     * 
+     * @return The failed result.
+     */
+    private static CheckResult error(String checkName, String message) {
+        return new CheckResult(false, List.of(new ResultMessage(checkName, MessageType.ERROR, message)));
+    }
+    
+    /**
+     * Stops all workers.
+     */
+    @PreDestroy
+    public void shutdown() {
+        shutdown = true;
+        scheduler.shutdownNow();
+        WorkerProcess worker;
+        while ((worker = idle.pollFirst()) != null) {
+            discard(worker);
+        }
+    }
+    
+}
@@ -0,0 +1,137 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks.worker;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckResult;
+
+/**
+ * A single worker JVM running {@link WorkerMain}. Communicates with the worker over its standard input and output.
+ * Not thread-safe; the {@link WorkerPool} hands out each worker to only one thread at a time.
+ * 
+ * @author Adam
+ */
+public class WorkerProcess {
+
+    private static final long STARTUP_POLL_INTERVAL_MS = 10;
+    
+    private Process process;
+    
+    private DataOutputStream toWorker;
+    
+    private DataInputStream fromWorker;
+    
+    private int jobs;
+    
+    private volatile boolean broken;
+    
+    /**
+     * Starts a worker process and waits until it is ready. A process that does not signal that it is ready within the
+     * given time is destroyed, so that a hanging JVM does not block the caller.
+     * 
+     * @param command The command to start the worker JVM.
+     * @param startupTimeout The maximum time to wait for the worker to become ready.
+     * 
+     * @throws IOException If starting the process fails or the process does not signal that it is ready in time.
+     */
+    public WorkerProcess(List<String> command, Duration startupTimeout) throws IOException {
+        this.process = new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        
+        this.toWorker = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+        this.fromWorker = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+        
+        try {
+            long deadline = System.nanoTime() + startupTimeout.toNanos();
+            while (fromWorker.available() == 0 && process.isAlive() && System.nanoTime() < deadline) {
+                Thread.sleep(STARTUP_POLL_INTERVAL_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            destroy();
+            throw new InterruptedIOException("Interrupted while waiting for worker process to start");
+        }
+        
+        if (fromWorker.available() == 0) {
+            destroy();
+            throw new IOException("Worker process did not become ready within " + startupTimeout.toMillis() + " ms");
+        }
+        
+        int ready = fromWorker.read();
+        if (ready != WorkerProtocol.READY) {
+            destroy();
+            throw new IOException("Worker process did not start correctly");
+        }
+    }
+    
+    /**
+     * Runs a check in this worker. Blocks until the worker answers.
+     * 
+     * @param checkClass The fully qualified name of the check (or check factory) class to run.
+     * @param properties The configuration properties for a check factory.
+     * @param submissionDirectory The directory containing the submission.
+     * 
+     * @return The result of the check.
+     * 
+     * @throws IOException If communicating with the worker fails, e.g. because it was destroyed.
+     */
+    public CheckResult execute(String checkClass, Map<String, String> properties, Path submissionDirectory)
+            throws IOException {
+        jobs++;
+        try {
+            WorkerProtocol.writeRequest(toWorker,
+                    new WorkerProtocol.Request(checkClass, properties, submissionDirectory));
+            return WorkerProtocol.readResult(fromWorker);
+        } catch (IOException e) {
+            broken = true;
+            throw e;
+        }
+    }
+    
+    /**
+     * Returns the number of jobs that were sent to this worker.
+     * 
+     * @return The number of jobs.
+     */
+    public int getJobs() {
+        return jobs;
+    }
+    
+    /**
+     * Returns whether the worker process is still running and usable. A worker is not usable anymore after
+     * communicating with it failed once, even if the process has not terminated yet.
+     * 
+     * @return Whether the worker is alive.
+     */
+    public boolean isAlive() {
+        return !broken && process.isAlive();
+    }
+    
+    /**
+     * Returns the process ID of the worker JVM.
+     * 
+     * @return The process ID.
+     */
+    public long getPid() {
+        return process.pid();
+    }
+    
+    /**
+     * Forcibly stops the worker process. Threads waiting in {@link #execute(String, Map, Path)} fail with an
+     * {@link IOException}.
+     */
+    public void destroy() {
+        broken = true;
+        process.destroyForcibly();
+    }
+    
+}
@@ -0,0 +1,185 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks.worker;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckResult;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage.MessageType;
+
+/**
+ * The binary protocol between the {@link WorkerPool} and the {@link WorkerMain} worker JVMs. The service sends a
+ * request (check class, configuration properties and submission directory) to the standard input of the worker; the
+ * worker answers with a {@link CheckResult} on its standard output.
+ * 
+ * @author Adam
+ */
+public class WorkerProtocol {
+
+    /**
+     * Sent by the worker once it is started and ready to accept requests.
+     */
+    public static final int READY = 0x52;
+    
+    /**
+     * A request to run a check.
+     * 
+     * @param checkClass The fully qualified name of the check (or check factory) class to run.
+     * @param properties The configuration properties passed to a check factory; empty for check classes.
+     * @param submissionDirectory The directory containing the submission.
+     */
+    public record Request(String checkClass, Map<String, String> properties, Path submissionDirectory) {
+    }
+    
+    /**
+     * Don't allow any instances.
+     */
+    private WorkerProtocol() {}
+    
+    /**
+     * Writes a request.
+     * 
+     * @param out The stream to write to.
+     * @param request The request to write.
+     * 
+     * @throws IOException If writing fails.
+     */
+    public static void writeRequest(DataOutputStream out, Request request) throws IOException {
+        writeString(out, request.checkClass());
+        out.writeInt(request.properties().size());
+        for (Map.Entry<String, String> property : request.properties().entrySet()) {
+            writeString(out, property.getKey());
+            writeString(out, property.getValue());
+        }
+        writeString(out, request.submissionDirectory().toAbsolutePath().toString());
+        out.flush();
+    }
+    
+    /**
+     * Reads a request.
+     * 
+     * @param in The stream to read from.
+     * 
+     * @return The read request.
+     * 
+     * @throws IOException If reading fails, e.g. because the stream ended.
+     */
+    public static Request readRequest(DataInputStream in) throws IOException {
+        String checkClass = readString(in);
+        int numProperties = in.readInt();
+        Map<String, String> properties = new HashMap<>(numProperties);
+        for (int i = 0; i < numProperties; i++) {
+            properties.put(readString(in), readString(in));
+        }
+        Path directory = Path.of(readString(in));
+        return new Request(checkClass, properties, directory);
+    }
+    
+    /**
+     * Writes a check result.
+     * 
+     * @param out The stream to write to.
+     * @param result The result to write.
+     * 
+     * @throws IOException If writing fails.
+     */
+    public static void writeResult(DataOutputStream out, CheckResult result) throws IOException {
+        out.writeBoolean(result.passed());
+        out.writeInt(result.messages().size());
+        for (ResultMessage message : result.messages()) {
+            writeString(out, message.getCheckName());
+            out.writeByte(message.getType().ordinal());
+            writeString(out, message.getMessage());
+            writeString(out, message.getFile() != null ? message.getFile().toString() : null);
+            out.writeInt(message.getLine() != null ? message.getLine() : -1);
+            out.writeInt(message.getColumn() != null ? message.getColumn() : -1);
+        }
+        out.flush();
+    }
+    
+    /**
+     * Reads a check result.
+     * 
+     * @param in The stream to read from.
+     * 
+     * @return The read result.
+     * 
+     * @throws IOException If reading fails, e.g. because the stream ended.
+     */
+    public static CheckResult readResult(DataInputStream in) throws IOException {
+        boolean passed = in.readBoolean();
+        int numMessages = in.readInt();
+        List<ResultMessage> messages = new ArrayList<>(numMessages);
+        
+        for (int i = 0; i < numMessages; i++) {
+            String checkName = readString(in);
+            MessageType type = MessageType.values()[in.readByte()];
+            ResultMessage message = new ResultMessage(checkName, type, readString(in));
+            
+            String file = readString(in);
+            if (file != null) {
+                message.setFile(Path.of(file));
+            }
+            int line = in.readInt();
+            if (line != -1) {
+                message.setLine(line);
+            }
+            int column = in.readInt();
+            if (column != -1) {
+                message.setColumn(column);
+            }
+            messages.add(message);
+        }
+        
+        return new CheckResult(passed, messages);
+    }
+    
+    /**
+     * Writes a UTF-8 string of any length; may be <code>null</code>.
+     * 
+     * @param out The stream to write to.
+     * @param string The string to write.
+     * 
+     * @throws IOException If writing fails.
+     */
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        if (string == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+    
+    /**
+     * Reads a string written by {@link #writeString(DataOutputStream, String)}.
+     * 
+     * @param in The stream to read from.
+     * 
+     * @return The string; may be <code>null</code>.
+     * 
+     * @throws IOException If reading fails.
+     */
+    private static String readString(DataInputStream in) throws IOException {
+        String result = null;
+        int length = in.readInt();
+        if (length >= 0) {
+            byte[] bytes = in.readNBytes(length);
+            if (bytes.length < length) {
+                throw new EOFException("Unexpected end of stream");
+            }
+            result = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return result;
+    }
+    
+}
@@ -0,0 +1,56 @@
+package net.ssehub.teaching.exercise_submission.service.util;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Static utility methods for calculating content hashes.
+ * 
+ * @author Adam
+ */
+public class HashUtils {
+
+    /**
+     * Don't allow any instances.
+     */
+    private HashUtils() {}
+    
+    /**
+     * Creates a new SHA-256 {@link MessageDigest}.
+     * 
+     * @return A new {@link MessageDigest}.
+     * 
+     * @throws IllegalStateException If SHA-256 is not supported by the JVM (which it is required to be).
+     */
+    public static MessageDigest newSha256() throws IllegalStateException {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    /**
+     * Calculates the SHA-256 hash of the given bytes.
+     * 
+     * @param content The bytes to hash.
+     * 
+     * @return The hash as a hex string.
+     */
+    public static String sha256(byte[] content) {
+        return toHex(newSha256().digest(content));
+    }
+    
+    /**
+     * Converts the given bytes (e.g. a digest) to a lower-case hex string.
+     * 
+     * @param bytes The bytes to convert.
+     * 
+     * @return The hex string.
+     */
+    public static String toHex(byte[] bytes) {
+        return HexFormat.of().formatHex(bytes);
+    }
+    
+}
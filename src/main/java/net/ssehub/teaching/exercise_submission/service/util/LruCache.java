@@ -0,0 +1,82 @@
+package net.ssehub.teaching.exercise_submission.service.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A simple thread-safe map with a maximum number of entries. If the maximum is exceeded, the least recently used
+ * entry is evicted.
+ * 
+ * @param <K> The type of the keys.
+ * @param <V> The type of the values.
+ * 
+ * @author Adam
+ */
+public class LruCache<K, V> {
+
+    private Map<K, V> entries;
+    
+    /**
+     * Creates an empty cache.
+     * 
+     * @param maxEntries The maximum number of entries to store.
+     */
+    public LruCache(int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            
+            private static final long serialVersionUID = 7125846129540532085L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+    
+    /**
+     * Retrieves an entry and marks it as recently used.
+     * 
+     * @param key The key of the entry.
+     * 
+     * @return The value; <code>null</code> if there is no entry for the given key.
+     */
+    public synchronized V get(K key) {
+        return entries.get(key);
+    }
+    
+    /**
+     * Stores an entry. May evict the least recently used entry.
+     * 
+     * @param key The key of the entry.
+     * @param value The value to store.
+     */
+    public synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+    
+    /**
+     * Removes an entry.
+     * 
+     * @param key The key of the entry to remove.
+     */
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+    
+    /**
+     * Removes all entries.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+    
+    /**
+     * Returns the number of stored entries.
+     * 
+     * @return The number of entries.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+}
@@ -20,11 +20,15 @@ public class StorageInitializer {
     @TempDir
     protected static Path testStorage = Path.of("teststorage"); 
     
+    @TempDir
+    protected static Path testState;
+    
     static class Initializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
 
         @Override
         public void initialize(ConfigurableApplicationContext applicationContext) {
-            TestPropertyValues.of("storage.location=" + testStorage).applyTo(applicationContext);
+            TestPropertyValues.of("storage.location=" + testStorage, "state.location=" + testState)
+                    .applyTo(applicationContext);
         }
         
     }
@@ -1,9 +1,13 @@
 package net.ssehub.teaching.exercise_submission.service.auth;
 
+import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.List;
@@ -17,14 +21,13 @@ import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Assignment;
 import net.ssehub.teaching.exercise_submission.service.stu_mgmt.AssignmentState;
 import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Collaboration;
 import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Course;
-import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Group;
 import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Participant;
 import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Role;
 import net.ssehub.teaching.exercise_submission.service.stu_mgmt.StuMgmtView;
 import net.ssehub.teaching.exercise_submission.service.submission.SubmissionTarget;
 
 public class AuthManagerTest {
-
+    
     @Nested
     public class StaticHelpers {
         
@@ -83,133 +86,6 @@ public class AuthManagerTest {
             }
         }
         
-        @Nested
-        public class ParticipantCanAccessGroup {
-            
-            @Test
-            public void studentInSingleAssignmentCanAccessOwnName() {
-                Participant student = new Participant(null, "student1", Role.STUDENT);
-                Assignment assignment = new Assignment(null, "Homework02", null, Collaboration.SINGLE, null, null);
-                
-                assertTrue(AuthManager.participantCanAccessGroup(student, assignment, "student1"));
-            }
-            
-            @Test
-            public void studentInSingleAssignmentCannotAccessOtherGroup() {
-                Participant student = new Participant(null, "student1", Role.STUDENT);
-                Assignment assignment = new Assignment(null, "Homework02", null, Collaboration.SINGLE, null, null);
-                
-                assertFalse(AuthManager.participantCanAccessGroup(student, assignment, "student2"));
-            }
-            
-            @Test
-            public void studentInGroupAssignmentCannotAccessOwnName() {
-                Participant student = new Participant(null, "student1", Role.STUDENT);
-                Assignment assignment = new Assignment(null, "Homework02", null, Collaboration.GROUP,
-                        Map.of(), null);
-                
-                assertFalse(AuthManager.participantCanAccessGroup(student, assignment, "student1"));
-            }
-            
-            @Test
-            public void studentInGroupAssignmentCanAccessOwnGroup() {
-                Participant student = new Participant(null, "student1", Role.STUDENT);
-                Assignment assignment = new Assignment(null, "Homework02", null, Collaboration.GROUP,
-                        Map.of("JP024", new Group(null, "JP024", Map.of("student1", student))), null);
-                
-                assertTrue(AuthManager.participantCanAccessGroup(student, assignment, "JP024"));
-            }
-            
-            @Test
-            public void studentInGroupAssignmentCannotAccessOtherGroup() {
-                Participant student = new Participant(null, "student1", Role.STUDENT);
-                Participant otherStudent = new Participant(null, "student2", Role.STUDENT);
-                Assignment assignment = new Assignment(null, "Homework02", null, Collaboration.GROUP,
-                        Map.of("JP024", new Group(null, "JP026", Map.of("student2", otherStudent))), null);
-                
-                assertFalse(AuthManager.participantCanAccessGroup(student, assignment, "JP026"));
-            }
-            
-            @Test
-            public void studentInGroupOrSingleAssignmentCanAccessOwnName() {
-                Participant student = new Participant(null, "student1", Role.STUDENT);
-                Assignment assignment = new Assignment(null, "Homework02", null, Collaboration.GROUP_OR_SINGLE,
-                        Map.of(), null);
-                
-                assertTrue(AuthManager.participantCanAccessGroup(student, assignment, "student1"));
-            }
-            
-            @Test
-            public void studentInGroupOrSingleAssignmentCanAccessOwnGroup() {
-                Participant student = new Participant(null, "student1", Role.STUDENT);
-                Assignment assignment = new Assignment(null, "Homework02", null, Collaboration.GROUP_OR_SINGLE,
-                        Map.of("JP024", new Group(null, "JP024", Map.of("student1", student))), null);
-                
-                assertTrue(AuthManager.participantCanAccessGroup(student, assignment, "JP024"));
-            }
-            
-            @Test
-            public void studentInGroupOrSingleAssignmentCannotAccessOtherGroup() {
-                Participant student = new Participant(null, "student1", Role.STUDENT);
-                Participant otherStudent = new Participant(null, "student2", Role.STUDENT);
-                Assignment assignment = new Assignment(null, "Homework02", null, Collaboration.GROUP_OR_SINGLE,
-                        Map.of("JP024", new Group(null, "JP026", Map.of("student2", otherStudent))), null);
-                
-                assertFalse(AuthManager.participantCanAccessGroup(student, assignment, "JP026"));
-            }
-            
-            @Test
-            public void tutorInSingleAssignmentCanAccessOtherGroup() {
-                Participant tutor = new Participant(null, "tutor1", Role.TUTOR);
-                Assignment assignment = new Assignment(null, "Homework02", null, Collaboration.SINGLE, null, null);
-                
-                assertTrue(AuthManager.participantCanAccessGroup(tutor, assignment, "student2"));
-            }
-            
-            @Test
-            public void lecturerInSingleAssignmentCanAccessOtherGroup() {
-                Participant tutor = new Participant(null, "tutor1", Role.LECTURER);
-                Assignment assignment = new Assignment(null, "Homework02", null, Collaboration.SINGLE, null, null);
-                
-                assertTrue(AuthManager.participantCanAccessGroup(tutor, assignment, "student2"));
-            }
-            
-            @Test
-            public void tutorInGroupAssignmentCanAccessOtherGroup() {
-                Participant tutor = new Participant(null, "tutor1", Role.TUTOR);
-                Assignment assignment = new Assignment(null, "Homework02", null, Collaboration.GROUP, null, null);
-                
-                assertTrue(AuthManager.participantCanAccessGroup(tutor, assignment, "student2"));
-            }
-            
-            @Test
-            public void lecturerInGroupAssignmentCanAccessOtherGroup() {
-                Participant tutor = new Participant(null, "tutor1", Role.LECTURER);
-                Assignment assignment = new Assignment(null, "Homework02", null, Collaboration.GROUP, null, null);
-                
-                assertTrue(AuthManager.participantCanAccessGroup(tutor, assignment, "student2"));
-            }
-            
-            @Test
-            public void tutorInGroupOrSingleAssignmentCanAccessOtherGroup() {
-                Participant tutor = new Participant(null, "tutor1", Role.TUTOR);
-                Assignment assignment = new Assignment(null, "Homework02", null, Collaboration.GROUP_OR_SINGLE,
-                        null, null);
-                
-                assertTrue(AuthManager.participantCanAccessGroup(tutor, assignment, "student2"));
-            }
-            
-            @Test
-            public void lecturerInGroupOrSingleAssignmentCanAccessOtherGroup() {
-                Participant tutor = new Participant(null, "tutor1", Role.LECTURER);
-                Assignment assignment = new Assignment(null, "Homework02", null, Collaboration.GROUP_OR_SINGLE,
-                        null, null);
-                
-                assertTrue(AuthManager.participantCanAccessGroup(tutor, assignment, "student2"));
-            }
-            
-        }
-        
     }
     
     @Nested
@@ -401,4 +277,73 @@ public class AuthManagerTest {
         
     }
     
+    @Nested
+    public class GetRole {
+        
+        @Test
+        public void participantRoleReturned() {
+            StuMgmtView stuMgmt = mock(StuMgmtView.class);
+            when(stuMgmt.getCourse("java-sose23")).thenReturn(Optional.of(
+                    new Course("java-sose23",
+                            Map.of("tutor1", new Participant("123", "tutor1", Role.TUTOR)),
+                            Map.of())));
+            
+            AuthManager auth = new AuthManager(stuMgmt);
+            
+            assertAll(
+                () -> assertEquals(Optional.of(Role.TUTOR), auth.getRole("java-sose23", "tutor1")),
+                () -> assertEquals(Optional.empty(), auth.getRole("java-sose23", "student1")),
+                () -> assertEquals(Optional.empty(), auth.getRole("java-wise23", "tutor1"))
+            );
+        }
+        
+        @Test
+        public void cachedRoleDoesNotLoadCourse() {
+            StuMgmtView stuMgmt = mock(StuMgmtView.class);
+            when(stuMgmt.getCourse("java-sose23")).thenReturn(Optional.of(
+                    new Course("java-sose23",
+                            Map.of("tutor1", new Participant("123", "tutor1", Role.TUTOR)),
+                            Map.of())));
+            
+            AuthManager auth = new AuthManager(stuMgmt);
+            Optional<Role> beforeLoad = auth.getCachedRole("java-sose23", "tutor1");
+            verify(stuMgmt, never()).getCourse(any());
+            auth.getRole("java-sose23", "tutor1");
+            
+            assertAll(
+                () -> assertEquals(Optional.empty(), beforeLoad),
+                () -> assertEquals(Optional.of(Role.TUTOR), auth.getCachedRole("java-sose23", "tutor1")),
+                () -> assertEquals(Optional.empty(), auth.getCachedRole("java-sose23", "student1"))
+            );
+        }
+        
+    }
+    
+    @Nested
+    public class IsAdministrationAllowed {
+        
+        @Test
+        public void onlyLecturerAllowed() {
+            StuMgmtView stuMgmt = mock(StuMgmtView.class);
+            when(stuMgmt.getCourse("java-sose23")).thenReturn(Optional.of(
+                    new Course("java-sose23",
+                            Map.of(
+                                "lecturer1", new Participant("1", "lecturer1", Role.LECTURER),
+                                "tutor1", new Participant("2", "tutor1", Role.TUTOR),
+                                "student1", new Participant("3", "student1", Role.STUDENT)),
+                            Map.of())));
+            
+            AuthManager auth = new AuthManager(stuMgmt);
+            
+            assertAll(
+                () -> assertTrue(auth.isAdministrationAllowed("java-sose23", "lecturer1")),
+                () -> assertFalse(auth.isAdministrationAllowed("java-sose23", "tutor1")),
+                () -> assertFalse(auth.isAdministrationAllowed("java-sose23", "student1")),
+                () -> assertFalse(auth.isAdministrationAllowed("java-sose23", "other")),
+                () -> assertFalse(auth.isAdministrationAllowed("java-wise23", "lecturer1"))
+            );
+        }
+        
+    }
+    
 }
@@ -0,0 +1,288 @@
+package net.ssehub.teaching.exercise_submission.service.auth;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import net.ssehub.teaching.exercise_submission.service.auth.AuthorizationIndex.Permissions;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Assignment;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.AssignmentState;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Collaboration;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Course;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Group;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.ICourseListener;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Participant;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Role;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.StuMgmtView;
+import net.ssehub.teaching.exercise_submission.service.submission.SubmissionTarget;
+
+public class AuthorizationIndexTest {
+    
+    private static final Participant STUDENT = new Participant("u1", "student1", Role.STUDENT);
+    
+    private static final Participant TUTOR = new Participant("u2", "tutor1", Role.TUTOR);
+    
+    private static Course createCourse(AssignmentState state) {
+        Map<String, Group> groups = Map.of(
+                "Group01", new Group("g1", "Group01", Map.of("student1", STUDENT)),
+                "Group02", new Group("g2", "Group02", Map.of()));
+        
+        return new Course("c", Map.of("student1", STUDENT, "tutor1", TUTOR), Map.of(
+                "single", new Assignment("a1", "single", state, Collaboration.SINGLE, Map.of(), List.of()),
+                "group", new Assignment("a2", "group", state, Collaboration.GROUP, groups, List.of()),
+                "mixed", new Assignment("a3", "mixed", state, Collaboration.GROUP_OR_SINGLE, groups, List.of())));
+    }
+    
+    private static boolean canAccess(Participant participant, Assignment assignment, String groupName) {
+        Course course = new Course("c", Map.of(participant.name(), participant),
+                Map.of(assignment.name(), assignment));
+        return new AuthorizationIndex(course).getPermissions(participant.name(), assignment.name())
+                .canAccess(groupName);
+    }
+    
+    @Test
+    public void studentGroupsIndexed() {
+        AuthorizationIndex index = new AuthorizationIndex(createCourse(AssignmentState.IN_PROGRESS));
+        
+        assertAll(
+            () -> assertEquals(new Permissions(true, true, false, Set.of("student1")),
+                    index.getPermissions("student1", "single")),
+            () -> assertEquals(new Permissions(true, true, false, Set.of("Group01")),
+                    index.getPermissions("student1", "group")),
+            () -> assertEquals(new Permissions(true, true, false, Set.of("student1", "Group01")),
+                    index.getPermissions("student1", "mixed"))
+        );
+    }
+    
+    @Test
+    public void membershipOnlyGrantsAccessInGroupAssignments() {
+        Participant outsider = new Participant("u3", "student3", Role.STUDENT);
+        Map<String, Group> groups = Map.of(
+                "Group01", new Group("g1", "Group01", Map.of("student1", STUDENT, "student3", outsider)));
+        Course course = new Course("c", Map.of("student1", STUDENT), Map.of(
+                "single", new Assignment("a1", "single", AssignmentState.IN_PROGRESS, Collaboration.SINGLE, groups,
+                        List.of()),
+                "group", new Assignment("a2", "group", AssignmentState.IN_PROGRESS, Collaboration.GROUP, groups,
+                        List.of())));
+        
+        AuthorizationIndex index = new AuthorizationIndex(course);
+        
+        assertAll(
+            () -> assertEquals(Set.of("student1"), index.getPermissions("student1", "single").groups()),
+            () -> assertEquals(Set.of("Group01"), index.getPermissions("student1", "group").groups()),
+            () -> assertNull(index.getPermissions("student3", "group"))
+        );
+    }
+    
+    @Test
+    public void indexBuiltWhenViewNotifies() {
+        StuMgmtView stuMgmt = mock(StuMgmtView.class);
+        AuthManager authManager = new AuthManager(stuMgmt);
+        ArgumentCaptor<ICourseListener> listener = ArgumentCaptor.forClass(ICourseListener.class);
+        verify(stuMgmt).addListener(listener.capture());
+        
+        Course course = createCourse(AssignmentState.IN_PROGRESS);
+        listener.getValue().courseChanged(course);
+        when(stuMgmt.getCourse("c")).thenReturn(Optional.of(course));
+        
+        assertTrue(authManager.isSubmissionAllowed(new SubmissionTarget("c", "group", "Group01"), "student1"));
+    }
+    
+    @Test
+    public void tutorAccessesAnyGroup() {
+        AuthorizationIndex index = new AuthorizationIndex(createCourse(AssignmentState.INVISIBLE));
+        
+        Permissions permissions = index.getPermissions("tutor1", "group");
+        
+        assertAll(
+            () -> assertTrue(permissions.submit()),
+            () -> assertTrue(permissions.replay()),
+            () -> assertTrue(permissions.canAccess("Group02")),
+            () -> assertTrue(permissions.canAccess("not-existing"))
+        );
+    }
+    
+    @Test
+    public void stateRulesIndexed() {
+        AuthorizationIndex inReview = new AuthorizationIndex(createCourse(AssignmentState.IN_REVIEW));
+        AuthorizationIndex evaluated = new AuthorizationIndex(createCourse(AssignmentState.EVALUATED));
+        
+        assertAll(
+            () -> assertFalse(inReview.getPermissions("student1", "group").submit()),
+            () -> assertFalse(inReview.getPermissions("student1", "group").replay()),
+            () -> assertFalse(evaluated.getPermissions("student1", "group").submit()),
+            () -> assertTrue(evaluated.getPermissions("student1", "group").replay())
+        );
+    }
+    
+    @Test
+    public void unknownUserOrAssignment() {
+        AuthorizationIndex index = new AuthorizationIndex(createCourse(AssignmentState.IN_PROGRESS));
+        
+        assertAll(
+            () -> assertNull(index.getPermissions("student2", "group")),
+            () -> assertNull(index.getPermissions("student1", "other")),
+            () -> assertNull(index.getRole("student2")),
+            () -> assertEquals(Role.TUTOR, index.getRole("tutor1")),
+            () -> assertEquals(Map.of(), index.getPermissions("student2"))
+        );
+    }
+    
+    @Test
+    public void indexRebuiltWhenCourseChanges() {
+        StuMgmtView stuMgmt = mock(StuMgmtView.class);
+        when(stuMgmt.getCourse("c"))
+            .thenReturn(Optional.of(createCourse(AssignmentState.IN_PROGRESS)))
+            .thenReturn(Optional.of(createCourse(AssignmentState.IN_REVIEW)));
+        
+        AuthManager authManager = new AuthManager(stuMgmt);
+        SubmissionTarget target = new SubmissionTarget("c", "group", "Group01");
+        
+        assertAll(
+            () -> assertTrue(authManager.isSubmissionAllowed(target, "student1")),
+            () -> assertFalse(authManager.isSubmissionAllowed(target, "student1"))
+        );
+    }
+    
+    @Nested
+    public class ParticipantCanAccessGroup {
+        
+        @Test
+        public void studentInSingleAssignmentCanAccessOwnName() {
+            Participant student = new Participant(null, "student1", Role.STUDENT);
+            Assignment assignment = new Assignment(null, "Homework02", null, Collaboration.SINGLE, Map.of(), null);
+            
+            assertTrue(canAccess(student, assignment, "student1"));
+        }
+        
+        @Test
+        public void studentInSingleAssignmentCannotAccessOtherGroup() {
+            Participant student = new Participant(null, "student1", Role.STUDENT);
+            Assignment assignment = new Assignment(null, "Homework02", null, Collaboration.SINGLE, Map.of(), null);
+            
+            assertFalse(canAccess(student, assignment, "student2"));
+        }
+        
+        @Test
+        public void studentInGroupAssignmentCannotAccessOwnName() {
+            Participant student = new Participant(null, "student1", Role.STUDENT);
+            Assignment assignment = new Assignment(null, "Homework02", null, Collaboration.GROUP,
+                    Map.of(), null);
+            
+            assertFalse(canAccess(student, assignment, "student1"));
+        }
+        
+        @Test
+        public void studentInGroupAssignmentCanAccessOwnGroup() {
+            Participant student = new Participant(null, "student1", Role.STUDENT);
+            Assignment assignment = new Assignment(null, "Homework02", null, Collaboration.GROUP,
+                    Map.of("JP024", new Group(null, "JP024", Map.of("student1", student))), null);
+            
+            assertTrue(canAccess(student, assignment, "JP024"));
+        }
+        
+        @Test
+        public void studentInGroupAssignmentCannotAccessOtherGroup() {
+            Participant student = new Participant(null, "student1", Role.STUDENT);
+            Participant otherStudent = new Participant(null, "student2", Role.STUDENT);
+            Assignment assignment = new Assignment(null, "Homework02", null, Collaboration.GROUP,
+                    Map.of("JP024", new Group(null, "JP026", Map.of("student2", otherStudent))), null);
+            
+            assertFalse(canAccess(student, assignment, "JP026"));
+        }
+        
+        @Test
+        public void studentInGroupOrSingleAssignmentCanAccessOwnName() {
+            Participant student = new Participant(null, "student1", Role.STUDENT);
+            Assignment assignment = new Assignment(null, "Homework02", null, Collaboration.GROUP_OR_SINGLE,
+                    Map.of(), null);
+            
+            assertTrue(canAccess(student, assignment, "student1"));
+        }
+        
+        @Test
+        public void studentInGroupOrSingleAssignmentCanAccessOwnGroup() {
+            Participant student = new Participant(null, "student1", Role.STUDENT);
+            Assignment assignment = new Assignment(null, "Homework02", null, Collaboration.GROUP_OR_SINGLE,
+                    Map.of("JP024", new Group(null, "JP024", Map.of("student1", student))), null);
+            
+            assertTrue(canAccess(student, assignment, "JP024"));
+        }
+        
+        @Test
+        public void studentInGroupOrSingleAssignmentCannotAccessOtherGroup() {
+            Participant student = new Participant(null, "student1", Role.STUDENT);
+            Participant otherStudent = new Participant(null, "student2", Role.STUDENT);
+            Assignment assignment = new Assignment(null, "Homework02", null, Collaboration.GROUP_OR_SINGLE,
+                    Map.of("JP024", new Group(null, "JP026", Map.of("student2", otherStudent))), null);
+            
+            assertFalse(canAccess(student, assignment, "JP026"));
+        }
+        
+        @Test
+        public void tutorInSingleAssignmentCanAccessOtherGroup() {
+            Participant tutor = new Participant(null, "tutor1", Role.TUTOR);
+            Assignment assignment = new Assignment(null, "Homework02", null, Collaboration.SINGLE, Map.of(), null);
+            
+            assertTrue(canAccess(tutor, assignment, "student2"));
+        }
+        
+        @Test
+        public void lecturerInSingleAssignmentCanAccessOtherGroup() {
+            Participant tutor = new Participant(null, "tutor1", Role.LECTURER);
+            Assignment assignment = new Assignment(null, "Homework02", null, Collaboration.SINGLE, Map.of(), null);
+            
+            assertTrue(canAccess(tutor, assignment, "student2"));
+        }
+        
+        @Test
+        public void tutorInGroupAssignmentCanAccessOtherGroup() {
+            Participant tutor = new Participant(null, "tutor1", Role.TUTOR);
+            Assignment assignment = new Assignment(null, "Homework02", null, Collaboration.GROUP, Map.of(), null);
+            
+            assertTrue(canAccess(tutor, assignment, "student2"));
+        }
+        
+        @Test
+        public void lecturerInGroupAssignmentCanAccessOtherGroup() {
+            Participant tutor = new Participant(null, "tutor1", Role.LECTURER);
+            Assignment assignment = new Assignment(null, "Homework02", null, Collaboration.GROUP, Map.of(), null);
+            
+            assertTrue(canAccess(tutor, assignment, "student2"));
+        }
+        
+        @Test
+        public void tutorInGroupOrSingleAssignmentCanAccessOtherGroup() {
+            Participant tutor = new Participant(null, "tutor1", Role.TUTOR);
+            Assignment assignment = new Assignment(null, "Homework02", null, Collaboration.GROUP_OR_SINGLE,
+                    Map.of(), null);
+            
+            assertTrue(canAccess(tutor, assignment, "student2"));
+        }
+        
+        @Test
+        public void lecturerInGroupOrSingleAssignmentCanAccessOtherGroup() {
+            Participant tutor = new Participant(null, "tutor1", Role.LECTURER);
+            Assignment assignment = new Assignment(null, "Homework02", null, Collaboration.GROUP_OR_SINGLE,
+                    Map.of(), null);
+            
+            assertTrue(canAccess(tutor, assignment, "student2"));
+        }
+        
+    }
+    
+}
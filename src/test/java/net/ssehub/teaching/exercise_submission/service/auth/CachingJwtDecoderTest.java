@@ -0,0 +1,89 @@
+package net.ssehub.teaching.exercise_submission.service.auth;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+public class CachingJwtDecoderTest {
+    
+    private static Jwt createJwt(Instant expiresAt) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("student1")
+                .issuedAt(Instant.now().minusSeconds(10))
+                .expiresAt(expiresAt)
+                .build();
+    }
+    
+    @Test
+    public void verifiedTokenRemembered() {
+        Jwt jwt = createJwt(Instant.now().plusSeconds(600));
+        JwtDecoder delegate = mock(JwtDecoder.class);
+        when(delegate.decode("token")).thenReturn(jwt);
+        
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, 100);
+        
+        assertAll(
+            () -> assertSame(jwt, decoder.decode("token")),
+            () -> assertSame(jwt, decoder.decode("token")),
+            () -> verify(delegate, times(1)).decode("token")
+        );
+    }
+    
+    @Test
+    public void expiredTokenVerifiedAgain() {
+        JwtDecoder delegate = mock(JwtDecoder.class);
+        when(delegate.decode("token")).thenReturn(createJwt(Instant.now().minusSeconds(1)));
+        
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, 100);
+        decoder.decode("token");
+        decoder.decode("token");
+        
+        verify(delegate, times(2)).decode("token");
+    }
+    
+    @Test
+    public void invalidTokenNotRemembered() {
+        JwtDecoder delegate = mock(JwtDecoder.class);
+        when(delegate.decode("token")).thenThrow(new BadJwtException("invalid signature"));
+        
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, 100);
+        
+        assertAll(
+            () -> assertThrows(JwtException.class, () -> decoder.decode("token")),
+            () -> assertThrows(JwtException.class, () -> decoder.decode("token")),
+            () -> verify(delegate, times(2)).decode("token")
+        );
+    }
+    
+    @Test
+    public void fullCacheDoesNotRememberMore() {
+        JwtDecoder delegate = mock(JwtDecoder.class);
+        when(delegate.decode("token1")).thenReturn(createJwt(Instant.now().plusSeconds(600)));
+        when(delegate.decode("token2")).thenReturn(createJwt(Instant.now().plusSeconds(600)));
+        
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, 1);
+        decoder.decode("token1");
+        decoder.decode("token2");
+        decoder.decode("token1");
+        decoder.decode("token2");
+        
+        assertAll(
+            () -> verify(delegate, times(1)).decode("token1"),
+            () -> verify(delegate, times(2)).decode("token2")
+        );
+    }
+    
+}
@@ -0,0 +1,212 @@
+package net.ssehub.teaching.exercise_submission.service.auth;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+
+public class JwkSetCacheTest {
+    
+    private HttpServer server;
+    
+    private Map<String, String> responses;
+    
+    private AtomicInteger keyRequests;
+    
+    private volatile long keysDelayMillis;
+    
+    private JwkSetCache cache;
+    
+    @TempDir
+    private Path directory;
+    
+    @BeforeEach
+    public void startServer() throws IOException {
+        responses = new ConcurrentHashMap<>();
+        keyRequests = new AtomicInteger();
+        
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getRawPath();
+            if (path.equals("/keys")) {
+                keyRequests.incrementAndGet();
+                try {
+                    Thread.sleep(keysDelayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            
+            String body = responses.getOrDefault(path, "");
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(body.isEmpty() ? 404 : 200, bytes.length > 0 ? bytes.length : -1);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+        
+        responses.put("/.well-known/openid-configuration", "{\"jwks_uri\":\"" + issuer() + "/keys\"}");
+    }
+    
+    @AfterEach
+    public void stop() {
+        if (cache != null) {
+            cache.shutdown();
+        }
+        server.stop(0);
+    }
+    
+    private String issuer() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+    
+    private JwkSetCache createCache(Path cacheFile) {
+        return new JwkSetCache(issuer() + "/", cacheFile, Duration.ofHours(1), Duration.ofSeconds(5),
+                Duration.ofSeconds(5));
+    }
+    
+    private static RSAKey createKey(String keyId) throws JOSEException {
+        return new RSAKeyGenerator(2048).keyID(keyId).generate();
+    }
+    
+    private String sign(RSAKey key) throws JOSEException {
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(),
+                new JWTClaimsSet.Builder()
+                    .issuer(issuer() + "/")
+                    .subject("student1")
+                    .expirationTime(Date.from(Instant.now().plusSeconds(600)))
+                    .build());
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+    
+    @Test
+    public void keysLoadedAndStored() throws JOSEException, IOException {
+        RSAKey key = createKey("k1");
+        responses.put("/keys", new JWKSet(key).toString(true));
+        Path cacheFile = directory.resolve("jwks.json");
+        
+        cache = createCache(cacheFile);
+        cache.refresh();
+        
+        assertAll(
+            () -> assertEquals(1, cache.getKeys().getKeys().size()),
+            () -> assertEquals("k1", JWKSet.parse(Files.readString(cacheFile)).getKeys().get(0).getKeyID()),
+            () -> assertTrue(!Files.readString(cacheFile).contains("\"d\""), "private key must not be stored")
+        );
+    }
+    
+    @Test
+    public void storedKeysUsedWhenIssuerUnavailable() throws JOSEException, IOException {
+        RSAKey key = createKey("k1");
+        Path cacheFile = directory.resolve("jwks.json");
+        Files.writeString(cacheFile, new JWKSet(key).toString(true));
+        server.stop(0);
+        
+        cache = createCache(cacheFile);
+        cache.start();
+        
+        CachingJwtDecoder decoder = new CachingJwtDecoder(cache, issuer() + "/", 100);
+        assertEquals("student1", decoder.decode(sign(key)).getSubject());
+    }
+    
+    @Test
+    public void unknownKeyTriggersRefresh() throws JOSEException {
+        RSAKey oldKey = createKey("k1");
+        RSAKey newKey = createKey("k2");
+        responses.put("/keys", new JWKSet(oldKey).toString(true));
+        
+        cache = createCache(null);
+        cache.refresh();
+        
+        responses.put("/keys", new JWKSet(newKey).toString(true));
+        CachingJwtDecoder decoder = new CachingJwtDecoder(cache, issuer() + "/", 100);
+        
+        assertAll(
+            () -> assertEquals("student1", decoder.decode(sign(newKey)).getSubject()),
+            () -> assertEquals(2, keyRequests.get())
+        );
+    }
+    
+    @Test
+    public void unknownKeyRefreshThrottled() throws JOSEException {
+        RSAKey key = createKey("k1");
+        RSAKey otherKey = createKey("k2");
+        responses.put("/keys", new JWKSet(key).toString(true));
+        
+        cache = createCache(null);
+        cache.refresh();
+        CachingJwtDecoder decoder = new CachingJwtDecoder(cache, issuer() + "/", 100);
+        
+        String token = sign(otherKey);
+        
+        assertAll(
+            () -> assertThrows(JwtException.class, () -> decoder.decode(token)),
+            () -> assertThrows(JwtException.class, () -> decoder.decode(token)),
+            () -> assertEquals(2, keyRequests.get())
+        );
+    }
+    
+    @Test
+    public void slowIssuerDoesNotBlockUnknownKey() throws JOSEException, InterruptedException {
+        RSAKey oldKey = createKey("k1");
+        RSAKey newKey = createKey("k2");
+        responses.put("/keys", new JWKSet(oldKey).toString(true));
+        
+        cache = new JwkSetCache(issuer() + "/", null, Duration.ofHours(1), Duration.ofSeconds(5),
+                Duration.ofMillis(50));
+        cache.refresh();
+        
+        keysDelayMillis = 1000;
+        responses.put("/keys", new JWKSet(newKey).toString(true));
+        CachingJwtDecoder decoder = new CachingJwtDecoder(cache, issuer() + "/", 100);
+        String token = sign(newKey);
+        
+        long start = System.nanoTime();
+        assertThrows(JwtException.class, () -> decoder.decode(token));
+        long rejectedAfterMillis = (System.nanoTime() - start) / 1_000_000;
+        
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cache.getKeys().getKeyByKeyId("k2") == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        
+        assertAll(
+            () -> assertTrue(rejectedAfterMillis < 1000, "rejected after " + rejectedAfterMillis + " ms"),
+            () -> assertEquals("student1", decoder.decode(token).getSubject()),
+            () -> assertEquals(2, keyRequests.get())
+        );
+    }
+    
+}
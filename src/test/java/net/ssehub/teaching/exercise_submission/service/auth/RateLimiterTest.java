@@ -0,0 +1,147 @@
+package net.ssehub.teaching.exercise_submission.service.auth;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Role;
+
+public class RateLimiterTest {
+    
+    private AuthManager authManager;
+    
+    private SimpleMeterRegistry registry;
+    
+    @BeforeEach
+    public void setup() {
+        authManager = mock(AuthManager.class);
+        when(authManager.getCachedRole("c", "student1")).thenReturn(Optional.of(Role.STUDENT));
+        when(authManager.getCachedRole("c", "student2")).thenReturn(Optional.of(Role.STUDENT));
+        when(authManager.getCachedRole("c", "tutor1")).thenReturn(Optional.of(Role.TUTOR));
+        registry = new SimpleMeterRegistry();
+    }
+    
+    @Test
+    public void userLimitedAfterBurst() {
+        RateLimiter limiter = new RateLimiter("STUDENT=2,TUTOR=5", 0, Duration.ofHours(1), authManager, registry);
+        
+        assertAll(
+            () -> assertEquals(0, limiter.tryAcquire("student1", "c")),
+            () -> assertEquals(0, limiter.tryAcquire("student1", "c")),
+            () -> assertTrue(limiter.tryAcquire("student1", "c") > Duration.ofMinutes(29).toNanos()),
+            () -> assertEquals(0, limiter.tryAcquire("student2", "c")),
+            () -> assertEquals(1, registry.counter("submission.rate_limited").count())
+        );
+    }
+    
+    @Test
+    public void limitDependsOnRole() {
+        RateLimiter limiter = new RateLimiter("STUDENT=1,TUTOR=3", 0, Duration.ofHours(1), authManager, registry);
+        
+        assertAll(
+            () -> assertEquals(0, limiter.tryAcquire("tutor1", "c")),
+            () -> assertEquals(0, limiter.tryAcquire("tutor1", "c")),
+            () -> assertEquals(0, limiter.tryAcquire("tutor1", "c")),
+            () -> assertTrue(limiter.tryAcquire("tutor1", "c") > 0),
+            () -> assertEquals(0, limiter.tryAcquire("student1", "c")),
+            () -> assertTrue(limiter.tryAcquire("student1", "c") > 0)
+        );
+    }
+    
+    @Test
+    public void nonParticipantGetsStudentLimit() {
+        RateLimiter limiter = new RateLimiter("STUDENT=1", 1, Duration.ofHours(1), authManager, registry);
+        
+        assertAll(
+            () -> assertEquals(0, limiter.tryAcquire("other", "unknown")),
+            () -> assertTrue(limiter.tryAcquire("other", "unknown") > 0),
+            () -> assertEquals(0, limiter.tryAcquire("student1", "c"))
+        );
+    }
+    
+    @Test
+    public void courseLimitShared() {
+        RateLimiter limiter = new RateLimiter("STUDENT=5", 2, Duration.ofHours(1), authManager, registry);
+        
+        assertAll(
+            () -> assertEquals(0, limiter.tryAcquire("student1", "c")),
+            () -> assertEquals(0, limiter.tryAcquire("student2", "c")),
+            () -> assertTrue(limiter.tryAcquire("tutor1", "c") > 0)
+        );
+    }
+    
+    @Test
+    public void tokensRefilled() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter("STUDENT=1", 0, Duration.ofMillis(100), authManager, registry);
+        
+        assertEquals(0, limiter.tryAcquire("student1", "c"));
+        assertTrue(limiter.tryAcquire("student1", "c") > 0);
+        
+        Thread.sleep(150);
+        
+        assertEquals(0, limiter.tryAcquire("student1", "c"));
+    }
+    
+    @Test
+    public void idleBucketsEvicted() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter("STUDENT=2", 2, Duration.ofMillis(100), authManager, registry);
+        
+        limiter.tryAcquire("student1", "c");
+        limiter.tryAcquire("student2", "c");
+        int bucketsBefore = limiter.getBucketCount();
+        
+        Thread.sleep(250);
+        limiter.tryAcquire("other", "unknown");
+        
+        assertAll(
+            () -> assertEquals(3, bucketsBefore),
+            () -> assertEquals(1, limiter.getBucketCount())
+        );
+    }
+    
+    @Test
+    public void uncachedCourseGetsStudentLimit() {
+        RateLimiter limiter = new RateLimiter("STUDENT=1,TUTOR=5", 1, Duration.ofHours(1), authManager, registry);
+        
+        assertAll(
+            () -> assertEquals(0, limiter.tryAcquire("tutor1", "uncached")),
+            () -> assertTrue(limiter.tryAcquire("tutor1", "uncached") > 0),
+            () -> verify(authManager, never()).getRole(any(), any())
+        );
+    }
+    
+    @Test
+    public void zeroDisablesLimits() {
+        RateLimiter limiter = new RateLimiter("STUDENT=0", 0, Duration.ofHours(1), authManager, registry);
+        
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, limiter.tryAcquire("student1", "c"));
+        }
+    }
+    
+    @Test
+    public void malformedLimitsThrow() {
+        assertAll(
+            () -> assertThrows(IllegalArgumentException.class,
+                () -> new RateLimiter("STUDENT", 0, Duration.ofHours(1), authManager, registry)),
+            () -> assertThrows(IllegalArgumentException.class,
+                () -> new RateLimiter("ADMIN=5", 0, Duration.ofHours(1), authManager, registry)),
+            () -> assertThrows(IllegalArgumentException.class,
+                () -> new RateLimiter("STUDENT=-1", 0, Duration.ofHours(1), authManager, registry))
+        );
+    }
+    
+}
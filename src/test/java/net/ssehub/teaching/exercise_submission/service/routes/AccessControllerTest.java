@@ -0,0 +1,140 @@
+package net.ssehub.teaching.exercise_submission.service.routes;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+
+import net.ssehub.teaching.exercise_submission.service.auth.AuthManager;
+import net.ssehub.teaching.exercise_submission.service.dto.AccessibleAssignmentDto;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Assignment;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.AssignmentState;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Collaboration;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Course;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Group;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.ICourseListener;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Participant;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Role;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.StuMgmtView;
+
+public class AccessControllerTest {
+    
+    private static final Participant STUDENT = new Participant("u1", "student1", Role.STUDENT);
+    
+    private static final Participant TUTOR = new Participant("u2", "tutor1", Role.TUTOR);
+    
+    private StuMgmtView stuMgmtView;
+    
+    private AccessController controller;
+    
+    @BeforeEach
+    public void setup() {
+        Map<String, Group> groups = Map.of(
+                "Group02", new Group("g2", "Group02", Map.of()),
+                "Group01", new Group("g1", "Group01", Map.of("student1", STUDENT)));
+        
+        Course java = new Course("java", Map.of("student1", STUDENT, "tutor1", TUTOR), Map.of(
+                "hw01", new Assignment("a1", "hw01", AssignmentState.IN_PROGRESS, Collaboration.GROUP, groups,
+                        List.of()),
+                "hw00", new Assignment("a0", "hw00", AssignmentState.EVALUATED, Collaboration.SINGLE, Map.of(),
+                        List.of()),
+                "hw02", new Assignment("a2", "hw02", AssignmentState.INVISIBLE, Collaboration.GROUP, groups,
+                        List.of())));
+        
+        Course other = new Course("other", Map.of("tutor1", TUTOR), Map.of(
+                "ex", new Assignment("a3", "ex", AssignmentState.IN_PROGRESS, Collaboration.SINGLE, Map.of(),
+                        List.of())));
+        
+        stuMgmtView = mock(StuMgmtView.class);
+        when(stuMgmtView.getCourse("java")).thenReturn(Optional.of(java));
+        when(stuMgmtView.getCourse("other")).thenReturn(Optional.of(other));
+        when(stuMgmtView.getCachedCourses()).thenReturn(List.of(java, other));
+        
+        controller = new AccessController(new AuthManager(stuMgmtView), 2);
+    }
+    
+    private static Authentication auth(String username) {
+        Authentication auth = mock(Authentication.class);
+        when(auth.getName()).thenReturn(username);
+        return auth;
+    }
+    
+    @Test
+    public void studentSeesOwnGroups() {
+        assertEquals(List.of(
+                new AccessibleAssignmentDto("java", "hw00", AssignmentState.EVALUATED, List.of("student1"), false,
+                        false, true),
+                new AccessibleAssignmentDto("java", "hw01", AssignmentState.IN_PROGRESS, List.of("Group01"), false,
+                        true, true)),
+                controller.getAccessibleAssignments(null, auth("student1")).getBody());
+    }
+    
+    @Test
+    public void tutorSeesAllGroupsOfAllCourses() {
+        List<AccessibleAssignmentDto> result = controller.getAccessibleAssignments(null, auth("tutor1")).getBody();
+        
+        assertAll(
+            () -> assertEquals(List.of("java/hw00", "java/hw01", "java/hw02", "other/ex"),
+                    result.stream().map(a -> a.course() + "/" + a.assignment()).toList()),
+            () -> assertEquals(List.of("Group01", "Group02"), result.get(1).groups()),
+            () -> assertEquals(true, result.get(1).allGroups())
+        );
+    }
+    
+    @Test
+    public void requestedCoursesOnly() {
+        assertAll(
+            () -> assertEquals(List.of("other"), controller.getAccessibleAssignments(List.of("other", "unknown"),
+                    auth("tutor1")).getBody().stream().map(AccessibleAssignmentDto::course).toList()),
+            () -> assertEquals(List.of(),
+                    controller.getAccessibleAssignments(List.of("other"), auth("student1")).getBody())
+        );
+    }
+    
+    @Test
+    public void tooManyCoursesRejected() {
+        ResponseEntity<List<AccessibleAssignmentDto>> result = controller.getAccessibleAssignments(
+                List.of("java", "other", "third"), auth("tutor1"));
+        
+        assertAll(
+            () -> assertEquals(HttpStatus.BAD_REQUEST, result.getStatusCode()),
+            () -> verify(stuMgmtView, never()).getCourse("third")
+        );
+    }
+    
+    @Test
+    public void duplicateCoursesCountedOnce() {
+        assertEquals(HttpStatus.OK, controller.getAccessibleAssignments(List.of("java", "java", "other"),
+                auth("tutor1")).getStatusCode());
+    }
+    
+    @Test
+    public void courseLoadedLaterListed() {
+        ArgumentCaptor<ICourseListener> listener = ArgumentCaptor.forClass(ICourseListener.class);
+        verify(stuMgmtView).addListener(listener.capture());
+        Course third = new Course("third", Map.of("student1", STUDENT), Map.of(
+                "ex", new Assignment("a4", "ex", AssignmentState.IN_PROGRESS, Collaboration.SINGLE, Map.of(),
+                        List.of())));
+        when(stuMgmtView.getCourse("third")).thenReturn(Optional.of(third));
+        
+        listener.getValue().courseChanged(third);
+        
+        assertEquals(List.of("java/hw00", "java/hw01", "third/ex"),
+                controller.getAccessibleAssignments(null, auth("student1")).getBody().stream()
+                        .map(a -> a.course() + "/" + a.assignment()).toList());
+    }
+    
+}
@@ -0,0 +1,123 @@
+package net.ssehub.teaching.exercise_submission.service.routes;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+
+import net.ssehub.teaching.exercise_submission.service.dto.NotificationDto;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.AssignmentState;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Participant;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Role;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.StuMgmtView;
+
+public class NotificationControllerTest {
+    
+    private Authentication systemAuthentication;
+    
+    private StuMgmtView stuMgmtView;
+    
+    private NotificationController controller;
+    
+    @BeforeEach
+    public void setup() {
+        systemAuthentication = mock(Authentication.class);
+        when(systemAuthentication.getName()).thenReturn("stu-mgmt");
+        
+        stuMgmtView = mock(StuMgmtView.class);
+        controller = new NotificationController(stuMgmtView, "stu-mgmt");
+    }
+    
+    @Test
+    public void otherUserNotAllowed() {
+        Authentication auth = mock(Authentication.class);
+        when(auth.getName()).thenReturn("student1");
+        
+        NotificationDto notification = new NotificationDto("COURSE_CHANGED", "c", null, null, null);
+        
+        assertAll(
+            () -> assertThrows(UnauthorizedException.class, () -> controller.notify(notification, auth)),
+            () -> verifyNoInteractions(stuMgmtView)
+        );
+    }
+    
+    @Test
+    public void noNotificationUserConfiguredNotAllowed() {
+        NotificationController unconfigured = new NotificationController(stuMgmtView, "");
+        Authentication auth = mock(Authentication.class);
+        when(auth.getName()).thenReturn("");
+        
+        assertThrows(UnauthorizedException.class, () -> unconfigured.notify(
+                new NotificationDto("COURSE_CHANGED", "c", null, null, null), auth));
+    }
+    
+    @Test
+    public void assignmentStateChanged() throws UnauthorizedException {
+        assertEquals(HttpStatus.NO_CONTENT, controller.notify(new NotificationDto("ASSIGNMENT_STATE_CHANGED", "c",
+                "a1", null, Map.of("state", "IN_REVIEW")), systemAuthentication).getStatusCode());
+        
+        verify(stuMgmtView).assignmentStateChanged("c", "a1", AssignmentState.IN_REVIEW);
+    }
+    
+    @Test
+    public void groupMembershipChanged() throws UnauthorizedException {
+        controller.notify(new NotificationDto("USER_JOINED_GROUP", "c", "g1", "u1", null), systemAuthentication);
+        controller.notify(new NotificationDto("USER_LEFT_GROUP", "c", "g1", "u2", null), systemAuthentication);
+        
+        assertAll(
+            () -> verify(stuMgmtView).groupMembershipChanged("c", "g1", "u1", true),
+            () -> verify(stuMgmtView).groupMembershipChanged("c", "g1", "u2", false)
+        );
+    }
+    
+    @Test
+    public void participantAdded() throws UnauthorizedException {
+        controller.notify(new NotificationDto("COURSE_JOINED", "c", null, "u1",
+                Map.of("username", "student1", "role", "STUDENT")), systemAuthentication);
+        
+        verify(stuMgmtView).participantAdded("c", new Participant("u1", "student1", Role.STUDENT));
+    }
+    
+    @Test
+    public void unknownEventInvalidatesCourse() throws UnauthorizedException {
+        controller.notify(new NotificationDto("ASSIGNMENT_CREATED", "c", "a2", null, null), systemAuthentication);
+        
+        verify(stuMgmtView).invalidate("c");
+    }
+    
+    @Test
+    public void incompleteEventInvalidatesCourse() throws UnauthorizedException {
+        controller.notify(new NotificationDto("ASSIGNMENT_STATE_CHANGED", "c", "a1", null, Map.of("state", "OPEN")),
+                systemAuthentication);
+        controller.notify(new NotificationDto("COURSE_JOINED", "c", null, "u1", null), systemAuthentication);
+        
+        assertAll(
+            () -> verify(stuMgmtView, times(2)).invalidate("c"),
+            () -> verify(stuMgmtView, never()).assignmentStateChanged(any(), any(), any())
+        );
+    }
+    
+    @Test
+    public void missingCourseBadRequest() throws UnauthorizedException {
+        assertAll(
+            () -> assertEquals(HttpStatus.BAD_REQUEST, controller.notify(
+                    new NotificationDto("COURSE_CHANGED", null, null, null, null), systemAuthentication)
+                    .getStatusCode()),
+            () -> verifyNoInteractions(stuMgmtView)
+        );
+    }
+    
+}
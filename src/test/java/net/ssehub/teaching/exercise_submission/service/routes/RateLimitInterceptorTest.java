@@ -0,0 +1,82 @@
+package net.ssehub.teaching.exercise_submission.service.routes;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+import net.ssehub.teaching.exercise_submission.service.auth.RateLimiter;
+
+public class RateLimitInterceptorTest {
+    
+    private RateLimiter rateLimiter;
+    
+    private RateLimitInterceptor interceptor;
+    
+    @BeforeEach
+    public void setup() {
+        rateLimiter = mock(RateLimiter.class);
+        interceptor = new RateLimitInterceptor(rateLimiter);
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("student1", null));
+    }
+    
+    @AfterEach
+    public void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+    
+    private static MockHttpServletRequest createRequest(String method) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/submission/c/a/g");
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE,
+                Map.of("course", "c", "assignment", "a", "group", "g"));
+        return request;
+    }
+    
+    @Test
+    public void allowedSubmissionPasses() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        assertAll(
+            () -> assertTrue(interceptor.preHandle(createRequest("POST"), response, null)),
+            () -> assertEquals(200, response.getStatus())
+        );
+    }
+    
+    @Test
+    public void limitedSubmissionRejected() {
+        when(rateLimiter.tryAcquire("student1", "c")).thenReturn(Duration.ofMillis(2500).toNanos());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        assertAll(
+            () -> assertFalse(interceptor.preHandle(createRequest("POST"), response, null)),
+            () -> assertEquals(429, response.getStatus()),
+            () -> assertEquals("3", response.getHeader("Retry-After"))
+        );
+    }
+    
+    @Test
+    public void readRequestsNotLimited() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        assertAll(
+            () -> assertTrue(interceptor.preHandle(createRequest("GET"), response, null)),
+            () -> verifyNoInteractions(rateLimiter)
+        );
+    }
+    
+}
@@ -0,0 +1,84 @@
+package net.ssehub.teaching.exercise_submission.service.routes;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+
+import net.ssehub.teaching.exercise_submission.service.auth.AuthManager;
+import net.ssehub.teaching.exercise_submission.service.dto.RecheckJobDto;
+import net.ssehub.teaching.exercise_submission.service.dto.RecheckJobDto.State;
+import net.ssehub.teaching.exercise_submission.service.submission.RecheckJobManager;
+
+public class RecheckControllerTest {
+    
+    private Authentication lecturerAuthentication;
+    
+    private AuthManager authManager;
+    
+    @BeforeEach
+    public void setupMocks() {
+        lecturerAuthentication = mock(Authentication.class);
+        when(lecturerAuthentication.getName()).thenReturn("lecturer1");
+        
+        authManager = mock(AuthManager.class);
+        when(authManager.isAdministrationAllowed("java-sose23", "lecturer1")).thenReturn(true);
+    }
+    
+    @Test
+    public void notAllowed() {
+        RecheckJobManager jobManager = mock(RecheckJobManager.class);
+        RecheckController controller = new RecheckController(jobManager, authManager);
+        
+        assertAll(
+            () -> assertThrows(UnauthorizedException.class,
+                () -> controller.startRecheck("java-wise23", "Homework02", lecturerAuthentication)),
+            () -> assertThrows(UnauthorizedException.class,
+                () -> controller.getRecheckProgress("java-wise23", "Homework02", lecturerAuthentication)),
+            () -> verify(jobManager, never()).start("java-wise23", "Homework02")
+        );
+    }
+    
+    @Test
+    public void jobStarted() {
+        RecheckJobDto job = new RecheckJobDto("java-sose23", "Homework02", State.RUNNING, 10, 0, 0, 1635177322, 0);
+        RecheckJobManager jobManager = mock(RecheckJobManager.class);
+        when(assertDoesNotThrow(() -> jobManager.start("java-sose23", "Homework02"))).thenReturn(job);
+        
+        RecheckController controller = new RecheckController(jobManager, authManager);
+        
+        ResponseEntity<RecheckJobDto> response = assertDoesNotThrow(
+            () -> controller.startRecheck("java-sose23", "Homework02", lecturerAuthentication));
+        
+        assertAll(
+            () -> assertEquals(HttpStatus.ACCEPTED, response.getStatusCode()),
+            () -> assertEquals(job, response.getBody())
+        );
+    }
+    
+    @Test
+    public void progressOfUnknownJobNotFound() {
+        RecheckJobManager jobManager = mock(RecheckJobManager.class);
+        when(jobManager.getJob("java-sose23", "Homework02")).thenReturn(Optional.empty());
+        
+        RecheckController controller = new RecheckController(jobManager, authManager);
+        
+        ResponseEntity<RecheckJobDto> response = assertDoesNotThrow(
+            () -> controller.getRecheckProgress("java-sose23", "Homework02", lecturerAuthentication));
+        
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+    
+}
@@ -0,0 +1,52 @@
+package net.ssehub.teaching.exercise_submission.service.routes;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckQueueFullException;
+
+public class ResponseExceptionHandlerTest {
+    
+    private ResponseExceptionHandler handler = new ResponseExceptionHandler(Duration.ofSeconds(7));
+    
+    private static HttpMessageNotReadableException unreadable(Throwable cause) {
+        return new HttpMessageNotReadableException("I/O error while reading input message", cause,
+                new MockHttpInputMessage(new byte[0]));
+    }
+    
+    @Test
+    public void fullQueueAnsweredWithRetryAfter() {
+        ResponseEntity<Void> response = handler.handleQueueFull(new CheckQueueFullException("full"));
+        
+        assertAll(
+            () -> assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode()),
+            () -> assertEquals("7", response.getHeaders().getFirst("Retry-After"))
+        );
+    }
+    
+    @Test
+    public void tooLargeBodyAnsweredWith413() {
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE,
+                handler.handleUnreadableBody(unreadable(new UploadTooLargeException(10))).getStatusCode());
+    }
+    
+    @Test
+    public void otherUnreadableBodiesAnsweredWith400() {
+        assertAll(
+            () -> assertEquals(HttpStatus.BAD_REQUEST,
+                    handler.handleUnreadableBody(unreadable(new IOException("broken"))).getStatusCode()),
+            () -> assertEquals(HttpStatus.BAD_REQUEST,
+                    handler.handleUnreadableBody(unreadable(null)).getStatusCode())
+        );
+    }
+    
+}
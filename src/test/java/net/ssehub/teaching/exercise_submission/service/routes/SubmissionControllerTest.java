@@ -6,6 +6,9 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.nio.file.Path;
@@ -21,8 +24,12 @@ import org.springframework.security.core.Authentication;
 
 import net.ssehub.teaching.exercise_submission.service.auth.AuthManager;
 import net.ssehub.teaching.exercise_submission.service.dto.CheckMessageDto;
+import net.ssehub.teaching.exercise_submission.service.dto.CheckRunDto;
+import net.ssehub.teaching.exercise_submission.service.dto.DeferredCheckResultDto;
+import net.ssehub.teaching.exercise_submission.service.dto.DeferredCheckResultDto.State;
 import net.ssehub.teaching.exercise_submission.service.dto.FileDto;
 import net.ssehub.teaching.exercise_submission.service.dto.SubmissionResultDto;
+import net.ssehub.teaching.exercise_submission.service.dto.VersionChecksDto;
 import net.ssehub.teaching.exercise_submission.service.dto.VersionDto;
 import net.ssehub.teaching.exercise_submission.service.storage.ISubmissionStorage;
 import net.ssehub.teaching.exercise_submission.service.storage.NoSuchTargetException;
@@ -32,6 +39,7 @@ import net.ssehub.teaching.exercise_submission.service.submission.SubmissionBuil
 import net.ssehub.teaching.exercise_submission.service.submission.SubmissionManager;
 import net.ssehub.teaching.exercise_submission.service.submission.SubmissionTarget;
 import net.ssehub.teaching.exercise_submission.service.submission.Version;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckQueueFullException;
 import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage.MessageType;
 
 public class SubmissionControllerTest {
@@ -66,7 +74,7 @@ public class SubmissionControllerTest {
         private SubmissionResultDto rejectingResult;
         
         @BeforeEach
-        public void setupMocks() throws StorageException {
+        public void setupMocks() throws StorageException, CheckQueueFullException {
             files = List.of(
                 FileDto.fromStringContent("Main.java", "testcontent"),
                 FileDto.fromStringContent("util/Util.java", "testcontent")
@@ -144,6 +152,85 @@ public class SubmissionControllerTest {
             assertEquals(HttpStatus.BAD_REQUEST, result.getStatusCode());
         }
         
+        @Test
+        public void checkFailureNotReportedAsBadRequest() throws StorageException, CheckQueueFullException {
+            SubmissionManager failingManager = mock(SubmissionManager.class);
+            when(failingManager.submit(any(), any())).thenThrow(new IllegalArgumentException("invalid check graph"));
+            SubmissionController controller = new SubmissionController(
+                    failingManager, mock(ISubmissionStorage.class), allAllowedAuthManager);
+            
+            assertThrows(IllegalArgumentException.class, () -> controller.submit(
+                    target.course(), target.assignmentName(), target.groupName(), files, author1Authentication));
+        }
+        
+    }
+    
+    @Nested
+    class Check {
+        
+        private List<FileDto> files;
+        
+        private SubmissionManager manager;
+        
+        private SubmissionResultDto checkResult;
+        
+        @BeforeEach
+        public void setupMocks() throws StorageException, CheckQueueFullException {
+            files = List.of(FileDto.fromStringContent("Main.java", "testcontent"));
+            
+            SubmissionBuilder submissionBuilder = new SubmissionBuilder("author1");
+            submissionBuilder.addUtf8File(Path.of("Main.java"), "testcontent");
+            
+            manager = mock(SubmissionManager.class);
+            checkResult = new SubmissionResultDto(false,
+                    List.of(new CheckMessageDto("test", MessageType.ERROR, "mock")));
+            when(manager.check(target, submissionBuilder.build())).thenReturn(checkResult);
+        }
+        
+        @Test
+        public void resultReturnedWithoutSubmitting() {
+            ISubmissionStorage storage = mock(ISubmissionStorage.class);
+            SubmissionController controller = new SubmissionController(manager, storage, allAllowedAuthManager);
+            
+            ResponseEntity<SubmissionResultDto> result = assertDoesNotThrow(() -> controller.check(
+                    target.course(), target.assignmentName(), target.groupName(), files, author1Authentication));
+            
+            assertAll(
+                () -> assertEquals(checkResult, result.getBody()),
+                () -> assertEquals(HttpStatus.OK, result.getStatusCode()),
+                () -> verify(manager, never()).submit(any(), any()),
+                () -> verifyNoInteractions(storage)
+            );
+        }
+        
+        @Test
+        public void notAllowed() {
+            AuthManager authManager = mock(AuthManager.class);
+            when(authManager.isSubmissionAllowed(target, "author1")).thenReturn(false);
+            
+            SubmissionController controller = new SubmissionController(
+                    manager, mock(ISubmissionStorage.class), authManager);
+            
+            assertAll(
+                () -> assertThrows(UnauthorizedException.class, () -> controller.check(
+                        target.course(), target.assignmentName(), target.groupName(), files, author1Authentication)),
+                () -> verify(manager, never()).check(any(), any())
+            );
+        }
+        
+        @Test
+        public void invalidFilepathBadRequest() {
+            SubmissionController controller = new SubmissionController(
+                    manager, mock(ISubmissionStorage.class), allAllowedAuthManager);
+            
+            List<FileDto> files = List.of(FileDto.fromStringContent("../test.txt", "testcontent"));
+            
+            ResponseEntity<SubmissionResultDto> result = assertDoesNotThrow(() -> controller.check(
+                    target.course(), target.assignmentName(), target.groupName(), files, author1Authentication));
+            
+            assertEquals(HttpStatus.BAD_REQUEST, result.getStatusCode());
+        }
+        
     }
     
     @Nested
@@ -166,11 +253,29 @@ public class SubmissionControllerTest {
                     mock(SubmissionManager.class), storageWith2Versions, allAllowedAuthManager);
             
             List<VersionDto> versions = assertDoesNotThrow(() -> controller.listVersions(
-                    target.course(), target.assignmentName(), target.groupName(), author1Authentication));
+                    target.course(), target.assignmentName(), target.groupName(), false, author1Authentication));
             
             assertEquals(List.of(new VersionDto("author2", 123654), new VersionDto("author1", 123456)), versions);
         }
         
+        @Test
+        public void versionListWithChecks() {
+            VersionChecksDto checks = new VersionChecksDto(
+                    new CheckRunDto(true, List.of(new CheckMessageDto("javac", MessageType.WARNING, "mock")), 123, 42),
+                    new DeferredCheckResultDto(State.NONE, null));
+            SubmissionManager manager = mock(SubmissionManager.class);
+            when(assertDoesNotThrow(() -> manager.getCheckResults(any(), any()))).thenReturn(checks);
+            
+            SubmissionController controller = new SubmissionController(
+                    manager, storageWith2Versions, allAllowedAuthManager);
+            
+            List<VersionDto> versions = assertDoesNotThrow(() -> controller.listVersions(
+                    target.course(), target.assignmentName(), target.groupName(), true, author1Authentication));
+            
+            assertEquals(List.of(new VersionDto("author2", 123654, checks), new VersionDto("author1", 123456, checks)),
+                    versions);
+        }
+        
         @Test
         public void notAllowed() {
             AuthManager authManager = mock(AuthManager.class);
@@ -180,7 +285,7 @@ public class SubmissionControllerTest {
                     mock(SubmissionManager.class), mock(ISubmissionStorage.class), authManager);
             
             assertThrows(UnauthorizedException.class, () -> controller.listVersions(
-                    target.course(), target.assignmentName(), target.groupName(),
+                    target.course(), target.assignmentName(), target.groupName(), false,
                     author1Authentication));
         }
         
@@ -240,5 +345,57 @@ public class SubmissionControllerTest {
         
     }
     
+    @Nested
+    class GetCheckResults {
+        
+        @Test
+        public void notAllowed() {
+            AuthManager authManager = mock(AuthManager.class);
+            when(authManager.isReplayAllowed(target, "author1")).thenReturn(false);
+            
+            SubmissionController controller = new SubmissionController(
+                    mock(SubmissionManager.class), mock(ISubmissionStorage.class), authManager);
+            
+            assertThrows(UnauthorizedException.class, () -> controller.getCheckResults(
+                    target.course(), target.assignmentName(), target.groupName(), 1234L,
+                    author1Authentication));
+        }
+        
+        @Test
+        public void versionDoesntExist() {
+            ISubmissionStorage storage = mock(ISubmissionStorage.class);
+            when(assertDoesNotThrow(() -> storage.getVersions(target)))
+                .thenReturn(List.of(new Version("someone", Instant.ofEpochSecond(123456))));
+            
+            SubmissionController controller = new SubmissionController(
+                    mock(SubmissionManager.class), storage, allAllowedAuthManager);
+            
+            assertThrows(NoSuchTargetException.class, () -> controller.getCheckResults(
+                    target.course(), target.assignmentName(), target.groupName(), 654321, author1Authentication));
+        }
+        
+        @Test
+        public void resultReturned() {
+            Version version = new Version("someone", Instant.ofEpochSecond(123456));
+            ISubmissionStorage storage = mock(ISubmissionStorage.class);
+            when(assertDoesNotThrow(() -> storage.getVersions(target)))
+                .thenReturn(List.of(version));
+            
+            VersionChecksDto expected = new VersionChecksDto(new CheckRunDto(true, List.of(), 123456, 10),
+                    new DeferredCheckResultDto(State.FINISHED, new CheckRunDto(true,
+                            List.of(new CheckMessageDto("junit", MessageType.WARNING, "mock")), 123457, 2000)));
+            SubmissionManager manager = mock(SubmissionManager.class);
+            when(assertDoesNotThrow(() -> manager.getCheckResults(target, version)))
+                .thenReturn(expected);
+            
+            SubmissionController controller = new SubmissionController(manager, storage, allAllowedAuthManager);
+            
+            VersionChecksDto result = assertDoesNotThrow(() -> controller.getCheckResults(
+                    target.course(), target.assignmentName(), target.groupName(), 123456, author1Authentication));
+            
+            assertEquals(expected, result);
+        }
+        
+    }
     
 }
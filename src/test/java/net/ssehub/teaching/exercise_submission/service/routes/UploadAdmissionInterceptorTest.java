@@ -0,0 +1,117 @@
+package net.ssehub.teaching.exercise_submission.service.routes;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ssehub.teaching.exercise_submission.service.submission.MemoryBudget;
+
+public class UploadAdmissionInterceptorTest {
+    
+    private MemoryBudget budget;
+    
+    private UploadAdmissionInterceptor interceptor;
+    
+    @BeforeEach
+    public void setup() {
+        budget = new MemoryBudget(DataSize.ofKilobytes(100), 2, Duration.ZERO, new SimpleMeterRegistry());
+        interceptor = new UploadAdmissionInterceptor(budget, DataSize.ofKilobytes(15));
+    }
+    
+    private static MockHttpServletRequest createRequest(String method, int contentLength) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/submission/c/a/g");
+        if (contentLength >= 0) {
+            request.setContent(new byte[contentLength]);
+        }
+        return request;
+    }
+    
+    @Test
+    public void admittedRequestReservesUntilCompletion() {
+        MockHttpServletRequest request = createRequest("POST", 10 * 1024);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        boolean admitted = interceptor.preHandle(request, response, null);
+        long reservedDuringRequest = budget.getReservedBytes();
+        interceptor.afterCompletion(request, response, null, null);
+        
+        assertAll(
+            () -> assertTrue(admitted),
+            () -> assertEquals(20 * 1024, reservedDuringRequest),
+            () -> assertEquals(0, budget.getReservedBytes())
+        );
+    }
+    
+    @Test
+    public void exhaustedBudgetRejectedWithRetryAfter() {
+        MockHttpServletRequest first = createRequest("POST", 40 * 1024);
+        interceptor.preHandle(first, new MockHttpServletResponse(), null);
+        
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        assertAll(
+            () -> assertFalse(interceptor.preHandle(createRequest("POST", 20 * 1024), response, null)),
+            () -> assertEquals(503, response.getStatus()),
+            () -> assertEquals("1", response.getHeader("Retry-After"))
+        );
+    }
+    
+    @Test
+    public void tooLargeRequestRejected() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        assertAll(
+            () -> assertFalse(interceptor.preHandle(createRequest("POST", 60 * 1024), response, null)),
+            () -> assertEquals(413, response.getStatus()),
+            () -> assertEquals(0, budget.getReservedBytes())
+        );
+    }
+    
+    @Test
+    public void chunkedRequestReservesConfiguredSize() {
+        MockHttpServletRequest request = createRequest("POST", -1);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        boolean admitted = interceptor.preHandle(request, response, null);
+        long reservedDuringRequest = budget.getReservedBytes();
+        interceptor.afterCompletion(request, response, null, null);
+        
+        assertAll(
+            () -> assertTrue(admitted),
+            () -> assertEquals(30 * 1024, reservedDuringRequest),
+            () -> assertEquals(0, budget.getReservedBytes())
+        );
+    }
+    
+    @Test
+    public void chunkedRequestRejectedIfConfiguredSizeExceedsBudget() {
+        UploadAdmissionInterceptor largeChunks = new UploadAdmissionInterceptor(budget, DataSize.ofKilobytes(60));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        assertAll(
+            () -> assertFalse(largeChunks.preHandle(createRequest("POST", -1), response, null)),
+            () -> assertEquals(413, response.getStatus())
+        );
+    }
+    
+    @Test
+    public void readRequestsNotAdmissionControlled() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        assertAll(
+            () -> assertTrue(interceptor.preHandle(createRequest("GET", -1), response, null)),
+            () -> assertEquals(0, budget.getReservedBytes())
+        );
+    }
+    
+}
@@ -0,0 +1,79 @@
+package net.ssehub.teaching.exercise_submission.service.routes;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+
+public class UploadSizeLimitFilterTest {
+    
+    private UploadSizeLimitFilter filter = new UploadSizeLimitFilter(DataSize.ofBytes(10));
+    
+    private static MockHttpServletRequest createChunkedRequest(int bodySize) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/submission/c/a/g") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        request.setContent(new byte[bodySize]);
+        return request;
+    }
+    
+    private ServletRequest filter(MockHttpServletRequest request) throws ServletException, IOException {
+        AtomicReference<ServletRequest> filtered = new AtomicReference<>();
+        FilterChain chain = (req, res) -> filtered.set(req);
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return filtered.get();
+    }
+    
+    @Test
+    public void chunkedBodyWithinLimitRead() throws ServletException, IOException {
+        ServletRequest filtered = filter(createChunkedRequest(10));
+        
+        assertArrayEquals(new byte[10], filtered.getInputStream().readAllBytes());
+    }
+    
+    @Test
+    public void chunkedBodyBeyondLimitFails() throws ServletException, IOException {
+        ServletRequest filtered = filter(createChunkedRequest(11));
+        
+        assertThrows(UploadTooLargeException.class, () -> filtered.getInputStream().readAllBytes());
+    }
+    
+    @Test
+    public void chunkedBodyBeyondLimitFailsSingleBytes() throws ServletException, IOException {
+        ServletRequest filtered = filter(createChunkedRequest(11));
+        
+        assertThrows(UploadTooLargeException.class, () -> {
+            while (filtered.getInputStream().read() != -1) {
+                // read on
+            }
+        });
+    }
+    
+    @Test
+    public void requestsWithLengthNotWrapped() throws ServletException, IOException {
+        MockHttpServletRequest withLength = new MockHttpServletRequest("POST", "/submission/c/a/g");
+        withLength.setContent(new byte[100]);
+        MockHttpServletRequest get = new MockHttpServletRequest("GET", "/submission/c/a/g");
+        
+        assertAll(
+            () -> assertSame(withLength, filter(withLength)),
+            () -> assertSame(get, filter(get))
+        );
+    }
+    
+}
@@ -0,0 +1,157 @@
+package net.ssehub.teaching.exercise_submission.service.storage;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Assignment;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.AssignmentState;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Collaboration;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Course;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Group;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Participant;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Role;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.StuMgmtView;
+import net.ssehub.teaching.exercise_submission.service.submission.SubmissionTarget;
+
+public class GroupProvisionerTest {
+    
+    private static final Participant STUDENT = new Participant("u1", "student1", Role.STUDENT);
+    
+    private static final Participant TUTOR = new Participant("u2", "tutor1", Role.TUTOR);
+    
+    private ISubmissionStorage storage;
+    
+    private StuMgmtView stuMgmtView;
+    
+    private GroupProvisioner provisioner;
+    
+    @BeforeEach
+    public void setup() {
+        storage = mock(ISubmissionStorage.class);
+        stuMgmtView = mock(StuMgmtView.class);
+        provisioner = new GroupProvisioner(stuMgmtView, storage);
+    }
+    
+    private static Course createCourse(String... groupNames) {
+        Map<String, Group> groups = new HashMap<>();
+        for (String groupName : groupNames) {
+            groups.put(groupName, new Group("id-" + groupName, groupName, Map.of()));
+        }
+        
+        return new Course("c", Map.of("student1", STUDENT, "tutor1", TUTOR), Map.of(
+                "single", new Assignment("a1", "single", AssignmentState.IN_PROGRESS, Collaboration.SINGLE, Map.of(),
+                        List.of()),
+                "group", new Assignment("a2", "group", AssignmentState.IN_PROGRESS, Collaboration.GROUP, groups,
+                        List.of())));
+    }
+    
+    @Test
+    public void registeredAsListener() {
+        verify(stuMgmtView).addListener(provisioner);
+    }
+    
+    @Test
+    public void groupNamesOfCollaborationTypes() {
+        Map<String, Group> groups = Map.of("Group01", new Group("g1", "Group01", Map.of()));
+        Course course = new Course("c", Map.of("student1", STUDENT, "tutor1", TUTOR), Map.of());
+        
+        assertAll(
+            () -> assertEquals(Set.of("student1"), GroupProvisioner.getGroupNames(course, new Assignment("a", "a",
+                    AssignmentState.IN_PROGRESS, Collaboration.SINGLE, groups, List.of()))),
+            () -> assertEquals(Set.of("Group01"), GroupProvisioner.getGroupNames(course, new Assignment("a", "a",
+                    AssignmentState.IN_PROGRESS, Collaboration.GROUP, groups, List.of()))),
+            () -> assertEquals(Set.of("Group01", "student1"), GroupProvisioner.getGroupNames(course,
+                    new Assignment("a", "a", AssignmentState.IN_PROGRESS, Collaboration.GROUP_OR_SINGLE, groups,
+                            List.of()))),
+            () -> assertEquals(Set.of(), GroupProvisioner.getGroupNames(course, new Assignment("a", "a",
+                    AssignmentState.IN_PROGRESS, null, groups, List.of())))
+        );
+    }
+    
+    @Test
+    public void allGroupsProvisionedInitially() throws StorageException {
+        provisioner.provision(createCourse("Group01"));
+        
+        assertAll(
+            () -> verify(storage).createOrUpdateAssignment("c", "single", "student1"),
+            () -> verify(storage).createOrUpdateAssignment("c", "group", "Group01")
+        );
+    }
+    
+    @Test
+    public void onlyNewGroupsProvisioned() throws StorageException {
+        provisioner.provision(createCourse("Group01"));
+        provisioner.provision(createCourse("Group01", "Group02"));
+        
+        assertAll(
+            () -> verify(storage, times(1)).createOrUpdateAssignment("c", "group", "Group01"),
+            () -> verify(storage, times(1)).createOrUpdateAssignment("c", "group", "Group02"),
+            () -> verify(storage, times(1)).createOrUpdateAssignment("c", "single", "student1")
+        );
+    }
+    
+    @Test
+    public void unchangedCourseNotProvisionedAgain() throws StorageException {
+        provisioner.provision(createCourse("Group01"));
+        provisioner.provision(createCourse("Group01"));
+        
+        assertAll(
+            () -> verify(storage, times(1)).createOrUpdateAssignment("c", "single", "student1"),
+            () -> verify(storage, times(1)).createOrUpdateAssignment("c", "group", "Group01")
+        );
+    }
+    
+    @Test
+    public void failedProvisioningRetried() throws StorageException {
+        doThrow(new StorageException("full")).doNothing()
+                .when(storage).createOrUpdateAssignment("c", "group", "Group01");
+        
+        provisioner.provision(createCourse("Group01"));
+        provisioner.provision(createCourse("Group01"));
+        provisioner.provision(createCourse("Group01"));
+        
+        verify(storage, times(2)).createOrUpdateAssignment("c", "group", "Group01");
+    }
+    
+    @Test
+    public void targetProvisionedOnDemand() throws StorageException {
+        when(stuMgmtView.getCourse("c")).thenReturn(Optional.of(createCourse("Group01")));
+        
+        assertAll(
+            () -> assertTrue(provisioner.provision(new SubmissionTarget("c", "group", "Group01"))),
+            () -> verify(storage).createOrUpdateAssignment("c", "group", "Group01")
+        );
+    }
+    
+    @Test
+    public void unknownTargetNotProvisionedOnDemand() throws StorageException {
+        when(stuMgmtView.getCourse("c")).thenReturn(Optional.of(createCourse("Group01")));
+        when(stuMgmtView.getCourse("other")).thenReturn(Optional.empty());
+        
+        assertAll(
+            () -> assertFalse(provisioner.provision(new SubmissionTarget("c", "group", "Group02"))),
+            () -> assertFalse(provisioner.provision(new SubmissionTarget("c", "single", "tutor1"))),
+            () -> assertFalse(provisioner.provision(new SubmissionTarget("c", "missing", "Group01"))),
+            () -> assertFalse(provisioner.provision(new SubmissionTarget("other", "group", "Group01"))),
+            () -> verifyNoInteractions(storage)
+        );
+    }
+    
+}
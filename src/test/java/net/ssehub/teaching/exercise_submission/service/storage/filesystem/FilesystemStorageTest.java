@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -12,11 +13,13 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -24,12 +27,16 @@ import org.junit.jupiter.api.io.TempDir;
 import net.ssehub.teaching.exercise_submission.service.storage.NoSuchTargetException;
 import net.ssehub.teaching.exercise_submission.service.storage.StorageException;
 import net.ssehub.teaching.exercise_submission.service.submission.Submission;
+import net.ssehub.teaching.exercise_submission.service.submission.RecordedCheckResult;
 import net.ssehub.teaching.exercise_submission.service.submission.SubmissionBuilder;
 import net.ssehub.teaching.exercise_submission.service.submission.SubmissionTarget;
 import net.ssehub.teaching.exercise_submission.service.submission.Version;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckResult;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage.MessageType;
 
 public class FilesystemStorageTest {
-
+    
     @TempDir
     private Path storageDir;
     
@@ -77,6 +84,20 @@ public class FilesystemStorageTest {
         );
     }
     
+    @Test
+    public void createOrUpdateAssignmentManyGroups() throws IOException {
+        FilesystemStorage storage = new FilesystemStorage(storageDir);
+        String[] groups = IntStream.range(0, 200).mapToObj(i -> "Group" + i).toArray(String[]::new);
+        
+        assertDoesNotThrow(() -> storage.createOrUpdateAssignment("course", "Homework01", groups));
+        assertDoesNotThrow(() -> storage.createOrUpdateAssignment("course", "Homework01", "Group0", "Group200"));
+        
+        assertAll(
+            () -> assertEquals(201, storage.getGroupNames("course", "Homework01").size()),
+            () -> assertTrue(Files.isDirectory(storageDir.resolve("course/Homework01/Group200")))
+        );
+    }
+    
     @Test
     public void getVersionsEmptyForEmptyGroup() throws IOException {
         Files.createDirectories(storageDir.resolve("course/Homework01/Group01"));
@@ -431,4 +452,84 @@ public class FilesystemStorageTest {
         );
     }
     
+    @Test
+    public void deferredCheckResultStoredAndRetrieved() throws IOException {
+        FilesystemStorage storage = new FilesystemStorage(storageDir);
+        SubmissionTarget target = new SubmissionTarget("course", "assignment", "group");
+        assertDoesNotThrow(() -> storage.createOrUpdateAssignment("course", "assignment", "group"));
+        Version version = assertDoesNotThrow(() -> storage.submitNewVersion(target,
+                new SubmissionBuilder("author").build()));
+        
+        RecordedCheckResult result = new RecordedCheckResult(new CheckResult(false, List.of(
+                new ResultMessage("junit", MessageType.ERROR, "test failed").setFile(Path.of("dir/Main.java"))
+                        .setLine(3).setColumn(5),
+                new ResultMessage("checkstyle", MessageType.WARNING, "line too long"))),
+                Instant.ofEpochMilli(1635177322123L), Duration.ofMillis(1520));
+        
+        Optional<RecordedCheckResult> before = assertDoesNotThrow(
+            () -> storage.getDeferredCheckResult(target, version));
+        assertDoesNotThrow(() -> storage.storeDeferredCheckResult(target, version, result));
+        Optional<RecordedCheckResult> after = assertDoesNotThrow(() -> storage.getDeferredCheckResult(target, version));
+        
+        assertAll(
+            () -> assertEquals(Optional.empty(), before),
+            () -> assertEquals(Optional.of(result), after),
+            () -> assertEquals(List.of(version), storage.getVersions(target))
+        );
+    }
+    
+    @Test
+    public void deferredCheckResultNonExistingVersionThrows() throws IOException {
+        FilesystemStorage storage = new FilesystemStorage(storageDir);
+        SubmissionTarget target = new SubmissionTarget("course", "assignment", "group");
+        assertDoesNotThrow(() -> storage.createOrUpdateAssignment("course", "assignment", "group"));
+        Version version = new Version("author", Instant.ofEpochSecond(123456));
+        
+        assertAll(
+            () -> assertThrows(NoSuchTargetException.class,
+                () -> storage.storeDeferredCheckResult(target, version, new RecordedCheckResult(
+                        new CheckResult(true, List.of()), Instant.now(), Duration.ZERO))),
+            () -> assertThrows(NoSuchTargetException.class, () -> storage.getCheckResult(target, version)),
+            () -> assertThrows(NoSuchTargetException.class, () -> storage.getDeferredCheckResult(target, version))
+        );
+    }
+    
+    @Test
+    public void inlineAndDeferredCheckResultsStoredSeparately() throws IOException {
+        FilesystemStorage storage = new FilesystemStorage(storageDir);
+        SubmissionTarget target = new SubmissionTarget("course", "assignment", "group");
+        assertDoesNotThrow(() -> storage.createOrUpdateAssignment("course", "assignment", "group"));
+        Version version = assertDoesNotThrow(() -> storage.submitNewVersion(target,
+                new SubmissionBuilder("author").build()));
+        
+        RecordedCheckResult inline = new RecordedCheckResult(new CheckResult(true, List.of(
+                new ResultMessage("javac", MessageType.WARNING, "unchecked cast"))),
+                Instant.ofEpochMilli(1000), Duration.ofMillis(50));
+        
+        assertDoesNotThrow(() -> storage.storeCheckResult(target, version, inline));
+        
+        assertAll(
+            () -> assertEquals(Optional.of(inline), storage.getCheckResult(target, version)),
+            () -> assertEquals(Optional.empty(), storage.getDeferredCheckResult(target, version)),
+            () -> assertEquals(List.of(version), storage.getVersions(target)),
+            () -> assertFalse(Files.readString(storageDir.resolve("course/assignment/group/"
+                    + FilesystemStorage.versionToFilename(version) + ".checks.json")).contains("null"))
+        );
+    }
+    
+    @Test
+    public void getGroupNamesReturnsSortedGroups() throws IOException {
+        FilesystemStorage storage = new FilesystemStorage(storageDir);
+        assertDoesNotThrow(() -> storage.createOrUpdateAssignment("course", "assignment", "Group02", "Group01"));
+        Version version = assertDoesNotThrow(() -> storage.submitNewVersion(
+                new SubmissionTarget("course", "assignment", "Group01"), new SubmissionBuilder("author").build()));
+        assertDoesNotThrow(() -> storage.storeCheckResult(new SubmissionTarget("course", "assignment", "Group01"),
+                version, new RecordedCheckResult(new CheckResult(true, List.of()), Instant.now(), Duration.ZERO)));
+        
+        assertAll(
+            () -> assertEquals(List.of("Group01", "Group02"), storage.getGroupNames("course", "assignment")),
+            () -> assertThrows(NoSuchTargetException.class, () -> storage.getGroupNames("course", "other"))
+        );
+    }
+    
 }
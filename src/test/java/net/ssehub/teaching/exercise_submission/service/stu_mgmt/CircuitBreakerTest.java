@@ -0,0 +1,107 @@
+package net.ssehub.teaching.exercise_submission.service.stu_mgmt;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class CircuitBreakerTest {
+    
+    private static String fail() throws IOException {
+        throw new IOException("down");
+    }
+    
+    @Test
+    public void opensAfterConsecutiveFailures() throws IOException {
+        CircuitBreaker breaker = new CircuitBreaker(2, Duration.ofHours(1), 8);
+        AtomicInteger calls = new AtomicInteger();
+        
+        assertThrows(IOException.class, () -> breaker.execute(CircuitBreakerTest::fail));
+        assertFalse(breaker.isOpen());
+        assertThrows(IOException.class, () -> breaker.execute(CircuitBreakerTest::fail));
+        
+        assertAll(
+            () -> assertTrue(breaker.isOpen()),
+            () -> assertThrows(IOException.class, () -> breaker.execute(() -> calls.incrementAndGet())),
+            () -> assertEquals(0, calls.get())
+        );
+    }
+    
+    @Test
+    public void successResetsFailures() throws IOException {
+        CircuitBreaker breaker = new CircuitBreaker(2, Duration.ofHours(1), 8);
+        
+        assertThrows(IOException.class, () -> breaker.execute(CircuitBreakerTest::fail));
+        assertEquals("ok", breaker.execute(() -> "ok"));
+        assertThrows(IOException.class, () -> breaker.execute(CircuitBreakerTest::fail));
+        
+        assertFalse(breaker.isOpen());
+    }
+    
+    @Test
+    public void trialRequestClosesCircuit() throws IOException {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ZERO, 8);
+        
+        assertThrows(IOException.class, () -> breaker.execute(CircuitBreakerTest::fail));
+        assertTrue(breaker.isOpen());
+        
+        assertAll(
+            () -> assertEquals("ok", breaker.execute(() -> "ok")),
+            () -> assertFalse(breaker.isOpen())
+        );
+    }
+    
+    @Test
+    public void failedTrialRequestKeepsCircuitOpen() {
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ZERO, 8);
+        
+        assertThrows(IOException.class, () -> breaker.execute(CircuitBreakerTest::fail));
+        assertThrows(IOException.class, () -> breaker.execute(CircuitBreakerTest::fail));
+        
+        assertTrue(breaker.isOpen());
+    }
+    
+    @Test
+    public void bulkheadRejectsExcessRequests() throws InterruptedException, IOException {
+        CircuitBreaker breaker = new CircuitBreaker(5, Duration.ofHours(1), 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        
+        Thread blocking = new Thread(() -> {
+            try {
+                breaker.execute(() -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return null;
+                });
+            } catch (IOException e) {
+                // not expected
+            }
+        });
+        blocking.start();
+        started.await();
+        
+        assertThrows(IOException.class, () -> breaker.execute(() -> "ok"));
+        
+        release.countDown();
+        blocking.join();
+        
+        assertAll(
+            () -> assertEquals("ok", breaker.execute(() -> "ok")),
+            () -> assertFalse(breaker.isOpen())
+        );
+    }
+    
+}
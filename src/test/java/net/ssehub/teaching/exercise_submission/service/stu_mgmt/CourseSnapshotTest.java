@@ -0,0 +1,54 @@
+package net.ssehub.teaching.exercise_submission.service.stu_mgmt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class CourseSnapshotTest {
+    
+    private static byte[] write(List<Course> courses) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CourseSnapshot.write(courses, out);
+        return out.toByteArray();
+    }
+    
+    @Test
+    public void coursesRoundTrip() throws IOException {
+        Participant student = new Participant("u1", "student1", Role.STUDENT);
+        Participant tutor = new Participant("u2", "tutor1", Role.TUTOR);
+        Participant formerMember = new Participant("u3", "student3", Role.STUDENT);
+        List<Course> courses = List.of(
+            new Course("c1", Map.of("student1", student, "tutor1", tutor), Map.of(
+                "a", new Assignment("a1", "a", AssignmentState.IN_PROGRESS, Collaboration.GROUP, Map.of(
+                        "g", new Group("g1", "g", Map.of("student1", student, "student3", formerMember))),
+                        List.of(new CheckConfiguration("javac", true, Map.of("version", "17", "ümlaut", "ä")))),
+                "b", new Assignment("b1", "b", null, null, null, null))),
+            new Course("c2", Map.of(), Map.of()));
+        
+        assertEquals(courses, CourseSnapshot.read(new ByteArrayInputStream(write(courses))));
+    }
+    
+    @Test
+    public void otherFormatRejected() {
+        assertThrows(IOException.class,
+            () -> CourseSnapshot.read(new ByteArrayInputStream("[{\"id\":\"c\"}]".getBytes())));
+    }
+    
+    @Test
+    public void truncatedSnapshotRejected() throws IOException {
+        byte[] snapshot = write(List.of(new Course("course", Map.of(), Map.of())));
+        
+        assertThrows(EOFException.class,
+            () -> CourseSnapshot.read(new ByteArrayInputStream(Arrays.copyOf(snapshot, snapshot.length - 3))));
+    }
+    
+}
@@ -0,0 +1,172 @@
+package net.ssehub.teaching.exercise_submission.service.stu_mgmt;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class StuMgmtClientTest {
+    
+    private HttpServer server;
+    
+    private Map<String, String> responses;
+    
+    private Map<String, String> receivedAuthorization;
+    
+    @BeforeEach
+    public void startServer() throws IOException {
+        responses = new ConcurrentHashMap<>();
+        receivedAuthorization = new ConcurrentHashMap<>();
+        
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getRawPath();
+            String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+            if (authorization != null) {
+                receivedAuthorization.put(path, authorization);
+            }
+            
+            String body = responses.get(path);
+            int status = 404;
+            if (body != null && body.startsWith("status:")) {
+                status = Integer.parseInt(body.substring("status:".length()));
+                body = "";
+            } else if (body != null) {
+                status = 200;
+            } else {
+                body = "";
+            }
+            
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length > 0 ? bytes.length : -1);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+    }
+    
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+    
+    private StuMgmtClient createClient(String token) {
+        return new StuMgmtClient("http://localhost:" + server.getAddress().getPort() + "/", token,
+                Duration.ofSeconds(5), new CircuitBreaker(5, Duration.ofMinutes(1), 8));
+    }
+    
+    private void addCourse() {
+        responses.put("/courses/java-wise2223", "{\"id\":\"java-wise2223\",\"title\":\"Java\"}");
+        responses.put("/courses/java-wise2223/users", "["
+                + "{\"userId\":\"u1\",\"username\":\"student1\",\"role\":\"STUDENT\",\"displayName\":\"S1\"},"
+                + "{\"userId\":\"u2\",\"username\":\"tutor1\",\"role\":\"TUTOR\"}]");
+        responses.put("/courses/java-wise2223/assignments", "["
+                + "{\"id\":\"a1\",\"name\":\"Homework01\",\"state\":\"IN_PROGRESS\",\"collaboration\":\"GROUP\","
+                + "\"configs\":[{\"tool\":\"javac\",\"config\":\"{\\\"rejecting\\\":false,\\\"javaVersion\\\":17}\"}]},"
+                + "{\"id\":\"a2\",\"name\":\"Exam\",\"state\":\"INVISIBLE\",\"collaboration\":\"SINGLE\"}]");
+        responses.put("/courses/java-wise2223/assignments/a1/registrations", "["
+                + "{\"id\":\"g1\",\"name\":\"Group01\",\"members\":[{\"userId\":\"u1\",\"username\":\"student1\","
+                + "\"role\":\"STUDENT\"}]}]");
+    }
+    
+    @Test
+    public void courseLoaded() throws IOException {
+        addCourse();
+        
+        Optional<Course> course = createClient("").loadCourse("java-wise2223");
+        
+        Participant student = new Participant("u1", "student1", Role.STUDENT);
+        assertEquals(Optional.of(new Course("java-wise2223",
+                Map.of("student1", student, "tutor1", new Participant("u2", "tutor1", Role.TUTOR)),
+                Map.of(
+                    "Homework01", new Assignment("a1", "Homework01", AssignmentState.IN_PROGRESS, Collaboration.GROUP,
+                            Map.of("Group01", new Group("g1", "Group01", Map.of("student1", student))),
+                            List.of(new CheckConfiguration("javac", false, Map.of("javaVersion", "17")))),
+                    "Exam", new Assignment("a2", "Exam", AssignmentState.INVISIBLE, Collaboration.SINGLE,
+                            Map.of(), List.of())))),
+                course);
+    }
+    
+    @Test
+    public void tokenSent() throws IOException {
+        addCourse();
+        
+        createClient("secret").loadCourse("java-wise2223");
+        
+        assertAll(
+            () -> assertEquals("Bearer secret", receivedAuthorization.get("/courses/java-wise2223")),
+            () -> assertEquals("Bearer secret", receivedAuthorization.get("/courses/java-wise2223/users"))
+        );
+    }
+    
+    @Test
+    public void missingCourseEmpty() throws IOException {
+        assertEquals(Optional.empty(), createClient("").loadCourse("does-not-exist"));
+    }
+    
+    @Test
+    public void serverErrorThrows() {
+        addCourse();
+        responses.put("/courses/java-wise2223/users", "status:500");
+        
+        StuMgmtClient client = createClient("");
+        
+        assertThrows(IOException.class, () -> client.loadCourse("java-wise2223"));
+    }
+    
+    @Test
+    public void invalidResponseThrows() {
+        addCourse();
+        responses.put("/courses/java-wise2223/assignments", "{not json");
+        
+        StuMgmtClient client = createClient("");
+        
+        assertThrows(IOException.class, () -> client.loadCourse("java-wise2223"));
+    }
+    
+    @Test
+    public void noUrlConfiguredNoCourses() throws IOException {
+        addCourse();
+        
+        StuMgmtClient client = new StuMgmtClient("", "", Duration.ofSeconds(5),
+                new CircuitBreaker(5, Duration.ofMinutes(1), 8));
+        
+        assertAll(
+            () -> assertEquals(Optional.empty(), client.loadCourse("java-wise2223")),
+            () -> assertTrue(receivedAuthorization.isEmpty())
+        );
+    }
+    
+    @Test
+    public void failingServerOpensCircuit() {
+        StuMgmtClient client = new StuMgmtClient("http://localhost:" + server.getAddress().getPort() + "/", "",
+                Duration.ofSeconds(5), new CircuitBreaker(1, Duration.ofMinutes(1), 8));
+        
+        // course exists, but its users do not: invalid response
+        responses.put("/courses/java-wise2223", "{}");
+        
+        assertAll(
+            () -> assertThrows(IOException.class, () -> client.loadCourse("java-wise2223")),
+            () -> addCourse(),
+            () -> assertThrows(IOException.class, () -> client.loadCourse("java-wise2223"))
+        );
+    }
+    
+}
@@ -0,0 +1,418 @@
+package net.ssehub.teaching.exercise_submission.service.stu_mgmt;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class StuMgmtViewTest {
+    
+    private static final Course COURSE = new Course("c", Map.of(), Map.of());
+    
+    private static final Course UPDATED_COURSE = new Course("c", Map.of("student1",
+            new Participant("u1", "student1", Role.STUDENT)), Map.of());
+    
+    private StuMgmtView view;
+    
+    @TempDir
+    private Path snapshotDirectory;
+    
+    @AfterEach
+    public void shutdown() {
+        if (view != null) {
+            view.shutdown();
+        }
+    }
+    
+    private static StuMgmtView createView(StuMgmtClient client, Duration ttl, Duration refreshAhead) {
+        return new StuMgmtView(client, ttl, refreshAhead, Duration.ZERO, null, Duration.ofMinutes(1));
+    }
+    
+    @Test
+    public void courseCached() throws IOException {
+        StuMgmtClient client = mock(StuMgmtClient.class);
+        when(client.loadCourse("c")).thenReturn(Optional.of(COURSE));
+        
+        view = createView(client, Duration.ofHours(1), Duration.ofMinutes(1));
+        
+        assertAll(
+            () -> assertEquals(Optional.of(COURSE), view.getCourse("c")),
+            () -> assertEquals(Optional.of(COURSE), view.getCourse("c")),
+            () -> verify(client, times(1)).loadCourse("c")
+        );
+    }
+    
+    @Test
+    public void missingCourseEmpty() throws IOException {
+        StuMgmtClient client = mock(StuMgmtClient.class);
+        when(client.loadCourse("c")).thenReturn(Optional.empty());
+        
+        view = createView(client, Duration.ofHours(1), Duration.ofMinutes(1));
+        
+        assertEquals(Optional.empty(), view.getCourse("c"));
+    }
+    
+    @Test
+    public void missingCourseCachedForNegativeTtl() throws IOException {
+        StuMgmtClient client = mock(StuMgmtClient.class);
+        when(client.loadCourse("c")).thenReturn(Optional.empty());
+        
+        view = new StuMgmtView(client, Duration.ofHours(1), Duration.ofMinutes(1), Duration.ofHours(1), null,
+                Duration.ofMinutes(1));
+        
+        assertAll(
+            () -> assertEquals(Optional.empty(), view.getCourse("c")),
+            () -> assertEquals(Optional.empty(), view.getCourse("c")),
+            () -> verify(client, times(1)).loadCourse("c")
+        );
+    }
+    
+    @Test
+    public void missingCourseReloadedAfterInvalidation() throws IOException {
+        StuMgmtClient client = mock(StuMgmtClient.class);
+        when(client.loadCourse("c")).thenReturn(Optional.empty()).thenReturn(Optional.of(COURSE));
+        
+        view = new StuMgmtView(client, Duration.ofHours(1), Duration.ofMinutes(1), Duration.ofHours(1), null,
+                Duration.ofMinutes(1));
+        
+        view.getCourse("c");
+        view.invalidate("c");
+        
+        assertEquals(Optional.of(COURSE), view.getCourse("c"));
+    }
+    
+    @Test
+    public void failedLoadNotCachedAsMissing() throws IOException {
+        StuMgmtClient client = mock(StuMgmtClient.class);
+        when(client.loadCourse("c")).thenThrow(new IOException("down")).thenReturn(Optional.of(COURSE));
+        
+        view = new StuMgmtView(client, Duration.ofHours(1), Duration.ofMinutes(1), Duration.ofHours(1), null,
+                Duration.ofMinutes(1));
+        
+        assertAll(
+            () -> assertEquals(Optional.empty(), view.getCourse("c")),
+            () -> assertEquals(Optional.of(COURSE), view.getCourse("c"))
+        );
+    }
+    
+    @Test
+    public void listenersNotifiedOfLoadsAndChanges() throws IOException {
+        StuMgmtClient client = mock(StuMgmtClient.class);
+        when(client.loadCourse("c")).thenReturn(Optional.of(COURSE));
+        when(client.loadCourse("missing")).thenReturn(Optional.empty());
+        
+        view = createView(client, Duration.ofHours(1), Duration.ofMinutes(1));
+        List<Course> notified = new ArrayList<>();
+        view.addListener(notified::add);
+        
+        view.getCourse("c");
+        view.getCourse("c");
+        view.getCourse("missing");
+        view.participantAdded("c", new Participant("u1", "student1", Role.STUDENT));
+        view.invalidate("c");
+        
+        assertEquals(List.of(COURSE, UPDATED_COURSE), notified);
+    }
+    
+    @Test
+    public void concurrentMissesCoalesced() throws IOException, InterruptedException {
+        StuMgmtClient client = mock(StuMgmtClient.class);
+        when(client.loadCourse("c")).thenAnswer(invocation -> {
+            Thread.sleep(500);
+            return Optional.of(COURSE);
+        });
+        
+        view = createView(client, Duration.ofHours(1), Duration.ofMinutes(1));
+        
+        List<Optional<Course>> results = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Thread thread = new Thread(() -> {
+                Optional<Course> course = view.getCourse("c");
+                synchronized (results) {
+                    results.add(course);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        
+        assertAll(
+            () -> assertEquals(List.of(Optional.of(COURSE), Optional.of(COURSE), Optional.of(COURSE),
+                    Optional.of(COURSE), Optional.of(COURSE)), results),
+            () -> verify(client, times(1)).loadCourse("c")
+        );
+    }
+    
+    @Test
+    public void staleCourseServedWhileRefreshing() throws IOException {
+        StuMgmtClient client = mock(StuMgmtClient.class);
+        when(client.loadCourse("c")).thenReturn(Optional.of(COURSE)).thenReturn(Optional.of(UPDATED_COURSE));
+        
+        // refresh-ahead covers the whole time-to-live, so every hit triggers a background refresh
+        view = createView(client, Duration.ofHours(1), Duration.ofHours(1));
+        
+        Optional<Course> first = view.getCourse("c");
+        Optional<Course> second = view.getCourse("c");
+        verify(client, timeout(5000).times(2)).loadCourse("c");
+        
+        assertAll(
+            () -> assertEquals(Optional.of(COURSE), first),
+            () -> assertEquals(Optional.of(COURSE), second)
+        );
+        
+        long deadline = System.currentTimeMillis() + 5000;
+        Optional<Course> refreshed = view.getCourse("c");
+        while (!refreshed.equals(Optional.of(UPDATED_COURSE)) && System.currentTimeMillis() < deadline) {
+            refreshed = view.getCourse("c");
+        }
+        assertEquals(Optional.of(UPDATED_COURSE), refreshed);
+    }
+    
+    @Test
+    public void expiredCourseReloaded() throws IOException {
+        StuMgmtClient client = mock(StuMgmtClient.class);
+        when(client.loadCourse("c")).thenReturn(Optional.of(COURSE)).thenReturn(Optional.of(UPDATED_COURSE));
+        
+        view = createView(client, Duration.ZERO, Duration.ZERO);
+        
+        assertAll(
+            () -> assertEquals(Optional.of(COURSE), view.getCourse("c")),
+            () -> assertEquals(Optional.of(UPDATED_COURSE), view.getCourse("c"))
+        );
+    }
+    
+    @Test
+    public void staleCourseServedDuringOutage() throws IOException {
+        StuMgmtClient client = mock(StuMgmtClient.class);
+        when(client.loadCourse("c")).thenReturn(Optional.of(COURSE)).thenThrow(new IOException("down"));
+        
+        view = createView(client, Duration.ZERO, Duration.ZERO);
+        
+        assertAll(
+            () -> assertEquals(Optional.of(COURSE), view.getCourse("c")),
+            () -> assertEquals(Optional.of(COURSE), view.getCourse("c")),
+            () -> verify(client, times(2)).loadCourse("c")
+        );
+    }
+    
+    @Test
+    public void outageWithoutCachedCourseEmpty() throws IOException {
+        StuMgmtClient client = mock(StuMgmtClient.class);
+        when(client.loadCourse("c")).thenThrow(new IOException("down"));
+        
+        view = createView(client, Duration.ofHours(1), Duration.ofMinutes(1));
+        
+        assertEquals(Optional.empty(), view.getCourse("c"));
+    }
+    
+    private static Course courseWithGroup() {
+        Participant student1 = new Participant("u1", "student1", Role.STUDENT);
+        Participant student2 = new Participant("u2", "student2", Role.STUDENT);
+        return new Course("c", Map.of("student1", student1, "student2", student2), Map.of(
+                "a", new Assignment("a1", "a", AssignmentState.IN_PROGRESS, Collaboration.GROUP,
+                        Map.of("g", new Group("g1", "g", Map.of("student1", student1))), List.of())));
+    }
+    
+    @Test
+    public void assignmentStateUpdatedInPlace() throws IOException {
+        StuMgmtClient client = mock(StuMgmtClient.class);
+        when(client.loadCourse("c")).thenReturn(Optional.of(courseWithGroup()));
+        
+        view = createView(client, Duration.ofHours(1), Duration.ofMinutes(1));
+        view.getCourse("c");
+        view.assignmentStateChanged("c", "a1", AssignmentState.IN_REVIEW);
+        
+        assertAll(
+            () -> assertEquals(AssignmentState.IN_REVIEW,
+                    view.getCourse("c").orElseThrow().assignmentsByName().get("a").state()),
+            () -> verify(client, times(1)).loadCourse("c")
+        );
+    }
+    
+    @Test
+    public void groupMembershipUpdatedInPlace() throws IOException {
+        StuMgmtClient client = mock(StuMgmtClient.class);
+        when(client.loadCourse("c")).thenReturn(Optional.of(courseWithGroup()));
+        
+        view = createView(client, Duration.ofHours(1), Duration.ofMinutes(1));
+        view.getCourse("c");
+        view.groupMembershipChanged("c", "g1", "u2", true);
+        view.groupMembershipChanged("c", "g1", "u1", false);
+        
+        assertAll(
+            () -> assertEquals(Map.of("student2", new Participant("u2", "student2", Role.STUDENT)),
+                    view.getCourse("c").orElseThrow().assignmentsByName().get("a").groupsByNames().get("g")
+                    .participantsByName()),
+            () -> verify(client, times(1)).loadCourse("c")
+        );
+    }
+    
+    @Test
+    public void participantAddedInPlace() throws IOException {
+        StuMgmtClient client = mock(StuMgmtClient.class);
+        when(client.loadCourse("c")).thenReturn(Optional.of(COURSE));
+        
+        view = createView(client, Duration.ofHours(1), Duration.ofMinutes(1));
+        view.getCourse("c");
+        view.participantAdded("c", new Participant("u1", "student1", Role.STUDENT));
+        
+        assertAll(
+            () -> assertEquals(Optional.of(UPDATED_COURSE), view.getCourse("c")),
+            () -> verify(client, times(1)).loadCourse("c")
+        );
+    }
+    
+    @Test
+    public void unknownEntityInvalidatesCourse() throws IOException {
+        StuMgmtClient client = mock(StuMgmtClient.class);
+        when(client.loadCourse("c")).thenReturn(Optional.of(courseWithGroup()));
+        
+        view = createView(client, Duration.ofHours(1), Duration.ofMinutes(1));
+        view.getCourse("c");
+        view.assignmentStateChanged("c", "new-assignment", AssignmentState.IN_PROGRESS);
+        view.getCourse("c");
+        view.groupMembershipChanged("c", "g1", "new-user", true);
+        view.getCourse("c");
+        view.invalidate("c");
+        view.getCourse("c");
+        
+        verify(client, times(4)).loadCourse("c");
+    }
+    
+    @Test
+    public void loadRunningDuringChangeNotCached() throws IOException, InterruptedException {
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch changeApplied = new CountDownLatch(1);
+        StuMgmtClient client = mock(StuMgmtClient.class);
+        when(client.loadCourse("c")).thenAnswer(invocation -> {
+            loadStarted.countDown();
+            changeApplied.await();
+            return Optional.of(COURSE);
+        }).thenReturn(Optional.of(UPDATED_COURSE));
+        
+        view = createView(client, Duration.ofHours(1), Duration.ofMinutes(1));
+        Thread loader = new Thread(() -> view.getCourse("c"));
+        loader.start();
+        loadStarted.await();
+        view.invalidate("c");
+        changeApplied.countDown();
+        loader.join();
+        
+        assertAll(
+            () -> assertEquals(Optional.of(UPDATED_COURSE), view.getCourse("c")),
+            () -> verify(client, times(2)).loadCourse("c")
+        );
+    }
+    
+    @Test
+    public void changeDuringSlowRefreshKept() throws IOException, InterruptedException {
+        CountDownLatch refreshStarted = new CountDownLatch(1);
+        CountDownLatch changeApplied = new CountDownLatch(1);
+        StuMgmtClient client = mock(StuMgmtClient.class);
+        when(client.loadCourse("c")).thenReturn(Optional.of(COURSE)).thenAnswer(invocation -> {
+            refreshStarted.countDown();
+            changeApplied.await();
+            return Optional.of(COURSE);
+        });
+        
+        view = createView(client, Duration.ZERO, Duration.ZERO);
+        view.getCourse("c");
+        
+        List<Optional<Course>> refreshed = new ArrayList<>();
+        Thread loader = new Thread(() -> refreshed.add(view.getCourse("c")));
+        loader.start();
+        refreshStarted.await();
+        view.participantAdded("c", new Participant("u1", "student1", Role.STUDENT));
+        changeApplied.countDown();
+        loader.join();
+        
+        assertAll(
+            () -> assertEquals(List.of(Optional.of(UPDATED_COURSE)), refreshed),
+            () -> assertEquals(List.of(UPDATED_COURSE), view.getCachedCourses()),
+            () -> verify(client, times(2)).loadCourse("c")
+        );
+    }
+    
+    @Test
+    public void snapshotRestoredAndRefreshedInBackground() throws IOException {
+        Path snapshot = snapshotDirectory.resolve("courses.bin.gz");
+        
+        StuMgmtClient client = mock(StuMgmtClient.class);
+        when(client.loadCourse("c")).thenReturn(Optional.of(courseWithGroup()));
+        StuMgmtView previous = new StuMgmtView(client, Duration.ofHours(1), Duration.ofMinutes(1), Duration.ZERO,
+                snapshot, Duration.ofMinutes(1));
+        previous.getCourse("c");
+        previous.shutdown();
+        
+        StuMgmtClient restartedClient = mock(StuMgmtClient.class);
+        when(restartedClient.loadCourse("c")).thenThrow(new IOException("down"));
+        view = new StuMgmtView(restartedClient, Duration.ofHours(1), Duration.ofMinutes(1), Duration.ZERO,
+                snapshot, Duration.ofMinutes(1));
+        view.loadSnapshot();
+        
+        assertAll(
+            () -> assertTrue(Files.isRegularFile(snapshot)),
+            () -> assertEquals(Optional.of(courseWithGroup()), view.getCourse("c")),
+            () -> verify(restartedClient, timeout(5000).times(1)).loadCourse("c"),
+            () -> assertEquals(Optional.of(courseWithGroup()), view.getCourse("c"))
+        );
+    }
+    
+    @Test
+    public void snapshotContainsCheckConfigurations() throws IOException {
+        Path snapshot = snapshotDirectory.resolve("courses.bin.gz");
+        Course course = new Course("c", Map.of(), Map.of("a", new Assignment("a1", "a", AssignmentState.IN_PROGRESS,
+                Collaboration.SINGLE, Map.of(), List.of(new CheckConfiguration("javac", true, Map.of(
+                        CheckConfiguration.TIER_PROPERTY, CheckConfiguration.TIER_DEFERRED))))));
+        
+        StuMgmtClient client = mock(StuMgmtClient.class);
+        when(client.loadCourse("c")).thenReturn(Optional.of(course));
+        StuMgmtView previous = new StuMgmtView(client, Duration.ofHours(1), Duration.ofMinutes(1), Duration.ZERO,
+                snapshot, Duration.ofMinutes(1));
+        previous.getCourse("c");
+        previous.writeSnapshot();
+        
+        view = new StuMgmtView(mock(StuMgmtClient.class), Duration.ofHours(1), Duration.ofMinutes(1), Duration.ZERO,
+                snapshot, Duration.ofMinutes(1));
+        view.loadSnapshot();
+        
+        assertEquals(Optional.of(course), view.getCourse("c"));
+    }
+    
+    @Test
+    public void corruptSnapshotIgnored() throws IOException {
+        Path snapshot = snapshotDirectory.resolve("courses.bin.gz");
+        Files.writeString(snapshot, "not a snapshot");
+        
+        StuMgmtClient client = mock(StuMgmtClient.class);
+        when(client.loadCourse("c")).thenReturn(Optional.of(COURSE));
+        view = new StuMgmtView(client, Duration.ofHours(1), Duration.ofMinutes(1), Duration.ZERO,
+                snapshot, Duration.ofMinutes(1));
+        view.loadSnapshot();
+        
+        assertEquals(Optional.of(COURSE), view.getCourse("c"));
+    }
+    
+}
@@ -0,0 +1,142 @@
+package net.ssehub.teaching.exercise_submission.service.submission;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.ssehub.teaching.exercise_submission.service.storage.ISubmissionStorage;
+import net.ssehub.teaching.exercise_submission.service.storage.StorageException;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckEngine;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckNode;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckResult;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckResultCache;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage.MessageType;
+
+public class DeferredCheckRunnerTest {
+    
+    private static final SubmissionTarget TARGET = new SubmissionTarget("c", "a", "g");
+    
+    private static final CheckResult RESULT = new CheckResult(false,
+            List.of(new ResultMessage("deferred", MessageType.ERROR, "checked")));
+    
+    @TempDir
+    private Path pendingDirectory;
+    
+    private CheckEngine engine = new CheckEngine(2, Duration.ofSeconds(60), Duration.ofSeconds(60),
+            new CheckResultCache(10));
+    
+    private DeferredCheckRunner runner;
+    
+    @AfterEach
+    public void shutdown() {
+        if (runner != null) {
+            runner.shutdown();
+        }
+    }
+    
+    private static List<CheckNode> graph() {
+        return List.of(new CheckNode("deferred", (submission, directory) -> RESULT, true, Set.of()));
+    }
+    
+    private static Version version(long second) {
+        return new Version("s", Instant.ofEpochSecond(second));
+    }
+    
+    private static void awaitNotPending(DeferredCheckRunner runner, Version version) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (runner.isPending(TARGET, version) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+    
+    @Test
+    public void resultStoredAndNoLongerPending() throws StorageException, IOException, InterruptedException {
+        ISubmissionStorage storage = mock(ISubmissionStorage.class);
+        when(storage.getSubmission(any(), any())).thenReturn(new SubmissionBuilder("s").build());
+        runner = new DeferredCheckRunner(1, 10, pendingDirectory, engine, storage);
+        
+        runner.schedule(TARGET, version(1), graph());
+        
+        verify(storage, timeout(5000)).storeDeferredCheckResult(eq(TARGET), eq(version(1)),
+                argThat(recorded -> recorded.result().equals(RESULT)));
+        awaitNotPending(runner, version(1));
+        assertFalse(runner.isPending(TARGET, version(1)));
+    }
+    
+    @Test
+    public void failedRunResumedAfterRestart() throws StorageException, IOException, InterruptedException {
+        ISubmissionStorage failingStorage = mock(ISubmissionStorage.class);
+        when(failingStorage.getSubmission(any(), any())).thenThrow(new StorageException("unavailable"));
+        DeferredCheckRunner failingRunner = new DeferredCheckRunner(1, 10, pendingDirectory, engine, failingStorage);
+        failingRunner.schedule(TARGET, version(1), graph());
+        verify(failingStorage, timeout(5000)).getSubmission(TARGET, version(1));
+        failingRunner.shutdown();
+        
+        ISubmissionStorage storage = mock(ISubmissionStorage.class);
+        when(storage.getSubmission(any(), any())).thenReturn(new SubmissionBuilder("s").build());
+        runner = new DeferredCheckRunner(1, 10, pendingDirectory, engine, storage);
+        boolean pendingBeforeResume = runner.isPending(TARGET, version(1));
+        runner.resume(target -> graph());
+        
+        verify(storage, timeout(5000)).storeDeferredCheckResult(eq(TARGET), eq(version(1)),
+                argThat(recorded -> recorded.result().equals(RESULT)));
+        awaitNotPending(runner, version(1));
+        
+        assertAll(
+            () -> assertTrue(pendingBeforeResume),
+            () -> assertFalse(runner.isPending(TARGET, version(1)))
+        );
+    }
+    
+    @Test
+    public void overflowedRunQueuedWhenRoomAgain() throws StorageException, IOException, InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<CheckNode> blocking = List.of(new CheckNode("deferred", (submission, directory) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return RESULT;
+        }, true, Set.of()));
+        
+        ISubmissionStorage storage = mock(ISubmissionStorage.class);
+        when(storage.getSubmission(any(), any())).thenReturn(new SubmissionBuilder("s").build());
+        runner = new DeferredCheckRunner(1, 1, pendingDirectory, engine, storage);
+        runner.resume(target -> blocking);
+        
+        runner.schedule(TARGET, version(1), blocking);
+        runner.schedule(TARGET, version(2), blocking);
+        runner.schedule(TARGET, version(3), blocking);
+        boolean overflowedPending = runner.isPending(TARGET, version(3));
+        release.countDown();
+        
+        assertAll(
+            () -> assertTrue(overflowedPending),
+            () -> verify(storage, timeout(5000)).storeDeferredCheckResult(eq(TARGET), eq(version(1)), any()),
+            () -> verify(storage, timeout(5000)).storeDeferredCheckResult(eq(TARGET), eq(version(2)), any()),
+            () -> verify(storage, timeout(5000)).storeDeferredCheckResult(eq(TARGET), eq(version(3)), any())
+        );
+    }
+    
+}
@@ -0,0 +1,90 @@
+package net.ssehub.teaching.exercise_submission.service.submission;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class MemoryBudgetTest {
+    
+    private SimpleMeterRegistry registry;
+    
+    @BeforeEach
+    public void setup() {
+        registry = new SimpleMeterRegistry();
+    }
+    
+    @Test
+    public void reservationIsMultipleOfContentLength() {
+        MemoryBudget budget = new MemoryBudget(DataSize.ofMegabytes(1), 4, Duration.ZERO, registry);
+        
+        assertEquals(4000, budget.getReservation(1000));
+    }
+    
+    @Test
+    public void reservedMemoryExportedAsGauge() throws InterruptedException {
+        MemoryBudget budget = new MemoryBudget(DataSize.ofMegabytes(1), 4, Duration.ZERO, registry);
+        
+        assertTrue(budget.tryReserve(DataSize.ofKilobytes(100).toBytes()));
+        double reserved = registry.get("upload.memory.reserved").gauge().value();
+        budget.release(DataSize.ofKilobytes(100).toBytes());
+        
+        assertAll(
+            () -> assertEquals(DataSize.ofKilobytes(100).toBytes(), reserved),
+            () -> assertEquals(0, budget.getReservedBytes())
+        );
+    }
+    
+    @Test
+    public void exhaustedBudgetRejects() throws InterruptedException {
+        MemoryBudget budget = new MemoryBudget(DataSize.ofMegabytes(1), 4, Duration.ofMillis(50), registry);
+        
+        assertTrue(budget.tryReserve(DataSize.ofKilobytes(800).toBytes()));
+        
+        assertAll(
+            () -> assertFalse(budget.tryReserve(DataSize.ofKilobytes(300).toBytes())),
+            () -> assertTrue(budget.tryReserve(DataSize.ofKilobytes(200).toBytes())),
+            () -> assertEquals(1, registry.counter("upload.memory.rejected").count())
+        );
+    }
+    
+    @Test
+    public void waitingRequestAdmittedWhenMemoryReleased() throws InterruptedException {
+        MemoryBudget budget = new MemoryBudget(DataSize.ofMegabytes(1), 4, Duration.ofSeconds(10), registry);
+        long all = DataSize.ofMegabytes(1).toBytes();
+        assertTrue(budget.tryReserve(all));
+        
+        Thread releasing = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            budget.release(all);
+        });
+        releasing.start();
+        
+        assertTrue(budget.tryReserve(1000));
+        releasing.join();
+    }
+    
+    @Test
+    public void reservationLargerThanBudgetNeverFits() throws InterruptedException {
+        MemoryBudget budget = new MemoryBudget(DataSize.ofMegabytes(1), 4, Duration.ofSeconds(10), registry);
+        
+        assertAll(
+            () -> assertFalse(budget.fits(DataSize.ofMegabytes(2).toBytes())),
+            () -> assertFalse(budget.tryReserve(DataSize.ofMegabytes(2).toBytes())),
+            () -> assertTrue(budget.fits(DataSize.ofMegabytes(1).toBytes()))
+        );
+    }
+    
+}
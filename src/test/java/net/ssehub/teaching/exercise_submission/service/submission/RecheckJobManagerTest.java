@@ -0,0 +1,207 @@
+package net.ssehub.teaching.exercise_submission.service.submission;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ssehub.teaching.exercise_submission.service.auth.AuthManager;
+import net.ssehub.teaching.exercise_submission.service.dto.RecheckJobDto;
+import net.ssehub.teaching.exercise_submission.service.dto.RecheckJobDto.State;
+import net.ssehub.teaching.exercise_submission.service.storage.GroupProvisioner;
+import net.ssehub.teaching.exercise_submission.service.storage.ISubmissionStorage;
+import net.ssehub.teaching.exercise_submission.service.storage.NoSuchTargetException;
+import net.ssehub.teaching.exercise_submission.service.storage.StorageException;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.StuMgmtView;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckEngine;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckRegistry;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckResult;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckResultCache;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckScheduler;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage.MessageType;
+
+public class RecheckJobManagerTest {
+    
+    @TempDir
+    private Path progressDirectory;
+    
+    @TempDir
+    private Path pendingDirectory;
+    
+    private RecheckJobManager createdJobManager;
+    
+    @AfterEach
+    public void shutdown() {
+        if (createdJobManager != null) {
+            createdJobManager.shutdown();
+        }
+    }
+    
+    private RecheckJobManager createJobManager(ISubmissionStorage storage) throws IOException {
+        CheckEngine engine = new CheckEngine(2, Duration.ofSeconds(60), Duration.ofSeconds(60),
+                new CheckResultCache(10));
+        CheckScheduler scheduler = new CheckScheduler(2, 10, 10, "", mock(AuthManager.class),
+                new SimpleMeterRegistry());
+        SubmissionManager submissionManager = new SubmissionManager(storage, engine, scheduler,
+                new DeferredCheckRunner(1, 10, pendingDirectory, engine, storage),
+                new CheckRegistry(List.of(), mock(StuMgmtView.class)), mock(GroupProvisioner.class));
+        submissionManager.addCheck((submission, directory) -> new CheckResult(false,
+                List.of(new ResultMessage("test", MessageType.ERROR, "re-checked " + submission.getAuthor()))));
+        
+        createdJobManager = new RecheckJobManager(2, Duration.ZERO, progressDirectory, storage, submissionManager,
+                scheduler);
+        return createdJobManager;
+    }
+    
+    private static RecheckJobDto awaitFinished(RecheckJobManager jobManager, String course, String assignment)
+            throws InterruptedException {
+        
+        long deadline = System.currentTimeMillis() + 10_000;
+        RecheckJobDto job = jobManager.getJob(course, assignment).orElseThrow();
+        while (job.state() != State.FINISHED && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            job = jobManager.getJob(course, assignment).orElseThrow();
+        }
+        return job;
+    }
+    
+    @Test
+    public void latestVersionOfEachGroupRechecked() throws StorageException, IOException, InterruptedException {
+        ISubmissionStorage storage = mock(ISubmissionStorage.class);
+        SubmissionTarget group1 = new SubmissionTarget("c", "a", "g1");
+        SubmissionTarget group2 = new SubmissionTarget("c", "a", "g2");
+        Version latest = new Version("student1", Instant.ofEpochSecond(2000));
+        Version older = new Version("student1", Instant.ofEpochSecond(1000));
+        
+        when(storage.getGroupNames("c", "a")).thenReturn(List.of("g1", "g2"));
+        when(storage.getVersions(group1)).thenReturn(List.of(latest, older));
+        when(storage.getVersions(group2)).thenReturn(List.of());
+        when(storage.getSubmission(group1, latest)).thenReturn(new SubmissionBuilder("student1").build());
+        
+        RecheckJobManager jobManager = createJobManager(storage);
+        jobManager.start("c", "a");
+        RecheckJobDto job = awaitFinished(jobManager, "c", "a");
+        
+        assertAll(
+            () -> assertEquals(State.FINISHED, job.state()),
+            () -> assertEquals(2, job.groups()),
+            () -> assertEquals(2, job.completed()),
+            () -> assertEquals(0, job.failed()),
+            () -> verify(storage).storeDeferredCheckResult(eq(group1), eq(latest), any()),
+            () -> verify(storage, never()).storeDeferredCheckResult(eq(group1), eq(older), any()),
+            () -> verify(storage, never()).storeDeferredCheckResult(eq(group2), any(), any()),
+            () -> assertTrue(Files.isRegularFile(progressDirectory.resolve("c/a.json")))
+        );
+    }
+    
+    @Test
+    public void failingGroupCounted() throws StorageException, IOException, InterruptedException {
+        ISubmissionStorage storage = mock(ISubmissionStorage.class);
+        when(storage.getGroupNames("c", "a")).thenReturn(List.of("g1", "g2"));
+        when(storage.getVersions(new SubmissionTarget("c", "a", "g1"))).thenThrow(new StorageException("mock"));
+        when(storage.getVersions(new SubmissionTarget("c", "a", "g2"))).thenReturn(List.of());
+        
+        RecheckJobManager jobManager = createJobManager(storage);
+        jobManager.start("c", "a");
+        RecheckJobDto job = awaitFinished(jobManager, "c", "a");
+        
+        assertAll(
+            () -> assertEquals(State.FINISHED, job.state()),
+            () -> assertEquals(1, job.completed()),
+            () -> assertEquals(1, job.failed())
+        );
+    }
+    
+    @Test
+    public void runtimeFailureCountedAndJobFinishes() throws StorageException, IOException, InterruptedException {
+        ISubmissionStorage storage = mock(ISubmissionStorage.class);
+        SubmissionTarget group1 = new SubmissionTarget("c", "a", "g1");
+        Version latest = new Version("student1", Instant.ofEpochSecond(2000));
+        when(storage.getGroupNames("c", "a")).thenReturn(List.of("g1"));
+        when(storage.getVersions(group1)).thenReturn(List.of(latest));
+        when(storage.getSubmission(group1, latest)).thenThrow(new IllegalArgumentException("mock"));
+        
+        RecheckJobManager jobManager = createJobManager(storage);
+        jobManager.start("c", "a");
+        RecheckJobDto job = awaitFinished(jobManager, "c", "a");
+        
+        assertAll(
+            () -> assertEquals(State.FINISHED, job.state()),
+            () -> assertEquals(0, job.completed()),
+            () -> assertEquals(1, job.failed())
+        );
+    }
+    
+    @Test
+    public void unfinishedJobResumed() throws StorageException, IOException, InterruptedException {
+        Files.createDirectories(progressDirectory.resolve("c"));
+        Files.writeString(progressDirectory.resolve("c/a.json"), "{\"course\":\"c\",\"assignment\":\"a\","
+                + "\"groups\":[\"g1\",\"g2\"],\"completed\":[\"g1\"],\"failed\":[],\"startedAt\":1635177322000}");
+        
+        ISubmissionStorage storage = mock(ISubmissionStorage.class);
+        when(storage.getVersions(any())).thenReturn(List.of());
+        
+        RecheckJobManager jobManager = createJobManager(storage);
+        jobManager.resume();
+        RecheckJobDto job = awaitFinished(jobManager, "c", "a");
+        
+        assertAll(
+            () -> assertEquals(State.FINISHED, job.state()),
+            () -> assertEquals(2, job.completed()),
+            () -> assertEquals(1635177322, job.startedAt()),
+            () -> verify(storage, never()).getVersions(new SubmissionTarget("c", "a", "g1")),
+            () -> verify(storage).getVersions(new SubmissionTarget("c", "a", "g2")),
+            () -> assertTrue(Files.readString(progressDirectory.resolve("c/a.json"))
+                    .contains("\"completed\":[\"g1\",\"g2\"]"))
+        );
+    }
+    
+    @Test
+    public void finishedJobNotResumed() throws StorageException, IOException {
+        Files.createDirectories(progressDirectory.resolve("c"));
+        Files.writeString(progressDirectory.resolve("c/a.json"), "{\"course\":\"c\",\"assignment\":\"a\","
+                + "\"groups\":[\"g1\"],\"completed\":[\"g1\"],\"failed\":[],\"startedAt\":1635177322000}");
+        
+        ISubmissionStorage storage = mock(ISubmissionStorage.class);
+        
+        RecheckJobManager jobManager = createJobManager(storage);
+        jobManager.resume();
+        
+        assertEquals(Optional.empty(), jobManager.getJob("c", "a"));
+    }
+    
+    @Test
+    public void nonExistingAssignmentThrows() throws StorageException, IOException {
+        ISubmissionStorage storage = mock(ISubmissionStorage.class);
+        when(storage.getGroupNames("c", "a")).thenThrow(new NoSuchTargetException("c", "a"));
+        
+        RecheckJobManager jobManager = createJobManager(storage);
+        
+        assertAll(
+            () -> assertThrows(NoSuchTargetException.class, () -> jobManager.start("c", "a")),
+            () -> assertFalse(jobManager.getJob("c", "a").isPresent())
+        );
+    }
+    
+}
@@ -4,28 +4,89 @@ import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ssehub.teaching.exercise_submission.service.auth.AuthManager;
 import net.ssehub.teaching.exercise_submission.service.dto.CheckMessageDto;
+import net.ssehub.teaching.exercise_submission.service.dto.CheckRunDto;
+import net.ssehub.teaching.exercise_submission.service.dto.DeferredCheckResultDto;
+import net.ssehub.teaching.exercise_submission.service.dto.DeferredCheckResultDto.State;
 import net.ssehub.teaching.exercise_submission.service.dto.SubmissionResultDto;
+import net.ssehub.teaching.exercise_submission.service.dto.VersionChecksDto;
+import net.ssehub.teaching.exercise_submission.service.storage.GroupProvisioner;
 import net.ssehub.teaching.exercise_submission.service.storage.ISubmissionStorage;
+import net.ssehub.teaching.exercise_submission.service.storage.NoSuchTargetException;
 import net.ssehub.teaching.exercise_submission.service.storage.StorageException;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Assignment;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.AssignmentState;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.CheckConfiguration;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Collaboration;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Course;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.StuMgmtView;
 import net.ssehub.teaching.exercise_submission.service.submission.checks.Check;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckEngine;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckQueueFullException;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckRegistry;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckResult;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckResultCache;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckScheduler;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ICheck;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ICheckFactory;
 import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage;
 import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage.MessageType;
 
 public class SubmissionManagerTest {
     
+    @TempDir
+    private Path pendingDirectory;
+    
+    private DeferredCheckRunner createDeferredCheckRunner(CheckEngine engine, ISubmissionStorage storage) {
+        return assertDoesNotThrow(() -> new DeferredCheckRunner(1, 10, pendingDirectory, engine, storage));
+    }
+    
+    private SubmissionManager createManager(ISubmissionStorage storage) {
+        return createManager(storage, new CheckRegistry(List.of(), mock(StuMgmtView.class)));
+    }
+    
+    private SubmissionManager createManager(ISubmissionStorage storage, CheckRegistry registry) {
+        return createManager(storage, registry, mock(GroupProvisioner.class));
+    }
+    
+    private SubmissionManager createManager(ISubmissionStorage storage, CheckRegistry registry,
+            GroupProvisioner provisioner) {
+        CheckEngine engine = new CheckEngine(2, Duration.ofSeconds(60), Duration.ofSeconds(60),
+                new CheckResultCache(10));
+        return new SubmissionManager(storage, engine,
+                new CheckScheduler(2, 10, 10, "", mock(AuthManager.class), new SimpleMeterRegistry()),
+                createDeferredCheckRunner(engine, storage), registry, provisioner);
+    }
+    
     @Test
     public void failedCheckNotAcceptedAndNotStored() throws StorageException {
         ISubmissionStorage storage = mock(ISubmissionStorage.class);
@@ -33,7 +94,7 @@ public class SubmissionManagerTest {
         Check check = mock(Check.class);
         when(check.run(any())).thenReturn(false);
         
-        SubmissionManager manager = new SubmissionManager(storage);
+        SubmissionManager manager = createManager(storage);
         manager.addCheck(check);
         
         SubmissionTarget target = new SubmissionTarget("c", "a", "g");
@@ -53,7 +114,7 @@ public class SubmissionManagerTest {
         Check check = mock(Check.class);
         when(check.run(any())).thenReturn(true);
         
-        SubmissionManager manager = new SubmissionManager(storage);
+        SubmissionManager manager = createManager(storage);
         manager.addCheck(check);
         
         SubmissionTarget target = new SubmissionTarget("c", "a", "g");
@@ -74,7 +135,7 @@ public class SubmissionManagerTest {
         when(check.run(any())).thenReturn(false);
         when(check.getResultMessages()).thenReturn(List.of(new ResultMessage("test", MessageType.ERROR, "mock")));
         
-        SubmissionManager manager = new SubmissionManager(storage);
+        SubmissionManager manager = createManager(storage);
         manager.addCheck(check);
         
         SubmissionTarget target = new SubmissionTarget("c", "a", "g");
@@ -92,7 +153,7 @@ public class SubmissionManagerTest {
         when(check.run(any())).thenReturn(true);
         when(check.getResultMessages()).thenReturn(List.of(new ResultMessage("test", MessageType.ERROR, "mock")));
         
-        SubmissionManager manager = new SubmissionManager(storage);
+        SubmissionManager manager = createManager(storage);
         manager.addCheck(check);
         
         SubmissionTarget target = new SubmissionTarget("c", "a", "g");
@@ -102,4 +163,313 @@ public class SubmissionManagerTest {
         assertEquals(List.of(new CheckMessageDto("test", MessageType.ERROR, "mock")), result.messages());
     }
     
+    @Test
+    public void deferredCheckRunsAfterVersionStored() throws StorageException, CheckQueueFullException {
+        ISubmissionStorage storage = mock(ISubmissionStorage.class);
+        SubmissionTarget target = new SubmissionTarget("c", "a", "g");
+        Submission submission = new SubmissionBuilder("s").build();
+        Version version = new Version("s", Instant.ofEpochSecond(123456));
+        when(storage.submitNewVersion(target, submission)).thenReturn(version);
+        when(storage.getSubmission(target, version)).thenReturn(submission);
+        
+        CheckResult deferredResult = new CheckResult(false,
+                List.of(new ResultMessage("junit", MessageType.ERROR, "test failed")));
+        
+        SubmissionManager manager = createManager(storage);
+        manager.addCheck(new CheckConfiguration("javac", true, Map.of()),
+            (sub, directory) -> new CheckResult(true, List.of()));
+        manager.addCheck(new CheckConfiguration("junit", true, Map.of(
+                CheckConfiguration.TIER_PROPERTY, CheckConfiguration.TIER_DEFERRED,
+                CheckConfiguration.DEPENDS_ON_PROPERTY, "javac")),
+            (sub, directory) -> deferredResult);
+        
+        SubmissionResultDto result = manager.submit(target, submission);
+        
+        assertAll(
+            () -> assertTrue(result.accepted()),
+            () -> assertEquals(List.of(), result.messages()),
+            () -> verify(storage, timeout(5000)).storeDeferredCheckResult(eq(target), eq(version),
+                    argThat(recorded -> recorded.result().equals(deferredResult)))
+        );
+    }
+    
+    @Test
+    public void deferredCheckSkippedIfNonRejectingInlineDependencyFailed()
+            throws StorageException, CheckQueueFullException {
+        ISubmissionStorage storage = mock(ISubmissionStorage.class);
+        SubmissionTarget target = new SubmissionTarget("c", "a", "g");
+        Submission submission = new SubmissionBuilder("s").build();
+        Version version = new Version("s", Instant.ofEpochSecond(123456));
+        when(storage.submitNewVersion(target, submission)).thenReturn(version);
+        when(storage.getSubmission(target, version)).thenReturn(submission);
+        
+        AtomicBoolean deferredRun = new AtomicBoolean();
+        
+        SubmissionManager manager = createManager(storage);
+        manager.addCheck(new CheckConfiguration("javac", false, Map.of()),
+            (sub, directory) -> new CheckResult(false,
+                    List.of(new ResultMessage("javac", MessageType.ERROR, "does not compile"))));
+        manager.addCheck(new CheckConfiguration("junit", true, Map.of(
+                CheckConfiguration.TIER_PROPERTY, CheckConfiguration.TIER_DEFERRED,
+                CheckConfiguration.DEPENDS_ON_PROPERTY, "javac")),
+            (sub, directory) -> {
+                deferredRun.set(true);
+                return new CheckResult(true, List.of());
+            });
+        
+        SubmissionResultDto result = manager.submit(target, submission);
+        
+        assertAll(
+            () -> assertTrue(result.accepted()),
+            () -> verify(storage, timeout(5000)).storeDeferredCheckResult(eq(target), eq(version),
+                    argThat(recorded -> recorded.result().equals(new CheckResult(true, List.of())))),
+            () -> assertFalse(deferredRun.get())
+        );
+    }
+    
+    @Test
+    public void deferredCheckRunsIfNonRejectingInlineDependencyPassed()
+            throws StorageException, CheckQueueFullException {
+        ISubmissionStorage storage = mock(ISubmissionStorage.class);
+        SubmissionTarget target = new SubmissionTarget("c", "a", "g");
+        Submission submission = new SubmissionBuilder("s").build();
+        Version version = new Version("s", Instant.ofEpochSecond(123456));
+        when(storage.submitNewVersion(target, submission)).thenReturn(version);
+        when(storage.getSubmission(target, version)).thenReturn(submission);
+        
+        CheckResult deferredResult = new CheckResult(false,
+                List.of(new ResultMessage("junit", MessageType.ERROR, "test failed")));
+        
+        SubmissionManager manager = createManager(storage);
+        manager.addCheck(new CheckConfiguration("javac", false, Map.of()),
+            (sub, directory) -> new CheckResult(true,
+                    List.of(new ResultMessage("javac", MessageType.WARNING, "unchecked cast"))));
+        manager.addCheck(new CheckConfiguration("junit", true, Map.of(
+                CheckConfiguration.TIER_PROPERTY, CheckConfiguration.TIER_DEFERRED,
+                CheckConfiguration.DEPENDS_ON_PROPERTY, "javac")),
+            (sub, directory) -> deferredResult);
+        
+        manager.submit(target, submission);
+        
+        verify(storage, timeout(5000)).storeDeferredCheckResult(eq(target), eq(version),
+                argThat(recorded -> recorded.result().equals(deferredResult)));
+    }
+    
+    @Test
+    public void missingGroupProvisionedOnDemand() throws StorageException, CheckQueueFullException {
+        ISubmissionStorage storage = mock(ISubmissionStorage.class);
+        GroupProvisioner provisioner = mock(GroupProvisioner.class);
+        SubmissionTarget target = new SubmissionTarget("c", "a", "g");
+        Submission submission = new SubmissionBuilder("s").build();
+        Version version = new Version("s", Instant.ofEpochSecond(123456));
+        when(storage.submitNewVersion(target, submission))
+                .thenThrow(new NoSuchTargetException(target))
+                .thenReturn(version);
+        when(provisioner.provision(target)).thenReturn(true);
+        
+        SubmissionManager manager = createManager(storage,
+                new CheckRegistry(List.of(), mock(StuMgmtView.class)), provisioner);
+        
+        SubmissionResultDto result = manager.submit(target, submission);
+        
+        assertAll(
+            () -> assertTrue(result.accepted()),
+            () -> verify(provisioner).provision(target),
+            () -> verify(storage).storeCheckResult(eq(target), eq(version), any())
+        );
+    }
+    
+    @Test
+    public void unknownGroupNotProvisioned() throws StorageException {
+        ISubmissionStorage storage = mock(ISubmissionStorage.class);
+        GroupProvisioner provisioner = mock(GroupProvisioner.class);
+        SubmissionTarget target = new SubmissionTarget("c", "a", "g");
+        Submission submission = new SubmissionBuilder("s").build();
+        when(storage.submitNewVersion(target, submission)).thenThrow(new NoSuchTargetException(target));
+        when(provisioner.provision(target)).thenReturn(false);
+        
+        SubmissionManager manager = createManager(storage,
+                new CheckRegistry(List.of(), mock(StuMgmtView.class)), provisioner);
+        
+        assertThrows(NoSuchTargetException.class, () -> manager.submit(target, submission));
+        verify(storage).submitNewVersion(target, submission);
+    }
+    
+    @Test
+    public void inlineCheckResultStoredWithVersion() throws StorageException, CheckQueueFullException {
+        ISubmissionStorage storage = mock(ISubmissionStorage.class);
+        SubmissionTarget target = new SubmissionTarget("c", "a", "g");
+        Submission submission = new SubmissionBuilder("s").build();
+        Version version = new Version("s", Instant.ofEpochSecond(123456));
+        when(storage.submitNewVersion(target, submission)).thenReturn(version);
+        
+        CheckResult checkResult = new CheckResult(true,
+                List.of(new ResultMessage("checkstyle", MessageType.WARNING, "line too long")));
+        
+        SubmissionManager manager = createManager(storage);
+        manager.addCheck(new CheckConfiguration("checkstyle", false, Map.of()),
+            (sub, directory) -> checkResult);
+        
+        Instant before = Instant.now();
+        manager.submit(target, submission);
+        
+        verify(storage).storeCheckResult(eq(target), eq(version), argThat(recorded ->
+                recorded.result().equals(checkResult)
+                && !recorded.checkedAt().isBefore(before.truncatedTo(ChronoUnit.MILLIS))
+                && !recorded.duration().isNegative()));
+    }
+    
+    @Test
+    public void failureToStoreCheckResultDoesNotRejectSubmission() throws StorageException, CheckQueueFullException {
+        ISubmissionStorage storage = mock(ISubmissionStorage.class);
+        SubmissionTarget target = new SubmissionTarget("c", "a", "g");
+        Submission submission = new SubmissionBuilder("s").build();
+        Version version = new Version("s", Instant.ofEpochSecond(123456));
+        when(storage.submitNewVersion(target, submission)).thenReturn(version);
+        doThrow(StorageException.class).when(storage).storeCheckResult(eq(target), eq(version), any());
+        
+        SubmissionManager manager = createManager(storage);
+        
+        SubmissionResultDto result = manager.submit(target, submission);
+        
+        assertTrue(result.accepted());
+    }
+    
+    @Test
+    public void deferredCheckNotRunIfRejected() throws StorageException, CheckQueueFullException {
+        ISubmissionStorage storage = mock(ISubmissionStorage.class);
+        
+        SubmissionManager manager = createManager(storage);
+        manager.addCheck(new CheckConfiguration("javac", true, Map.of()),
+            (sub, directory) -> new CheckResult(false, List.of()));
+        manager.addCheck(new CheckConfiguration("junit", true, Map.of(
+                CheckConfiguration.TIER_PROPERTY, CheckConfiguration.TIER_DEFERRED)),
+            (sub, directory) -> new CheckResult(true, List.of()));
+        
+        SubmissionResultDto result = manager.submit(new SubmissionTarget("c", "a", "g"),
+                new SubmissionBuilder("s").build());
+        
+        assertAll(
+            () -> assertFalse(result.accepted()),
+            () -> verify(storage, never()).submitNewVersion(any(), any()),
+            () -> verify(storage, never()).storeDeferredCheckResult(any(), any(), any())
+        );
+    }
+    
+    @Test
+    public void checkResultStates() throws StorageException {
+        ISubmissionStorage storage = mock(ISubmissionStorage.class);
+        SubmissionTarget target = new SubmissionTarget("c", "a", "g");
+        Version finished = new Version("s", Instant.ofEpochSecond(1));
+        Version none = new Version("s", Instant.ofEpochSecond(2));
+        when(storage.getCheckResult(target, finished)).thenReturn(Optional.of(new RecordedCheckResult(
+                new CheckResult(true, List.of()), Instant.ofEpochSecond(1), Duration.ofMillis(20))));
+        when(storage.getCheckResult(target, none)).thenReturn(Optional.empty());
+        when(storage.getDeferredCheckResult(target, finished)).thenReturn(Optional.of(new RecordedCheckResult(
+                new CheckResult(true, List.of(new ResultMessage("junit", MessageType.WARNING, "mock"))),
+                Instant.ofEpochSecond(3), Duration.ofMillis(1500))));
+        when(storage.getDeferredCheckResult(target, none)).thenReturn(Optional.empty());
+        
+        SubmissionManager manager = createManager(storage);
+        
+        assertAll(
+            () -> assertEquals(new VersionChecksDto(new CheckRunDto(true, List.of(), 1, 20),
+                    new DeferredCheckResultDto(State.FINISHED, new CheckRunDto(true,
+                            List.of(new CheckMessageDto("junit", MessageType.WARNING, "mock")), 3, 1500))),
+                    manager.getCheckResults(target, finished)),
+            () -> assertEquals(new VersionChecksDto(null, new DeferredCheckResultDto(State.NONE, null)),
+                    manager.getCheckResults(target, none))
+        );
+    }
+    
+    @Test
+    public void configuredChecksOfAssignmentRun() throws StorageException, CheckQueueFullException {
+        ICheckFactory factory = new ICheckFactory() {
+            @Override
+            public String getCheckName() {
+                return "configured";
+            }
+            
+            @Override
+            public ICheck create(CheckConfiguration configuration) {
+                return (submission, directory) -> new CheckResult(false, List.of(new ResultMessage("configured",
+                        MessageType.ERROR, configuration.properties().get("message"))));
+            }
+        };
+        
+        StuMgmtView stuMgmt = mock(StuMgmtView.class);
+        when(stuMgmt.getCourse("c")).thenReturn(Optional.of(new Course("c", Map.of(), Map.of(
+                "a", new Assignment("1", "a", AssignmentState.IN_PROGRESS, Collaboration.SINGLE, Map.of(),
+                        List.of(new CheckConfiguration("configured", true, Map.of("message", "configured fail"))))))));
+        
+        ISubmissionStorage storage = mock(ISubmissionStorage.class);
+        SubmissionManager manager = createManager(storage, new CheckRegistry(List.of(factory), stuMgmt));
+        manager.addCheck((submission, directory) -> new CheckResult(true, List.of(
+                new ResultMessage("global", MessageType.WARNING, "global warning"))));
+        
+        SubmissionResultDto configuredResult = manager.submit(new SubmissionTarget("c", "a", "g"),
+                new SubmissionBuilder("s").build());
+        SubmissionResultDto otherResult = manager.submit(new SubmissionTarget("c", "other", "g"),
+                new SubmissionBuilder("s").build());
+        
+        assertAll(
+            () -> assertFalse(configuredResult.accepted()),
+            () -> assertEquals(List.of(
+                    new CheckMessageDto("global", MessageType.WARNING, "global warning"),
+                    new CheckMessageDto("configured", MessageType.ERROR, "configured fail")),
+                    configuredResult.messages()),
+            () -> assertTrue(otherResult.accepted())
+        );
+    }
+    
+    @Test
+    public void dryRunDoesNotTouchStorageAndSharesCachedResults() throws StorageException, CheckQueueFullException {
+        AtomicInteger runs = new AtomicInteger();
+        ICheckFactory factory = new ICheckFactory() {
+            @Override
+            public String getCheckName() {
+                return "counting";
+            }
+            
+            @Override
+            public ICheck create(CheckConfiguration configuration) {
+                return (submission, directory) -> {
+                    runs.incrementAndGet();
+                    return new CheckResult(true, List.of());
+                };
+            }
+        };
+        
+        StuMgmtView stuMgmt = mock(StuMgmtView.class);
+        when(stuMgmt.getCourse("c")).thenReturn(Optional.of(new Course("c", Map.of(), Map.of(
+                "a", new Assignment("1", "a", AssignmentState.IN_PROGRESS, Collaboration.SINGLE, Map.of(),
+                        List.of(new CheckConfiguration("counting", true, Map.of())))))));
+        
+        ISubmissionStorage dryRunStorage = mock(ISubmissionStorage.class);
+        CheckEngine engine = new CheckEngine(2, Duration.ofSeconds(60), Duration.ofSeconds(60),
+                new CheckResultCache(10));
+        CheckScheduler scheduler = new CheckScheduler(2, 10, 10, "", mock(AuthManager.class),
+                new SimpleMeterRegistry());
+        CheckRegistry registry = new CheckRegistry(List.of(factory), stuMgmt);
+        
+        SubmissionManager dryRunManager = new SubmissionManager(dryRunStorage, engine, scheduler,
+                createDeferredCheckRunner(engine, dryRunStorage), registry, mock(GroupProvisioner.class));
+        SubmissionTarget target = new SubmissionTarget("c", "a", "g");
+        SubmissionResultDto dryRunResult = dryRunManager.check(target, new SubmissionBuilder("s").build());
+        
+        ISubmissionStorage storage = mock(ISubmissionStorage.class);
+        when(storage.submitNewVersion(any(), any())).thenReturn(new Version("s", Instant.ofEpochSecond(1000)));
+        SubmissionManager manager = new SubmissionManager(storage, engine, scheduler,
+                createDeferredCheckRunner(engine, storage), registry, mock(GroupProvisioner.class));
+        SubmissionResultDto submitResult = manager.submit(target, new SubmissionBuilder("s").build());
+        
+        assertAll(
+            () -> assertTrue(dryRunResult.accepted()),
+            () -> verifyNoInteractions(dryRunStorage),
+            () -> assertTrue(submitResult.accepted()),
+            () -> verify(storage).submitNewVersion(eq(target), any()),
+            () -> assertEquals(1, runs.get())
+        );
+    }
+    
 }
@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -275,4 +276,31 @@ public class SubmissionTest {
         assertEquals(submission1.hashCode(), submission2.hashCode());
     }
     
+    @Test
+    public void contentHashIgnoresAuthor() {
+        Map<Path, byte[]> files = new HashMap<>();
+        files.put(Path.of("dir/test.txt"), "some content\n".getBytes(StandardCharsets.UTF_8));
+        files.put(Path.of("other.txt"), "other content\n".getBytes(StandardCharsets.UTF_8));
+        
+        Submission submission1 = new Submission("author1", files);
+        Submission submission2 = new Submission("author2", files);
+        
+        assertEquals(submission1.getContentHash(), submission2.getContentHash());
+    }
+    
+    @Test
+    public void contentHashDiffersForDifferentContent() {
+        Submission submission1 = new Submission("author",
+                Map.of(Path.of("test.txt"), "content".getBytes(StandardCharsets.UTF_8)));
+        Submission submission2 = new Submission("author",
+                Map.of(Path.of("test.txt"), "Content".getBytes(StandardCharsets.UTF_8)));
+        Submission submission3 = new Submission("author",
+                Map.of(Path.of("test2.txt"), "content".getBytes(StandardCharsets.UTF_8)));
+        
+        assertAll(
+            () -> assertNotEquals(submission1.getContentHash(), submission2.getContentHash()),
+            () -> assertNotEquals(submission1.getContentHash(), submission3.getContentHash())
+        );
+    }
+    
 }
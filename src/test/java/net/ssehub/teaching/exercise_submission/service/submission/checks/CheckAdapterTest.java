@@ -0,0 +1,77 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.teaching.exercise_submission.service.submission.Submission;
+import net.ssehub.teaching.exercise_submission.service.submission.SubmissionBuilder;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage.MessageType;
+
+public class CheckAdapterTest {
+
+    private static class MessageCheck extends Check {
+        
+        private boolean result;
+        
+        public MessageCheck(boolean result) {
+            this.result = result;
+        }
+        
+        @Override
+        public boolean run(Path submissionDirectory) {
+            addResultMessage(new ResultMessage("mock", MessageType.WARNING, submissionDirectory.toString()));
+            return result;
+        }
+        
+        @Override
+        public boolean isIndependent() {
+            return true;
+        }
+        
+    }
+    
+    @Test
+    public void returnsResultAndMessages() {
+        Submission submission = new SubmissionBuilder("author").build();
+        CheckAdapter adapter = new CheckAdapter(new MessageCheck(false));
+        
+        CheckResult result = adapter.run(submission, Path.of("dir"));
+        
+        assertAll(
+            () -> assertFalse(result.passed()),
+            () -> assertEquals(List.of(new ResultMessage("mock", MessageType.WARNING, "dir")), result.messages())
+        );
+    }
+    
+    @Test
+    public void messagesNotSharedBetweenRuns() {
+        Submission submission = new SubmissionBuilder("author").build();
+        CheckAdapter adapter = new CheckAdapter(new MessageCheck(true));
+        
+        adapter.run(submission, Path.of("first"));
+        CheckResult result = adapter.run(submission, Path.of("second"));
+        
+        assertAll(
+            () -> assertTrue(result.passed()),
+            () -> assertEquals(List.of(new ResultMessage("mock", MessageType.WARNING, "second")), result.messages())
+        );
+    }
+    
+    @Test
+    public void delegatesIndependentAndName() {
+        CheckAdapter adapter = new CheckAdapter(new MessageCheck(true));
+        
+        assertAll(
+            () -> assertTrue(adapter.isIndependent()),
+            () -> assertEquals("MessageCheck", adapter.getName())
+        );
+    }
+    
+}
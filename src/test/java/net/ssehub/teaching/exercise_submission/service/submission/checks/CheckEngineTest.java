@@ -0,0 +1,419 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.CheckConfiguration;
+import net.ssehub.teaching.exercise_submission.service.submission.Submission;
+import net.ssehub.teaching.exercise_submission.service.submission.SubmissionBuilder;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage.MessageType;
+
+public class CheckEngineTest {
+
+    private static final Submission SUBMISSION = new SubmissionBuilder("author").build();
+
+    private CheckEngine engine;
+
+    @BeforeEach
+    public void createEngine() {
+        engine = new CheckEngine(4, Duration.ofSeconds(60), Duration.ofSeconds(60), new CheckResultCache(10));
+    }
+
+    @AfterEach
+    public void shutdownEngine() {
+        engine.shutdown();
+    }
+
+    private static class SimpleCheck implements ICheck {
+
+        private String name;
+
+        private boolean result;
+
+        private boolean independent;
+
+        private CyclicBarrier barrier;
+
+        private AtomicInteger executed = new AtomicInteger();
+
+        public SimpleCheck(String name, boolean result, boolean independent) {
+            this.name = name;
+            this.result = result;
+            this.independent = independent;
+        }
+
+        @Override
+        public CheckResult run(Submission submission, Path submissionDirectory) {
+            executed.incrementAndGet();
+            boolean parallel = true;
+            if (barrier != null) {
+                try {
+                    barrier.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+                    parallel = false;
+                }
+            }
+
+            ResultMessage message;
+            if (parallel) {
+                message = new ResultMessage(name, MessageType.WARNING, "ran");
+            } else {
+                message = new ResultMessage(name, MessageType.ERROR, "not parallel");
+            }
+            return new CheckResult(result && parallel, List.of(message));
+        }
+
+        @Override
+        public boolean isIndependent() {
+            return independent;
+        }
+
+    }
+
+    @Test
+    public void noChecksPass() {
+        CheckResult result = engine.run(List.of(), SUBMISSION, Path.of("."));
+
+        assertAll(
+            () -> assertTrue(result.passed()),
+            () -> assertEquals(List.of(), result.messages())
+        );
+    }
+
+    @Test
+    public void independentChecksRunInParallel() {
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        SimpleCheck check1 = new SimpleCheck("one", true, true);
+        check1.barrier = barrier;
+        SimpleCheck check2 = new SimpleCheck("two", true, true);
+        check2.barrier = barrier;
+
+        CheckResult result = engine.run(List.of(check1, check2), SUBMISSION, Path.of("."));
+
+        assertAll(
+            () -> assertTrue(result.passed()),
+            () -> assertEquals(List.of(
+                    new ResultMessage("one", MessageType.WARNING, "ran"),
+                    new ResultMessage("two", MessageType.WARNING, "ran")), result.messages())
+        );
+    }
+
+    @Test
+    public void messagesInOrderOfChecks() {
+        List<ICheck> checks = List.of(
+                new SimpleCheck("one", true, true),
+                new SimpleCheck("two", true, false),
+                new SimpleCheck("three", true, true),
+                new SimpleCheck("four", true, true));
+
+        CheckResult result = engine.run(checks, SUBMISSION, Path.of("."));
+
+        assertEquals(List.of(
+                new ResultMessage("one", MessageType.WARNING, "ran"),
+                new ResultMessage("two", MessageType.WARNING, "ran"),
+                new ResultMessage("three", MessageType.WARNING, "ran"),
+                new ResultMessage("four", MessageType.WARNING, "ran")), result.messages());
+    }
+
+    @Test
+    public void dependentCheckNotRunAfterFailure() {
+        SimpleCheck failing = new SimpleCheck("one", false, true);
+        SimpleCheck dependent = new SimpleCheck("two", true, false);
+
+        CheckResult result = engine.run(List.of(failing, dependent), SUBMISSION, Path.of("."));
+
+        assertAll(
+            () -> assertFalse(result.passed()),
+            () -> assertFalse(dependent.executed.get() > 0),
+            () -> assertEquals(List.of(new ResultMessage("one", MessageType.WARNING, "ran")), result.messages())
+        );
+    }
+
+    @Test
+    public void independentCheckAfterFailureStillReported() {
+        SimpleCheck failing = new SimpleCheck("one", false, true);
+        SimpleCheck independent = new SimpleCheck("two", true, true);
+
+        CheckResult result = engine.run(List.of(failing, independent), SUBMISSION, Path.of("."));
+
+        assertAll(
+            () -> assertFalse(result.passed()),
+            () -> assertEquals(List.of(
+                    new ResultMessage("one", MessageType.WARNING, "ran"),
+                    new ResultMessage("two", MessageType.WARNING, "ran")), result.messages())
+        );
+    }
+
+    @Test
+    public void dependentSubtreeSkippedIndependentBranchRuns() {
+        SimpleCheck compile = new SimpleCheck("javac", false, false);
+        SimpleCheck test = new SimpleCheck("junit", true, false);
+        SimpleCheck style = new SimpleCheck("checkstyle", true, false);
+        SimpleCheck encoding = new SimpleCheck("encoding", true, false);
+
+        List<CheckNode> nodes = List.of(
+                new CheckNode("javac", compile, true, Set.of()),
+                new CheckNode("junit", test, true, Set.of("javac")),
+                new CheckNode("checkstyle", style, false, Set.of("junit")),
+                new CheckNode("encoding", encoding, true, Set.of()));
+
+        CheckResult result = engine.runGraph(nodes, SUBMISSION, Path.of("."));
+
+        assertAll(
+            () -> assertFalse(result.passed()),
+            () -> assertFalse(test.executed.get() > 0),
+            () -> assertFalse(style.executed.get() > 0),
+            () -> assertTrue(encoding.executed.get() > 0),
+            () -> assertEquals(List.of(
+                    new ResultMessage("javac", MessageType.WARNING, "ran"),
+                    new ResultMessage("encoding", MessageType.WARNING, "ran")), result.messages())
+        );
+    }
+
+    @Test
+    public void dependentRunsAfterPrerequisitePassed() {
+        SimpleCheck compile = new SimpleCheck("javac", true, false);
+        SimpleCheck test = new SimpleCheck("junit", true, false);
+
+        List<CheckNode> nodes = List.of(
+                new CheckNode("junit", test, true, Set.of("javac")),
+                new CheckNode("javac", compile, true, Set.of()));
+
+        CheckResult result = engine.runGraph(nodes, SUBMISSION, Path.of("."));
+
+        assertAll(
+            () -> assertTrue(result.passed()),
+            () -> assertEquals(List.of(
+                    new ResultMessage("junit", MessageType.WARNING, "ran"),
+                    new ResultMessage("javac", MessageType.WARNING, "ran")), result.messages())
+        );
+    }
+
+    @Test
+    public void nonRejectingFailureDoesNotReject() {
+        List<CheckNode> nodes = List.of(
+                new CheckNode("checkstyle", new SimpleCheck("checkstyle", false, false), false, Set.of()));
+
+        CheckResult result = engine.runGraph(nodes, SUBMISSION, Path.of("."));
+
+        assertTrue(result.passed());
+    }
+
+    @Test
+    public void nodesFromConfigurationUseDependsOn() {
+        CheckConfiguration configuration = new CheckConfiguration("junit", true,
+                Map.of(CheckConfiguration.DEPENDS_ON_PROPERTY, "javac, encoding"));
+
+        CheckNode node = CheckNode.fromConfiguration(configuration, new SimpleCheck("junit", true, false));
+
+        assertAll(
+            () -> assertEquals("junit", node.name()),
+            () -> assertTrue(node.rejecting()),
+            () -> assertEquals(Set.of("javac", "encoding"), node.dependencies())
+        );
+    }
+
+    @Test
+    public void unknownDependencyThrows() {
+        List<CheckNode> nodes = List.of(
+                new CheckNode("junit", new SimpleCheck("junit", true, false), true, Set.of("javac")));
+
+        assertThrows(IllegalArgumentException.class, () -> engine.runGraph(nodes, SUBMISSION, Path.of(".")));
+    }
+
+    @Test
+    public void cyclicDependenciesThrow() {
+        List<CheckNode> nodes = List.of(
+                new CheckNode("a", new SimpleCheck("a", true, false), true, Set.of("b")),
+                new CheckNode("b", new SimpleCheck("b", true, false), true, Set.of("a")));
+
+        assertThrows(IllegalArgumentException.class, () -> engine.runGraph(nodes, SUBMISSION, Path.of(".")));
+    }
+
+    @Test
+    public void throwingCheckFails() {
+        ICheck throwing = (submission, directory) -> {
+            throw new IllegalStateException("mock");
+        };
+
+        CheckResult result = engine.run(List.of(throwing), SUBMISSION, Path.of("."));
+
+        assertAll(
+            () -> assertFalse(result.passed()),
+            () -> assertEquals(1, result.messages().size()),
+            () -> assertEquals(MessageType.ERROR, result.messages().get(0).getType())
+        );
+    }
+
+    @Test
+    public void configuredCheckResultCachedForSameContent() {
+        SimpleCheck check = new SimpleCheck("javac", true, false);
+        CheckConfiguration configuration = new CheckConfiguration("javac", true, Map.of());
+        List<CheckNode> nodes = List.of(CheckNode.fromConfiguration(configuration, check));
+
+        Submission submission1 = new SubmissionBuilder("author1").build();
+        Submission submission2 = new SubmissionBuilder("author2").build();
+        CheckResult result1 = engine.runGraph(nodes, submission1, Path.of("."));
+        CheckResult result2 = engine.runGraph(nodes, submission2, Path.of("."));
+
+        assertAll(
+            () -> assertEquals(1, check.executed.get()),
+            () -> assertEquals(result1, result2)
+        );
+    }
+
+    @Test
+    public void unconfiguredCheckNotCached() {
+        SimpleCheck check = new SimpleCheck("javac", true, false);
+
+        engine.run(List.of(check), SUBMISSION, Path.of("."));
+        engine.run(List.of(check), SUBMISSION, Path.of("."));
+
+        assertEquals(2, check.executed.get());
+    }
+
+    private static class HangingCheck implements ICheck {
+        
+        private String name;
+        
+        private boolean ignoreInterrupts;
+        
+        private CountDownLatch release = new CountDownLatch(1);
+        
+        public HangingCheck(String name, boolean ignoreInterrupts) {
+            this.name = name;
+            this.ignoreInterrupts = ignoreInterrupts;
+        }
+        
+        @Override
+        public CheckResult run(Submission submission, Path submissionDirectory) {
+            boolean done = false;
+            while (!done) {
+                try {
+                    release.await();
+                    done = true;
+                } catch (InterruptedException e) {
+                    done = !ignoreInterrupts;
+                }
+            }
+            return new CheckResult(true, List.of());
+        }
+        
+        @Override
+        public String getName() {
+            return name;
+        }
+        
+    }
+    
+    @Test
+    public void checkExceedingBudgetTimesOut() {
+        CheckEngine timeoutEngine = new CheckEngine(1, Duration.ofMillis(200), Duration.ofSeconds(60),
+                new CheckResultCache(10));
+        HangingCheck hanging = new HangingCheck("hanging", false);
+        SimpleCheck dependent = new SimpleCheck("dependent", true, false);
+        SimpleCheck independent = new SimpleCheck("independent", true, true);
+        
+        CheckResult result = timeoutEngine.run(List.of(hanging, dependent, independent), SUBMISSION, Path.of("."));
+        timeoutEngine.shutdown();
+        
+        assertAll(
+            () -> assertFalse(result.passed()),
+            () -> assertEquals(0, dependent.executed.get()),
+            () -> assertEquals(List.of(
+                    new ResultMessage("hanging", MessageType.ERROR, "Check timed out after 200 ms"),
+                    new ResultMessage("independent", MessageType.WARNING, "ran")), result.messages())
+        );
+    }
+    
+    @Test
+    public void abandonedCheckDoesNotBlockPool() {
+        CheckEngine timeoutEngine = new CheckEngine(1, Duration.ofMillis(200), Duration.ofSeconds(60),
+                new CheckResultCache(10));
+        HangingCheck hanging = new HangingCheck("hanging", true);
+        
+        CheckResult first = timeoutEngine.run(List.of(hanging), SUBMISSION, Path.of("."));
+        CheckResult second = timeoutEngine.run(List.of(new SimpleCheck("next", true, true)), SUBMISSION,
+                Path.of("."));
+        hanging.release.countDown();
+        timeoutEngine.shutdown();
+        
+        assertAll(
+            () -> assertFalse(first.passed()),
+            () -> assertTrue(second.passed()),
+            () -> assertEquals(List.of(new ResultMessage("next", MessageType.WARNING, "ran")), second.messages())
+        );
+    }
+    
+    @Test
+    public void submissionBudgetAbandonsRunningAndSkipsPendingChecks() {
+        CheckEngine timeoutEngine = new CheckEngine(1, Duration.ofSeconds(60), Duration.ofMillis(300),
+                new CheckResultCache(10));
+        HangingCheck hanging = new HangingCheck("hanging", false);
+        SimpleCheck pending = new SimpleCheck("pending", true, true);
+        
+        CheckResult result = timeoutEngine.run(List.of(hanging, pending), SUBMISSION, Path.of("."));
+        timeoutEngine.shutdown();
+        
+        assertAll(
+            () -> assertFalse(result.passed()),
+            () -> assertEquals(0, pending.executed.get()),
+            () -> assertEquals(List.of(new ResultMessage("hanging", MessageType.ERROR,
+                    "Check did not finish within the time budget of 300 ms for the submission")), result.messages())
+        );
+    }
+    
+    @Test
+    public void timedOutResultNotCached() {
+        CheckEngine timeoutEngine = new CheckEngine(1, Duration.ofMillis(200), Duration.ofSeconds(60),
+                new CheckResultCache(10));
+        AtomicInteger runs = new AtomicInteger();
+        ICheck slowOnce = (submission, directory) -> {
+            CheckResult result = new CheckResult(true, List.of());
+            if (runs.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(60_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    result = new CheckResult(false, List.of(new ResultMessage("slow", MessageType.ERROR,
+                            "Check was interrupted")));
+                }
+            }
+            return result;
+        };
+        List<CheckNode> nodes = List.of(CheckNode.fromConfiguration(
+                new CheckConfiguration("slow", true, Map.of()), slowOnce));
+        
+        CheckResult first = timeoutEngine.runGraph(nodes, SUBMISSION, Path.of("."));
+        CheckResult second = timeoutEngine.runGraph(nodes, SUBMISSION, Path.of("."));
+        CheckResult third = timeoutEngine.runGraph(nodes, SUBMISSION, Path.of("."));
+        timeoutEngine.shutdown();
+        
+        assertAll(
+            () -> assertFalse(first.passed()),
+            () -> assertTrue(second.passed(), second.toString()),
+            () -> assertTrue(third.passed(), third.toString()),
+            () -> assertEquals(2, runs.get())
+        );
+    }
+    
+}
@@ -0,0 +1,330 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Assignment;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.AssignmentState;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.CheckConfiguration;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Collaboration;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Course;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.StuMgmtView;
+import net.ssehub.teaching.exercise_submission.service.submission.Submission;
+import net.ssehub.teaching.exercise_submission.service.submission.SubmissionBuilder;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage.MessageType;
+
+public class CheckRegistryTest {
+    
+    /**
+     * A factory that counts how many checks it created.
+     */
+    private static class CountingFactory implements ICheckFactory {
+        
+        private String name;
+        
+        private AtomicInteger created = new AtomicInteger();
+        
+        CountingFactory(String name) {
+            this.name = name;
+        }
+        
+        @Override
+        public String getCheckName() {
+            return name;
+        }
+        
+        @Override
+        public ICheck create(CheckConfiguration configuration) {
+            created.incrementAndGet();
+            if (configuration.properties().containsKey("invalid")) {
+                throw new IllegalArgumentException("invalid property");
+            }
+            return (submission, directory) -> new CheckResult(true, List.of());
+        }
+        
+    }
+    
+    private static StuMgmtView viewWithChecks(List<CheckConfiguration> configurations) {
+        StuMgmtView stuMgmt = mock(StuMgmtView.class);
+        when(stuMgmt.getCourse("c")).thenReturn(Optional.of(courseWithChecks(configurations)));
+        return stuMgmt;
+    }
+    
+    private static Course courseWithChecks(List<CheckConfiguration> configurations) {
+        return new Course("c", Map.of(), Map.of("a", new Assignment("1", "a", AssignmentState.IN_PROGRESS,
+                Collaboration.SINGLE, Map.of(), configurations)));
+    }
+    
+    @Test
+    public void pipelineBuiltFromConfigurations() {
+        CountingFactory factory = new CountingFactory("test");
+        CheckConfiguration inline = new CheckConfiguration("test", true, Map.of());
+        CheckConfiguration deferred = new CheckConfiguration("other", false, Map.of(
+                CheckConfiguration.TIER_PROPERTY, CheckConfiguration.TIER_DEFERRED,
+                CheckConfiguration.DEPENDS_ON_PROPERTY, "test"));
+        
+        CheckRegistry registry = new CheckRegistry(List.of(factory, new CountingFactory("other")),
+                viewWithChecks(List.of(inline, deferred)));
+        
+        CheckPipeline pipeline = registry.getPipeline("c", "a");
+        
+        assertAll(
+            () -> assertEquals(1, pipeline.inlineNodes().size()),
+            () -> assertEquals(inline, pipeline.inlineNodes().get(0).configuration()),
+            () -> assertTrue(pipeline.inlineNodes().get(0).rejecting()),
+            () -> assertEquals(1, pipeline.deferredNodes().size()),
+            () -> assertEquals(deferred, pipeline.deferredNodes().get(0).configuration()),
+            () -> assertEquals(Set.of("test"), pipeline.deferredNodes().get(0).dependencies()),
+            () -> assertEquals(1, factory.created.get())
+        );
+    }
+    
+    @Test
+    public void pipelineCached() {
+        CountingFactory factory = new CountingFactory("test");
+        CheckRegistry registry = new CheckRegistry(List.of(factory),
+                viewWithChecks(List.of(new CheckConfiguration("test", true, Map.of()))));
+        
+        CheckPipeline first = registry.getPipeline("c", "a");
+        CheckPipeline second = registry.getPipeline("c", "a");
+        
+        assertAll(
+            () -> assertSame(first, second),
+            () -> assertEquals(1, factory.created.get())
+        );
+    }
+    
+    @Test
+    public void pipelineRebuiltIfConfigurationChanges() {
+        CountingFactory factory = new CountingFactory("test");
+        StuMgmtView stuMgmt = mock(StuMgmtView.class);
+        when(stuMgmt.getCourse("c"))
+            .thenReturn(Optional.of(courseWithChecks(List.of(new CheckConfiguration("test", true, Map.of())))))
+            .thenReturn(Optional.of(courseWithChecks(List.of(new CheckConfiguration("test", false, Map.of())))));
+        
+        CheckRegistry registry = new CheckRegistry(List.of(factory), stuMgmt);
+        
+        CheckPipeline first = registry.getPipeline("c", "a");
+        CheckPipeline second = registry.getPipeline("c", "a");
+        
+        assertAll(
+            () -> assertNotSame(first, second),
+            () -> assertTrue(first.inlineNodes().get(0).rejecting()),
+            () -> assertFalse(second.inlineNodes().get(0).rejecting()),
+            () -> assertEquals(2, factory.created.get())
+        );
+    }
+    
+    @Test
+    public void onlyCachedPipelineClosedOnShutdown() {
+        AtomicInteger closed = new AtomicInteger();
+        ICheckFactory factory = new CountingFactory("test") {
+            @Override
+            public ICheck create(CheckConfiguration configuration) {
+                return new CloseableCheck(closed);
+            }
+        };
+        StuMgmtView stuMgmt = mock(StuMgmtView.class);
+        when(stuMgmt.getCourse("c"))
+            .thenReturn(Optional.of(courseWithChecks(List.of(new CheckConfiguration("test", true, Map.of())))))
+            .thenReturn(Optional.of(courseWithChecks(List.of(new CheckConfiguration("test", false, Map.of())))));
+        
+        CheckRegistry registry = new CheckRegistry(List.of(factory), stuMgmt);
+        
+        registry.getPipeline("c", "a");
+        registry.getPipeline("c", "a");
+        registry.invalidateCourse("c");
+        registry.getPipeline("c", "a");
+        int closedBeforeShutdown = closed.get();
+        registry.shutdown();
+        
+        assertAll(
+            () -> assertEquals(0, closedBeforeShutdown),
+            () -> assertEquals(1, closed.get())
+        );
+    }
+    
+    /**
+     * A check that counts how often it is closed.
+     */
+    private static class CloseableCheck implements ICheck, AutoCloseable {
+        
+        private AtomicInteger closed;
+        
+        CloseableCheck(AtomicInteger closed) {
+            this.closed = closed;
+        }
+        
+        @Override
+        public CheckResult run(Submission submission, Path submissionDirectory) {
+            return new CheckResult(true, List.of());
+        }
+        
+        @Override
+        public void close() {
+            closed.incrementAndGet();
+        }
+        
+    }
+    
+    @Test
+    public void invalidateRebuildsPipeline() {
+        CountingFactory factory = new CountingFactory("test");
+        CheckRegistry registry = new CheckRegistry(List.of(factory),
+                viewWithChecks(List.of(new CheckConfiguration("test", true, Map.of()))));
+        
+        registry.getPipeline("c", "a");
+        registry.invalidate("c", "a");
+        registry.getPipeline("c", "a");
+        registry.invalidateCourse("c");
+        registry.getPipeline("c", "a");
+        
+        assertEquals(3, factory.created.get());
+    }
+    
+    @Test
+    public void unknownAssignmentHasEmptyPipeline() {
+        CheckRegistry registry = new CheckRegistry(List.of(), viewWithChecks(List.of()));
+        
+        assertAll(
+            () -> assertSame(CheckPipeline.EMPTY, registry.getPipeline("c", "a")),
+            () -> assertSame(CheckPipeline.EMPTY, registry.getPipeline("c", "other")),
+            () -> assertSame(CheckPipeline.EMPTY, registry.getPipeline("other", "a"))
+        );
+    }
+    
+    @Test
+    public void unavailableChecksFail() {
+        CheckRegistry registry = new CheckRegistry(List.of(new CountingFactory("test")), viewWithChecks(List.of(
+                new CheckConfiguration("unknown", true, Map.of()),
+                new CheckConfiguration("test", true, Map.of("invalid", "true")))));
+        
+        CheckPipeline pipeline = registry.getPipeline("c", "a");
+        CheckResult unknown = pipeline.inlineNodes().get(0).check()
+                .run(new SubmissionBuilder("s").build(), Path.of("."));
+        CheckResult invalid = pipeline.inlineNodes().get(1).check()
+                .run(new SubmissionBuilder("s").build(), Path.of("."));
+        
+        assertAll(
+            () -> assertEquals(new CheckResult(false, List.of(new ResultMessage("unknown", MessageType.ERROR,
+                    "Check is not available: unknown check"))), unknown),
+            () -> assertEquals(new CheckResult(false, List.of(new ResultMessage("test", MessageType.ERROR,
+                    "Check is not available: invalid property"))), invalid)
+        );
+    }
+    
+    private static CheckConfiguration dependent(String checkName, String dependsOn) {
+        return new CheckConfiguration(checkName, true, Map.of(CheckConfiguration.DEPENDS_ON_PROPERTY, dependsOn));
+    }
+    
+    private static CheckResult run(CheckNode node) {
+        return node.check().run(new SubmissionBuilder("s").build(), Path.of("."));
+    }
+    
+    @Test
+    public void duplicateChecksGetUniqueNames() {
+        CheckRegistry registry = new CheckRegistry(List.of(new CountingFactory("test"), new CountingFactory("other")),
+                viewWithChecks(List.of(
+                    new CheckConfiguration("test", true, Map.of()),
+                    new CheckConfiguration("test", false, Map.of()),
+                    dependent("other", "test"))));
+        
+        List<CheckNode> nodes = registry.getPipeline("c", "a").inlineNodes();
+        
+        assertAll(
+            () -> assertEquals(List.of("test#1", "test#2", "other"), nodes.stream().map(CheckNode::name).toList()),
+            () -> assertEquals(Set.of("test#1", "test#2"), nodes.get(2).dependencies()),
+            () -> assertEquals(nodes, CheckEngine.topologicalOrder(nodes))
+        );
+    }
+    
+    @Test
+    public void unknownDependencyFails() {
+        CountingFactory factory = new CountingFactory("test");
+        CheckRegistry registry = new CheckRegistry(List.of(factory),
+                viewWithChecks(List.of(dependent("test", "missing"))));
+        
+        CheckNode node = registry.getPipeline("c", "a").inlineNodes().get(0);
+        
+        assertAll(
+            () -> assertEquals(new CheckResult(false, List.of(new ResultMessage("test", MessageType.ERROR,
+                    "Check is not available: depends on unknown check missing"))), run(node)),
+            () -> assertEquals(Set.of(), node.dependencies()),
+            () -> assertNull(node.configuration()),
+            () -> assertEquals(0, factory.created.get())
+        );
+    }
+    
+    @Test
+    public void inlineDependencyOnDeferredFails() {
+        CheckRegistry registry = new CheckRegistry(List.of(new CountingFactory("test"), new CountingFactory("other")),
+                viewWithChecks(List.of(
+                    new CheckConfiguration("other", true, Map.of(
+                            CheckConfiguration.TIER_PROPERTY, CheckConfiguration.TIER_DEFERRED)),
+                    dependent("test", "other"))));
+        
+        CheckPipeline pipeline = registry.getPipeline("c", "a");
+        
+        assertAll(
+            () -> assertEquals(new CheckResult(false, List.of(new ResultMessage("test", MessageType.ERROR,
+                    "Check is not available: inline check depends on deferred check other"))),
+                    run(pipeline.inlineNodes().get(0))),
+            () -> assertTrue(run(pipeline.deferredNodes().get(0)).passed())
+        );
+    }
+    
+    @Test
+    public void cyclicDependenciesFail() {
+        CheckRegistry registry = new CheckRegistry(
+                List.of(new CountingFactory("x"), new CountingFactory("y"), new CountingFactory("z")),
+                viewWithChecks(List.of(dependent("x", "y"), dependent("y", "x"), dependent("z", "x"))));
+        
+        List<CheckNode> nodes = registry.getPipeline("c", "a").inlineNodes();
+        
+        assertAll(
+            () -> assertEquals(new CheckResult(false, List.of(new ResultMessage("x", MessageType.ERROR,
+                    "Check is not available: dependencies contain a cycle"))), run(nodes.get(0))),
+            () -> assertFalse(run(nodes.get(1)).passed()),
+            () -> assertFalse(run(nodes.get(2)).passed()),
+            () -> assertEquals(3, CheckEngine.topologicalOrder(nodes).size())
+        );
+    }
+    
+    @Test
+    public void duplicateFactoryThrows() {
+        assertThrows(IllegalArgumentException.class, () -> new CheckRegistry(
+                List.of(new CountingFactory("test"), new CountingFactory("test")), mock(StuMgmtView.class)));
+    }
+    
+    @Test
+    public void encodingFactoryUsesProperties() {
+        EncodingCheckFactory factory = new EncodingCheckFactory();
+        
+        assertAll(
+            () -> assertEquals(EncodingCheck.CHECK_NAME, factory.getCheckName()),
+            () -> assertEquals(EncodingCheck.CHECK_NAME, factory.create(new CheckConfiguration(
+                    EncodingCheck.CHECK_NAME, true, Map.of(EncodingCheckFactory.ENCODING_PROPERTY, "ISO-8859-1")))
+                    .getName()),
+            () -> assertThrows(IllegalArgumentException.class, () -> factory.create(new CheckConfiguration(
+                    EncodingCheck.CHECK_NAME, true, Map.of(EncodingCheckFactory.ENCODING_PROPERTY, "no-such-charset"))))
+        );
+    }
+    
+}
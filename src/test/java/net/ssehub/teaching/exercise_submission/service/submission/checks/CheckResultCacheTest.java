@@ -0,0 +1,96 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.CheckConfiguration;
+import net.ssehub.teaching.exercise_submission.service.submission.Submission;
+import net.ssehub.teaching.exercise_submission.service.submission.SubmissionBuilder;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage.MessageType;
+
+public class CheckResultCacheTest {
+
+    private static final CheckConfiguration JAVAC = new CheckConfiguration("javac", true, Map.of());
+    
+    private static final CheckResult RESULT = new CheckResult(false,
+            List.of(new ResultMessage("javac", MessageType.ERROR, "mock")));
+    
+    private static Submission submission(String content) {
+        SubmissionBuilder builder = new SubmissionBuilder("author");
+        builder.addUtf8File(Path.of("Main.java"), content);
+        return builder.build();
+    }
+    
+    @Test
+    public void emptyCacheReturnsEmpty() {
+        CheckResultCache cache = new CheckResultCache(10);
+        
+        assertAll(
+            () -> assertEquals(Optional.empty(), cache.get(submission("a"), JAVAC)),
+            () -> assertEquals(1, cache.getMisses())
+        );
+    }
+    
+    @Test
+    public void storedResultReturnedForSameContent() {
+        CheckResultCache cache = new CheckResultCache(10);
+        cache.put(submission("a"), JAVAC, RESULT);
+        
+        assertAll(
+            () -> assertEquals(Optional.of(RESULT), cache.get(submission("a"), JAVAC)),
+            () -> assertEquals(1, cache.getHits())
+        );
+    }
+    
+    @Test
+    public void differentConfigurationNotReturned() {
+        CheckResultCache cache = new CheckResultCache(10);
+        cache.put(submission("a"), JAVAC, RESULT);
+        
+        CheckConfiguration nonRejecting = new CheckConfiguration("javac", false, Map.of());
+        CheckConfiguration otherProperties = new CheckConfiguration("javac", true, Map.of("version", "11"));
+        
+        assertAll(
+            () -> assertTrue(cache.get(submission("a"), nonRejecting).isEmpty()),
+            () -> assertTrue(cache.get(submission("a"), otherProperties).isEmpty()),
+            () -> assertTrue(cache.get(submission("b"), JAVAC).isEmpty())
+        );
+    }
+    
+    @Test
+    public void differentInputFingerprintNotReturned() {
+        CheckResultCache cache = new CheckResultCache(10);
+        cache.put(submission("a"), JAVAC, "tests-v1", RESULT);
+        
+        assertAll(
+            () -> assertEquals(Optional.of(RESULT), cache.get(submission("a"), JAVAC, "tests-v1")),
+            () -> assertTrue(cache.get(submission("a"), JAVAC, "tests-v2").isEmpty()),
+            () -> assertTrue(cache.get(submission("a"), JAVAC).isEmpty())
+        );
+    }
+    
+    @Test
+    public void leastRecentlyUsedEvicted() {
+        CheckResultCache cache = new CheckResultCache(2);
+        cache.put(submission("a"), JAVAC, RESULT);
+        cache.put(submission("b"), JAVAC, RESULT);
+        cache.get(submission("a"), JAVAC);
+        cache.put(submission("c"), JAVAC, RESULT);
+        
+        assertAll(
+            () -> assertEquals(2, cache.size()),
+            () -> assertTrue(cache.get(submission("a"), JAVAC).isPresent()),
+            () -> assertTrue(cache.get(submission("b"), JAVAC).isEmpty()),
+            () -> assertTrue(cache.get(submission("c"), JAVAC).isPresent())
+        );
+    }
+    
+}
@@ -0,0 +1,192 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ssehub.teaching.exercise_submission.service.auth.AuthManager;
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.Role;
+
+public class CheckSchedulerTest {
+
+    private AuthManager authManager;
+    
+    private SimpleMeterRegistry registry;
+    
+    private List<String> order;
+    
+    private CountDownLatch blocker;
+    
+    @BeforeEach
+    public void setup() {
+        authManager = mock(AuthManager.class);
+        when(authManager.getRole(any(), any())).thenAnswer(invocation -> Optional.of(
+                invocation.getArgument(1, String.class).equals("tutor") ? Role.TUTOR : Role.STUDENT));
+        registry = new SimpleMeterRegistry();
+        order = new CopyOnWriteArrayList<>();
+        blocker = new CountDownLatch(1);
+    }
+    
+    private Thread startBlocking(CheckScheduler scheduler, String course) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            try {
+                scheduler.run(course, "student", () -> {
+                    started.countDown();
+                    try {
+                        blocker.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return null;
+                });
+            } catch (CheckQueueFullException | InterruptedException e) {
+                order.add("failed");
+            }
+        });
+        thread.start();
+        started.await();
+        return thread;
+    }
+    
+    private Thread startQueued(CheckScheduler scheduler, String course, String user, String name)
+            throws InterruptedException {
+        int depth = scheduler.getQueueDepth(course);
+        Thread thread = new Thread(() -> {
+            try {
+                scheduler.run(course, user, () -> order.add(name));
+            } catch (CheckQueueFullException | InterruptedException e) {
+                order.add("failed");
+            }
+        });
+        thread.start();
+        while (scheduler.getQueueDepth(course) == depth) {
+            Thread.sleep(5);
+        }
+        return thread;
+    }
+    
+    @Test
+    public void runsJobAndRecordsMetrics() throws CheckQueueFullException, InterruptedException {
+        CheckScheduler scheduler = new CheckScheduler(2, 10, 10, "", authManager, registry);
+        
+        String result = scheduler.run("java", "student", () -> "result");
+        
+        assertAll(
+            () -> assertEquals("result", result),
+            () -> assertEquals(0, scheduler.getRunning()),
+            () -> assertEquals(1, registry.get("checks.queue.wait").tag("course", "java").timer().count()),
+            () -> assertEquals(1, registry.get("checks.service").tag("course", "java").timer().count()),
+            () -> assertEquals(0.0, registry.get("checks.queue.depth").tag("course", "java").gauge().value())
+        );
+    }
+    
+    @Test
+    public void fullCourseQueueRejects() throws InterruptedException {
+        CheckScheduler scheduler = new CheckScheduler(1, 1, 10, "", authManager, registry);
+        Thread running = startBlocking(scheduler, "java");
+        Thread waiting = startQueued(scheduler, "java", "student", "waiting");
+        
+        assertThrows(CheckQueueFullException.class, () -> scheduler.run("java", "student", () -> null));
+        
+        blocker.countDown();
+        running.join();
+        waiting.join();
+        
+        assertAll(
+            () -> assertEquals(List.of("waiting"), order),
+            () -> assertEquals(1.0, registry.get("checks.queue.rejected").counter().count())
+        );
+    }
+    
+    @Test
+    public void fullTotalQueueRejects() throws InterruptedException {
+        CheckScheduler scheduler = new CheckScheduler(1, 10, 1, "", authManager, registry);
+        Thread running = startBlocking(scheduler, "java");
+        Thread waiting = startQueued(scheduler, "java", "student", "waiting");
+        
+        assertThrows(CheckQueueFullException.class, () -> scheduler.run("c", "student", () -> null));
+        
+        blocker.countDown();
+        running.join();
+        waiting.join();
+    }
+    
+    @Test
+    public void smallCourseNotStarvedByLargeCourse() throws InterruptedException {
+        CheckScheduler scheduler = new CheckScheduler(1, 10, 10, "", authManager, registry);
+        Thread running = startBlocking(scheduler, "big");
+        List<Thread> threads = List.of(
+                startQueued(scheduler, "big", "student", "big1"),
+                startQueued(scheduler, "big", "student", "big2"),
+                startQueued(scheduler, "big", "student", "big3"),
+                startQueued(scheduler, "small", "student", "small"));
+        
+        blocker.countDown();
+        running.join();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        
+        assertAll(
+            () -> assertEquals(4, order.size()),
+            () -> assertTrue(order.indexOf("small") <= 1, order.toString())
+        );
+    }
+    
+    @Test
+    public void weightedCourseGetsLargerShare() throws InterruptedException {
+        CheckScheduler scheduler = new CheckScheduler(1, 10, 10, "heavy=3", authManager, registry);
+        Thread running = startBlocking(scheduler, "other");
+        List<Thread> threads = List.of(
+                startQueued(scheduler, "other", "student", "o1"),
+                startQueued(scheduler, "other", "student", "o2"),
+                startQueued(scheduler, "heavy", "student", "h1"),
+                startQueued(scheduler, "heavy", "student", "h2"),
+                startQueued(scheduler, "heavy", "student", "h3"));
+        
+        blocker.countDown();
+        running.join();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        
+        assertEquals(3, order.subList(0, 4).stream().filter(name -> name.startsWith("h")).count(),
+                order.toString());
+    }
+    
+    @Test
+    public void tutorSubmissionPreferred() throws InterruptedException {
+        CheckScheduler scheduler = new CheckScheduler(1, 10, 10, "", authManager, registry);
+        Thread running = startBlocking(scheduler, "java");
+        Thread student = startQueued(scheduler, "java", "student", "student");
+        Thread tutor = startQueued(scheduler, "java", "tutor", "tutor");
+        
+        blocker.countDown();
+        running.join();
+        student.join();
+        tutor.join();
+        
+        assertEquals(List.of("tutor", "student"), order);
+    }
+    
+    @Test
+    public void invalidWeightsThrow() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new CheckScheduler(1, 10, 10, "java=0", authManager, registry));
+    }
+    
+}
@@ -0,0 +1,121 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.teaching.exercise_submission.service.submission.Submission;
+import net.ssehub.teaching.exercise_submission.service.submission.SubmissionBuilder;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage.MessageType;
+
+public class PerFileCheckTest {
+
+    private static class ForbiddenWordCheck extends PerFileCheck {
+        
+        private List<Path> analyzed = new LinkedList<>();
+        
+        public ForbiddenWordCheck() {
+            super(100);
+        }
+        
+        @Override
+        protected boolean isRelevant(Path file) {
+            return file.toString().endsWith(".java");
+        }
+        
+        @Override
+        protected CheckResult checkFile(Path file, byte[] content) {
+            analyzed.add(file);
+            CheckResult result;
+            if (new String(content, StandardCharsets.UTF_8).contains("System.exit")) {
+                result = new CheckResult(false, List.of(
+                        new ResultMessage("forbidden", MessageType.ERROR, "System.exit").setFile(file)));
+            } else {
+                result = new CheckResult(true, List.of());
+            }
+            return result;
+        }
+        
+    }
+    
+    private static Submission submission(String mainContent, String utilContent) {
+        SubmissionBuilder builder = new SubmissionBuilder("author");
+        builder.addUtf8File(Path.of("Main.java"), mainContent);
+        builder.addUtf8File(Path.of("util/Util.java"), utilContent);
+        builder.addUtf8File(Path.of("README.txt"), "System.exit");
+        return builder.build();
+    }
+    
+    @Test
+    public void allRelevantFilesAnalyzed() {
+        ForbiddenWordCheck check = new ForbiddenWordCheck();
+        
+        CheckResult result = check.run(submission("System.exit(1);", "ok"), null);
+        
+        assertAll(
+            () -> assertFalse(result.passed()),
+            () -> assertEquals(List.of(
+                    new ResultMessage("forbidden", MessageType.ERROR, "System.exit").setFile(Path.of("Main.java"))),
+                    result.messages()),
+            () -> assertEquals(List.of(Path.of("Main.java"), Path.of("util/Util.java")), check.analyzed)
+        );
+    }
+    
+    @Test
+    public void onlyChangedFilesReanalyzed() {
+        ForbiddenWordCheck check = new ForbiddenWordCheck();
+        
+        check.run(submission("System.exit(1);", "ok"), null);
+        check.analyzed.clear();
+        CheckResult result = check.run(submission("System.exit(1);", "changed"), null);
+        
+        assertAll(
+            () -> assertFalse(result.passed()),
+            () -> assertEquals(List.of(
+                    new ResultMessage("forbidden", MessageType.ERROR, "System.exit").setFile(Path.of("Main.java"))),
+                    result.messages()),
+            () -> assertEquals(List.of(Path.of("util/Util.java")), check.analyzed)
+        );
+    }
+    
+    @Test
+    public void unchangedSubmissionNotReanalyzed() {
+        ForbiddenWordCheck check = new ForbiddenWordCheck();
+        
+        check.run(submission("ok", "ok"), null);
+        check.analyzed.clear();
+        CheckResult result = check.run(submission("ok", "ok"), null);
+        
+        assertAll(
+            () -> assertTrue(result.passed()),
+            () -> assertEquals(List.of(), check.analyzed),
+            () -> assertEquals(2, check.getNumCachedFiles())
+        );
+    }
+    
+    @Test
+    public void encodingCheckReportsInvalidFile() {
+        SubmissionBuilder builder = new SubmissionBuilder("author");
+        builder.addUtf8File(Path.of("Valid.java"), "// äöü\n");
+        builder.addFile(Path.of("Invalid.java"), new byte[] {'a', '\n', 'b', (byte) 0xE4, '\n'});
+        builder.addFile(Path.of("other.bin"), new byte[] {(byte) 0xFF});
+        
+        CheckResult result = new EncodingCheck().run(builder.build(), null);
+        
+        assertAll(
+            () -> assertFalse(result.passed()),
+            () -> assertEquals(List.of(new ResultMessage(EncodingCheck.CHECK_NAME, MessageType.ERROR,
+                    "invalid encoding, expected UTF-8").setFile(Path.of("Invalid.java")).setLine(2)),
+                    result.messages())
+        );
+    }
+    
+}
@@ -0,0 +1,71 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks.javac;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CompileClasspathTest {
+
+    @TempDir
+    private Path temp;
+    
+    @Test
+    public void fileLocationUsedDirectly() throws IOException {
+        Path jar = temp.resolve("api.jar");
+        
+        assertEquals(jar, CompileClasspath.toPath(jar.toUri().toString()));
+    }
+    
+    @Test
+    public void nestedJarExtracted() throws IOException {
+        byte[] nested = {1, 2, 3, 4};
+        Path bootJar = temp.resolve("service.jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(bootJar))) {
+            out.putNextEntry(new JarEntry("BOOT-INF/lib/api-1.0.jar"));
+            out.write(nested);
+            out.closeEntry();
+        }
+        
+        Path extracted = CompileClasspath.toPath("jar:" + bootJar.toUri() + "!/BOOT-INF/lib/api-1.0.jar!/");
+        
+        assertAll(
+            () -> assertEquals("api-1.0.jar", extracted.getFileName().toString()),
+            () -> assertArrayEquals(nested, Files.readAllBytes(extracted))
+        );
+    }
+    
+    @Test
+    public void missingNestedJarThrows() throws IOException {
+        Path bootJar = temp.resolve("service.jar");
+        try (OutputStream out = new JarOutputStream(Files.newOutputStream(bootJar))) {
+            // empty jar
+        }
+        
+        assertThrows(IOException.class,
+            () -> CompileClasspath.toPath("jar:" + bootJar.toUri() + "!/BOOT-INF/lib/missing.jar!/"));
+    }
+    
+    @Test
+    public void locationsOfClassesFound() {
+        List<Path> classpath = CompileClasspath.of(Test.class, TempDir.class);
+        
+        assertAll(
+            () -> assertEquals(1, classpath.size()),
+            () -> assertTrue(Files.exists(classpath.get(0)))
+        );
+    }
+    
+}
@@ -0,0 +1,135 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks.javac;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.teaching.exercise_submission.service.submission.Submission;
+import net.ssehub.teaching.exercise_submission.service.submission.SubmissionBuilder;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckResult;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage.MessageType;
+
+public class JavacCheckTest {
+
+    private static JavacCheck check;
+    
+    @BeforeAll
+    public static void createCheck() {
+        check = new JavacCheck();
+    }
+    
+    @Test
+    public void noJavaFilesPasses() {
+        SubmissionBuilder builder = new SubmissionBuilder("author");
+        builder.addUtf8File(Path.of("README.txt"), "not java");
+        
+        CheckResult result = check.run(builder.build(), null);
+        
+        assertAll(
+            () -> assertTrue(result.passed()),
+            () -> assertEquals(List.of(), result.messages())
+        );
+    }
+    
+    @Test
+    public void validSubmissionCompiles() {
+        SubmissionBuilder builder = new SubmissionBuilder("author");
+        builder.addUtf8File(Path.of("Main.java"),
+                "public class Main { public static void main(String[] args) { util.Util.print(); } }");
+        builder.addUtf8File(Path.of("util/Util.java"),
+                "package util; public class Util { public static void print() { new Object() {}; } }");
+        
+        CompilationResult result = check.compile(builder.build());
+        
+        assertAll(
+            () -> assertTrue(result.checkResult().passed()),
+            () -> assertEquals(List.of(), result.checkResult().messages()),
+            () -> assertEquals(Set.of("Main", "util.Util", "util.Util$1"), result.classFiles().keySet()),
+            () -> assertTrue(result.classFiles().get("Main").length > 0)
+        );
+    }
+    
+    @Test
+    public void compilationErrorReportedWithLocation() {
+        SubmissionBuilder builder = new SubmissionBuilder("author");
+        builder.addUtf8File(Path.of("dir/Main.java"), "package dir;\n\npublic class Main {\n    int x = \"a\";\n}\n");
+        
+        CheckResult result = check.run(builder.build(), null);
+        
+        assertAll(
+            () -> assertFalse(result.passed()),
+            () -> assertEquals(1, result.messages().size()),
+            () -> assertEquals(new ResultMessage("javac", MessageType.ERROR,
+                    "incompatible types: java.lang.String cannot be converted to int")
+                    .setFile(Path.of("dir/Main.java")).setLine(4).setColumn(13), result.messages().get(0))
+        );
+    }
+    
+    @Test
+    public void concurrentCompilationsIndependent() throws InterruptedException {
+        SubmissionBuilder valid = new SubmissionBuilder("author");
+        valid.addUtf8File(Path.of("A.java"), "public class A {}");
+        SubmissionBuilder invalid = new SubmissionBuilder("author");
+        invalid.addUtf8File(Path.of("B.java"), "public class B { x }");
+        
+        CheckResult[] results = new CheckResult[2];
+        Thread thread = new Thread(() -> results[0] = check.run(valid.build(), null));
+        thread.start();
+        results[1] = check.run(invalid.build(), null);
+        thread.join();
+        
+        assertAll(
+            () -> assertTrue(results[0].passed()),
+            () -> assertFalse(results[1].passed())
+        );
+    }
+    
+    @Test
+    public void closedCheckStillCompiles() {
+        JavacCheck closed = new JavacCheck();
+        SubmissionBuilder builder = new SubmissionBuilder("author");
+        builder.addUtf8File(Path.of("A.java"), "public class A {}");
+        Submission submission = builder.build();
+        
+        CheckResult before = closed.run(submission, null);
+        closed.close();
+        CheckResult after = closed.run(submission, null);
+        
+        assertAll(
+            () -> assertTrue(before.passed()),
+            () -> assertTrue(after.passed())
+        );
+    }
+    
+    @Test
+    public void classesOfServiceNotOnDefaultClasspath() {
+        SubmissionBuilder builder = new SubmissionBuilder("author");
+        builder.addUtf8File(Path.of("A.java"), "public class A { " + Test.class.getName() + " test; }");
+        
+        CheckResult result = check.run(builder.build(), null);
+        
+        assertFalse(result.passed());
+    }
+    
+    @Test
+    public void explicitClasspathUsed() {
+        JavacCheck withClasspath = new JavacCheck(null, StandardCharsets.UTF_8, CompileClasspath.of(Test.class));
+        SubmissionBuilder builder = new SubmissionBuilder("author");
+        builder.addUtf8File(Path.of("A.java"), "public class A { " + Test.class.getName() + " test; }");
+        
+        CheckResult result = withClasspath.run(builder.build(), null);
+        
+        assertTrue(result.passed());
+    }
+    
+}
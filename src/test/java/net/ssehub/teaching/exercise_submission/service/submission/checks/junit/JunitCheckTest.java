@@ -0,0 +1,211 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks.junit;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.CheckConfiguration;
+import net.ssehub.teaching.exercise_submission.service.submission.Submission;
+import net.ssehub.teaching.exercise_submission.service.submission.SubmissionBuilder;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckResult;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ICheck;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage.MessageType;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.javac.JavacCheck;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.worker.WorkerPool;
+
+public class JunitCheckTest {
+
+    private static final String CALCULATOR_TEST = "import org.junit.jupiter.api.Test;\n"
+            + "import static org.junit.jupiter.api.Assertions.assertEquals;\n"
+            + "public class CalculatorTest {\n"
+            + "    @Test public void add() { assertEquals(3, Calculator.add(1, 2)); }\n"
+            + "    @Test public void sub() { assertEquals(-1, Calculator.sub(1, 2), \"wrong difference\"); }\n"
+            + "}\n";
+    
+    private static JavacCheck compiler;
+    
+    @TempDir
+    private Path temp;
+    
+    @BeforeAll
+    public static void createCompiler() {
+        compiler = new JavacCheck(null, StandardCharsets.UTF_8, JunitCheck.apiClasspath());
+    }
+    
+    private static Submission calculator(String subBody) {
+        SubmissionBuilder builder = new SubmissionBuilder("author");
+        builder.addUtf8File(Path.of("Calculator.java"), "public class Calculator {\n"
+                + "    public static int add(int a, int b) { return a + b; }\n"
+                + "    public static int sub(int a, int b) { " + subBody + " }\n"
+                + "}\n");
+        return builder.build();
+    }
+    
+    private static JunitCheck check(Duration wallClockLimit, Duration cpuLimit) {
+        return new JunitCheck(compiler, Map.of(Path.of("CalculatorTest.java"), CALCULATOR_TEST),
+                List.of("CalculatorTest"), wallClockLimit, cpuLimit);
+    }
+    
+    @Test
+    public void passingTestsPass() {
+        CheckResult result = check(Duration.ofSeconds(10), Duration.ofSeconds(10))
+                .run(calculator("return a - b;"), null);
+        
+        assertAll(
+            () -> assertTrue(result.passed()),
+            () -> assertEquals(List.of(), result.messages())
+        );
+    }
+    
+    @Test
+    public void failingTestReported() {
+        CheckResult result = check(Duration.ofSeconds(10), Duration.ofSeconds(10))
+                .run(calculator("return a + b;"), null);
+        
+        assertAll(
+            () -> assertFalse(result.passed()),
+            () -> assertEquals(List.of(new ResultMessage("junit", MessageType.ERROR,
+                    "CalculatorTest.sub: wrong difference ==> expected: <-1> but was: <3>")), result.messages())
+        );
+    }
+    
+    @Test
+    public void infiniteLoopStoppedByCpuLimit() {
+        CheckResult result = check(Duration.ofSeconds(30), Duration.ofMillis(500))
+                .run(calculator("while (a != b || a == b) { } return 0;"), null);
+        
+        assertAll(
+            () -> assertFalse(result.passed()),
+            () -> assertEquals(List.of(new ResultMessage("junit", MessageType.ERROR,
+                    "CalculatorTest.sub: exceeded CPU time limit of 500 ms")), result.messages())
+        );
+    }
+    
+    @Test
+    public void sleepingTestInterruptedByWallClockLimit() {
+        CheckResult result = check(Duration.ofMillis(500), Duration.ofSeconds(10))
+                .run(calculator("try { Thread.sleep(60000); } catch (InterruptedException e) { } return a - b;"),
+                        null);
+        
+        assertAll(
+            () -> assertFalse(result.passed()),
+            () -> assertEquals(List.of(new ResultMessage("junit", MessageType.ERROR,
+                    "CalculatorTest.sub: timed out after 500 ms")), result.messages())
+        );
+    }
+    
+    @Test
+    public void compilationErrorFails() {
+        CheckResult result = check(Duration.ofSeconds(10), Duration.ofSeconds(10))
+                .run(calculator("return \"text\";"), null);
+        
+        assertAll(
+            () -> assertFalse(result.passed()),
+            () -> assertEquals(List.of(new ResultMessage("junit", MessageType.ERROR,
+                    "Tests could not be compiled with the submission")), result.messages())
+        );
+    }
+    
+    @Test
+    public void missingTestClassFails() {
+        JunitCheck check = new JunitCheck(compiler, Map.of(), List.of("DoesNotExist"),
+                Duration.ofSeconds(10), Duration.ofSeconds(10));
+        
+        CheckResult result = check.run(calculator("return a - b;"), null);
+        
+        assertAll(
+            () -> assertFalse(result.passed()),
+            () -> assertEquals(List.of(new ResultMessage("junit", MessageType.ERROR,
+                    "Test class DoesNotExist not found")), result.messages())
+        );
+    }
+    
+    @Test
+    public void changedTestSourcesReRead() throws IOException {
+        Path testFile = temp.resolve("CalculatorTest.java");
+        Files.writeString(testFile, CALCULATOR_TEST);
+        JunitCheck check = new JunitCheck(compiler, new TestSources(temp), List.of(),
+                Duration.ofSeconds(10), Duration.ofSeconds(10));
+        
+        String fingerprintBefore = check.getInputFingerprint();
+        CheckResult before = check.run(calculator("return a + b;"), null);
+        
+        Files.writeString(testFile, CALCULATOR_TEST.replace("Calculator.sub(1, 2)", "-1"));
+        Files.setLastModifiedTime(testFile, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        
+        String fingerprintAfter = check.getInputFingerprint();
+        CheckResult after = check.run(calculator("return a + b;"), null);
+        
+        assertAll(
+            () -> assertFalse(before.passed()),
+            () -> assertTrue(after.passed(), after.toString()),
+            () -> assertNotEquals(fingerprintBefore, fingerprintAfter),
+            () -> assertEquals(fingerprintAfter, check.getInputFingerprint())
+        );
+    }
+    
+    @Test
+    public void factoryRunsInWorkerByDefault() throws IOException {
+        Path testDirectory = temp.resolve("tests");
+        Files.createDirectory(testDirectory);
+        Files.writeString(testDirectory.resolve("CalculatorTest.java"), CALCULATOR_TEST);
+        Path submissionDirectory = temp.resolve("submission");
+        Files.createDirectory(submissionDirectory);
+        Files.writeString(submissionDirectory.resolve("Calculator.java"), "public class Calculator {\n"
+                + "    public static int add(int a, int b) { System.exit(1); return 0; }\n"
+                + "    public static int sub(int a, int b) { return a - b; }\n"
+                + "}\n");
+        
+        WorkerPool pool = new WorkerPool(0, 1, 100, Duration.ofSeconds(30), Duration.ofSeconds(30), "");
+        try {
+            ICheck check = new JunitCheckFactory(pool).create(new CheckConfiguration("junit", true, Map.of(
+                    JunitCheckFactory.TEST_DIRECTORY_PROPERTY, testDirectory.toString())));
+            
+            CheckResult result = check.run(null, submissionDirectory);
+            
+            assertAll(
+                () -> assertFalse(result.passed()),
+                () -> assertEquals(List.of(new ResultMessage("junit", MessageType.ERROR,
+                        "Check worker terminated unexpectedly")), result.messages()),
+                () -> assertFalse(check.getInputFingerprint().isEmpty())
+            );
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    @Test
+    public void factoryRejectsInvalidConfiguration() {
+        JunitCheckFactory factory = new JunitCheckFactory();
+        
+        assertAll(
+            () -> assertThrows(IllegalArgumentException.class, () -> factory.create(
+                    new CheckConfiguration("junit", true, Map.of()))),
+            () -> assertThrows(IllegalArgumentException.class, () -> factory.create(
+                    new CheckConfiguration("junit", true, Map.of(
+                            JunitCheckFactory.TEST_DIRECTORY_PROPERTY, temp.toString())))),
+            () -> assertThrows(IllegalArgumentException.class, () -> factory.create(
+                    new CheckConfiguration("junit", true, Map.of(
+                            JunitCheckFactory.TEST_DIRECTORY_PROPERTY, temp.toString(),
+                            JunitCheckFactory.ISOLATION_PROPERTY, "invalid"))))
+        );
+    }
+    
+}
@@ -0,0 +1,252 @@
+package net.ssehub.teaching.exercise_submission.service.submission.checks.worker;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import net.ssehub.teaching.exercise_submission.service.stu_mgmt.CheckConfiguration;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.Check;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.CheckResult;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ICheck;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ICheckFactory;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage;
+import net.ssehub.teaching.exercise_submission.service.submission.checks.ResultMessage.MessageType;
+
+public class WorkerPoolTest {
+
+    private static final Path TESTDATA = Path.of("src", "test", "resources", "FileUtilsTest");
+    
+    private WorkerPool pool;
+    
+    public static class PidCheck extends Check {
+
+        @Override
+        public boolean run(Path submissionDirectory) {
+            System.out.println("noise on stdout");
+            File[] files = submissionDirectory.toFile().listFiles();
+            addResultMessage(new ResultMessage("pid", MessageType.WARNING,
+                    ProcessHandle.current().pid() + " " + (files != null ? files.length : -1)));
+            return true;
+        }
+        
+    }
+    
+    public static class LoopCheck extends Check {
+        
+        @Override
+        public boolean run(Path submissionDirectory) {
+            while (submissionDirectory != null) {
+                Thread.onSpinWait();
+            }
+            return true;
+        }
+        
+    }
+    
+    public static class ExitCheck extends Check {
+        
+        @Override
+        public boolean run(Path submissionDirectory) {
+            System.exit(1);
+            return true;
+        }
+        
+    }
+    
+    /**
+     * A factory that creates a check reporting the given property.
+     */
+    public static class PropertyCheckFactory implements ICheckFactory {
+        
+        @Override
+        public String getCheckName() {
+            return "property";
+        }
+        
+        @Override
+        public ICheck create(CheckConfiguration configuration) {
+            String value = ICheckFactory.getProperty(configuration, "value", null);
+            if (value == null) {
+                throw new IllegalArgumentException("value required");
+            }
+            return (submission, directory) -> new CheckResult(true, List.of(
+                    new ResultMessage("property", MessageType.WARNING, value)));
+        }
+        
+    }
+    
+    /**
+     * A worker main class that never signals that it is ready.
+     */
+    public static class HangingMain {
+        
+        public static void main(String[] args) throws InterruptedException {
+            Thread.sleep(60_000);
+        }
+        
+    }
+    
+    @AfterEach
+    public void shutdownPool() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+    
+    private static String pidOf(CheckResult result) {
+        return result.messages().get(0).getMessage().split(" ")[0];
+    }
+    
+    @Test
+    public void checkRunsInSeparateProcess() {
+        pool = new WorkerPool(0, 2, 100, Duration.ofSeconds(30), Duration.ofSeconds(30), "");
+        IsolatedCheck check = new IsolatedCheck(pool, "pid", PidCheck.class.getName());
+        
+        CheckResult result = check.run(null, TESTDATA);
+        
+        assertAll(
+            () -> assertTrue(result.passed()),
+            () -> assertEquals(1, result.messages().size()),
+            () -> assertNotEquals(String.valueOf(ProcessHandle.current().pid()), pidOf(result)),
+            () -> assertEquals(String.valueOf(TESTDATA.toFile().listFiles().length),
+                    result.messages().get(0).getMessage().split(" ")[1])
+        );
+    }
+    
+    @Test
+    public void workerIsReused() {
+        pool = new WorkerPool(0, 2, 100, Duration.ofSeconds(30), Duration.ofSeconds(30), "");
+        IsolatedCheck check = new IsolatedCheck(pool, "pid", PidCheck.class.getName());
+        
+        CheckResult result1 = check.run(null, TESTDATA);
+        CheckResult result2 = check.run(null, TESTDATA);
+        
+        assertAll(
+            () -> assertEquals(pidOf(result1), pidOf(result2)),
+            () -> assertEquals(1, pool.getNumWorkers())
+        );
+    }
+    
+    @Test
+    public void workerIsRecycledAfterMaxJobs() {
+        pool = new WorkerPool(0, 1, 2, Duration.ofSeconds(30), Duration.ofSeconds(30), "");
+        IsolatedCheck check = new IsolatedCheck(pool, "pid", PidCheck.class.getName());
+        
+        CheckResult result1 = check.run(null, TESTDATA);
+        CheckResult result2 = check.run(null, TESTDATA);
+        CheckResult result3 = check.run(null, TESTDATA);
+        
+        assertAll(
+            () -> assertEquals(pidOf(result1), pidOf(result2)),
+            () -> assertNotEquals(pidOf(result2), pidOf(result3))
+        );
+    }
+    
+    @Test
+    public void timeoutKillsWorker() {
+        pool = new WorkerPool(0, 1, 100, Duration.ofSeconds(2), Duration.ofSeconds(30), "");
+        IsolatedCheck loop = new IsolatedCheck(pool, "loop", LoopCheck.class.getName());
+        IsolatedCheck check = new IsolatedCheck(pool, "pid", PidCheck.class.getName());
+        
+        CheckResult result = loop.run(null, TESTDATA);
+        CheckResult after = check.run(null, TESTDATA);
+        
+        assertAll(
+            () -> assertFalse(result.passed()),
+            () -> assertEquals(List.of(new ResultMessage("loop", MessageType.ERROR, "Check timed out after 2 seconds")),
+                    result.messages()),
+            () -> assertTrue(after.passed(), after.toString())
+        );
+    }
+    
+    @Test
+    public void crashingWorkerIsReplaced() {
+        pool = new WorkerPool(0, 1, 100, Duration.ofSeconds(30), Duration.ofSeconds(30), "");
+        IsolatedCheck exit = new IsolatedCheck(pool, "exit", ExitCheck.class.getName());
+        IsolatedCheck check = new IsolatedCheck(pool, "pid", PidCheck.class.getName());
+        
+        CheckResult result = exit.run(null, TESTDATA);
+        CheckResult after = check.run(null, TESTDATA);
+        
+        assertAll(
+            () -> assertFalse(result.passed()),
+            () -> assertEquals(List.of(new ResultMessage("exit", MessageType.ERROR,
+                    "Check worker terminated unexpectedly")), result.messages()),
+            () -> assertTrue(after.passed(), after.toString())
+        );
+    }
+    
+    @Test
+    public void factoryCheckCreatedFromProperties() {
+        pool = new WorkerPool(0, 1, 100, Duration.ofSeconds(30), Duration.ofSeconds(30), "");
+        IsolatedCheckFactory factory = new IsolatedCheckFactory(pool);
+        ICheck check = factory.create(new CheckConfiguration(IsolatedCheckFactory.CHECK_NAME, true, Map.of(
+                IsolatedCheckFactory.CHECK_CLASS_PROPERTY, PropertyCheckFactory.class.getName(),
+                "value", "configured")));
+        
+        CheckResult result = check.run(null, TESTDATA);
+        
+        assertAll(
+            () -> assertTrue(result.passed(), result.toString()),
+            () -> assertEquals(List.of(new ResultMessage("property", MessageType.WARNING, "configured")),
+                    result.messages())
+        );
+    }
+    
+    @Test
+    public void factoryRejectsInvalidConfiguration() {
+        pool = new WorkerPool(0, 1, 100, Duration.ofSeconds(30), Duration.ofSeconds(30), "");
+        IsolatedCheckFactory factory = new IsolatedCheckFactory(pool);
+        
+        assertAll(
+            () -> assertThrows(IllegalArgumentException.class, () -> factory.create(
+                    new CheckConfiguration(IsolatedCheckFactory.CHECK_NAME, true, Map.of()))),
+            () -> assertThrows(IllegalArgumentException.class, () -> factory.create(
+                    new CheckConfiguration(IsolatedCheckFactory.CHECK_NAME, true, Map.of(
+                            IsolatedCheckFactory.CHECK_CLASS_PROPERTY, "does.not.Exist"))))
+        );
+    }
+    
+    @Test
+    public void workerNotReadyWithinStartupTimeoutIsDestroyed() {
+        List<String> command = List.of(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"), HangingMain.class.getName());
+        
+        long start = System.nanoTime();
+        assertThrows(IOException.class, () -> new WorkerProcess(command, Duration.ofMillis(500)));
+        
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(10).toNanos());
+    }
+    
+    @Test
+    public void bootJarLaunchedThroughPropertiesLauncher() {
+        List<String> arguments = WorkerPool.launchArguments("jar:file:/opt/my%20app/service.jar!/BOOT-INF/classes!/",
+                "/opt/my app/service.jar", List.of("-Xmx64m"));
+        
+        assertEquals(List.of("-cp", Path.of("/opt/my app/service.jar").toString(), "-Xmx64m",
+                "-Dloader.main=" + WorkerMain.class.getName(), "org.springframework.boot.loader.PropertiesLauncher"),
+                arguments);
+    }
+    
+    @Test
+    public void classDirectoryLaunchedWithClasspath() {
+        List<String> arguments = WorkerPool.launchArguments("file:/project/target/classes/", "a.jar:b.jar",
+                List.of("-Xmx64m"));
+        
+        assertEquals(List.of("-cp", "a.jar:b.jar", "-Xmx64m", WorkerMain.class.getName()), arguments);
+    }
+    
+}